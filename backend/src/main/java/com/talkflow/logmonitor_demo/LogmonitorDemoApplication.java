@@ -6,6 +6,7 @@ import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
@@ -22,6 +23,7 @@ import com.talkflow.logmonitor_demo.service.ApplicationCpuHistoryService;
 import com.talkflow.logmonitor_demo.service.ApplicationHealthCheckService;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class LogmonitorDemoApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(LogmonitorDemoApplication.class);
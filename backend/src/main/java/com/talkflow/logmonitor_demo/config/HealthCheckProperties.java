@@ -0,0 +1,305 @@
+package com.talkflow.logmonitor_demo.config;
+
+import com.talkflow.logmonitor_demo.health.ProbeType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration for application health checks (logmonitor.health.*)
+ */
+@ConfigurationProperties(prefix = "logmonitor.health")
+public class HealthCheckProperties {
+
+    /** Deadline of a probe that does not set its own */
+    private Duration timeout = Duration.ofSeconds(2);
+
+    /** Threads completing probe I/O */
+    private int threads = 4;
+
+    /** How long a completed probe round of an application is reused; 0 only shares rounds in flight */
+    private Duration cacheTtl = Duration.ofSeconds(10);
+
+    /** Checks per application name */
+    private Map<String, List<Check>> applications = new HashMap<>();
+
+    /** Checks of known applications that have none configured; unknown applications get no checks */
+    private List<Check> defaultChecks = new ArrayList<>();
+
+    /** Continuous probing of the configured applications */
+    private Background background = new Background();
+
+    /**
+     * Background probing; intervals adapt between the minimum and maximum
+     */
+    public static class Background {
+
+        /** Whether the configured applications are probed continuously */
+        private boolean enabled = true;
+
+        /** Interval of failing targets */
+        private Duration minInterval = Duration.ofSeconds(5);
+
+        /** Interval of new and flapping targets */
+        private Duration baseInterval = Duration.ofSeconds(30);
+
+        /** Longest interval of stable healthy targets */
+        private Duration maxInterval = Duration.ofMinutes(5);
+
+        /** Interval growth per healthy probe */
+        private double backoffFactor = 2.0;
+
+        /** Consecutive timeouts that open the circuit of a target */
+        private int openAfterTimeouts = 3;
+
+        /** How long an open circuit pauses a target before a trial probe */
+        private Duration openDuration = Duration.ofMinutes(1);
+
+        /** Longest pause; it doubles after every failed trial probe */
+        private Duration maxOpenDuration = Duration.ofMinutes(10);
+
+        /** Recent results kept per target for flap detection */
+        private int historySize = 20;
+
+        /** State changes within the recent results that mark a target as flapping */
+        private int flapTransitions = 6;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getMinInterval() {
+            return minInterval;
+        }
+
+        public void setMinInterval(Duration minInterval) {
+            this.minInterval = minInterval;
+        }
+
+        public Duration getBaseInterval() {
+            return baseInterval;
+        }
+
+        public void setBaseInterval(Duration baseInterval) {
+            this.baseInterval = baseInterval;
+        }
+
+        public Duration getMaxInterval() {
+            return maxInterval;
+        }
+
+        public void setMaxInterval(Duration maxInterval) {
+            this.maxInterval = maxInterval;
+        }
+
+        public double getBackoffFactor() {
+            return backoffFactor;
+        }
+
+        public void setBackoffFactor(double backoffFactor) {
+            this.backoffFactor = backoffFactor;
+        }
+
+        public int getOpenAfterTimeouts() {
+            return openAfterTimeouts;
+        }
+
+        public void setOpenAfterTimeouts(int openAfterTimeouts) {
+            this.openAfterTimeouts = openAfterTimeouts;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public Duration getMaxOpenDuration() {
+            return maxOpenDuration;
+        }
+
+        public void setMaxOpenDuration(Duration maxOpenDuration) {
+            this.maxOpenDuration = maxOpenDuration;
+        }
+
+        public int getHistorySize() {
+            return historySize;
+        }
+
+        public void setHistorySize(int historySize) {
+            this.historySize = historySize;
+        }
+
+        public int getFlapTransitions() {
+            return flapTransitions;
+        }
+
+        public void setFlapTransitions(int flapTransitions) {
+            this.flapTransitions = flapTransitions;
+        }
+    }
+
+    /**
+     * A check, probed on every host at once
+     */
+    public static class Check {
+
+        /** Check name, defaults to the name of the probe type */
+        private String name;
+
+        /** Probe type */
+        private ProbeType type = ProbeType.HTTP;
+
+        /** Instance IPs or host names; not used by filesystem checks */
+        private List<String> hosts = new ArrayList<>();
+
+        /** TCP port */
+        private int port;
+
+        /** HTTP path, or the directory of a filesystem check */
+        private String path;
+
+        /** Text written after connecting, e.g. PING\r\n for a cache */
+        private String send;
+
+        /** Text the reply must contain, e.g. +PONG */
+        private String expect;
+
+        /** Minimum usable space of a filesystem check */
+        private DataSize minFreeSpace = DataSize.ofBytes(0);
+
+        /** Deadline of this check, defaults to the global timeout */
+        private Duration timeout;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public ProbeType getType() {
+            return type;
+        }
+
+        public void setType(ProbeType type) {
+            this.type = type;
+        }
+
+        public List<String> getHosts() {
+            return hosts;
+        }
+
+        public void setHosts(List<String> hosts) {
+            this.hosts = hosts;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getSend() {
+            return send;
+        }
+
+        public void setSend(String send) {
+            this.send = send;
+        }
+
+        public String getExpect() {
+            return expect;
+        }
+
+        public void setExpect(String expect) {
+            this.expect = expect;
+        }
+
+        public DataSize getMinFreeSpace() {
+            return minFreeSpace;
+        }
+
+        public void setMinFreeSpace(DataSize minFreeSpace) {
+            this.minFreeSpace = minFreeSpace;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl(Duration cacheTtl) {
+        this.cacheTtl = cacheTtl;
+    }
+
+    public Map<String, List<Check>> getApplications() {
+        return applications;
+    }
+
+    public void setApplications(Map<String, List<Check>> applications) {
+        this.applications = applications;
+    }
+
+    public Background getBackground() {
+        return background;
+    }
+
+    public void setBackground(Background background) {
+        this.background = background;
+    }
+
+    public List<Check> getDefaultChecks() {
+        return defaultChecks;
+    }
+
+    public void setDefaultChecks(List<Check> defaultChecks) {
+        this.defaultChecks = defaultChecks;
+    }
+}
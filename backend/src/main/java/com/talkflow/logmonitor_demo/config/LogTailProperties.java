@@ -0,0 +1,185 @@
+package com.talkflow.logmonitor_demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration for the log file tailer (logmonitor.tail.*)
+ */
+@ConfigurationProperties(prefix = "logmonitor.tail")
+public class LogTailProperties {
+
+    /** Whether log files are tailed at all */
+    private boolean enabled = false;
+
+    /** Log files to follow */
+    private List<String> files = new ArrayList<>();
+
+    /** Delay between two polls of all files */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /** File that stores read offsets across restarts */
+    private String offsetFile = "logs/tail-offsets.properties";
+
+    /** Start at the end of files that have no stored offset instead of at the beginning */
+    private boolean startAtEnd = true;
+
+    /** Read buffer size in bytes */
+    private int readBufferSize = 64 * 1024;
+
+    /** Maximum bytes read per file and poll, so one busy file cannot starve the others */
+    private long maxBytesPerPoll = 16L * 1024 * 1024;
+
+    /** Application name used when a rule does not capture one */
+    private String defaultApplication = "logmonitor";
+
+    /** Line rules; the first matching rule turns a line into an alert */
+    private List<Rule> rules = new ArrayList<>();
+
+    /**
+     * A line rule
+     */
+    public static class Rule {
+
+        /** Rule name, used in logs and alert ids */
+        private String name;
+
+        /** Literal that must appear in the line before the pattern is tried, optional */
+        private String contains;
+
+        /** Regular expression; named groups timestamp, application and message are used when present */
+        private String pattern;
+
+        /** Severity of the produced alert (CRITICAL, HIGH, MEDIUM, LOW) */
+        private String severity = "HIGH";
+
+        /** Alert type of the produced alert */
+        private String alertType = "日志异常";
+
+        /** Title of the produced alert */
+        private String title = "日志异常告警";
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getContains() {
+            return contains;
+        }
+
+        public void setContains(String contains) {
+            this.contains = contains;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getSeverity() {
+            return severity;
+        }
+
+        public void setSeverity(String severity) {
+            this.severity = severity;
+        }
+
+        public String getAlertType() {
+            return alertType;
+        }
+
+        public void setAlertType(String alertType) {
+            this.alertType = alertType;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getFiles() {
+        return files;
+    }
+
+    public void setFiles(List<String> files) {
+        this.files = files;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public String getOffsetFile() {
+        return offsetFile;
+    }
+
+    public void setOffsetFile(String offsetFile) {
+        this.offsetFile = offsetFile;
+    }
+
+    public boolean isStartAtEnd() {
+        return startAtEnd;
+    }
+
+    public void setStartAtEnd(boolean startAtEnd) {
+        this.startAtEnd = startAtEnd;
+    }
+
+    public int getReadBufferSize() {
+        return readBufferSize;
+    }
+
+    public void setReadBufferSize(int readBufferSize) {
+        this.readBufferSize = readBufferSize;
+    }
+
+    public long getMaxBytesPerPoll() {
+        return maxBytesPerPoll;
+    }
+
+    public void setMaxBytesPerPoll(long maxBytesPerPoll) {
+        this.maxBytesPerPoll = maxBytesPerPoll;
+    }
+
+    public String getDefaultApplication() {
+        return defaultApplication;
+    }
+
+    public void setDefaultApplication(String defaultApplication) {
+        this.defaultApplication = defaultApplication;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+}
@@ -1,9 +1,26 @@
 package com.talkflow.logmonitor_demo.controller;
 
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.service.AlertIngestService;
+import com.talkflow.logmonitor_demo.service.AlertJournalService;
 import com.talkflow.logmonitor_demo.service.AlertMonitorService;
+import com.talkflow.logmonitor_demo.service.AlertRecommendationService;
+import com.talkflow.logmonitor_demo.service.ApplicationHealthCheckService;
+import com.talkflow.logmonitor_demo.service.CpuAnomalyService;
+import com.talkflow.logmonitor_demo.service.HostMetricsService;
+import com.talkflow.logmonitor_demo.service.LogTailService;
+import com.talkflow.logmonitor_demo.service.MetricHistoryService;
+import com.talkflow.logmonitor_demo.store.AlertChangeEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -16,9 +33,35 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class AlertController {
 
+    private static final Duration SSE_KEEPALIVE_INTERVAL = Duration.ofSeconds(15);
+
     @Autowired
     private AlertMonitorService alertMonitorService;
 
+    @Autowired
+    private AlertIngestService alertIngestService;
+
+    @Autowired
+    private LogTailService logTailService;
+
+    @Autowired
+    private AlertJournalService alertJournalService;
+
+    @Autowired
+    private MetricHistoryService metricHistoryService;
+
+    @Autowired
+    private HostMetricsService hostMetricsService;
+
+    @Autowired
+    private CpuAnomalyService cpuAnomalyService;
+
+    @Autowired
+    private ApplicationHealthCheckService applicationHealthCheckService;
+
+    @Autowired
+    private AlertRecommendationService alertRecommendationService;
+
     /**
      * Get current selected alert type
      * @return Current alert type
@@ -66,20 +109,170 @@ public class AlertController {
         }
     }
 
-
+    /**
+     * Get background refresh metrics
+     * @return Refresh durations, counters and snapshot age
+     */
+    @GetMapping("/refresh/stats")
+    public ResponseEntity<Map<String, Object>> getRefreshStats() {
+        return ResponseEntity.ok(alertMonitorService.getRefreshStats());
+    }
 
     /**
      * Get detailed alert info as JSON for a specific severity
      * @param severity Alert severity level
+     * @param application Application to query, omit for all applications
+     * @param limit Maximum number of alerts to return
+     * @param cursor Cursor returned by the previous page
+     * @param since Only alerts at or after this time (15m, 2h, yyyy-MM-dd HH:mm:ss or epoch milliseconds)
+     * @param until Only alerts before this time, same formats as since
      * @return Detailed alert information as JSON
      */
     @GetMapping("/detailed/json")
-    public ResponseEntity<Object> getDetailedAlertInfoAsJson(@RequestParam String severity) {
+    public ResponseEntity<Object> getDetailedAlertInfoAsJson(@RequestParam String severity,
+                                                             @RequestParam(required = false) String application,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) String since,
+                                                             @RequestParam(required = false) String until) {
         try {
-            Object result = alertMonitorService.getDetailedAlertInfoAsJson(severity);
+            Object result = alertMonitorService.getDetailedAlertInfoAsJson(application, severity, limit, cursor, since, until);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", "Failed to get detailed alert info: " + e.getMessage()));
         }
     }
+
+    /**
+     * Stream alerts one element at a time as NDJSON or server-sent events.
+     * Alerts are emitted directly from the current snapshot, so nothing is buffered per request.
+     * @param severity Alert severity level, omit to stream all alerts
+     * @param application Application to stream, omit for all applications
+     * @return Alert stream
+     */
+    @GetMapping(value = "/detailed/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Alert> streamDetailedAlertInfo(@RequestParam(required = false) String severity,
+                                               @RequestParam(required = false) String application) {
+        return Mono.fromCallable(() -> alertMonitorService.selectAlerts(application, severity))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMapIterable(alerts -> alerts);
+    }
+
+    /**
+     * Push alert changes as server-sent events: a resync event with the full alert list when
+     * the client has no usable version, then one delta event per change (added, updated,
+     * resolved and removed alerts).
+     * @param since Last snapshot version the client has applied; the Last-Event-ID header is used on reconnect
+     * @param severity Alert severity level to filter by, omit for all
+     * @return Endless event stream with periodic keepalive comments
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AlertChangeEvent>> streamAlertChanges(
+            @RequestParam(required = false, defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(required = false) String severity) {
+        long sinceVersion = lastEventId != null ? lastEventId : since;
+        Flux<ServerSentEvent<AlertChangeEvent>> changes = alertMonitorService.streamChanges(sinceVersion, severity)
+            .map(event -> ServerSentEvent.<AlertChangeEvent>builder(event)
+                .id(Long.toString(event.version()))
+                .event(event.type())
+                .build());
+        Flux<ServerSentEvent<AlertChangeEvent>> keepalive = Flux.interval(SSE_KEEPALIVE_INTERVAL)
+            .map(tick -> ServerSentEvent.<AlertChangeEvent>builder().comment("keepalive").build());
+        return Flux.merge(changes, keepalive);
+    }
+
+    /**
+     * Ingest a batch of alerts as a JSON array
+     * @param alerts Alerts to ingest
+     * @return 202 with ingest counts, 429 if the ingest buffer has no room for the whole batch
+     *         (nothing was accepted), or 413 if the batch is larger than the buffer
+     */
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> ingestAlerts(@RequestBody List<Alert> alerts) {
+        if (alerts.size() > alertIngestService.getBufferCapacity()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of(
+                "error", "Batch larger than ingest buffer capacity " + alertIngestService.getBufferCapacity()));
+        }
+        return toIngestResponse(alertIngestService.ingest(alerts));
+    }
+
+    /**
+     * Ingest a stream of alerts as NDJSON, one alert per line
+     * @param alerts Alert stream
+     * @return 202 with ingest counts, or 429 if the ingest buffer stayed full; the accepted count
+     *         is the number of leading alerts of the stream that were taken
+     */
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> ingestAlertStream(@RequestBody Flux<Alert> alerts) {
+        return alertIngestService.ingestStream(alerts).map(this::toIngestResponse);
+    }
+
+    /**
+     * Get ingest buffer metrics
+     * @return Buffer usage and ingest counters
+     */
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<Map<String, Object>> getIngestStats() {
+        return ResponseEntity.ok(alertIngestService.getIngestStats());
+    }
+
+    /**
+     * Get log tailer metrics
+     * @return Per-file positions and counters
+     */
+    @GetMapping("/tail/stats")
+    public ResponseEntity<Map<String, Object>> getTailStats() {
+        return ResponseEntity.ok(logTailService.getTailStats());
+    }
+
+    /**
+     * Get alert journal metrics
+     * @return Journal size, recovery time and counters
+     */
+    @GetMapping("/journal/stats")
+    public ResponseEntity<Map<String, Object>> getJournalStats() {
+        return ResponseEntity.ok(alertJournalService.getJournalStats());
+    }
+
+    /**
+     * Get metric history, host sampler and anomaly detector metrics
+     * @return Store size and memory, latest host readings, sampler and detector counters
+     */
+    @GetMapping("/metrics/stats")
+    public ResponseEntity<Map<String, Object>> getMetricStats() {
+        return ResponseEntity.ok(Map.of(
+            "history", metricHistoryService.getMetricStats(),
+            "sampler", hostMetricsService.getSamplerStats(),
+            "anomaly", cpuAnomalyService.getAnomalyStats()));
+    }
+
+    /**
+     * Get health check cache metrics
+     * @return Cached applications and how many checks were probed, joined or served from cache
+     */
+    @GetMapping("/health/stats")
+    public ResponseEntity<Map<String, Object>> getHealthStats() {
+        return ResponseEntity.ok(applicationHealthCheckService.getHealthStats());
+    }
+
+    /**
+     * Get recommendation rule catalog metrics
+     * @return Current catalog version and how many reloads were applied or rejected
+     */
+    @GetMapping("/rules/stats")
+    public ResponseEntity<Map<String, Object>> getRuleStats() {
+        return ResponseEntity.ok(alertRecommendationService.getRuleStats());
+    }
+
+    private ResponseEntity<Map<String, Object>> toIngestResponse(AlertIngestService.IngestResult result) {
+        Map<String, Object> body = Map.of(
+            "accepted", result.accepted(),
+            "invalid", result.invalid(),
+            "dropped", result.dropped());
+        if (result.bufferFull()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "1").body(body);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+    }
 }
@@ -0,0 +1,146 @@
+package com.talkflow.logmonitor_demo.health;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Per-application cache of probe rounds. Callers asking while a round is in flight share it,
+ * and a completed round is reused until it is older than the TTL, so the probe load on an
+ * application stays at one round per TTL however many callers ask.
+ */
+public final class HealthCache {
+
+    private static final int PRUNE_THRESHOLD = 1024;
+
+    private final Map<String, CompletableFuture<Round>> rounds = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    // Cache metrics
+    private final AtomicLong probedCount = new AtomicLong();
+    private final AtomicLong joinedCount = new AtomicLong();
+    private final AtomicLong cachedCount = new AtomicLong();
+
+    /**
+     * Results of one probe round
+     * @param results Probe results in target order
+     * @param completedAtMillis Wall-clock time the round completed
+     * @param completedNanos Clock reading when the round completed, for computing its age
+     * @param elapsedMillis Duration of the round
+     */
+    public record Round(List<ProbeResult> results, long completedAtMillis, long completedNanos, long elapsedMillis) {
+    }
+
+    /**
+     * How a lookup was served
+     */
+    public enum Source {
+        /** This caller started a new round */
+        PROBED,
+        /** This caller joined a round already in flight */
+        JOINED,
+        /** A completed round younger than the TTL was reused */
+        CACHED
+    }
+
+    /**
+     * @param round Round serving the caller
+     * @param source How it was served
+     */
+    public record Lookup(CompletableFuture<Round> round, Source source) {
+    }
+
+    /**
+     * @param ttlMillis How long a completed round is reused; 0 only shares rounds in flight
+     */
+    public HealthCache(long ttlMillis) {
+        this(ttlMillis, System::nanoTime);
+    }
+
+    HealthCache(long ttlMillis, LongSupplier nanoClock) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMillis));
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Get the round of an application, starting one only if none is in flight or fresh
+     * @param probe Starts a probe round; called at most once per lookup
+     */
+    public Lookup get(String application, Supplier<CompletableFuture<List<ProbeResult>>> probe) {
+        Source[] source = new Source[1];
+        CompletableFuture<Round> round = rounds.compute(application, (key, current) -> {
+            if (current != null && !current.isDone()) {
+                source[0] = Source.JOINED;
+                return current;
+            }
+            if (current != null && !current.isCompletedExceptionally() && isFresh(current.join())) {
+                source[0] = Source.CACHED;
+                return current;
+            }
+            source[0] = Source.PROBED;
+            return start(probe);
+        });
+        switch (source[0]) {
+            case PROBED -> probedCount.incrementAndGet();
+            case JOINED -> joinedCount.incrementAndGet();
+            default -> cachedCount.incrementAndGet();
+        }
+        if (source[0] == Source.PROBED && rounds.size() > PRUNE_THRESHOLD) {
+            prune();
+        }
+        return new Lookup(round, source[0]);
+    }
+
+    /**
+     * Age of a completed round
+     */
+    public long ageMillis(Round round) {
+        return TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - round.completedNanos());
+    }
+
+    public long ttlMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(ttlNanos);
+    }
+
+    public int size() {
+        return rounds.size();
+    }
+
+    public long probedCount() {
+        return probedCount.get();
+    }
+
+    public long joinedCount() {
+        return joinedCount.get();
+    }
+
+    public long cachedCount() {
+        return cachedCount.get();
+    }
+
+    private CompletableFuture<Round> start(Supplier<CompletableFuture<List<ProbeResult>>> probe) {
+        long startNanos = nanoClock.getAsLong();
+        return probe.get().thenApply(results -> {
+            long now = nanoClock.getAsLong();
+            return new Round(results, System.currentTimeMillis(), now, TimeUnit.NANOSECONDS.toMillis(now - startNanos));
+        });
+    }
+
+    private boolean isFresh(Round round) {
+        return nanoClock.getAsLong() - round.completedNanos() < ttlNanos;
+    }
+
+    /**
+     * Remove expired rounds of applications nobody asks about any more
+     */
+    private void prune() {
+        rounds.entrySet().removeIf(entry -> entry.getValue().isDone()
+            && (entry.getValue().isCompletedExceptionally() || !isFresh(entry.getValue().join())));
+    }
+}
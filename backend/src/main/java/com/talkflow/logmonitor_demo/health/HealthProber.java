@@ -0,0 +1,276 @@
+package com.talkflow.logmonitor_demo.health;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs health probes concurrently without blocking a thread per probe. HTTP probes use the JDK
+ * HTTP client, TCP probes an asynchronous socket channel; both complete on a small shared pool.
+ * Every probe has its own deadline, so checking many targets takes as long as the slowest one.
+ */
+public final class HealthProber implements Closeable {
+
+    private static final int REPLY_BYTES = 512;
+
+    private final ExecutorService executor;
+    private final AsynchronousChannelGroup group;
+    private final HttpClient httpClient;
+
+    /**
+     * @param threads Threads completing probe I/O; probes never block them, so a few are enough
+     */
+    public HealthProber(int threads) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "health-probe-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            this.group = AsynchronousChannelGroup.withThreadPool(executor);
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new IllegalStateException("Cannot create probe channel group", e);
+        }
+        this.httpClient = HttpClient.newBuilder()
+            .executor(executor)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+
+    /**
+     * Probe all targets at once
+     * @return Results in target order, completing when the last probe finishes or times out
+     */
+    public CompletableFuture<List<ProbeResult>> probeAll(List<ProbeTarget> targets) {
+        List<CompletableFuture<ProbeResult>> probes = new ArrayList<>(targets.size());
+        for (ProbeTarget target : targets) {
+            probes.add(probe(target));
+        }
+        return CompletableFuture.allOf(probes.toArray(CompletableFuture<?>[]::new))
+            .thenApply(done -> probes.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Probe one target; the future never fails, a failed probe is an unhealthy result
+     */
+    public CompletableFuture<ProbeResult> probe(ProbeTarget target) {
+        long start = System.nanoTime();
+        CompletableFuture<String> outcome;
+        try {
+            outcome = switch (target.type()) {
+                case HTTP -> probeHttp(target);
+                case FILESYSTEM -> CompletableFuture.supplyAsync(() -> probeFilesystem(target), executor);
+                default -> new TcpExchange(target).start();
+            };
+        } catch (RuntimeException e) {
+            outcome = CompletableFuture.failedFuture(e);
+        }
+        return outcome
+            .orTimeout(target.timeout().toMillis(), TimeUnit.MILLISECONDS)
+            .handle((detail, error) -> {
+                long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                if (error == null) {
+                    return new ProbeResult(target, true, false, latency, detail);
+                }
+                Throwable cause = unwrap(error);
+                boolean timedOut = cause instanceof TimeoutException || cause instanceof HttpTimeoutException;
+                return new ProbeResult(target, false, timedOut, latency, timedOut
+                    ? "超时 (>" + target.timeout().toMillis() + "ms)"
+                    : describe(cause));
+            });
+    }
+
+    /**
+     * Stop the probe threads; pending probes fail
+     */
+    @Override
+    public void close() {
+        try {
+            group.shutdownNow();
+        } catch (IOException ignored) {
+            // Channels are closed regardless
+        }
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<String> probeHttp(ProbeTarget target) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target.url()))
+            .timeout(target.timeout())
+            .GET()
+            .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .thenApply(response -> {
+                if (response.statusCode() >= 400) {
+                    throw new CompletionException(new IOException("HTTP " + response.statusCode()));
+                }
+                return "HTTP " + response.statusCode();
+            });
+    }
+
+    private static String probeFilesystem(ProbeTarget target) {
+        Path directory = Path.of(target.path());
+        try {
+            if (!Files.isDirectory(directory)) {
+                throw new IOException("目录不存在: " + directory);
+            }
+            // A permission check is not enough on a read-only or full volume, so write for real
+            Path probe = Files.createTempFile(directory, ".health-", ".probe");
+            Files.delete(probe);
+            long usable = Files.getFileStore(directory).getUsableSpace();
+            if (usable < target.minFreeBytes()) {
+                throw new IOException(String.format("可用空间不足: %s", formatBytes(usable)));
+            }
+            return String.format("可写，可用空间 %s", formatBytes(usable));
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes >= 1L << 30) {
+            return String.format("%.1f GB", bytes / (double) (1L << 30));
+        }
+        return String.format("%.1f MB", bytes / (double) (1L << 20));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static String describe(Throwable cause) {
+        if (cause instanceof ConnectException) {
+            return "连接被拒绝";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Connect, optionally write a command and read until the expected reply shows up
+     */
+    private final class TcpExchange {
+
+        private final ProbeTarget target;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private AsynchronousSocketChannel channel;
+        private ByteBuffer out;
+        private ByteBuffer in;
+
+        TcpExchange(ProbeTarget target) {
+            this.target = target;
+        }
+
+        CompletableFuture<String> start() {
+            // Closing the channel on any outcome, including the deadline, aborts pending I/O
+            result.whenComplete((detail, error) -> closeQuietly());
+            try {
+                channel = AsynchronousSocketChannel.open(group);
+                channel.connect(new InetSocketAddress(target.host(), target.port()), null, connected);
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
+        private final CompletionHandler<Void, Void> connected = new CompletionHandler<>() {
+            @Override
+            public void completed(Void ignored, Void attachment) {
+                if (target.send() == null || target.send().isEmpty()) {
+                    awaitReply();
+                    return;
+                }
+                out = ByteBuffer.wrap(target.send().getBytes(StandardCharsets.UTF_8));
+                channel.write(out, null, written);
+            }
+
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                result.completeExceptionally(error);
+            }
+        };
+
+        private final CompletionHandler<Integer, Void> written = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer bytes, Void attachment) {
+                if (out.hasRemaining()) {
+                    channel.write(out, null, this);
+                } else {
+                    awaitReply();
+                }
+            }
+
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                result.completeExceptionally(error);
+            }
+        };
+
+        private final CompletionHandler<Integer, Void> read = new CompletionHandler<>() {
+            @Override
+            public void completed(Integer bytes, Void attachment) {
+                String reply = new String(in.array(), 0, in.position(), StandardCharsets.UTF_8);
+                if (reply.contains(target.expect())) {
+                    result.complete("响应正常");
+                } else if (bytes < 0 || !in.hasRemaining()) {
+                    String shown = reply.strip();
+                    result.completeExceptionally(new IOException(shown.isEmpty()
+                        ? "连接已关闭，无响应"
+                        : "响应不符合预期: " + shown.substring(0, Math.min(shown.length(), 64))));
+                } else {
+                    channel.read(in, null, this);
+                }
+            }
+
+            @Override
+            public void failed(Throwable error, Void attachment) {
+                result.completeExceptionally(error);
+            }
+        };
+
+        private void awaitReply() {
+            if (target.expect() == null || target.expect().isEmpty()) {
+                result.complete("端口可连接");
+                return;
+            }
+            in = ByteBuffer.allocate(REPLY_BYTES);
+            channel.read(in, null, read);
+        }
+
+        private void closeQuietly() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Nothing left to release
+                }
+            }
+        }
+    }
+}
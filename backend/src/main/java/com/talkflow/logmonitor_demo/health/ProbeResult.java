@@ -0,0 +1,12 @@
+package com.talkflow.logmonitor_demo.health;
+
+/**
+ * Outcome of one probe
+ * @param target Probed endpoint
+ * @param healthy Whether the probe succeeded within its deadline
+ * @param timedOut Whether the probe failed because its deadline passed
+ * @param latencyMillis Time from starting the probe to its outcome
+ * @param detail Status line, e.g. the HTTP status, or why the probe failed
+ */
+public record ProbeResult(ProbeTarget target, boolean healthy, boolean timedOut, long latencyMillis, String detail) {
+}
@@ -0,0 +1,193 @@
+package com.talkflow.logmonitor_demo.health;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Continuous background probing of registered targets. Every target is one timeout on a hashed
+ * timer wheel, whose single thread only starts asynchronous probes, so thousands of targets need
+ * no more than the wheel thread and the prober's pool. Intervals back off for stable healthy
+ * targets and tighten for failing ones; repeated timeouts open a circuit that pauses the target,
+ * also for on-demand checks, so hung endpoints do not collect connections.
+ */
+public final class ProbeScheduler implements Closeable {
+
+    private static final long TICK_MILLIS = 100;
+    private static final int WHEEL_SIZE = 512;
+
+    private final HealthProber prober;
+    private final ScheduleSettings settings;
+    private final Timer timer;
+    private final Map<String, List<TargetState>> applications = new ConcurrentHashMap<>();
+    private final Map<ProbeTarget, TargetState> states = new ConcurrentHashMap<>();
+
+    // Scheduler metrics
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong probeCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    public ProbeScheduler(HealthProber prober, ScheduleSettings settings) {
+        this.prober = prober;
+        this.settings = settings;
+        AtomicInteger sequence = new AtomicInteger();
+        this.timer = new HashedWheelTimer(runnable -> {
+            Thread thread = new Thread(runnable, "health-scheduler-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, TICK_MILLIS, TimeUnit.MILLISECONDS, WHEEL_SIZE);
+    }
+
+    /**
+     * Start probing the targets of an application, replacing its previous targets
+     */
+    public void register(String application, List<ProbeTarget> targets) {
+        unregister(application);
+        List<TargetState> created = new ArrayList<>(targets.size());
+        for (ProbeTarget target : targets) {
+            TargetState state = new TargetState(application, target, settings);
+            created.add(state);
+            states.put(target, state);
+            // Spread first probes over one interval instead of firing them all at once
+            schedule(state, ThreadLocalRandom.current().nextLong(Math.max(1, settings.baseIntervalMillis())));
+        }
+        applications.put(application, created);
+    }
+
+    /**
+     * Stop probing the targets of an application
+     */
+    public void unregister(String application) {
+        List<TargetState> removed = applications.remove(application);
+        if (removed == null) {
+            return;
+        }
+        for (TargetState state : removed) {
+            state.removed = true;
+            states.remove(state.target, state);
+        }
+    }
+
+    /**
+     * Probe the targets at once for an on-demand check; targets with an open circuit are not
+     * probed and reported as failed, results of registered targets feed their state
+     * @return Results in target order
+     */
+    public CompletableFuture<List<ProbeResult>> probeAll(List<ProbeTarget> targets) {
+        List<CompletableFuture<ProbeResult>> probes = new ArrayList<>(targets.size());
+        long now = System.currentTimeMillis();
+        for (ProbeTarget target : targets) {
+            TargetState state = states.get(target);
+            if (state == null) {
+                probes.add(prober.probe(target));
+            } else if (!state.allowProbe(now)) {
+                skippedCount.incrementAndGet();
+                probes.add(CompletableFuture.completedFuture(new ProbeResult(target, false, false, 0,
+                    "熔断中，" + state.openRemainingMillis(now) / 1000 + " 秒后重试")));
+            } else {
+                probes.add(prober.probe(target).thenApply(result -> {
+                    state.record(result, System.currentTimeMillis());
+                    return result;
+                }));
+            }
+        }
+        return CompletableFuture.allOf(probes.toArray(CompletableFuture<?>[]::new))
+            .thenApply(done -> probes.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Background probing state of the registered targets of an application
+     * @return Statuses in registration order, empty if the application is not registered
+     */
+    public List<TargetStatus> status(String application) {
+        List<TargetState> registered = applications.getOrDefault(application, List.of());
+        List<TargetStatus> statuses = new ArrayList<>(registered.size());
+        for (TargetState state : registered) {
+            statuses.add(state.status());
+        }
+        return statuses;
+    }
+
+    /**
+     * Get scheduler metrics
+     */
+    public Map<String, Object> stats() {
+        int open = 0;
+        int flapping = 0;
+        for (TargetState state : states.values()) {
+            open += state.isOpen() ? 1 : 0;
+            flapping += state.isFlapping() ? 1 : 0;
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("applications", applications.size());
+        stats.put("targets", states.size());
+        stats.put("openCircuits", open);
+        stats.put("flappingTargets", flapping);
+        stats.put("inFlight", inFlight.get());
+        stats.put("probeCount", probeCount.get());
+        stats.put("skippedCount", skippedCount.get());
+        return stats;
+    }
+
+    /**
+     * Stop the timer; probes in flight complete but are not rescheduled
+     */
+    @Override
+    public void close() {
+        timer.stop();
+    }
+
+    private void schedule(TargetState state, long delayMillis) {
+        if (state.removed) {
+            return;
+        }
+        try {
+            timer.newTimeout(timeout -> run(state), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (IllegalStateException e) {
+            // Timer stopped
+        }
+    }
+
+    /**
+     * Runs on the wheel thread, so it only starts the probe and never waits for it
+     */
+    private void run(TargetState state) {
+        if (state.removed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!state.allowProbe(now)) {
+            skippedCount.incrementAndGet();
+            schedule(state, Math.max(TICK_MILLIS, state.openRemainingMillis(now)));
+            return;
+        }
+        inFlight.incrementAndGet();
+        probeCount.incrementAndGet();
+        prober.probe(state.target).whenComplete((result, error) -> {
+            inFlight.decrementAndGet();
+            long delay = result != null
+                ? state.record(result, System.currentTimeMillis())
+                : settings.baseIntervalMillis();
+            schedule(state, jitter(delay));
+        });
+    }
+
+    /**
+     * Spread probes by up to 10% so targets registered together do not stay in lockstep
+     */
+    private static long jitter(long delayMillis) {
+        long spread = delayMillis / 10;
+        return spread > 0 ? delayMillis - spread + ThreadLocalRandom.current().nextLong(2 * spread + 1) : delayMillis;
+    }
+}
@@ -0,0 +1,34 @@
+package com.talkflow.logmonitor_demo.health;
+
+import java.time.Duration;
+
+/**
+ * One endpoint of a health check
+ * @param name Check name shown in reports
+ * @param type Probe type
+ * @param host Instance IP or host name; ignored by filesystem probes
+ * @param port TCP port; ignored by filesystem probes
+ * @param path HTTP path, or the directory of a filesystem probe
+ * @param send Text written after connecting, TCP probes only, null to send nothing
+ * @param expect Text the first reply bytes must contain, TCP probes only, null to only connect
+ * @param minFreeBytes Minimum usable space, filesystem probes only
+ * @param timeout Deadline of the probe, including connecting
+ */
+public record ProbeTarget(String name, ProbeType type, String host, int port, String path,
+                          String send, String expect, long minFreeBytes, Duration timeout) {
+
+    /**
+     * Address shown in reports
+     */
+    public String address() {
+        return type == ProbeType.FILESYSTEM ? path : host + ":" + port;
+    }
+
+    /**
+     * URL of an HTTP probe
+     */
+    public String url() {
+        String authority = host.indexOf(':') >= 0 ? "[" + host + "]" : host;
+        return "http://" + authority + ":" + port + (path == null || path.isEmpty() ? "/" : path);
+    }
+}
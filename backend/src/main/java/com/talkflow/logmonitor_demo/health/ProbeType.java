@@ -0,0 +1,27 @@
+package com.talkflow.logmonitor_demo.health;
+
+/**
+ * Kinds of health probes, with the check name shown in reports
+ */
+public enum ProbeType {
+    /** HTTP GET, healthy on a 2xx or 3xx status */
+    HTTP("HTTP端点检查"),
+    /** TCP connect to the database port */
+    DATABASE("数据库连接检查"),
+    /** TCP connect to the cache, optionally sending a command and checking the reply */
+    CACHE("缓存服务检查"),
+    /** TCP connect to the message broker */
+    MESSAGE_QUEUE("消息队列检查"),
+    /** Local directory exists, accepts a write and has enough free space */
+    FILESYSTEM("文件系统检查");
+
+    private final String label;
+
+    ProbeType(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
@@ -0,0 +1,18 @@
+package com.talkflow.logmonitor_demo.health;
+
+/**
+ * Tuning of background probing
+ * @param minIntervalMillis Interval of failing targets
+ * @param baseIntervalMillis Interval of new and flapping targets
+ * @param maxIntervalMillis Longest interval a stable healthy target backs off to
+ * @param backoffFactor Interval growth per healthy probe
+ * @param openAfterTimeouts Consecutive timeouts that open the circuit of a target
+ * @param openMillis How long a circuit stays open before a trial probe
+ * @param maxOpenMillis Longest open period; it doubles after every failed trial probe
+ * @param historySize Recent results kept per target for flap detection
+ * @param flapTransitions Healthy/unhealthy transitions within the history that mark a target as flapping
+ */
+public record ScheduleSettings(long minIntervalMillis, long baseIntervalMillis, long maxIntervalMillis,
+                               double backoffFactor, int openAfterTimeouts, long openMillis, long maxOpenMillis,
+                               int historySize, int flapTransitions) {
+}
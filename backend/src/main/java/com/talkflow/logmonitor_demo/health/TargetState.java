@@ -0,0 +1,170 @@
+package com.talkflow.logmonitor_demo.health;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background probing state of one target: adaptive interval, circuit breaker and a ring
+ * buffer of recent results for flap detection
+ */
+final class TargetState {
+
+    private static final Logger logger = LoggerFactory.getLogger(TargetState.class);
+
+    enum Circuit { CLOSED, OPEN, HALF_OPEN }
+
+    final String application;
+    final ProbeTarget target;
+    private final ScheduleSettings settings;
+    volatile boolean removed;
+
+    // Ring buffer of recent results, oldest first from head
+    private final boolean[] history;
+    private int head;
+    private int size;
+
+    private long intervalMillis;
+    private int consecutiveTimeouts;
+    private Circuit circuit = Circuit.CLOSED;
+    private long openMillis;
+    private long openUntilMillis;
+    private boolean trialInFlight;
+    private boolean flapping;
+    private ProbeResult lastResult;
+
+    TargetState(String application, ProbeTarget target, ScheduleSettings settings) {
+        this.application = application;
+        this.target = target;
+        this.settings = settings;
+        this.history = new boolean[Math.max(2, settings.historySize())];
+        this.intervalMillis = settings.baseIntervalMillis();
+        this.openMillis = settings.openMillis();
+    }
+
+    /**
+     * Whether a probe may run now; an expired open circuit lets exactly one trial probe through
+     */
+    synchronized boolean allowProbe(long nowMillis) {
+        switch (circuit) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowMillis < openUntilMillis) {
+                    return false;
+                }
+                circuit = Circuit.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Time until an open circuit allows a trial probe
+     */
+    synchronized long openRemainingMillis(long nowMillis) {
+        return Math.max(0, openUntilMillis - nowMillis);
+    }
+
+    /**
+     * Record a probe result and adapt the interval and circuit
+     * @return Delay until the next background probe
+     */
+    synchronized long record(ProbeResult result, long nowMillis) {
+        lastResult = result;
+        push(result.healthy());
+        updateFlapping();
+        if (circuit == Circuit.HALF_OPEN) {
+            trialInFlight = false;
+        }
+
+        if (result.healthy()) {
+            consecutiveTimeouts = 0;
+            if (circuit != Circuit.CLOSED) {
+                logger.info("🔌 Circuit closed for {} {} {}", application, target.name(), target.address());
+                circuit = Circuit.CLOSED;
+                openMillis = settings.openMillis();
+            }
+            // Stable targets back off; a flapping one stays at the base interval
+            intervalMillis = flapping
+                ? settings.baseIntervalMillis()
+                : Math.min(settings.maxIntervalMillis(), Math.max(settings.minIntervalMillis(),
+                    (long) (intervalMillis * settings.backoffFactor())));
+            return intervalMillis;
+        }
+
+        intervalMillis = settings.minIntervalMillis();
+        consecutiveTimeouts = result.timedOut() ? consecutiveTimeouts + 1 : 0;
+        if (circuit == Circuit.HALF_OPEN && result.timedOut()) {
+            openMillis = Math.min(settings.maxOpenMillis(), openMillis * 2);
+            return open(nowMillis);
+        }
+        if (circuit == Circuit.HALF_OPEN) {
+            // Answered quickly, even if unhealthy, so probing it does not hang connections
+            circuit = Circuit.CLOSED;
+            openMillis = settings.openMillis();
+        }
+        if (circuit == Circuit.CLOSED && consecutiveTimeouts >= settings.openAfterTimeouts()) {
+            return open(nowMillis);
+        }
+        return intervalMillis;
+    }
+
+    synchronized TargetStatus status() {
+        int failures = 0;
+        for (int i = 0; i < size; i++) {
+            if (!history[(head + i) % history.length]) {
+                failures++;
+            }
+        }
+        return new TargetStatus(target, circuit.name(), circuit == Circuit.CLOSED ? intervalMillis : openMillis,
+            size, failures, flapping, lastResult);
+    }
+
+    synchronized boolean isOpen() {
+        return circuit != Circuit.CLOSED;
+    }
+
+    synchronized boolean isFlapping() {
+        return flapping;
+    }
+
+    private long open(long nowMillis) {
+        if (circuit == Circuit.CLOSED) {
+            logger.warn("🔌 Circuit opened for {} {} {} after {} timeouts, pausing probes for {} ms",
+                       application, target.name(), target.address(), consecutiveTimeouts, openMillis);
+        }
+        circuit = Circuit.OPEN;
+        openUntilMillis = nowMillis + openMillis;
+        return openMillis;
+    }
+
+    private void push(boolean healthy) {
+        if (size < history.length) {
+            history[(head + size++) % history.length] = healthy;
+        } else {
+            history[head] = healthy;
+            head = (head + 1) % history.length;
+        }
+    }
+
+    private void updateFlapping() {
+        int transitions = 0;
+        for (int i = 1; i < size; i++) {
+            if (history[(head + i) % history.length] != history[(head + i - 1) % history.length]) {
+                transitions++;
+            }
+        }
+        boolean nowFlapping = transitions >= settings.flapTransitions();
+        if (nowFlapping && !flapping) {
+            logger.warn("🔀 {} {} {} is flapping: {} state changes in the last {} probes",
+                       application, target.name(), target.address(), transitions, size);
+        }
+        flapping = nowFlapping;
+    }
+}
@@ -0,0 +1,15 @@
+package com.talkflow.logmonitor_demo.health;
+
+/**
+ * Snapshot of the background probing state of one target
+ * @param target Probed endpoint
+ * @param circuit CLOSED, OPEN or HALF_OPEN
+ * @param intervalMillis Current probe interval
+ * @param recentProbes Results in the history
+ * @param recentFailures Failed results in the history
+ * @param flapping Whether the target changes between healthy and unhealthy too often
+ * @param lastResult Latest result, null before the first probe
+ */
+public record TargetStatus(ProbeTarget target, String circuit, long intervalMillis, int recentProbes,
+                           int recentFailures, boolean flapping, ProbeResult lastResult) {
+}
@@ -0,0 +1,214 @@
+package com.talkflow.logmonitor_demo.journal;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertAggregation;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary encoding of an alert for the journal.
+ * Strings are length-prefixed UTF-8 with -1 for null; optional parts have a presence byte.
+ * Not thread safe: each instance reuses a scratch array for decoding, and reuses the previous
+ * record's string for a field when the bytes are equal, so repetitive fields share one instance.
+ */
+final class AlertCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private static final int FIELD_COUNT = 11;
+
+    private byte[] scratch = new byte[256];
+    private final byte[][] lastBytes = new byte[FIELD_COUNT][];
+    private final String[] lastValues = new String[FIELD_COUNT];
+
+    /**
+     * Encode an alert at the buffer position, growing the buffer when needed
+     * @param alert Alert to encode
+     * @param buffer Target buffer
+     * @return Buffer holding the encoded alert, possibly a new larger one
+     */
+    ByteBuffer encode(Alert alert, ByteBuffer buffer) {
+        buffer = ensure(buffer, 1);
+        buffer.put(FORMAT_VERSION);
+        buffer = putString(buffer, alert.alertId());
+        buffer = putString(buffer, alert.application());
+        buffer = putString(buffer, alert.severity());
+        buffer = putString(buffer, alert.alertType());
+        buffer = putString(buffer, alert.title());
+        buffer = putString(buffer, alert.description());
+        buffer = putString(buffer, alert.timestamp());
+        buffer = ensure(buffer, 8);
+        buffer.putLong(alert.timestampMillis());
+        buffer = putString(buffer, alert.status());
+        buffer = putString(buffer, alert.source());
+        buffer = putMetrics(buffer, alert.metrics());
+        
+        List<String> recommendations = alert.recommendations();
+        buffer = ensure(buffer, 4);
+        buffer.putInt(recommendations != null ? recommendations.size() : -1);
+        if (recommendations != null) {
+            for (String recommendation : recommendations) {
+                buffer = putString(buffer, recommendation);
+            }
+        }
+        
+        AlertAggregation aggregation = alert.aggregation();
+        buffer = ensure(buffer, 1);
+        buffer.put((byte) (aggregation != null ? 1 : 0));
+        if (aggregation != null) {
+            buffer = putString(buffer, aggregation.fingerprint());
+            buffer = ensure(buffer, 4);
+            buffer.putInt(aggregation.count());
+            buffer = putString(buffer, aggregation.firstSeen());
+            buffer = putString(buffer, aggregation.lastSeen());
+            buffer = putMetrics(buffer, aggregation.minMetrics());
+            buffer = putMetrics(buffer, aggregation.maxMetrics());
+            buffer = ensure(buffer, 4);
+            buffer.putInt(aggregation.recentIds().size());
+            for (String id : aggregation.recentIds()) {
+                buffer = putString(buffer, id);
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Decode an alert from the buffer position
+     * @param buffer Source buffer, positioned at an encoded alert
+     * @return Decoded alert
+     * @throws IllegalArgumentException If the record has an unknown format version
+     */
+    Alert decode(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown alert record format: " + version);
+        }
+        String alertId = getString(buffer);
+        String application = getString(buffer, 0);
+        String severity = getString(buffer, 1);
+        String alertType = getString(buffer, 2);
+        String title = getString(buffer, 3);
+        String description = getString(buffer, 4);
+        String timestamp = getString(buffer, 5);
+        long timestampMillis = buffer.getLong();
+        String status = getString(buffer, 6);
+        String source = getString(buffer, 7);
+        AlertMetrics metrics = getMetrics(buffer);
+        
+        int recommendationCount = buffer.getInt();
+        List<String> recommendations = null;
+        if (recommendationCount >= 0) {
+            recommendations = new ArrayList<>(recommendationCount);
+            for (int i = 0; i < recommendationCount; i++) {
+                recommendations.add(getString(buffer));
+            }
+        }
+        
+        AlertAggregation aggregation = null;
+        if (buffer.get() != 0) {
+            String fingerprint = getString(buffer, 8);
+            int count = buffer.getInt();
+            String firstSeen = getString(buffer, 9);
+            String lastSeen = getString(buffer, 10);
+            AlertMetrics minMetrics = getMetrics(buffer);
+            AlertMetrics maxMetrics = getMetrics(buffer);
+            int idCount = buffer.getInt();
+            List<String> recentIds = new ArrayList<>(idCount);
+            for (int i = 0; i < idCount; i++) {
+                recentIds.add(getString(buffer));
+            }
+            aggregation = new AlertAggregation(fingerprint, count, firstSeen, lastSeen, minMetrics, maxMetrics, recentIds);
+        }
+        return new Alert(alertId, application, severity, alertType, title, description, timestamp, timestampMillis,
+            status, metrics, recommendations, source, aggregation);
+    }
+
+    private static ByteBuffer putMetrics(ByteBuffer buffer, AlertMetrics metrics) {
+        buffer = ensure(buffer, 17);
+        buffer.put((byte) (metrics != null ? 1 : 0));
+        if (metrics != null) {
+            buffer.putInt(metrics.cpuUsage());
+            buffer.putInt(metrics.memoryUsage());
+            buffer.putInt(metrics.diskUsage());
+            buffer.putInt(metrics.networkLatency());
+        }
+        return buffer;
+    }
+
+    private static AlertMetrics getMetrics(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        return new AlertMetrics(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+    }
+
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer = ensure(buffer, 4);
+            buffer.putInt(-1);
+            return buffer;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer = ensure(buffer, 4 + bytes.length);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        return buffer;
+    }
+
+    private String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read a string, reusing the previous value of the field if it has the same bytes
+     */
+    private String getString(ByteBuffer buffer, int field) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(scratch, 0, length);
+        byte[] last = lastBytes[field];
+        if (last != null && Arrays.equals(last, 0, last.length, scratch, 0, length)) {
+            return lastValues[field];
+        }
+        String value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        lastBytes[field] = Arrays.copyOf(scratch, length);
+        lastValues[field] = value;
+        return value;
+    }
+
+    /**
+     * Make sure the buffer has room for the given number of bytes, copying into a larger one if not
+     */
+    static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return buffer;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
@@ -0,0 +1,256 @@
+package com.talkflow.logmonitor_demo.journal;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable append-only alert log made of fixed-size segments.
+ * Each append call writes all its records and forces them to disk once (group commit).
+ * Replaying the log keeps the last record per alert id, so the journal holds the alert
+ * state as of the last append. Segments are decoded in parallel on recovery.
+ */
+public final class AlertJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertJournal.class);
+    private static final String DATA_EXTENSION = ".log";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int indexEntries;
+    private final TreeMap<Long, JournalSegment> segments = new TreeMap<>();
+    private final AlertCodec codec = new AlertCodec();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer recordBuffer = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(1024);
+    private int[] recordOffsets = new int[256];
+    private JournalSegment active;
+    private long recordCount;
+
+    /**
+     * Create a journal; call {@link #recover()} before appending
+     * @param directory Directory holding the segment files
+     * @param segmentBytes Size after which a new segment is started, at most 1GB
+     * @param indexEntries Maximum number of records per segment
+     */
+    public AlertJournal(Path directory, long segmentBytes, int indexEntries) {
+        if (segmentBytes <= 0 || segmentBytes > (1L << 30)) {
+            throw new IllegalArgumentException("Segment size must be between 1 byte and 1GB: " + segmentBytes);
+        }
+        if (indexEntries <= 0) {
+            throw new IllegalArgumentException("Index entries must be positive: " + indexEntries);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.indexEntries = indexEntries;
+    }
+
+    /**
+     * Open all segments, truncate torn records at their ends and replay the log
+     * @return Latest state of every journaled alert, in order of first appearance
+     */
+    public synchronized List<Alert> recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Long> baseSequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                .filter(name -> name.endsWith(DATA_EXTENSION))
+                .map(name -> Long.parseLong(name.substring(0, name.length() - DATA_EXTENSION.length())))
+                .sorted()
+                .forEach(baseSequences::add);
+        }
+        
+        List<JournalSegment> opened = new ArrayList<>(baseSequences.size());
+        for (long baseSequence : baseSequences) {
+            JournalSegment segment = JournalSegment.open(directory, baseSequence, indexEntries);
+            segments.put(baseSequence, segment);
+            opened.add(segment);
+        }
+        
+        // Decode segments in parallel, then apply them in log order so the last record per id wins
+        List<List<Alert>> decoded;
+        try {
+            decoded = opened.parallelStream().map(this::recoverSegment).toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Map<String, Alert> latest = new LinkedHashMap<>();
+        recordCount = 0;
+        for (List<Alert> alerts : decoded) {
+            recordCount += alerts.size();
+            for (Alert alert : alerts) {
+                latest.put(alert.alertId(), alert);
+            }
+        }
+        
+        active = segments.isEmpty() ? roll() : segments.lastEntry().getValue();
+        return new ArrayList<>(latest.values());
+    }
+
+    private List<Alert> recoverSegment(JournalSegment segment) {
+        AlertCodec segmentCodec = new AlertCodec();
+        List<Alert> alerts = new ArrayList<>();
+        try {
+            long truncated = segment.recover(payload -> alerts.add(segmentCodec.decode(payload)));
+            if (truncated > 0) {
+                logger.warn("⚠️ Truncated {} bytes of torn records from journal segment {}", truncated,
+                    segment.baseSequence());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return alerts;
+    }
+
+    /**
+     * Append alerts and force them to disk with a single sync
+     * @param alerts Alerts to append
+     */
+    public synchronized void append(Collection<Alert> alerts) throws IOException {
+        if (active == null) {
+            throw new IllegalStateException("Journal has not been recovered");
+        }
+        if (alerts.isEmpty()) {
+            return;
+        }
+        recordBuffer.clear();
+        int pending = 0;
+        for (Alert alert : alerts) {
+            encodeBuffer.clear();
+            encodeBuffer = codec.encode(alert, encodeBuffer);
+            encodeBuffer.flip();
+            int recordSize = JournalSegment.RECORD_HEADER_SIZE + encodeBuffer.remaining();
+            
+            if (!active.hasRoom(pending + 1, (long) recordBuffer.position() + recordSize, segmentBytes)) {
+                flush(pending);
+                pending = 0;
+                active.sync();
+                active = roll();
+            }
+            
+            crc.reset();
+            crc.update(encodeBuffer.duplicate());
+            recordBuffer = AlertCodec.ensure(recordBuffer, recordSize);
+            if (pending == recordOffsets.length) {
+                recordOffsets = Arrays.copyOf(recordOffsets, pending * 2);
+            }
+            recordOffsets[pending++] = recordBuffer.position();
+            recordBuffer.putInt(encodeBuffer.remaining());
+            recordBuffer.putInt((int) crc.getValue());
+            recordBuffer.put(encodeBuffer);
+        }
+        flush(pending);
+        active.sync();
+        recordCount += alerts.size();
+    }
+
+    private void flush(int pending) throws IOException {
+        if (pending == 0) {
+            return;
+        }
+        recordBuffer.flip();
+        active.append(recordBuffer, recordOffsets, pending);
+        recordBuffer.clear();
+    }
+
+    /**
+     * Rewrite the log so it holds only the given alerts. New segments are written and synced
+     * before the old ones are deleted, so a crash in between replays to the same state.
+     * @param alerts Latest state of every alert to keep
+     */
+    public synchronized void compact(Collection<Alert> alerts) throws IOException {
+        List<JournalSegment> previous = new ArrayList<>(segments.values());
+        if (active.count() == 0) {
+            // Reused as the first compacted segment
+            previous.remove(active);
+        }
+        active = roll();
+        append(alerts);
+        for (JournalSegment segment : previous) {
+            segments.remove(segment.baseSequence());
+            segment.delete();
+        }
+        recordCount = alerts.size();
+    }
+
+    /**
+     * Read one record by its sequence number using the segment index
+     * @param sequence Record sequence number
+     * @return Alert, or null if no such record
+     */
+    public synchronized Alert read(long sequence) throws IOException {
+        Map.Entry<Long, JournalSegment> entry = segments.floorEntry(sequence);
+        if (entry == null || sequence - entry.getKey() >= entry.getValue().count()) {
+            return null;
+        }
+        return codec.decode(entry.getValue().read((int) (sequence - entry.getKey())));
+    }
+
+    /**
+     * Start a new segment after the active one, or keep the active one while it is empty
+     */
+    private JournalSegment roll() throws IOException {
+        if (active != null && active.count() == 0) {
+            return active;
+        }
+        long baseSequence = nextSequence();
+        JournalSegment segment = JournalSegment.open(directory, baseSequence, indexEntries);
+        segment.recover(payload -> { });
+        segments.put(baseSequence, segment);
+        return segment;
+    }
+
+    /**
+     * Get the sequence number the next appended record will get
+     */
+    public synchronized long nextSequence() {
+        return active == null ? 0 : active.baseSequence() + active.count();
+    }
+
+    /**
+     * Get the number of records in the log, including superseded ones
+     */
+    public synchronized long recordCount() {
+        return recordCount;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Get the total size of all segment data files in bytes
+     */
+    public synchronized long sizeBytes() {
+        long total = 0;
+        for (JournalSegment segment : segments.values()) {
+            total += segment.size();
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (JournalSegment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+        active = null;
+    }
+}
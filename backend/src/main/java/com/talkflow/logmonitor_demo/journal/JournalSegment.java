@@ -0,0 +1,206 @@
+package com.talkflow.logmonitor_demo.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * One segment of the alert journal: an append-only data file and a memory-mapped offset index.
+ * Each data record is [int length][int crc32c][payload]. Index entry i is the int file position
+ * of record i plus one, so an unused entry reads as zero.
+ * The index is not forced to disk; it is checked against the data file and repaired on recovery.
+ */
+final class JournalSegment implements Closeable {
+
+    static final int RECORD_HEADER_SIZE = 8;
+    private static final int INDEX_ENTRY_SIZE = 4;
+
+    private final long baseSequence;
+    private final Path dataPath;
+    private final Path indexPath;
+    private final FileChannel data;
+    private final FileChannel indexChannel;
+    private final MappedByteBuffer index;
+    private final int indexCapacity;
+    private int count;
+    private long size;
+
+    private JournalSegment(long baseSequence, Path dataPath, Path indexPath, FileChannel data,
+                           FileChannel indexChannel, MappedByteBuffer index, int indexCapacity) {
+        this.baseSequence = baseSequence;
+        this.dataPath = dataPath;
+        this.indexPath = indexPath;
+        this.data = data;
+        this.indexChannel = indexChannel;
+        this.index = index;
+        this.indexCapacity = indexCapacity;
+    }
+
+    /**
+     * Open or create a segment. Call {@link #recover(Consumer)} before appending to an existing one.
+     * @param directory Journal directory
+     * @param baseSequence Sequence number of the first record in the segment
+     * @param indexEntries Index capacity for a new segment; an existing index keeps its size
+     * @return Opened segment
+     */
+    static JournalSegment open(Path directory, long baseSequence, int indexEntries) throws IOException {
+        Path dataPath = directory.resolve(fileName(baseSequence, ".log"));
+        Path indexPath = directory.resolve(fileName(baseSequence, ".idx"));
+        FileChannel data = FileChannel.open(dataPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        long existing = indexChannel.size();
+        int capacity = existing >= INDEX_ENTRY_SIZE ? (int) (existing / INDEX_ENTRY_SIZE) : indexEntries;
+        MappedByteBuffer index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * INDEX_ENTRY_SIZE);
+        return new JournalSegment(baseSequence, dataPath, indexPath, data, indexChannel, index, capacity);
+    }
+
+    /**
+     * Scan the data file, passing each valid record payload to the consumer.
+     * Stops at the first torn or corrupt record, truncates the file there and repairs the index.
+     * @param records Receives each payload; the buffer is only valid during the call
+     * @return Number of bytes truncated from the end of the data file
+     */
+    long recover(Consumer<ByteBuffer> records) throws IOException {
+        long fileSize = data.size();
+        int recovered = 0;
+        long position = 0;
+        if (fileSize > 0) {
+            MappedByteBuffer mapped = data.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            CRC32C crc = new CRC32C();
+            while (position + RECORD_HEADER_SIZE <= fileSize && recovered < indexCapacity) {
+                int length = mapped.getInt((int) position);
+                int checksum = mapped.getInt((int) position + 4);
+                if (length <= 0 || position + RECORD_HEADER_SIZE + length > fileSize) {
+                    break;
+                }
+                ByteBuffer payload = mapped.slice((int) position + RECORD_HEADER_SIZE, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                records.accept(payload);
+                setIndexEntry(recovered++, position);
+                position += RECORD_HEADER_SIZE + length;
+            }
+        }
+        // Clear index entries written for records that did not reach the data file
+        for (int i = recovered; i < indexCapacity && index.getInt(i * INDEX_ENTRY_SIZE) != 0; i++) {
+            index.putInt(i * INDEX_ENTRY_SIZE, 0);
+        }
+        if (position < fileSize) {
+            data.truncate(position);
+            data.force(true);
+        }
+        count = recovered;
+        size = position;
+        return fileSize - position;
+    }
+
+    /**
+     * Check whether more records fit. An empty segment takes a first record of any size.
+     * @param records Number of records to add
+     * @param bytes Encoded size of those records
+     * @param maxBytes Segment size limit
+     */
+    boolean hasRoom(int records, long bytes, long maxBytes) {
+        return count + records <= indexCapacity && ((count == 0 && records == 1) || size + bytes <= maxBytes);
+    }
+
+    /**
+     * Append encoded records and index them. Does not force the data to disk.
+     * @param records Encoded records, flipped for reading
+     * @param recordOffsets Offsets of each record within the buffer
+     * @param recordCount Number of records in the buffer
+     */
+    void append(ByteBuffer records, int[] recordOffsets, int recordCount) throws IOException {
+        long start = size;
+        long position = start;
+        while (records.hasRemaining()) {
+            position += data.write(records, position);
+        }
+        for (int i = 0; i < recordCount; i++) {
+            setIndexEntry(count + i, start + recordOffsets[i]);
+        }
+        count += recordCount;
+        size = position;
+    }
+
+    /**
+     * Force appended records to disk
+     */
+    void sync() throws IOException {
+        data.force(false);
+    }
+
+    /**
+     * Read the payload of a record by its position in this segment
+     * @param ordinal Record number within the segment
+     * @return Payload buffer
+     */
+    ByteBuffer read(int ordinal) throws IOException {
+        long position = index.getInt(ordinal * INDEX_ENTRY_SIZE) - 1L;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        readFully(header, position);
+        ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+        readFully(payload, position + RECORD_HEADER_SIZE);
+        return payload.flip();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = data.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal segment " + dataPath);
+            }
+        }
+    }
+
+    private void setIndexEntry(int ordinal, long position) {
+        int entry = (int) position + 1;
+        if (index.getInt(ordinal * INDEX_ENTRY_SIZE) != entry) {
+            index.putInt(ordinal * INDEX_ENTRY_SIZE, entry);
+        }
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+        indexChannel.close();
+    }
+
+    /**
+     * Close and delete both files of the segment
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(dataPath);
+        Files.deleteIfExists(indexPath);
+    }
+
+    static String fileName(long baseSequence, String extension) {
+        String digits = Long.toString(baseSequence);
+        return "0".repeat(Math.max(0, 20 - digits.length())) + digits + extension;
+    }
+}
@@ -0,0 +1,27 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+/**
+ * Thresholds of the CPU anomaly detector
+ * @param alpha EWMA smoothing factor per sample
+ * @param zThreshold Deviations from the EWMA mean that count as a spike
+ * @param warmupSamples Samples needed before spikes are reported
+ * @param spikeMinCpu Spikes below this CPU usage are ignored
+ * @param spikeCooldownMillis Minimum time between two spike events
+ * @param sustainedThreshold CPU usage that must hold for the sustained window
+ * @param sustainedMillis Length of the sustained window
+ * @param hysteresis A sustained episode ends only once usage drops this far below the threshold
+ * @param dailyThreshold Daily average CPU usage counted as a high day
+ * @param dailyDays Consecutive high days that raise a capacity event
+ */
+public record AnomalySettings(
+        double alpha,
+        double zThreshold,
+        int warmupSamples,
+        float spikeMinCpu,
+        long spikeCooldownMillis,
+        float sustainedThreshold,
+        long sustainedMillis,
+        float hysteresis,
+        float dailyThreshold,
+        int dailyDays) {
+}
@@ -0,0 +1,264 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Immutable compressed block of samples, column by column in one bit stream.
+ * Timestamps are stored as delta-of-delta, float columns as XOR with the previous value
+ * (leading/trailing zero windows as in Gorilla), and latency as zig-zag deltas.
+ * Regular per-minute samples with slowly changing values take a few bits each.
+ * The bits live in a heap buffer until the block is persisted, then in a slice of the mapped segment.
+ */
+final class CompressedBlock {
+
+    private final int count;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+    private final ByteBuffer data;
+
+    CompressedBlock(int count, long firstTimestamp, long lastTimestamp, ByteBuffer data) {
+        this.count = count;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+        this.data = data;
+    }
+
+    /**
+     * Compress the first count samples of the given columns
+     */
+    static CompressedBlock encode(long[] timestamps, float[] cpu, float[] memory, float[] disk, short[] latency, int count) {
+        BitWriter out = new BitWriter(count * 4 + 16);
+        long previous = timestamps[0];
+        long previousDelta = 0;
+        out.write(previous, 64);
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - previous;
+            writeDeltaOfDelta(out, delta - previousDelta);
+            previousDelta = delta;
+            previous = timestamps[i];
+        }
+        writeFloats(out, cpu, count);
+        writeFloats(out, memory, count);
+        writeFloats(out, disk, count);
+        short previousLatency = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = latency[i] - previousLatency;
+            int zigzag = (delta << 1) ^ (delta >> 31);
+            if (zigzag == 0) {
+                out.write(0, 1);
+            } else if (zigzag < 256) {
+                out.write(0b10, 2);
+                out.write(zigzag, 8);
+            } else {
+                out.write(0b11, 2);
+                out.write(zigzag, 18);
+            }
+            previousLatency = latency[i];
+        }
+        return new CompressedBlock(count, timestamps[0], timestamps[count - 1], ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    /**
+     * Decompress into the given columns, which must hold at least {@link #count()} samples
+     */
+    void decode(long[] timestamps, float[] cpu, float[] memory, float[] disk, short[] latency) {
+        BitReader in = new BitReader(data);
+        long previous = in.read(64);
+        long previousDelta = 0;
+        timestamps[0] = previous;
+        for (int i = 1; i < count; i++) {
+            previousDelta += readDeltaOfDelta(in);
+            previous += previousDelta;
+            timestamps[i] = previous;
+        }
+        readFloats(in, cpu, count);
+        readFloats(in, memory, count);
+        readFloats(in, disk, count);
+        short previousLatency = 0;
+        for (int i = 0; i < count; i++) {
+            int zigzag;
+            if (in.read(1) == 0) {
+                zigzag = 0;
+            } else if (in.read(1) == 0) {
+                zigzag = (int) in.read(8);
+            } else {
+                zigzag = (int) in.read(18);
+            }
+            previousLatency = (short) (previousLatency + ((zigzag >>> 1) ^ -(zigzag & 1)));
+            latency[i] = previousLatency;
+        }
+    }
+
+    private static void writeDeltaOfDelta(BitWriter out, long dod) {
+        if (dod == 0) {
+            out.write(0, 1);
+        } else if (dod >= -8192 && dod < 8192) {
+            out.write(0b10, 2);
+            out.write(dod, 14);
+        } else if (dod >= -(1L << 23) && dod < (1L << 23)) {
+            out.write(0b110, 3);
+            out.write(dod, 24);
+        } else if (dod >= Integer.MIN_VALUE && dod <= Integer.MAX_VALUE) {
+            out.write(0b1110, 4);
+            out.write(dod, 32);
+        } else {
+            out.write(0b1111, 4);
+            out.write(dod, 64);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        if (in.read(1) == 0) {
+            return 0;
+        }
+        if (in.read(1) == 0) {
+            return signExtend(in.read(14), 14);
+        }
+        if (in.read(1) == 0) {
+            return signExtend(in.read(24), 24);
+        }
+        if (in.read(1) == 0) {
+            return signExtend(in.read(32), 32);
+        }
+        return in.read(64);
+    }
+
+    private static void writeFloats(BitWriter out, float[] values, int count) {
+        int previous = Float.floatToRawIntBits(values[0]);
+        out.write(previous, 32);
+        int windowLeading = -1;
+        int windowTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            int bits = Float.floatToRawIntBits(values[i]);
+            int xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.write(0, 1);
+                continue;
+            }
+            int leading = Math.min(Integer.numberOfLeadingZeros(xor), 31);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (windowLeading >= 0 && leading >= windowLeading && trailing >= windowTrailing) {
+                // Fits the previous meaningful-bit window
+                out.write(0b10, 2);
+                out.write(xor >>> windowTrailing, 32 - windowLeading - windowTrailing);
+            } else {
+                int length = 32 - leading - trailing;
+                out.write(0b11, 2);
+                out.write(leading, 5);
+                out.write(length - 1, 5);
+                out.write(xor >>> trailing, length);
+                windowLeading = leading;
+                windowTrailing = trailing;
+            }
+        }
+    }
+
+    private static void readFloats(BitReader in, float[] values, int count) {
+        int previous = (int) in.read(32);
+        values[0] = Float.intBitsToFloat(previous);
+        int windowLeading = 0;
+        int windowTrailing = 0;
+        for (int i = 1; i < count; i++) {
+            if (in.read(1) != 0) {
+                if (in.read(1) != 0) {
+                    windowLeading = (int) in.read(5);
+                    int length = (int) in.read(5) + 1;
+                    windowTrailing = 32 - windowLeading - length;
+                }
+                int xor = (int) in.read(32 - windowLeading - windowTrailing) << windowTrailing;
+                previous ^= xor;
+            }
+            values[i] = Float.intBitsToFloat(previous);
+        }
+    }
+
+    private static long signExtend(long value, int bits) {
+        int shift = 64 - bits;
+        return (value << shift) >> shift;
+    }
+
+    int count() {
+        return count;
+    }
+
+    long firstTimestamp() {
+        return firstTimestamp;
+    }
+
+    long lastTimestamp() {
+        return lastTimestamp;
+    }
+
+    int sizeBytes() {
+        return data.capacity();
+    }
+
+    /**
+     * Independent view of the encoded bits, for copying them into storage
+     */
+    ByteBuffer data() {
+        return data.duplicate().clear();
+    }
+
+    /**
+     * Growable bit stream writer, most significant bit first
+     */
+    private static final class BitWriter {
+
+        private byte[] bytes;
+        private long bitPosition;
+
+        BitWriter(int initialBytes) {
+            bytes = new byte[Math.max(16, initialBytes)];
+        }
+
+        void write(long value, int bitCount) {
+            for (int remaining = bitCount; remaining > 0; ) {
+                int index = (int) (bitPosition >>> 3);
+                if (index >= bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int free = 8 - (int) (bitPosition & 7);
+                int take = Math.min(free, remaining);
+                int chunk = (int) (value >>> (remaining - take)) & ((1 << take) - 1);
+                bytes[index] |= (byte) (chunk << (free - take));
+                remaining -= take;
+                bitPosition += take;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, (int) ((bitPosition + 7) >>> 3));
+        }
+    }
+
+    /**
+     * Bit stream reader matching {@link BitWriter}, reading with absolute gets so mapped
+     * buffers can be shared between readers
+     */
+    private static final class BitReader {
+
+        private final ByteBuffer bytes;
+        private long bitPosition;
+
+        BitReader(ByteBuffer bytes) {
+            this.bytes = bytes;
+        }
+
+        long read(int bitCount) {
+            long value = 0;
+            for (int remaining = bitCount; remaining > 0; ) {
+                int available = 8 - (int) (bitPosition & 7);
+                int take = Math.min(available, remaining);
+                int current = bytes.get((int) (bitPosition >>> 3)) & 0xFF;
+                int chunk = (current >>> (available - take)) & ((1 << take) - 1);
+                value = (value << take) | chunk;
+                remaining -= take;
+                bitPosition += take;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+/**
+ * Incremental CPU anomaly detector for one series, O(1) time and memory per sample:
+ * <ul>
+ *   <li>spike: usage deviates from the EWMA mean by more than the z threshold</li>
+ *   <li>sustained: usage stays above a threshold for a time window</li>
+ *   <li>daily: the daily average stays above a threshold for consecutive days</li>
+ * </ul>
+ * Sustained and daily episodes are reported once and re-armed after recovery. Samples fed with
+ * {@code emit=false} (e.g. backfilled history) update the state but report nothing, so an episode
+ * that is still ongoing is reported on the first live sample. Not thread safe.
+ */
+public final class CpuAnomalyDetector {
+
+    public static final int NONE = 0;
+    public static final int SPIKE = 1;
+    public static final int SUSTAINED = 1 << 1;
+    public static final int DAILY = 1 << 2;
+
+    private static final long DAY_MILLIS = Resolution.DAY.widthMillis();
+    // Floor for the deviation, so a flat series does not turn noise into huge z-scores
+    private static final double MIN_STDDEV = 1.0;
+
+    private final AnomalySettings settings;
+
+    // EWMA state
+    private long count;
+    private double mean;
+    private double variance;
+    private double lastZScore;
+    private long lastSpikeMillis = Long.MIN_VALUE;
+
+    // Sustained window state
+    private long aboveSinceMillis = -1;
+    private boolean sustainedReported;
+
+    // Daily state
+    private long currentDay = Long.MIN_VALUE;
+    private double daySum;
+    private int dayCount;
+    private int highDays;
+    private boolean dailyReported;
+
+    public CpuAnomalyDetector(AnomalySettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Feed one sample; samples must arrive in timestamp order
+     * @param timestampMillis Sample time
+     * @param cpuUsage CPU usage in percent
+     * @param emit Whether events may be reported for this sample
+     * @return Bit set of {@link #SPIKE}, {@link #SUSTAINED} and {@link #DAILY}, or {@link #NONE}
+     */
+    public int update(long timestampMillis, float cpuUsage, boolean emit) {
+        int events = NONE;
+
+        // Score against the state before this sample, so a spike does not dampen itself
+        if (count >= settings.warmupSamples()) {
+            lastZScore = (cpuUsage - mean) / Math.max(MIN_STDDEV, Math.sqrt(variance));
+            if (emit && lastZScore >= settings.zThreshold() && cpuUsage >= settings.spikeMinCpu()
+                    && (lastSpikeMillis == Long.MIN_VALUE || timestampMillis - lastSpikeMillis >= settings.spikeCooldownMillis())) {
+                events |= SPIKE;
+                lastSpikeMillis = timestampMillis;
+            }
+        }
+        if (count++ == 0) {
+            mean = cpuUsage;
+        } else {
+            double diff = cpuUsage - mean;
+            double increment = settings.alpha() * diff;
+            mean += increment;
+            variance = (1 - settings.alpha()) * (variance + diff * increment);
+        }
+
+        if (cpuUsage >= settings.sustainedThreshold()) {
+            if (aboveSinceMillis < 0) {
+                aboveSinceMillis = timestampMillis;
+            }
+        } else if (cpuUsage < settings.sustainedThreshold() - settings.hysteresis()) {
+            aboveSinceMillis = -1;
+            sustainedReported = false;
+        }
+        if (emit && !sustainedReported && aboveSinceMillis >= 0
+                && timestampMillis - aboveSinceMillis >= settings.sustainedMillis()) {
+            events |= SUSTAINED;
+            sustainedReported = true;
+        }
+
+        long day = Math.floorDiv(timestampMillis, DAY_MILLIS);
+        if (day != currentDay) {
+            if (dayCount > 0) {
+                highDays = daySum / dayCount >= settings.dailyThreshold() ? highDays + 1 : 0;
+                if (day != currentDay + 1) {
+                    // A day without samples breaks the run
+                    highDays = 0;
+                }
+                if (highDays < settings.dailyDays()) {
+                    dailyReported = false;
+                }
+            }
+            currentDay = day;
+            daySum = 0;
+            dayCount = 0;
+        }
+        daySum += cpuUsage;
+        dayCount++;
+        if (emit && !dailyReported && highDays >= settings.dailyDays()) {
+            events |= DAILY;
+            dailyReported = true;
+        }
+        return events;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double stddev() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * z-score of the latest sample, 0 during warm-up
+     */
+    public double lastZScore() {
+        return lastZScore;
+    }
+
+    /**
+     * Start of the current above-threshold run, or -1 if usage is below the threshold
+     */
+    public long aboveSinceMillis() {
+        return aboveSinceMillis;
+    }
+
+    /**
+     * Number of consecutive completed days whose average was above the daily threshold
+     */
+    public int highDays() {
+        return highDays;
+    }
+}
@@ -0,0 +1,52 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Storage keeping everything on the heap; nothing survives a restart
+ */
+final class HeapSeriesStorage implements SeriesStorage {
+
+    private long storedBytes;
+
+    @Override
+    public ByteBuffer rollupBuffer(Resolution resolution, int bytes) {
+        return ByteBuffer.allocate(bytes);
+    }
+
+    @Override
+    public ByteBuffer hotBuffer(int bytes) {
+        return null;
+    }
+
+    @Override
+    public CompressedBlock persist(CompressedBlock block) {
+        storedBytes += block.sizeBytes();
+        return block;
+    }
+
+    @Override
+    public void release(CompressedBlock block) {
+        storedBytes -= block.sizeBytes();
+    }
+
+    @Override
+    public List<CompressedBlock> recoverBlocks() {
+        return List.of();
+    }
+
+    @Override
+    public boolean mapped() {
+        return false;
+    }
+
+    @Override
+    public long storedBytes() {
+        return storedBytes;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,199 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import java.io.Closeable;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Samples host and JVM process metrics from procfs, falling back to the OperatingSystemMXBean
+ * where procfs is not available. CPU usage is computed from counter deltas between two samples,
+ * so the first sample only primes the counters. Parsing works on reused buffers and allocates
+ * nothing per sample. Not thread safe; owned by the sampling thread.
+ */
+public final class HostMetricsSampler implements Closeable {
+
+    private static final byte[] CPU_KEY = "cpu ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MEM_TOTAL_KEY = "MemTotal:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MEM_AVAILABLE_KEY = "MemAvailable:".getBytes(StandardCharsets.US_ASCII);
+    // USER_HZ and page size are fixed at 100 and 4 KiB on the platforms procfs exposes them for
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+    private static final long PAGE_SIZE = 4096;
+    // Fields after the ")" closing the command name in /proc/[pid]/stat: utime is the 12th, rss the 22nd
+    private static final int UTIME_FIELD_INDEX = 11;
+    // File system space queries allocate and change slowly, so they are refreshed less often
+    private static final long DISK_SAMPLE_INTERVAL_NANOS = 30_000_000_000L;
+
+    private final ProcFile stat;
+    private final ProcFile meminfo;
+    private final ProcFile selfStat;
+    private final File diskPath;
+    private final com.sun.management.OperatingSystemMXBean osBean;
+    private final int processors;
+
+    private long previousTotalTicks = -1;
+    private long previousIdleTicks;
+    private long previousProcessTicks = -1;
+    private long previousSampleNanos;
+    private long lastDiskSampleNanos;
+    private boolean diskSampled;
+
+    private float cpuUsage;
+    private float memoryUsage;
+    private float diskUsage;
+    private float processCpuUsage;
+    private long processRssBytes;
+    private boolean procAvailable = true;
+
+    /**
+     * @param procRoot Root of the proc filesystem, normally /proc
+     * @param diskPath Path whose file system usage is reported as disk usage
+     */
+    public HostMetricsSampler(Path procRoot, Path diskPath) {
+        this.stat = new ProcFile(procRoot.resolve("stat"), 4096);
+        this.meminfo = new ProcFile(procRoot.resolve("meminfo"), 4096);
+        this.selfStat = new ProcFile(procRoot.resolve("self").resolve("stat"), 1024);
+        this.diskPath = diskPath.toAbsolutePath().toFile();
+        this.osBean = ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean bean
+            ? bean : null;
+        this.processors = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Take one sample
+     * @param nanoTime Monotonic time of the sample, used for process CPU rates
+     * @return true if CPU usage is available, i.e. this was not the priming sample
+     */
+    public boolean sample(long nanoTime) {
+        boolean cpuReady;
+        if (procAvailable && stat.refresh()) {
+            cpuReady = sampleProcStat();
+            sampleMeminfo();
+            sampleSelfStat(nanoTime);
+        } else {
+            procAvailable = false;
+            cpuReady = sampleOsBean();
+        }
+        if (!diskSampled || nanoTime - lastDiskSampleNanos >= DISK_SAMPLE_INTERVAL_NANOS) {
+            long total = diskPath.getTotalSpace();
+            diskUsage = total > 0 ? clampPercent(100.0 * (total - diskPath.getUsableSpace()) / total) : 0;
+            lastDiskSampleNanos = nanoTime;
+            diskSampled = true;
+        }
+        previousSampleNanos = nanoTime;
+        return cpuReady;
+    }
+
+    private boolean sampleProcStat() {
+        if (!stat.seekLine(CPU_KEY)) {
+            return false;
+        }
+        // user nice system idle iowait irq softirq steal; guest time is already part of user
+        long total = 0;
+        long idle = 0;
+        for (int field = 0; field < 8; field++) {
+            long value = stat.nextLong();
+            if (value < 0) {
+                break;
+            }
+            total += value;
+            if (field == 3 || field == 4) {
+                idle += value;
+            }
+        }
+        boolean ready = previousTotalTicks >= 0 && total > previousTotalTicks;
+        if (ready) {
+            long totalDelta = total - previousTotalTicks;
+            cpuUsage = clampPercent(100.0 * (totalDelta - (idle - previousIdleTicks)) / totalDelta);
+        }
+        previousTotalTicks = total;
+        previousIdleTicks = idle;
+        return ready;
+    }
+
+    private void sampleMeminfo() {
+        if (!meminfo.refresh() || !meminfo.seekLine(MEM_TOTAL_KEY)) {
+            return;
+        }
+        long total = meminfo.nextLong();
+        if (total > 0 && meminfo.seekLine(MEM_AVAILABLE_KEY)) {
+            long available = meminfo.nextLong();
+            memoryUsage = clampPercent(100.0 * (total - available) / total);
+        }
+    }
+
+    private void sampleSelfStat(long nanoTime) {
+        if (!selfStat.refresh() || !selfStat.seekAfterLast((byte) ')')) {
+            return;
+        }
+        selfStat.skipFields(UTIME_FIELD_INDEX);
+        long ticks = selfStat.nextLong() + selfStat.nextLong();
+        selfStat.skipFields(8);
+        processRssBytes = selfStat.nextLong() * PAGE_SIZE;
+        if (previousProcessTicks >= 0 && nanoTime > previousSampleNanos) {
+            double cpuSeconds = (double) (ticks - previousProcessTicks) / CLOCK_TICKS_PER_SECOND;
+            double elapsedSeconds = (nanoTime - previousSampleNanos) / 1e9;
+            processCpuUsage = clampPercent(100.0 * cpuSeconds / elapsedSeconds / processors);
+        }
+        previousProcessTicks = ticks;
+    }
+
+    private boolean sampleOsBean() {
+        if (osBean == null) {
+            return false;
+        }
+        double load = osBean.getCpuLoad();
+        long totalMemory = osBean.getTotalMemorySize();
+        if (totalMemory > 0) {
+            memoryUsage = clampPercent(100.0 * (totalMemory - osBean.getFreeMemorySize()) / totalMemory);
+        }
+        double processLoad = osBean.getProcessCpuLoad();
+        if (processLoad >= 0) {
+            processCpuUsage = clampPercent(processLoad * 100);
+        }
+        if (load < 0) {
+            return false;
+        }
+        cpuUsage = clampPercent(load * 100);
+        return true;
+    }
+
+    private static float clampPercent(double value) {
+        return (float) Math.min(100, Math.max(0, value));
+    }
+
+    public float cpuUsage() {
+        return cpuUsage;
+    }
+
+    public float memoryUsage() {
+        return memoryUsage;
+    }
+
+    public float diskUsage() {
+        return diskUsage;
+    }
+
+    public float processCpuUsage() {
+        return processCpuUsage;
+    }
+
+    public long processRssBytes() {
+        return processRssBytes;
+    }
+
+    /**
+     * Whether samples come from procfs rather than the OperatingSystemMXBean
+     */
+    public boolean procAvailable() {
+        return procAvailable;
+    }
+
+    @Override
+    public void close() {
+        stat.close();
+        meminfo.close();
+        selfStat.close();
+    }
+}
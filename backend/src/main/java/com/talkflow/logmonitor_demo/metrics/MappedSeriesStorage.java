@@ -0,0 +1,246 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Storage in memory-mapped files under one directory per series:
+ * <ul>
+ *   <li>rollup-&lt;resolution&gt;.dat and hot.dat: fixed-layout files mapped as a whole</li>
+ *   <li>seg-&lt;epoch day&gt;.dat: sealed blocks whose first sample falls on that (UTC) day, appended as
+ *       [int magic][int length][int crc32c][int count][long first][long last][bits]</li>
+ * </ul>
+ * The magic is written after the rest of the record, so a torn append is ignored on recovery.
+ * Blocks are read straight from the mapped pages; a segment file is deleted once all its blocks
+ * are released. Mapped files are not forced on every write; the page cache persists them across
+ * process restarts and {@link #close()} forces them.
+ */
+final class MappedSeriesStorage implements SeriesStorage {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedSeriesStorage.class);
+    private static final int BLOCK_MAGIC = 0x4D424C4B;
+    private static final int RECORD_HEADER = 32;
+    private static final int INITIAL_SEGMENT_BYTES = 256 * 1024;
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SUFFIX = ".dat";
+
+    private final Path directory;
+    private final List<MappedByteBuffer> fixedBuffers = new ArrayList<>();
+    private final Map<Long, Segment> segments = new TreeMap<>();
+    private final CRC32C crc = new CRC32C();
+    private long storedBytes;
+
+    private static final class Segment {
+        final long day;
+        final Path path;
+        MappedByteBuffer buffer;
+        int writePosition;
+        int liveBlocks;
+
+        Segment(long day, Path path) {
+            this.day = day;
+            this.path = path;
+        }
+    }
+
+    MappedSeriesStorage(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create metric directory " + directory, e);
+        }
+    }
+
+    @Override
+    public ByteBuffer rollupBuffer(Resolution resolution, int bytes) {
+        return mapFixed("rollup-" + resolution.name().toLowerCase() + SUFFIX, bytes);
+    }
+
+    @Override
+    public ByteBuffer hotBuffer(int bytes) {
+        return mapFixed("hot" + SUFFIX, bytes);
+    }
+
+    @Override
+    public CompressedBlock persist(CompressedBlock block) {
+        long day = Math.floorDiv(block.firstTimestamp(), Resolution.DAY.widthMillis());
+        Segment segment = segments.get(day);
+        try {
+            if (segment == null) {
+                segment = new Segment(day, directory.resolve(SEGMENT_PREFIX + day + SUFFIX));
+                segment.buffer = map(segment.path, INITIAL_SEGMENT_BYTES);
+                segments.put(day, segment);
+            }
+            int length = block.sizeBytes();
+            int required = segment.writePosition + RECORD_HEADER + length;
+            if (required > segment.buffer.capacity()) {
+                // Earlier block slices keep the old mapping, which shares the same file pages
+                segment.buffer = map(segment.path, Math.max(required, 2 * segment.buffer.capacity()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write metric segment in " + directory, e);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        int position = segment.writePosition;
+        ByteBuffer bits = block.data();
+        crc.reset();
+        crc.update(bits.duplicate());
+        buffer.put(position + RECORD_HEADER, bits, 0, bits.remaining());
+        buffer.putInt(position + 4, bits.remaining());
+        buffer.putInt(position + 8, (int) crc.getValue());
+        buffer.putInt(position + 12, block.count());
+        buffer.putLong(position + 16, block.firstTimestamp());
+        buffer.putLong(position + 24, block.lastTimestamp());
+        buffer.putInt(position, BLOCK_MAGIC);
+        segment.writePosition = position + RECORD_HEADER + bits.remaining();
+        segment.liveBlocks++;
+        storedBytes += RECORD_HEADER + bits.remaining();
+        return new CompressedBlock(block.count(), block.firstTimestamp(), block.lastTimestamp(),
+            buffer.slice(position + RECORD_HEADER, bits.remaining()));
+    }
+
+    @Override
+    public void release(CompressedBlock block) {
+        long day = Math.floorDiv(block.firstTimestamp(), Resolution.DAY.widthMillis());
+        Segment segment = segments.get(day);
+        if (segment == null || --segment.liveBlocks > 0) {
+            return;
+        }
+        segments.remove(day);
+        storedBytes -= segment.writePosition;
+        // The mapping stays valid for readers still holding slices; the file goes away with it
+        deleteQuietly(segment.path);
+    }
+
+    @Override
+    public List<CompressedBlock> recoverBlocks() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list metric segments in " + directory, e);
+        }
+        List<CompressedBlock> blocks = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long day;
+            try {
+                day = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            Segment segment = new Segment(day, file);
+            try {
+                segment.buffer = map(file, (int) Math.max(INITIAL_SEGMENT_BYTES, Files.size(file)));
+            } catch (IOException e) {
+                logger.warn("⚠️ Skipping unreadable metric segment {}: {}", file, e.getMessage());
+                continue;
+            }
+            recoverSegment(segment, blocks);
+            if (segment.liveBlocks > 0) {
+                segments.put(day, segment);
+            } else {
+                deleteQuietly(file);
+            }
+        }
+        blocks.sort((a, b) -> Long.compare(a.firstTimestamp(), b.firstTimestamp()));
+        return blocks;
+    }
+
+    private void recoverSegment(Segment segment, List<CompressedBlock> blocks) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + RECORD_HEADER <= buffer.capacity() && buffer.getInt(position) == BLOCK_MAGIC) {
+            int length = buffer.getInt(position + 4);
+            int count = buffer.getInt(position + 12);
+            if (length <= 0 || count <= 0 || position + RECORD_HEADER + length > buffer.capacity()) {
+                break;
+            }
+            ByteBuffer bits = buffer.slice(position + RECORD_HEADER, length);
+            crc.reset();
+            crc.update(bits.duplicate());
+            if ((int) crc.getValue() != buffer.getInt(position + 8)) {
+                logger.warn("⚠️ Corrupt block at {} in metric segment {}, ignoring the rest", position, segment.path);
+                break;
+            }
+            blocks.add(new CompressedBlock(count, buffer.getLong(position + 16), buffer.getLong(position + 24), bits));
+            segment.liveBlocks++;
+            position += RECORD_HEADER + length;
+        }
+        // Appends continue after the last valid record; a torn one is overwritten
+        segment.writePosition = position;
+        storedBytes += position;
+    }
+
+    @Override
+    public boolean mapped() {
+        return true;
+    }
+
+    @Override
+    public long storedBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * Force all mapped files to disk
+     */
+    @Override
+    public void close() {
+        for (MappedByteBuffer buffer : fixedBuffers) {
+            buffer.force();
+        }
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+        }
+    }
+
+    /**
+     * Map a whole fixed-layout file; an existing file of another size is reset to zeros
+     */
+    private ByteBuffer mapFixed(String name, int bytes) {
+        Path path = directory.resolve(name);
+        try {
+            if (Files.exists(path) && Files.size(path) != bytes) {
+                logger.info("🗑️ Resetting {} after a layout change", path);
+                Files.delete(path);
+            }
+            MappedByteBuffer buffer = map(path, bytes);
+            fixedBuffers.add(buffer);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map metric file " + path, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to delete metric segment {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+/**
+ * Metrics recorded for every sample; the ordinal is the column index in rollup buckets
+ */
+public enum Metric {
+    CPU,
+    MEMORY,
+    DISK,
+    LATENCY;
+
+    static final int COUNT = values().length;
+}
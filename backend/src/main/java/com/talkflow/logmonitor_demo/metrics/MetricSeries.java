@@ -0,0 +1,405 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time series of one application's host metrics, stored column by column in primitive arrays.
+ * New samples go into a fixed-size hot block; a full hot block is compressed into the cold ring,
+ * which drops its oldest block when full or when the block falls out of the retention window.
+ * Every sample also updates the minute, hour and day rollup tiers, which keep aggregated history
+ * after the raw samples are gone and let queries read one bucket instead of many samples.
+ * With mapped storage, blocks and rollups live in files and the hot block is mirrored to one,
+ * so the heap holds only the fixed hot and scratch columns and the history survives restarts.
+ */
+public final class MetricSeries implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricSeries.class);
+    // Hot mirror layout: magic, block size, sample count, padding, then the columns
+    private static final int HOT_MAGIC = 0x4D484F54;
+    private static final int HOT_HEADER_BYTES = 16;
+
+    private final String application;
+    private final int blockSize;
+    private final long retentionMillis;
+    private final SeriesStorage storage;
+    private final ByteBuffer hotMirror;
+
+    private final long[] timestamps;
+    private final float[] cpu;
+    private final float[] memory;
+    private final float[] disk;
+    private final short[] latency;
+    private int hotCount;
+
+    private final CompressedBlock[] blocks;
+    private int oldestBlock;
+    private int blockCount;
+    private long coldBytes;
+
+    // Scratch columns for decoding cold blocks, reused under the series lock
+    private final long[] scratchTimestamps;
+    private final float[] scratchCpu;
+    private final float[] scratchMemory;
+    private final float[] scratchDisk;
+    private final short[] scratchLatency;
+
+    // Rollup tiers, finest first
+    private final RollupTier[] tiers;
+
+    /**
+     * @param application Application the series belongs to
+     * @param blockSize Samples per block
+     * @param maxBlocks Maximum number of compressed blocks kept
+     * @param retentionMillis Compressed blocks whose newest sample is older than this are dropped
+     * @param rollupBuckets Number of buckets kept per {@link Resolution}, in declaration order
+     */
+    public MetricSeries(String application, int blockSize, int maxBlocks, long retentionMillis, int... rollupBuckets) {
+        this(application, blockSize, maxBlocks, retentionMillis, new HeapSeriesStorage(), rollupBuckets);
+    }
+
+    /**
+     * Create a series on the given storage, restoring whatever the storage kept from a previous run
+     */
+    MetricSeries(String application, int blockSize, int maxBlocks, long retentionMillis, SeriesStorage storage,
+                 int... rollupBuckets) {
+        if (blockSize < 2 || maxBlocks < 1) {
+            throw new IllegalArgumentException("blockSize must be >= 2 and maxBlocks >= 1");
+        }
+        Resolution[] resolutions = Resolution.values();
+        if (rollupBuckets.length != resolutions.length) {
+            throw new IllegalArgumentException("Expected rollup bucket counts for " + resolutions.length + " resolutions");
+        }
+        this.application = application;
+        this.blockSize = blockSize;
+        this.retentionMillis = retentionMillis;
+        this.storage = storage;
+        this.timestamps = new long[blockSize];
+        this.cpu = new float[blockSize];
+        this.memory = new float[blockSize];
+        this.disk = new float[blockSize];
+        this.latency = new short[blockSize];
+        this.blocks = new CompressedBlock[maxBlocks];
+        this.scratchTimestamps = new long[blockSize];
+        this.scratchCpu = new float[blockSize];
+        this.scratchMemory = new float[blockSize];
+        this.scratchDisk = new float[blockSize];
+        this.scratchLatency = new short[blockSize];
+        this.tiers = new RollupTier[resolutions.length];
+        for (int i = 0; i < resolutions.length; i++) {
+            // Quantile sketches only in the coarsest tier, which bounds their memory
+            int capacity = Math.max(1, rollupBuckets[i]);
+            boolean sketches = i == resolutions.length - 1;
+            tiers[i] = new RollupTier(resolutions[i], capacity, sketches,
+                storage.rollupBuffer(resolutions[i], RollupTier.bufferBytes(capacity, sketches)));
+        }
+        this.hotMirror = storage.hotBuffer(HOT_HEADER_BYTES + blockSize * (8 + 4 + 4 + 4 + 2));
+        recover();
+    }
+
+    /**
+     * Append a sample; samples must arrive in timestamp order
+     * @return false if the sample is older than the newest one and was dropped
+     */
+    public synchronized boolean append(long timestamp, float cpuUsage, float memoryUsage, float diskUsage, short networkLatency) {
+        if (timestamp < lastTimestampLocked()) {
+            return false;
+        }
+        timestamps[hotCount] = timestamp;
+        cpu[hotCount] = cpuUsage;
+        memory[hotCount] = memoryUsage;
+        disk[hotCount] = diskUsage;
+        latency[hotCount] = networkLatency;
+        for (RollupTier tier : tiers) {
+            tier.add(timestamp, cpuUsage, memoryUsage, diskUsage, networkLatency);
+        }
+        if (hotMirror != null) {
+            mirrorSample(hotCount);
+        }
+        if (++hotCount == blockSize) {
+            seal();
+        }
+        if (hotMirror != null) {
+            hotMirror.putInt(8, hotCount);
+        }
+        return true;
+    }
+
+    /**
+     * Visit the samples in [fromMillis, toMillis] in timestamp order.
+     * The series is locked while visiting, so the visitor must not block.
+     */
+    public synchronized void scan(long fromMillis, long toMillis, SampleVisitor visitor) {
+        for (int i = 0; i < blockCount; i++) {
+            CompressedBlock block = blocks[(oldestBlock + i) % blocks.length];
+            if (block.lastTimestamp() < fromMillis || block.firstTimestamp() > toMillis) {
+                continue;
+            }
+            block.decode(scratchTimestamps, scratchCpu, scratchMemory, scratchDisk, scratchLatency);
+            visitRange(scratchTimestamps, scratchCpu, scratchMemory, scratchDisk, scratchLatency, block.count(),
+                fromMillis, toMillis, visitor);
+        }
+        visitRange(timestamps, cpu, memory, disk, latency, hotCount, fromMillis, toMillis, visitor);
+    }
+
+    /**
+     * Visit the sample closest to the target time
+     * @param targetMillis Target time
+     * @param toleranceMillis Maximum distance from the target
+     * @return false if no sample lies within the tolerance
+     */
+    public synchronized boolean nearest(long targetMillis, long toleranceMillis, SampleVisitor visitor) {
+        long from = targetMillis - toleranceMillis;
+        long to = targetMillis + toleranceMillis;
+        long bestDistance = Long.MAX_VALUE;
+        long bestTimestamp = 0;
+        float bestCpu = 0, bestMemory = 0, bestDisk = 0;
+        short bestLatency = 0;
+        for (int i = 0; i <= blockCount; i++) {
+            long[] ts;
+            float[] c, m, d;
+            short[] l;
+            int count;
+            if (i < blockCount) {
+                CompressedBlock block = blocks[(oldestBlock + i) % blocks.length];
+                if (block.lastTimestamp() < from || block.firstTimestamp() > to) {
+                    continue;
+                }
+                block.decode(scratchTimestamps, scratchCpu, scratchMemory, scratchDisk, scratchLatency);
+                ts = scratchTimestamps; c = scratchCpu; m = scratchMemory; d = scratchDisk; l = scratchLatency;
+                count = block.count();
+            } else {
+                ts = timestamps; c = cpu; m = memory; d = disk; l = latency;
+                count = hotCount;
+            }
+            int index = lowerBound(ts, count, targetMillis);
+            // The closest sample is either the first at/after the target or the one before it
+            for (int j = Math.max(0, index - 1); j <= index && j < count; j++) {
+                long distance = Math.abs(ts[j] - targetMillis);
+                if (distance <= toleranceMillis && distance < bestDistance) {
+                    bestDistance = distance;
+                    bestTimestamp = ts[j];
+                    bestCpu = c[j];
+                    bestMemory = m[j];
+                    bestDisk = d[j];
+                    bestLatency = l[j];
+                }
+            }
+        }
+        if (bestDistance == Long.MAX_VALUE) {
+            return false;
+        }
+        visitor.accept(bestTimestamp, bestCpu, bestMemory, bestDisk, bestLatency);
+        return true;
+    }
+
+    /**
+     * Read the rollup bucket of the given resolution that contains the given time
+     * @return false if the tier holds no samples for that bucket
+     */
+    public synchronized boolean rollup(Resolution resolution, long timestampMillis, RollupBucket into) {
+        return tiers[resolution.ordinal()].read(timestampMillis, into);
+    }
+
+    /**
+     * Read the finest rollup bucket still holding the given time
+     * @return false if no tier holds samples for that time
+     */
+    public synchronized boolean finestRollup(long timestampMillis, RollupBucket into) {
+        for (RollupTier tier : tiers) {
+            if (tier.read(timestampMillis, into)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String application() {
+        return application;
+    }
+
+    /**
+     * Newest sample time, or Long.MIN_VALUE if the series is empty
+     */
+    public synchronized long lastTimestamp() {
+        return lastTimestampLocked();
+    }
+
+    /**
+     * Oldest retained sample time, or Long.MIN_VALUE if the series is empty
+     */
+    public synchronized long firstTimestamp() {
+        if (blockCount > 0) {
+            return blocks[oldestBlock].firstTimestamp();
+        }
+        return hotCount > 0 ? timestamps[0] : Long.MIN_VALUE;
+    }
+
+    public synchronized boolean isEmpty() {
+        return blockCount == 0 && hotCount == 0;
+    }
+
+    /**
+     * Number of retained samples
+     */
+    public synchronized int size() {
+        int size = hotCount;
+        for (int i = 0; i < blockCount; i++) {
+            size += blocks[(oldestBlock + i) % blocks.length].count();
+        }
+        return size;
+    }
+
+    /**
+     * Approximate heap held by the series: the fixed hot and scratch columns, plus blocks
+     * and rollups unless they are in mapped files
+     */
+    public synchronized long memoryBytes() {
+        long bytes = 2L * blockSize * (8 + 4 + 4 + 4 + 2);
+        if (!storage.mapped()) {
+            bytes += coldBytes;
+            for (RollupTier tier : tiers) {
+                bytes += tier.bufferBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Bytes held by the compressed blocks
+     */
+    public synchronized long compressedBytes() {
+        return coldBytes;
+    }
+
+    /**
+     * Bytes of compressed blocks kept in mapped files, including space of dropped blocks
+     * not yet released with their segment file
+     */
+    public synchronized long storedBytes() {
+        return storage.mapped() ? storage.storedBytes() : 0;
+    }
+
+    /**
+     * Force persisted data to disk
+     */
+    @Override
+    public synchronized void close() {
+        storage.close();
+    }
+
+    private long lastTimestampLocked() {
+        if (hotCount > 0) {
+            return timestamps[hotCount - 1];
+        }
+        return blockCount > 0 ? blocks[(oldestBlock + blockCount - 1) % blocks.length].lastTimestamp() : Long.MIN_VALUE;
+    }
+
+    private void seal() {
+        CompressedBlock block = CompressedBlock.encode(timestamps, cpu, memory, disk, latency, hotCount);
+        try {
+            block = storage.persist(block);
+        } catch (UncheckedIOException e) {
+            // Keep the block on the heap; it is lost on restart but queries still see it
+            logger.warn("⚠️ Failed to persist metric block for {}: {}", application, e.getMessage());
+        }
+        hotCount = 0;
+        addBlock(block);
+    }
+
+    private void addBlock(CompressedBlock block) {
+        if (blockCount == blocks.length) {
+            dropOldest();
+        }
+        blocks[(oldestBlock + blockCount) % blocks.length] = block;
+        blockCount++;
+        coldBytes += block.sizeBytes();
+        long cutoff = block.lastTimestamp() - retentionMillis;
+        while (blockCount > 1 && blocks[oldestBlock].lastTimestamp() < cutoff) {
+            dropOldest();
+        }
+    }
+
+    /**
+     * Restore blocks and the hot block kept by the storage from a previous run
+     */
+    private void recover() {
+        List<CompressedBlock> recovered = storage.recoverBlocks();
+        for (CompressedBlock block : recovered) {
+            addBlock(block);
+        }
+        if (hotMirror == null) {
+            return;
+        }
+        int count = hotMirror.getInt(8);
+        if (hotMirror.getInt(0) != HOT_MAGIC || hotMirror.getInt(4) != blockSize || count < 0 || count >= blockSize) {
+            hotMirror.putInt(4, blockSize);
+            hotMirror.putInt(8, 0);
+            hotMirror.putInt(0, HOT_MAGIC);
+            return;
+        }
+        // Samples already sealed into a block before a crash are skipped
+        long sealedUntil = blockCount > 0 ? lastTimestampLocked() : Long.MIN_VALUE;
+        int columns = HOT_HEADER_BYTES;
+        for (int i = 0; i < count; i++) {
+            long timestamp = hotMirror.getLong(columns + 8 * i);
+            if (timestamp <= sealedUntil) {
+                continue;
+            }
+            timestamps[hotCount] = timestamp;
+            cpu[hotCount] = hotMirror.getFloat(columns + 8 * blockSize + 4 * i);
+            memory[hotCount] = hotMirror.getFloat(columns + 12 * blockSize + 4 * i);
+            disk[hotCount] = hotMirror.getFloat(columns + 16 * blockSize + 4 * i);
+            latency[hotCount] = hotMirror.getShort(columns + 20 * blockSize + 2 * i);
+            hotCount++;
+        }
+        if (hotCount != count) {
+            for (int i = 0; i < hotCount; i++) {
+                mirrorSample(i);
+            }
+            hotMirror.putInt(8, hotCount);
+        }
+    }
+
+    private void mirrorSample(int index) {
+        int columns = HOT_HEADER_BYTES;
+        hotMirror.putLong(columns + 8 * index, timestamps[index]);
+        hotMirror.putFloat(columns + 8 * blockSize + 4 * index, cpu[index]);
+        hotMirror.putFloat(columns + 12 * blockSize + 4 * index, memory[index]);
+        hotMirror.putFloat(columns + 16 * blockSize + 4 * index, disk[index]);
+        hotMirror.putShort(columns + 20 * blockSize + 2 * index, latency[index]);
+    }
+
+    private void dropOldest() {
+        storage.release(blocks[oldestBlock]);
+        coldBytes -= blocks[oldestBlock].sizeBytes();
+        blocks[oldestBlock] = null;
+        oldestBlock = (oldestBlock + 1) % blocks.length;
+        blockCount--;
+    }
+
+    private static void visitRange(long[] ts, float[] c, float[] m, float[] d, short[] l, int count,
+                                   long fromMillis, long toMillis, SampleVisitor visitor) {
+        for (int i = lowerBound(ts, count, fromMillis); i < count && ts[i] <= toMillis; i++) {
+            visitor.accept(ts[i], c[i], m[i], d[i], l[i]);
+        }
+    }
+
+    private static int lowerBound(long[] ts, int count, long target) {
+        int index = Arrays.binarySearch(ts, 0, count, target);
+        if (index < 0) {
+            return -index - 1;
+        }
+        // Equal timestamps are allowed; step back to the first one
+        while (index > 0 && ts[index - 1] == target) {
+            index--;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,217 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Registry of per-application metric series sharing one block layout and retention.
+ * With a directory, each series is persisted in memory-mapped files under its own
+ * subdirectory and {@link #recover(long)} reopens them on startup. Subdirectories are named by the
+ * hex encoding of the application name, so no name can resolve outside the directory.
+ */
+public final class MetricStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricStore.class);
+    private static final HexFormat HEX = HexFormat.of();
+    // Longest encoded name that still fits common file name limits
+    private static final int MAX_DIRECTORY_NAME = 240;
+
+    private final Map<String, MetricSeries> series = new ConcurrentHashMap<>();
+    private final Path directory;
+    private final int blockSize;
+    private final int maxBlocks;
+    private final long retentionMillis;
+    private final int[] rollupBuckets;
+
+    /**
+     * @param blockSize Samples per block
+     * @param maxBlocks Maximum number of compressed blocks per series
+     * @param retentionMillis How long samples are kept
+     * @param rollupBuckets Number of buckets kept per {@link Resolution}, in declaration order
+     */
+    public MetricStore(int blockSize, int maxBlocks, long retentionMillis, int... rollupBuckets) {
+        this(null, blockSize, maxBlocks, retentionMillis, rollupBuckets);
+    }
+
+    /**
+     * @param directory Directory for the mapped series files, or null to keep everything on the heap
+     */
+    public MetricStore(Path directory, int blockSize, int maxBlocks, long retentionMillis, int... rollupBuckets) {
+        this.directory = directory;
+        this.blockSize = blockSize;
+        this.maxBlocks = maxBlocks;
+        this.retentionMillis = retentionMillis;
+        this.rollupBuckets = rollupBuckets.clone();
+    }
+
+    /**
+     * Get or create the series of an application
+     */
+    public MetricSeries series(String application) {
+        return series.computeIfAbsent(application, this::open);
+    }
+
+    /**
+     * Reopen the series persisted under the directory; series with no sample inside the
+     * retention window are deleted instead
+     * @param nowMillis Current time
+     * @return Number of series reopened
+     */
+    public int recover(long nowMillis) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<Path> dirs = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            stream.forEach(dirs::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list metric directory " + directory, e);
+        }
+        int recovered = 0;
+        for (Path dir : dirs) {
+            String application = applicationName(dir.getFileName().toString());
+            if (application == null) {
+                logger.warn("⚠️ Ignoring {}: not a metric series directory", dir);
+                continue;
+            }
+            MetricSeries opened = series(application);
+            if (opened.isEmpty() || opened.lastTimestamp() < nowMillis - retentionMillis) {
+                series.remove(application);
+                opened.close();
+                deleteRecursively(dir);
+            } else {
+                recovered++;
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * Get the series of an application without creating it
+     * @return The series, or null if nothing was recorded for the application
+     */
+    public MetricSeries find(String application) {
+        return series.get(application);
+    }
+
+    public List<String> applications() {
+        return new ArrayList<>(series.keySet());
+    }
+
+    public int seriesCount() {
+        return series.size();
+    }
+
+    public long totalSamples() {
+        long total = 0;
+        for (MetricSeries s : series.values()) {
+            total += s.size();
+        }
+        return total;
+    }
+
+    public long memoryBytes() {
+        long total = 0;
+        for (MetricSeries s : series.values()) {
+            total += s.memoryBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Bytes of compressed blocks kept in mapped files
+     */
+    public long storedBytes() {
+        long total = 0;
+        for (MetricSeries s : series.values()) {
+            total += s.storedBytes();
+        }
+        return total;
+    }
+
+    public long retentionMillis() {
+        return retentionMillis;
+    }
+
+    public boolean persistent() {
+        return directory != null;
+    }
+
+    /**
+     * Force all persisted series to disk
+     */
+    @Override
+    public void close() {
+        for (MetricSeries s : series.values()) {
+            s.close();
+        }
+    }
+
+    private MetricSeries open(String application) {
+        if (directory != null) {
+            Path dir = directory.resolve(directoryName(application));
+            try {
+                if (dir.getFileName().toString().length() > MAX_DIRECTORY_NAME || !directory.equals(dir.getParent())) {
+                    throw new IllegalArgumentException("application name cannot be used as a directory name");
+                }
+                return new MetricSeries(application, blockSize, maxBlocks, retentionMillis,
+                    new MappedSeriesStorage(dir), rollupBuckets);
+            } catch (UncheckedIOException | IllegalArgumentException e) {
+                logger.warn("⚠️ Cannot persist metrics of {} in {}, keeping them on the heap: {}",
+                           application, dir, e.getMessage());
+            }
+        }
+        return new MetricSeries(application, blockSize, maxBlocks, retentionMillis, new HeapSeriesStorage(), rollupBuckets);
+    }
+
+    /**
+     * Directory name of an application's series: the hex encoded UTF-8 name, which contains
+     * neither separators nor dots and cannot collide on case-insensitive file systems
+     */
+    static String directoryName(String application) {
+        return HEX.formatHex(application.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Application name of a series directory
+     * @return The name, or null if the directory name is not an encoded application name
+     */
+    static String applicationName(String directoryName) {
+        if (directoryName.isEmpty() || !directoryName.equals(directoryName.toLowerCase())) {
+            return null;
+        }
+        try {
+            byte[] bytes = HEX.parseHex(directoryName);
+            return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+        } catch (IllegalArgumentException | CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to delete expired metric series {}: {}", dir, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Re-reads the head of a procfs file into a reused buffer and parses numbers from it in place.
+ * The channel stays open; a positional read from offset 0 makes the kernel regenerate the content.
+ * Only the first buffer-full is read, which covers the fields the sampler needs. Not thread safe.
+ */
+final class ProcFile implements Closeable {
+
+    private final Path path;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    private int length;
+    private int position;
+
+    ProcFile(Path path, int bufferSize) {
+        this.path = path;
+        this.bytes = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Read the current content
+     * @return false if the file cannot be read
+     */
+    boolean refresh() {
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(path, StandardOpenOption.READ);
+            }
+            buffer.clear();
+            int read;
+            long offset = 0;
+            while (buffer.hasRemaining() && (read = channel.read(buffer, offset)) > 0) {
+                offset += read;
+            }
+            length = buffer.position();
+            position = 0;
+            return length > 0;
+        } catch (IOException e) {
+            close();
+            return false;
+        }
+    }
+
+    /**
+     * Move to just after the first occurrence of the key at the start of a line
+     * @return false if no line starts with the key
+     */
+    boolean seekLine(byte[] key) {
+        for (int start = 0; start + key.length <= length; ) {
+            if (matches(start, key)) {
+                position = start + key.length;
+                return true;
+            }
+            while (start < length && bytes[start] != '\n') {
+                start++;
+            }
+            start++;
+        }
+        return false;
+    }
+
+    /**
+     * Move to just after the last occurrence of a byte
+     * @return false if the byte does not occur
+     */
+    boolean seekAfterLast(byte b) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == b) {
+                position = i + 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skip whitespace-separated fields on the current line
+     */
+    void skipFields(int count) {
+        for (int i = 0; i < count; i++) {
+            skipSpaces();
+            while (position < length && bytes[position] != ' ' && bytes[position] != '\n') {
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Parse the next unsigned decimal on the current line
+     * @return The value, or -1 if the line has no more numbers
+     */
+    long nextLong() {
+        skipSpaces();
+        if (position >= length || bytes[position] < '0' || bytes[position] > '9') {
+            return -1;
+        }
+        long value = 0;
+        while (position < length && bytes[position] >= '0' && bytes[position] <= '9') {
+            value = value * 10 + (bytes[position++] - '0');
+        }
+        return value;
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Reopened on the next refresh
+            }
+            channel = null;
+        }
+    }
+
+    private void skipSpaces() {
+        while (position < length && (bytes[position] == ' ' || bytes[position] == '\t')) {
+            position++;
+        }
+    }
+
+    private boolean matches(int start, byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            if (bytes[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Fixed-resolution histogram of percentages (0-100 in 0.5 steps). Adding and merging are
+ * array updates, memory is constant, and quantiles are exact to within half a bin.
+ */
+public final class QuantileSketch {
+
+    static final float BIN_WIDTH = 0.5f;
+    static final int BINS = (int) (100 / BIN_WIDTH) + 1;
+
+    private final int[] counts = new int[BINS];
+    private long total;
+
+    public void add(float percent) {
+        counts[bin(percent)]++;
+        total++;
+    }
+
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < BINS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    void copyFrom(QuantileSketch other) {
+        System.arraycopy(other.counts, 0, counts, 0, BINS);
+        total = other.total;
+    }
+
+    /**
+     * Load bin counts stored as consecutive ints at the given buffer offset
+     */
+    void load(ByteBuffer buffer, int offset) {
+        total = 0;
+        for (int i = 0; i < BINS; i++) {
+            counts[i] = buffer.getInt(offset + 4 * i);
+            total += counts[i];
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    /**
+     * Value at the given quantile, interpolated within its bin
+     * @param q Quantile in [0, 1]
+     * @return The quantile, or NaN if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (total == 0) {
+            return Double.NaN;
+        }
+        double rank = Math.max(1, Math.ceil(Math.min(1, Math.max(0, q)) * total));
+        long seen = 0;
+        for (int i = 0; i < BINS; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (seen + counts[i] >= rank) {
+                double lower = Math.max(0, i * BIN_WIDTH - BIN_WIDTH / 2);
+                double upper = Math.min(100, i * BIN_WIDTH + BIN_WIDTH / 2);
+                return lower + (upper - lower) * (rank - seen) / counts[i];
+            }
+            seen += counts[i];
+        }
+        return 100;
+    }
+
+    static int bin(float percent) {
+        if (!(percent > 0)) {
+            return 0;
+        }
+        return Math.min(BINS - 1, Math.round(percent / BIN_WIDTH));
+    }
+}
@@ -0,0 +1,33 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+/**
+ * Bucket widths of the rollup tiers, finest first. Buckets are aligned to the epoch (UTC).
+ */
+public enum Resolution {
+    MINUTE(60_000L, "1分钟"),
+    HOUR(3_600_000L, "1小时"),
+    DAY(86_400_000L, "1天");
+
+    private final long widthMillis;
+    private final String label;
+
+    Resolution(long widthMillis, String label) {
+        this.widthMillis = widthMillis;
+        this.label = label;
+    }
+
+    public long widthMillis() {
+        return widthMillis;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Start of the bucket containing the given time
+     */
+    public long bucketStart(long timestampMillis) {
+        return Math.floorDiv(timestampMillis, widthMillis) * widthMillis;
+    }
+}
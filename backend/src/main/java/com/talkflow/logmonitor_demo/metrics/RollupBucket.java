@@ -0,0 +1,56 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+/**
+ * Reusable holder for one rollup bucket read from a series, so queries allocate nothing per bucket
+ */
+public final class RollupBucket {
+
+    Resolution resolution;
+    long start;
+    int count;
+    final float[] min = new float[Metric.COUNT];
+    final float[] max = new float[Metric.COUNT];
+    final float[] sum = new float[Metric.COUNT];
+    final StreamingStats cpuStats = new StreamingStats();
+    final QuantileSketch cpuSketch = new QuantileSketch();
+    boolean hasSketch;
+
+    public Resolution resolution() {
+        return resolution;
+    }
+
+    public long start() {
+        return start;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public float min(Metric metric) {
+        return min[metric.ordinal()];
+    }
+
+    public float max(Metric metric) {
+        return max[metric.ordinal()];
+    }
+
+    public float avg(Metric metric) {
+        return count == 0 ? 0 : sum[metric.ordinal()] / count;
+    }
+
+    /**
+     * Welford statistics of the CPU samples in this bucket; merge into another instance to combine buckets
+     */
+    public StreamingStats cpuStats() {
+        return cpuStats;
+    }
+
+    /**
+     * Quantile sketch of the CPU samples in this bucket
+     * @return The sketch, or null if the bucket's tier keeps no sketches
+     */
+    public QuantileSketch cpuSketch() {
+        return hasSketch ? cpuSketch : null;
+    }
+}
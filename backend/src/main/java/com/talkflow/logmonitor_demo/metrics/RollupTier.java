@@ -0,0 +1,160 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed ring of rollup buckets of one resolution, with min/max/sum per metric and a sample count.
+ * A bucket's slot is its start divided by the width modulo the capacity, so reading the bucket for
+ * a given time is a single lookup; a slot is reset when a newer bucket reuses it.
+ * CPU additionally keeps Welford mean/M2 per bucket and, if enabled, a quantile sketch.
+ * All state lives in one fixed-layout buffer, which is a mapped file when the series is persisted.
+ */
+final class RollupTier {
+
+    private static final int MAGIC = 0x4D524F4C;
+    private static final int HEADER_BYTES = 16;
+    // Slot layout: start, count, min[4], max[4], sum[4], padding, cpu mean, cpu M2
+    private static final int START = 0;
+    private static final int COUNT = 8;
+    private static final int MIN = 12;
+    private static final int MAX = MIN + 4 * Metric.COUNT;
+    private static final int SUM = MAX + 4 * Metric.COUNT;
+    private static final int CPU_MEAN = 64;
+    private static final int CPU_M2 = 72;
+    private static final int SLOT_BYTES = 80;
+    private static final int SKETCH_BYTES = 4 * QuantileSketch.BINS;
+
+    private final Resolution resolution;
+    private final int capacity;
+    private final boolean sketches;
+    private final ByteBuffer buffer;
+    private final int sketchRegion;
+
+    /**
+     * @param buffer Zero-filled or previously written buffer of {@link #bufferBytes} bytes;
+     *               contents with a different layout are discarded
+     */
+    RollupTier(Resolution resolution, int capacity, boolean sketches, ByteBuffer buffer) {
+        this.resolution = resolution;
+        this.capacity = capacity;
+        this.sketches = sketches;
+        this.buffer = buffer;
+        this.sketchRegion = HEADER_BYTES + capacity * SLOT_BYTES;
+        int magic = buffer.getInt(0);
+        if (magic != MAGIC || buffer.getInt(4) != resolution.ordinal()
+                || buffer.getInt(8) != capacity || buffer.getInt(12) != (sketches ? 1 : 0)) {
+            if (magic != 0) {
+                // Written with another layout; new buffers are already zero, so mapped pages stay untouched
+                for (int i = 0; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+            buffer.putInt(4, resolution.ordinal());
+            buffer.putInt(8, capacity);
+            buffer.putInt(12, sketches ? 1 : 0);
+            buffer.putInt(0, MAGIC);
+        }
+    }
+
+    /**
+     * Size of the buffer holding a tier of the given capacity
+     */
+    static int bufferBytes(int capacity, boolean sketches) {
+        return HEADER_BYTES + capacity * (SLOT_BYTES + (sketches ? SKETCH_BYTES : 0));
+    }
+
+    void add(long timestamp, float cpu, float memory, float disk, float latency) {
+        long start = resolution.bucketStart(timestamp);
+        int slot = slot(start);
+        int base = HEADER_BYTES + slot * SLOT_BYTES;
+        int count = buffer.getInt(base + COUNT);
+        if (count == 0 || buffer.getLong(base + START) != start) {
+            if (count > 0 && buffer.getLong(base + START) > start) {
+                // Older than everything the slot can still hold
+                return;
+            }
+            buffer.putLong(base + START, start);
+            count = 0;
+            buffer.putDouble(base + CPU_MEAN, 0);
+            buffer.putDouble(base + CPU_M2, 0);
+            if (sketches) {
+                int sketch = sketchRegion + slot * SKETCH_BYTES;
+                for (int i = 0; i < QuantileSketch.BINS; i++) {
+                    buffer.putInt(sketch + 4 * i, 0);
+                }
+            }
+        }
+        count++;
+        boolean first = count == 1;
+        accumulate(base, 0, cpu, first);
+        accumulate(base, 1, memory, first);
+        accumulate(base, 2, disk, first);
+        accumulate(base, 3, latency, first);
+        double mean = buffer.getDouble(base + CPU_MEAN);
+        double delta = cpu - mean;
+        mean += delta / count;
+        buffer.putDouble(base + CPU_MEAN, mean);
+        buffer.putDouble(base + CPU_M2, buffer.getDouble(base + CPU_M2) + delta * (cpu - mean));
+        if (sketches) {
+            int bin = sketchRegion + slot * SKETCH_BYTES + 4 * QuantileSketch.bin(cpu);
+            buffer.putInt(bin, buffer.getInt(bin) + 1);
+        }
+        buffer.putInt(base + COUNT, count);
+    }
+
+    /**
+     * Copy the bucket containing the given time
+     * @return false if that bucket has no samples or was already overwritten
+     */
+    boolean read(long timestamp, RollupBucket into) {
+        long start = resolution.bucketStart(timestamp);
+        int slot = slot(start);
+        int base = HEADER_BYTES + slot * SLOT_BYTES;
+        int count = buffer.getInt(base + COUNT);
+        if (count == 0 || buffer.getLong(base + START) != start) {
+            return false;
+        }
+        into.resolution = resolution;
+        into.start = start;
+        into.count = count;
+        for (int metric = 0; metric < Metric.COUNT; metric++) {
+            into.min[metric] = buffer.getFloat(base + MIN + 4 * metric);
+            into.max[metric] = buffer.getFloat(base + MAX + 4 * metric);
+            into.sum[metric] = buffer.getFloat(base + SUM + 4 * metric);
+        }
+        into.cpuStats.set(count, buffer.getDouble(base + CPU_MEAN), buffer.getDouble(base + CPU_M2),
+            into.min[0], into.max[0]);
+        into.hasSketch = sketches;
+        if (sketches) {
+            into.cpuSketch.load(buffer, sketchRegion + slot * SKETCH_BYTES);
+        }
+        return true;
+    }
+
+    Resolution resolution() {
+        return resolution;
+    }
+
+    int bufferBytes() {
+        return buffer.capacity();
+    }
+
+    private void accumulate(int base, int metric, float value, boolean first) {
+        int min = base + MIN + 4 * metric;
+        int max = base + MAX + 4 * metric;
+        int sum = base + SUM + 4 * metric;
+        if (first) {
+            buffer.putFloat(min, value);
+            buffer.putFloat(max, value);
+            buffer.putFloat(sum, value);
+        } else {
+            buffer.putFloat(min, Math.min(buffer.getFloat(min), value));
+            buffer.putFloat(max, Math.max(buffer.getFloat(max), value));
+            buffer.putFloat(sum, buffer.getFloat(sum) + value);
+        }
+    }
+
+    private int slot(long start) {
+        return (int) Math.floorMod(Math.floorDiv(start, resolution.widthMillis()), (long) capacity);
+    }
+}
@@ -0,0 +1,18 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+/**
+ * Receives metric samples as primitives, so scanning a series allocates nothing per sample
+ */
+@FunctionalInterface
+public interface SampleVisitor {
+
+    /**
+     * Visit one sample
+     * @param timestamp Epoch milliseconds
+     * @param cpuUsage CPU usage in percent
+     * @param memoryUsage Memory usage in percent
+     * @param diskUsage Disk usage in percent
+     * @param networkLatency Network latency in milliseconds
+     */
+    void accept(long timestamp, float cpuUsage, float memoryUsage, float diskUsage, short networkLatency);
+}
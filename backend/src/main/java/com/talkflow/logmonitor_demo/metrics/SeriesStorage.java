@@ -0,0 +1,51 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Where a series keeps its rollups, hot block and compressed blocks: on the heap, or in
+ * memory-mapped files so the history survives restarts and stays off the heap
+ */
+interface SeriesStorage extends Closeable {
+
+    /**
+     * Get the fixed-layout buffer of a rollup tier; new buffers are zero-filled
+     */
+    ByteBuffer rollupBuffer(Resolution resolution, int bytes);
+
+    /**
+     * Get the fixed-layout buffer mirroring the hot block, or null if the hot block is not persisted
+     */
+    ByteBuffer hotBuffer(int bytes);
+
+    /**
+     * Store a sealed block
+     * @return The block as kept by the storage, possibly backed by a mapped file instead of the heap
+     */
+    CompressedBlock persist(CompressedBlock block);
+
+    /**
+     * Release a block dropped by the series
+     */
+    void release(CompressedBlock block);
+
+    /**
+     * Blocks stored by a previous run, oldest first
+     */
+    List<CompressedBlock> recoverBlocks();
+
+    /**
+     * Whether blocks and rollups live outside the heap
+     */
+    boolean mapped();
+
+    /**
+     * Bytes held by stored blocks, including superseded space not yet released
+     */
+    long storedBytes();
+
+    @Override
+    void close();
+}
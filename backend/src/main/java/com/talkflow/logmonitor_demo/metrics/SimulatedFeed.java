@@ -0,0 +1,78 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import java.util.Random;
+
+/**
+ * Simulated per-minute samples for applications without real metrics: a random walk within
+ * realistic ranges for the application type, seeded by the application name. Filling continues
+ * after the newest sample of the series, so a series recovered from disk only gets the gap since
+ * it was last written instead of a second backfill.
+ */
+public final class SimulatedFeed {
+
+    public static final long INTERVAL_MILLIS = 60 * 1000L;
+
+    private final Random random;
+    private final float cpuMin;
+    private final float cpuMax;
+    private float cpu;
+    private float memory;
+    private float disk;
+    private int latency;
+
+    public SimulatedFeed(String application) {
+        random = new Random(application.hashCode());
+        if ("wmpooc".equals(application)) {
+            // wmpooc application has very high CPU usage (always > 90%)
+            cpuMin = 90;
+            cpuMax = 100;
+        } else if (application.contains("service")) {
+            // Service applications have moderate CPU usage
+            cpuMin = 30;
+            cpuMax = 70;
+        } else {
+            // Other applications have lower CPU usage
+            cpuMin = 20;
+            cpuMax = 50;
+        }
+        cpu = cpuMin + random.nextFloat() * (cpuMax - cpuMin);
+        memory = 50 + random.nextFloat() * 30;
+        disk = 60 + random.nextFloat() * 20;
+        latency = 20 + random.nextInt(50);
+    }
+
+    /**
+     * Simulate samples up to the given time, starting one interval after the newest sample of the
+     * series, or at the start of the backfill window for an empty series
+     * @param series Series whose newest sample the feed continues from
+     * @param nowMillis Time of the last simulated sample
+     * @param backfillMillis How far back an empty series is filled
+     * @param sink Receives each simulated sample, in time order
+     * @return Number of simulated samples
+     */
+    public synchronized int fill(MetricSeries series, long nowMillis, long backfillMillis, SampleVisitor sink) {
+        long last = series.lastTimestamp();
+        long start = last == Long.MIN_VALUE ? nowMillis - backfillMillis : last + INTERVAL_MILLIS;
+        int count = 0;
+        for (long t = start; t <= nowMillis; t += INTERVAL_MILLIS) {
+            advance();
+            sink.accept(t, cpu, memory, disk, (short) latency);
+            count++;
+        }
+        return count;
+    }
+
+    private void advance() {
+        cpu = walk(cpu, cpuMin, cpuMax);
+        memory = walk(memory, 50, 80);
+        disk = walk(disk, 60, 80);
+        latency = Math.round(walk(latency, 20, 70));
+    }
+
+    private float walk(float value, float min, float max) {
+        float next = value + (random.nextFloat() - 0.5f) * (max - min) * 0.1f;
+        next = Math.min(max, Math.max(min, next));
+        // Keep one decimal, as a real collector would report
+        return Math.round(next * 10) / 10f;
+    }
+}
@@ -0,0 +1,92 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+/**
+ * Single-pass count/mean/variance/min/max using Welford's update, mergeable with Chan's formula,
+ * so statistics of buckets, shards or rollups combine without revisiting samples
+ */
+public final class StreamingStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (count == 1) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+    }
+
+    public void merge(StreamingStats other) {
+        merge(other.count, other.mean, other.m2, other.min, other.max);
+    }
+
+    void merge(long otherCount, double otherMean, double otherM2, double otherMin, double otherMax) {
+        if (otherCount == 0) {
+            return;
+        }
+        if (count == 0) {
+            set(otherCount, otherMean, otherM2, otherMin, otherMax);
+            return;
+        }
+        long total = count + otherCount;
+        double delta = otherMean - mean;
+        mean += delta * otherCount / total;
+        m2 += otherM2 + delta * delta * ((double) count * otherCount / total);
+        count = total;
+        min = Math.min(min, otherMin);
+        max = Math.max(max, otherMax);
+    }
+
+    void set(long count, double mean, double m2, double min, double max) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+        this.min = min;
+        this.max = max;
+    }
+
+    public void reset() {
+        set(0, 0, 0, Double.NaN, Double.NaN);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    double m2() {
+        return m2;
+    }
+
+    /**
+     * Population variance, 0 for fewer than two values
+     */
+    public double variance() {
+        return count > 1 ? m2 / count : 0;
+    }
+
+    public double stddev() {
+        return Math.sqrt(variance());
+    }
+
+    public double min() {
+        return min;
+    }
+
+    public double max() {
+        return max;
+    }
+}
@@ -0,0 +1,89 @@
+package com.talkflow.logmonitor_demo.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Immutable alert record held by the alert store
+ * @param alertId Unique alert id
+ * @param application Application that raised the alert
+ * @param severity Alert severity level (CRITICAL, HIGH, MEDIUM, LOW)
+ * @param alertType Alert type (CPU过载, 服务不可用)
+ * @param title Alert title
+ * @param description Alert description
+ * @param timestamp Time the alert occurred (yyyy-MM-dd HH:mm:ss)
+ * @param timestampMillis Same time as epoch milliseconds; derived from the other one when 0 or null is given
+ * @param status Alert status (ACTIVE, ACKNOWLEDGED, RESOLVED)
+ * @param metrics Related metrics, may be null
+ * @param recommendations Handling recommendations, may be null
+ * @param source Where the alert came from (MOCK, INGEST, LOG, METRIC)
+ * @param aggregation Duplicate occurrences folded into this alert, null if not aggregated
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Alert(
+        String alertId,
+        String application,
+        String severity,
+        String alertType,
+        String title,
+        String description,
+        String timestamp,
+        long timestampMillis,
+        String status,
+        AlertMetrics metrics,
+        List<String> recommendations,
+        String source,
+        AlertAggregation aggregation) {
+
+    public static final String SOURCE_MOCK = "MOCK";
+    public static final String SOURCE_INGEST = "INGEST";
+    public static final String SOURCE_LOG = "LOG";
+    public static final String SOURCE_METRIC = "METRIC";
+
+    public static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    public Alert {
+        recommendations = recommendations != null ? List.copyOf(recommendations) : null;
+        if (timestampMillis == 0 && timestamp != null) {
+            timestampMillis = parseTimestamp(timestamp);
+        } else if (timestamp == null && timestampMillis != 0) {
+            timestamp = formatTimestamp(timestampMillis);
+        }
+    }
+
+    /**
+     * Format epoch milliseconds as an alert timestamp in the system time zone
+     * @param epochMillis Epoch milliseconds
+     * @return Timestamp (yyyy-MM-dd HH:mm:ss)
+     */
+    public static String formatTimestamp(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).format(TIMESTAMP_FORMAT);
+    }
+
+    /**
+     * Parse an alert timestamp in the system time zone
+     * @param timestamp Timestamp (yyyy-MM-dd HH:mm:ss)
+     * @return Epoch milliseconds, or 0 if the timestamp cannot be parsed
+     */
+    public static long parseTimestamp(String timestamp) {
+        try {
+            return LocalDateTime.parse(timestamp.trim(), TIMESTAMP_FORMAT).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Copy of this alert with the given aggregation
+     */
+    public Alert withAggregation(AlertAggregation aggregation) {
+        return new Alert(alertId, application, severity, alertType, title, description, timestamp, timestampMillis,
+            status, metrics, recommendations, source, aggregation);
+    }
+}
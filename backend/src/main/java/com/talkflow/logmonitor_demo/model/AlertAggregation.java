@@ -0,0 +1,29 @@
+package com.talkflow.logmonitor_demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * Occurrence summary of an alert that folds duplicates with the same fingerprint
+ * @param fingerprint Identity of the duplicates (source, application, alert type, title, severity)
+ * @param count Number of folded occurrences
+ * @param firstSeen Timestamp of the earliest occurrence
+ * @param lastSeen Timestamp of the latest occurrence
+ * @param minMetrics Per-metric minimum over all occurrences, null if no occurrence had metrics
+ * @param maxMetrics Per-metric maximum over all occurrences, null if no occurrence had metrics
+ * @param recentIds Ids of the latest occurrences, newest last, so re-delivered ones are not counted again
+ */
+public record AlertAggregation(
+        String fingerprint,
+        int count,
+        String firstSeen,
+        String lastSeen,
+        AlertMetrics minMetrics,
+        AlertMetrics maxMetrics,
+        @JsonIgnore List<String> recentIds) {
+
+    public AlertAggregation {
+        recentIds = recentIds != null ? List.copyOf(recentIds) : List.of();
+    }
+}
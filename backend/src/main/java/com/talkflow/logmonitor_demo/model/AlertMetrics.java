@@ -0,0 +1,11 @@
+package com.talkflow.logmonitor_demo.model;
+
+/**
+ * Metrics attached to an alert, kept as primitives to avoid boxing
+ * @param cpuUsage CPU usage in percent
+ * @param memoryUsage Memory usage in percent
+ * @param diskUsage Disk usage in percent
+ * @param networkLatency Network latency in milliseconds
+ */
+public record AlertMetrics(int cpuUsage, int memoryUsage, int diskUsage, int networkLatency) {
+}
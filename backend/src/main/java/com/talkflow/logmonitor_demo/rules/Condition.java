@@ -0,0 +1,86 @@
+package com.talkflow.logmonitor_demo.rules;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed rule condition: field, operator, constant and, for history conditions, the number of days.
+ * Equal conditions of different rules compare equal, so the rule set evaluates them once.
+ * @param field Compared field
+ * @param operator Comparison
+ * @param number Constant of a numeric field
+ * @param text Constant of a text field
+ * @param days Days of daily averages that must all satisfy the comparison, 0 for the alert's own value
+ */
+record Condition(RuleField field, Operator operator, double number, String text, int days) {
+
+    private static final Pattern SYNTAX = Pattern.compile(
+        "^\\s*(\\w+)\\s*(>=|<=|==|!=|>|<)\\s*(.+?)(?:\\s+for\\s+(\\d+)\\s*d(?:ays?)?)?\\s*$");
+
+    enum Operator {
+        GT(">"), GE(">="), LT("<"), LE("<="), EQ("=="), NE("!=");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        static Operator bySymbol(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operator " + symbol);
+        }
+    }
+
+    /**
+     * Parse a condition such as {@code cpuUsage > 70 for 5d} or {@code severity == CRITICAL}
+     * @throws IllegalArgumentException if the condition is not valid
+     */
+    static Condition parse(String source) {
+        Matcher matcher = SYNTAX.matcher(source != null ? source : "");
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid condition: " + source);
+        }
+        RuleField field = RuleField.byKey(matcher.group(1));
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field in condition: " + source);
+        }
+        Operator operator = Operator.bySymbol(matcher.group(2));
+        String constant = matcher.group(3).trim();
+        int days = matcher.group(4) != null ? Integer.parseInt(matcher.group(4)) : 0;
+        if (!field.numeric()) {
+            if (operator != Operator.EQ && operator != Operator.NE || days > 0) {
+                throw new IllegalArgumentException("Text fields only support == and !=: " + source);
+            }
+            return new Condition(field, operator, Double.NaN, unquote(constant), 0);
+        }
+        if (days > 0 && (operator == Operator.EQ || operator == Operator.NE)) {
+            throw new IllegalArgumentException("History conditions only support <, <=, > and >=: " + source);
+        }
+        try {
+            return new Condition(field, operator, Double.parseDouble(constant), null, days);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number in condition: " + source);
+        }
+    }
+
+    private static String unquote(String constant) {
+        if (constant.length() >= 2 && (constant.startsWith("\"") && constant.endsWith("\"")
+                || constant.startsWith("'") && constant.endsWith("'"))) {
+            return constant.substring(1, constant.length() - 1);
+        }
+        return constant;
+    }
+
+    @Override
+    public String toString() {
+        String constant = field.numeric()
+            ? (number == Math.rint(number) ? Long.toString((long) number) : Double.toString(number))
+            : text;
+        return field.key() + " " + operator.symbol + " " + constant + (days > 0 ? " for " + days + "d" : "");
+    }
+}
@@ -0,0 +1,16 @@
+package com.talkflow.logmonitor_demo.rules;
+
+import com.talkflow.logmonitor_demo.metrics.Metric;
+
+/**
+ * Daily metric history used by {@code for <n>d} conditions
+ */
+@FunctionalInterface
+public interface HistorySource {
+
+    /**
+     * Daily averages of a metric, today first
+     * @return One value per day, NaN for days without samples
+     */
+    double[] dailyAverages(String application, Metric metric, int days);
+}
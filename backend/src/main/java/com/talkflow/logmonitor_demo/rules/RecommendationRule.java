@@ -0,0 +1,24 @@
+package com.talkflow.logmonitor_demo.rules;
+
+import java.util.List;
+
+/**
+ * Declarative recommendation rule, as written in the rule catalog.
+ * Conditions compare an alert field with a constant, e.g. {@code networkLatency >= 300} or
+ * {@code severity == CRITICAL}; a metric condition with {@code for <n>d} must hold for the daily
+ * average of each of the last n days, e.g. {@code cpuUsage > 70 for 5d}.
+ * @param id Unique rule id
+ * @param alertType Alert type the rule applies to, null for all types
+ * @param when Conditions that must all hold
+ * @param unless Conditions of which none may hold
+ * @param recommendation Recommendation text attached to matching alerts
+ * @param priority Rules with a higher priority are listed first
+ */
+public record RecommendationRule(String id, String alertType, List<String> when, List<String> unless,
+                                 String recommendation, int priority) {
+
+    public RecommendationRule {
+        when = when != null ? List.copyOf(when) : List.of();
+        unless = unless != null ? List.copyOf(unless) : List.of();
+    }
+}
@@ -0,0 +1,232 @@
+package com.talkflow.logmonitor_demo.rules;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Recommendation rule catalog loaded from a JSON file, or from every *.json file of a directory.
+ * The catalog is parsed and compiled on a watcher thread whenever the files change, then published
+ * as an immutable snapshot through a volatile field, so readers never lock and always see one
+ * complete version. A catalog that fails to parse or compile, or has no rules, is rejected and
+ * the last good snapshot stays in use.
+ */
+public final class RuleCatalog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleCatalog.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<List<RecommendationRule>> RULE_LIST = new TypeReference<>() { };
+
+    /**
+     * A published catalog version
+     * @param rules Compiled rules
+     * @param version Number of successful loads, starting at 1
+     * @param loadedAtMillis When this version was published
+     * @param files Files the rules were read from
+     */
+    public record Snapshot(RuleSet rules, long version, long loadedAtMillis, List<Path> files) {
+    }
+
+    private final Path location;
+    private final long reloadDelayMillis;
+    private volatile Snapshot snapshot;
+    private volatile String lastError;
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Load the catalog; unlike later reloads, a bad catalog here fails fast
+     * @param location Catalog file, or directory of catalog files
+     * @param reloadDelayMillis Quiet period after a change before reloading, so an editor's
+     *                          burst of writes and renames becomes one reload
+     * @throws IllegalArgumentException if the catalog cannot be read or compiled
+     */
+    public RuleCatalog(Path location, long reloadDelayMillis) {
+        this.location = location;
+        this.reloadDelayMillis = reloadDelayMillis;
+        this.snapshot = load(1);
+    }
+
+    /**
+     * Get the current snapshot, without locking
+     */
+    public Snapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * Read and compile the catalog again and publish it if it is valid
+     * @return true if a new snapshot was published, false if the catalog was rejected
+     */
+    public synchronized boolean reload() {
+        reloadCount.incrementAndGet();
+        try {
+            Snapshot loaded = load(snapshot.version() + 1);
+            snapshot = loaded;
+            lastError = null;
+            logger.info("📐 Reloaded recommendation rules v{}: {} rules ({} distinct conditions) from {}",
+                       loaded.version(), loaded.rules().size(), loaded.rules().conditionCount(), location);
+            return true;
+        } catch (RuntimeException e) {
+            rejectedCount.incrementAndGet();
+            lastError = e.getMessage();
+            logger.warn("⚠️ Rejected recommendation rules from {}, keeping v{}: {}",
+                       location, snapshot.version(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Start watching the catalog location and reload after changes
+     * @throws IOException if the location cannot be watched
+     */
+    public synchronized void watch() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        Path directory = Files.isDirectory(location) ? location : location.toAbsolutePath().getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        // Editors often save through a temporary file and a rename, which shows up as a create
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = new Thread(this::watchLoop, "rule-catalog-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    public Path location() {
+        return location;
+    }
+
+    public String lastError() {
+        return lastError;
+    }
+
+    public long reloadCount() {
+        return reloadCount.get();
+    }
+
+    public long rejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public boolean watching() {
+        return watcher != null && watcher.isAlive();
+    }
+
+    /**
+     * Stop watching; the current snapshot stays readable
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean relevant = drain(key);
+                // Collect the rest of the burst until the files have been quiet for the delay
+                WatchKey next;
+                while ((next = watchService.poll(reloadDelayMillis, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(next);
+                }
+                if (relevant) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Catalog closed
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (var event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                relevant = true;
+            } else if (event.context() instanceof Path changed) {
+                relevant |= Files.isDirectory(location)
+                    ? isCatalogFile(changed)
+                    : changed.equals(location.getFileName());
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private Snapshot load(long version) {
+        List<Path> files = catalogFiles();
+        List<RecommendationRule> rules = new ArrayList<>();
+        for (Path file : files) {
+            rules.addAll(readRules(file));
+        }
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("No rules in " + location);
+        }
+        return new Snapshot(RuleSet.compile(rules), version, System.currentTimeMillis(), List.copyOf(files));
+    }
+
+    private List<Path> catalogFiles() {
+        if (!Files.isDirectory(location)) {
+            return List.of(location);
+        }
+        try (Stream<Path> entries = Files.list(location)) {
+            return entries.filter(path -> isCatalogFile(path.getFileName()) && Files.isRegularFile(path))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot list rule catalog " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean isCatalogFile(Path name) {
+        String fileName = name.toString();
+        // Skip hidden and editor swap files
+        return fileName.endsWith(".json") && !fileName.startsWith(".");
+    }
+
+    /**
+     * Read a JSON rule list from a file
+     * @throws IllegalArgumentException if the file cannot be read or parsed
+     */
+    static List<RecommendationRule> readRules(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return readRules(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read rule catalog " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read a JSON rule list, such as the catalog bundled on the classpath
+     */
+    public static List<RecommendationRule> readRules(InputStream in) throws IOException {
+        List<RecommendationRule> rules = MAPPER.readValue(in, RULE_LIST);
+        return rules != null ? rules : List.of();
+    }
+}
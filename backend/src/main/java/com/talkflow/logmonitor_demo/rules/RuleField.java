@@ -0,0 +1,84 @@
+package com.talkflow.logmonitor_demo.rules;
+
+import com.talkflow.logmonitor_demo.metrics.Metric;
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+
+/**
+ * Alert fields rule conditions can refer to
+ */
+public enum RuleField {
+    ALERT_TYPE("alertType", null),
+    SEVERITY("severity", null),
+    APPLICATION("application", null),
+    STATUS("status", null),
+    SOURCE("source", null),
+    CPU_USAGE("cpuUsage", Metric.CPU),
+    MEMORY_USAGE("memoryUsage", Metric.MEMORY),
+    DISK_USAGE("diskUsage", Metric.DISK),
+    NETWORK_LATENCY("networkLatency", Metric.LATENCY);
+
+    private final String key;
+    private final Metric metric;
+
+    RuleField(String key, Metric metric) {
+        this.key = key;
+        this.metric = metric;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Metric history of a numeric field, null for text fields
+     */
+    public Metric metric() {
+        return metric;
+    }
+
+    public boolean numeric() {
+        return metric != null;
+    }
+
+    /**
+     * Find a field by its key as written in conditions
+     * @return The field, or null if there is none
+     */
+    public static RuleField byKey(String key) {
+        for (RuleField field : values()) {
+            if (field.key.equals(key)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    String text(Alert alert) {
+        return switch (this) {
+            case ALERT_TYPE -> alert.alertType();
+            case SEVERITY -> alert.severity();
+            case APPLICATION -> alert.application();
+            case STATUS -> alert.status();
+            case SOURCE -> alert.source();
+            default -> null;
+        };
+    }
+
+    /**
+     * Current value of a numeric field, NaN if the alert has no metrics
+     */
+    double number(Alert alert) {
+        AlertMetrics metrics = alert.metrics();
+        if (metrics == null) {
+            return Double.NaN;
+        }
+        return switch (this) {
+            case CPU_USAGE -> metrics.cpuUsage();
+            case MEMORY_USAGE -> metrics.memoryUsage();
+            case DISK_USAGE -> metrics.diskUsage();
+            case NETWORK_LATENCY -> metrics.networkLatency();
+            default -> Double.NaN;
+        };
+    }
+}
@@ -0,0 +1,454 @@
+package com.talkflow.logmonitor_demo.rules;
+
+import com.talkflow.logmonitor_demo.metrics.Metric;
+import com.talkflow.logmonitor_demo.model.Alert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable set of recommendation rules compiled into an index. Identical conditions of all rules
+ * are evaluated once per alert: numeric thresholds are kept sorted per field and operator, so the
+ * satisfied ones are found with a binary search, and text conditions are hash lookups. Each
+ * satisfied condition counts towards the rules that need it; a rule matches once all of its
+ * conditions were counted and none of its exclusions was satisfied. Evaluating an alert costs
+ * the satisfied conditions and the rules they touch, not the size of the rule set.
+ */
+public final class RuleSet {
+
+    private static final int METRICS = Metric.values().length;
+    private static final RuleSet EMPTY = compile(List.of());
+
+    // Rules ordered by priority, so ascending rule numbers are the output order
+    private final List<RecommendationRule> rules;
+    private final Map<String, RecommendationRule> byId;
+    private final int predicateCount;
+    private final int[] whenCounts;
+    private final int[][] whenRules;
+    private final int[][] unlessRules;
+    private final int[] unconditional;
+    private final TextIndex[] textIndexes;
+    private final NumericIndex[] numericIndexes;
+    private final int[] historyDays;
+
+    private RuleSet(List<RecommendationRule> rules, Map<Condition, Integer> predicates,
+                    List<int[]> when, List<int[]> unless) {
+        this.rules = List.copyOf(rules);
+        this.byId = new LinkedHashMap<>();
+        for (RecommendationRule rule : rules) {
+            byId.put(rule.id(), rule);
+        }
+        this.predicateCount = predicates.size();
+        this.whenCounts = new int[rules.size()];
+        List<List<Integer>> whenByPredicate = new ArrayList<>();
+        List<List<Integer>> unlessByPredicate = new ArrayList<>();
+        for (int i = 0; i < predicateCount; i++) {
+            whenByPredicate.add(new ArrayList<>());
+            unlessByPredicate.add(new ArrayList<>());
+        }
+        List<Integer> always = new ArrayList<>();
+        for (int r = 0; r < rules.size(); r++) {
+            whenCounts[r] = when.get(r).length;
+            if (whenCounts[r] == 0) {
+                always.add(r);
+            }
+            for (int p : when.get(r)) {
+                whenByPredicate.get(p).add(r);
+            }
+            for (int p : unless.get(r)) {
+                unlessByPredicate.get(p).add(r);
+            }
+        }
+        this.whenRules = toArrays(whenByPredicate);
+        this.unlessRules = toArrays(unlessByPredicate);
+        this.unconditional = always.stream().mapToInt(Integer::intValue).toArray();
+
+        // One index per text field and one per numeric field and history length
+        this.textIndexes = new TextIndex[RuleField.values().length];
+        Map<Long, NumericIndex> numeric = new LinkedHashMap<>();
+        this.historyDays = new int[METRICS];
+        predicates.forEach((condition, id) -> {
+            RuleField field = condition.field();
+            if (!field.numeric()) {
+                TextIndex index = textIndexes[field.ordinal()];
+                if (index == null) {
+                    index = textIndexes[field.ordinal()] = new TextIndex(field);
+                }
+                index.add(condition, id);
+                return;
+            }
+            numeric.computeIfAbsent((long) field.ordinal() << 32 | condition.days(),
+                key -> new NumericIndex(field, condition.days())).add(condition, id);
+            int metric = field.metric().ordinal();
+            historyDays[metric] = Math.max(historyDays[metric], condition.days());
+        });
+        for (NumericIndex index : numeric.values()) {
+            index.seal();
+        }
+        this.numericIndexes = numeric.values().toArray(new NumericIndex[0]);
+    }
+
+    /**
+     * Get the rule set without rules
+     */
+    public static RuleSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Validate and compile rules
+     * @throws IllegalArgumentException naming the rule, if a rule is invalid or an id is used twice
+     */
+    public static RuleSet compile(Collection<RecommendationRule> source) {
+        List<RecommendationRule> rules = new ArrayList<>(source);
+        // Stable sort keeps catalog order among rules of the same priority
+        rules.sort(Comparator.comparingInt(RecommendationRule::priority).reversed());
+        Set<String> ids = new HashSet<>();
+        Map<Condition, Integer> predicates = new LinkedHashMap<>();
+        List<int[]> when = new ArrayList<>(rules.size());
+        List<int[]> unless = new ArrayList<>(rules.size());
+        for (RecommendationRule rule : rules) {
+            if (rule.id() == null || rule.id().isBlank()) {
+                throw new IllegalArgumentException("Rule without id: " + rule);
+            }
+            if (!ids.add(rule.id())) {
+                throw new IllegalArgumentException("Duplicate rule id: " + rule.id());
+            }
+            if (rule.recommendation() == null || rule.recommendation().isBlank()) {
+                throw new IllegalArgumentException("Rule " + rule.id() + " has no recommendation");
+            }
+            try {
+                List<Condition> conditions = new ArrayList<>();
+                if (rule.alertType() != null && !rule.alertType().isBlank()) {
+                    conditions.add(new Condition(RuleField.ALERT_TYPE, Condition.Operator.EQ, Double.NaN, rule.alertType().trim(), 0));
+                }
+                for (String text : rule.when()) {
+                    conditions.add(Condition.parse(text));
+                }
+                when.add(predicateIds(conditions, predicates));
+                List<Condition> exclusions = new ArrayList<>();
+                for (String text : rule.unless()) {
+                    exclusions.add(Condition.parse(text));
+                }
+                unless.add(predicateIds(exclusions, predicates));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Rule " + rule.id() + ": " + e.getMessage(), e);
+            }
+        }
+        return new RuleSet(rules, predicates, when, unless);
+    }
+
+    /**
+     * Evaluate alerts in bulk
+     * @param history Daily history for {@code for <n>d} conditions, read at most once per application and metric
+     * @return Matching rules of each alert, in alert order, highest priority first
+     */
+    public List<List<RecommendationRule>> evaluate(List<Alert> alerts, HistorySource history) {
+        Evaluation evaluation = new Evaluation(history);
+        List<List<RecommendationRule>> matches = new ArrayList<>(alerts.size());
+        for (Alert alert : alerts) {
+            matches.add(evaluation.match(alert));
+        }
+        return matches;
+    }
+
+    public List<RecommendationRule> rules() {
+        return rules;
+    }
+
+    /**
+     * Find a rule by id
+     * @return The rule, or null if there is none
+     */
+    public RecommendationRule find(String id) {
+        return byId.get(id);
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Number of distinct conditions after sharing identical ones between rules
+     */
+    public int conditionCount() {
+        return predicateCount;
+    }
+
+    private static int[] predicateIds(List<Condition> conditions, Map<Condition, Integer> predicates) {
+        // A condition repeated within one rule is only counted once
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Condition condition : conditions) {
+            ids.add(predicates.computeIfAbsent(condition, key -> predicates.size()));
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        int[][] arrays = new int[lists.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = lists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return arrays;
+    }
+
+    /**
+     * Scratch state of one bulk evaluation, reused across its alerts
+     */
+    private final class Evaluation implements IntConsumer {
+
+        private final HistorySource history;
+        private final Map<String, double[][]> historyCache = new HashMap<>();
+        private final int[] counts = new int[rules.size()];
+        private final boolean[] vetoed = new boolean[rules.size()];
+        private int[] touched = new int[16];
+        private int touchedCount;
+
+        Evaluation(HistorySource history) {
+            this.history = history;
+        }
+
+        List<RecommendationRule> match(Alert alert) {
+            for (TextIndex index : textIndexes) {
+                if (index != null) {
+                    index.visit(index.field.text(alert), this);
+                }
+            }
+            for (NumericIndex index : numericIndexes) {
+                if (index.days == 0) {
+                    double value = index.field.number(alert);
+                    index.visit(value, value, this);
+                } else {
+                    visitHistory(index, alert.application());
+                }
+            }
+
+            List<Integer> matched = new ArrayList<>();
+            for (int i = 0; i < touchedCount; i++) {
+                int rule = touched[i];
+                if (counts[rule] == whenCounts[rule] && !vetoed[rule]) {
+                    matched.add(rule);
+                }
+            }
+            for (int rule : unconditional) {
+                if (!vetoed[rule]) {
+                    matched.add(rule);
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                counts[touched[i]] = 0;
+                vetoed[touched[i]] = false;
+            }
+            touchedCount = 0;
+            if (matched.isEmpty()) {
+                return List.of();
+            }
+            matched.sort(null);
+            List<RecommendationRule> result = new ArrayList<>(matched.size());
+            for (int rule : matched) {
+                result.add(rules.get(rule));
+            }
+            return result;
+        }
+
+        /**
+         * Count a satisfied condition towards its rules
+         */
+        @Override
+        public void accept(int predicate) {
+            for (int rule : whenRules[predicate]) {
+                touch(rule);
+                counts[rule]++;
+            }
+            for (int rule : unlessRules[predicate]) {
+                touch(rule);
+                vetoed[rule] = true;
+            }
+        }
+
+        private void touch(int rule) {
+            if (counts[rule] != 0 || vetoed[rule]) {
+                return;
+            }
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = rule;
+        }
+
+        private void visitHistory(NumericIndex index, String application) {
+            if (application == null || history == null) {
+                return;
+            }
+            double[][] daily = historyCache.computeIfAbsent(application, app -> new double[METRICS][]);
+            int metric = index.field.metric().ordinal();
+            if (daily[metric] == null) {
+                daily[metric] = history.dailyAverages(application, index.field.metric(), historyDays[metric]);
+            }
+            double[] values = daily[metric];
+            if (values.length < index.days) {
+                return;
+            }
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int day = 0; day < index.days; day++) {
+                if (Double.isNaN(values[day])) {
+                    // A day without data satisfies no history condition
+                    return;
+                }
+                min = Math.min(min, values[day]);
+                max = Math.max(max, values[day]);
+            }
+            index.visit(min, max, this);
+        }
+    }
+
+    /**
+     * Equality conditions of one text field
+     */
+    private static final class TextIndex {
+
+        final RuleField field;
+        private final Map<String, List<Integer>> equal = new HashMap<>();
+        private final List<String> notEqualValues = new ArrayList<>();
+        private final List<Integer> notEqualIds = new ArrayList<>();
+
+        TextIndex(RuleField field) {
+            this.field = field;
+        }
+
+        void add(Condition condition, int id) {
+            if (condition.operator() == Condition.Operator.EQ) {
+                equal.computeIfAbsent(condition.text(), key -> new ArrayList<>()).add(id);
+            } else {
+                notEqualValues.add(condition.text());
+                notEqualIds.add(id);
+            }
+        }
+
+        void visit(String value, IntConsumer satisfied) {
+            if (value != null) {
+                List<Integer> ids = equal.get(value);
+                if (ids != null) {
+                    ids.forEach(satisfied::accept);
+                }
+            }
+            for (int i = 0; i < notEqualValues.size(); i++) {
+                if (!Objects.equals(notEqualValues.get(i), value)) {
+                    satisfied.accept(notEqualIds.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Comparisons of one numeric field over one history length, thresholds sorted per operator
+     */
+    private static final class NumericIndex {
+
+        final RuleField field;
+        final int days;
+        private final Map<Condition.Operator, List<Condition>> pending = new HashMap<>();
+        private final Map<Condition, Integer> ids = new HashMap<>();
+        private final double[][] thresholds = new double[Condition.Operator.values().length][];
+        private final int[][] predicates = new int[Condition.Operator.values().length][];
+
+        NumericIndex(RuleField field, int days) {
+            this.field = field;
+            this.days = days;
+        }
+
+        void add(Condition condition, int id) {
+            pending.computeIfAbsent(condition.operator(), key -> new ArrayList<>()).add(condition);
+            ids.put(condition, id);
+        }
+
+        void seal() {
+            for (Condition.Operator operator : Condition.Operator.values()) {
+                List<Condition> conditions = pending.getOrDefault(operator, new ArrayList<>());
+                conditions.sort(Comparator.comparingDouble(Condition::number));
+                thresholds[operator.ordinal()] = conditions.stream().mapToDouble(Condition::number).toArray();
+                predicates[operator.ordinal()] = conditions.stream().mapToInt(ids::get).toArray();
+            }
+            pending.clear();
+            ids.clear();
+        }
+
+        /**
+         * @param lower Value lower bounds (&gt;, &gt;=) are compared with: the lowest daily average
+         * @param upper Value upper bounds (&lt;, &lt;=) are compared with: the highest daily average
+         */
+        void visit(double lower, double upper, IntConsumer satisfied) {
+            if (Double.isNaN(lower) || Double.isNaN(upper)) {
+                return;
+            }
+            // value > t for every t below the value: a prefix of the ascending thresholds
+            range(Condition.Operator.GT, 0, lowerBound(Condition.Operator.GT, lower), satisfied);
+            range(Condition.Operator.GE, 0, upperBound(Condition.Operator.GE, lower), satisfied);
+            // value < t for every t above the value: a suffix
+            range(Condition.Operator.LT, upperBound(Condition.Operator.LT, upper), Integer.MAX_VALUE, satisfied);
+            range(Condition.Operator.LE, lowerBound(Condition.Operator.LE, upper), Integer.MAX_VALUE, satisfied);
+            range(Condition.Operator.EQ, lowerBound(Condition.Operator.EQ, lower), upperBound(Condition.Operator.EQ, lower), satisfied);
+            double[] notEqual = thresholds[Condition.Operator.NE.ordinal()];
+            for (int i = 0; i < notEqual.length; i++) {
+                if (notEqual[i] != lower) {
+                    satisfied.accept(predicates[Condition.Operator.NE.ordinal()][i]);
+                }
+            }
+        }
+
+        private void range(Condition.Operator operator, int from, int to, IntConsumer satisfied) {
+            int[] ids = predicates[operator.ordinal()];
+            for (int i = from, end = Math.min(to, ids.length); i < end; i++) {
+                satisfied.accept(ids[i]);
+            }
+        }
+
+        /**
+         * First index whose threshold is not below the value
+         */
+        private int lowerBound(Condition.Operator operator, double value) {
+            double[] sorted = thresholds[operator.ordinal()];
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * First index whose threshold is above the value
+         */
+        private int upperBound(Condition.Operator operator, double value) {
+            double[] sorted = thresholds[operator.ordinal()];
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sorted[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
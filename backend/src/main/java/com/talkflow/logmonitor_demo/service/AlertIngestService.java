@@ -0,0 +1,266 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.store.AlertRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Service for ingesting external alerts into the alert store.
+ * Producers push into a bounded lock-free ring buffer; a single drain thread
+ * moves buffered alerts into the store in batches.
+ */
+@Service
+public class AlertIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertIngestService.class);
+    private static final Set<String> SEVERITIES = Set.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int STREAM_PREFETCH = 256;
+    private static final Duration STREAM_RETRY_DELAY = Duration.ofMillis(5);
+
+    @Autowired
+    private AlertMonitorService alertMonitorService;
+
+    @Value("${logmonitor.ingest.buffer-capacity:65536}")
+    private int bufferCapacity;
+    @Value("${logmonitor.ingest.max-batch:4096}")
+    private int maxBatch;
+    @Value("${logmonitor.ingest.stream-offer-timeout:2s}")
+    private Duration streamOfferTimeout;
+
+    private AlertRingBuffer<Alert> buffer;
+    private Thread drainThread;
+    private volatile boolean running;
+
+    // Ingest metrics
+    private final AtomicLong idSequence = new AtomicLong();
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong appliedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * Result of offering a batch of alerts
+     * @param accepted Number of alerts placed in the buffer
+     * @param invalid Number of alerts rejected by validation
+     * @param dropped Number of alerts not accepted because the buffer was full
+     */
+    public record IngestResult(int accepted, int invalid, int dropped) {
+
+        public boolean bufferFull() {
+            return dropped > 0;
+        }
+    }
+
+    /**
+     * Start the drain thread
+     */
+    @PostConstruct
+    public void start() {
+        buffer = new AlertRingBuffer<>(bufferCapacity);
+        running = true;
+        drainThread = new Thread(this::drainLoop, "alert-ingest");
+        drainThread.setDaemon(true);
+        drainThread.start();
+        logger.info("📥 Alert ingest started with buffer capacity {} and max batch {}", buffer.capacity(), maxBatch);
+    }
+
+    /**
+     * Stop the drain thread after flushing what is buffered
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        LockSupport.unpark(drainThread);
+        try {
+            drainThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("🛑 Alert ingest stopped");
+    }
+
+    /**
+     * Offer a batch of alerts from a client. The valid alerts are accepted all together or, if
+     * the buffer has no room for all of them, none are, so a client can resend the whole batch.
+     * @param alerts Alerts to ingest
+     * @return Counts of accepted, invalid and dropped alerts
+     */
+    public IngestResult ingest(List<Alert> alerts) {
+        return ingest(alerts, Alert.SOURCE_INGEST);
+    }
+
+    /**
+     * Offer a batch of alerts from the given source, all valid alerts or none
+     * @param alerts Alerts to ingest
+     * @param source Source recorded on the alerts (INGEST, LOG, METRIC)
+     * @return Counts of accepted, invalid and dropped alerts
+     */
+    public IngestResult ingest(List<Alert> alerts, String source) {
+        List<Alert> valid = new ArrayList<>(alerts.size());
+        for (Alert alert : alerts) {
+            Alert normalized = normalize(alert, source);
+            if (normalized != null) {
+                valid.add(normalized);
+            }
+        }
+        int invalid = alerts.size() - valid.size();
+        boolean offered = buffer.offerAll(valid);
+        int accepted = offered ? valid.size() : 0;
+        int dropped = offered ? 0 : valid.size();
+        acceptedCount.addAndGet(accepted);
+        rejectedCount.addAndGet(invalid + dropped);
+        if (accepted > 0) {
+            LockSupport.unpark(drainThread);
+        }
+        if (dropped > 0) {
+            logger.warn("⚠️ Ingest buffer full, rejected batch of {} alerts", dropped);
+        }
+        return new IngestResult(accepted, invalid, dropped);
+    }
+
+    /**
+     * Get the ingest buffer capacity, the largest batch that can be accepted
+     */
+    public int getBufferCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Ingest a stream of alerts. Upstream demand is only requested while the buffer has
+     * room; if it stays full for longer than the offer timeout the stream is cancelled.
+     * @param alerts Alert stream, e.g. decoded from NDJSON
+     * @return Counts of accepted, invalid and dropped alerts once the stream ends
+     */
+    public Mono<IngestResult> ingestStream(Flux<Alert> alerts) {
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger invalid = new AtomicInteger();
+        return alerts
+            .limitRate(STREAM_PREFETCH)
+            .concatMap(alert -> offerWhenSpace(alert)
+                .doOnNext(ok -> (ok ? accepted : invalid).incrementAndGet()))
+            .then(Mono.fromSupplier(() -> new IngestResult(accepted.get(), invalid.get(), 0)))
+            .onErrorResume(TimeoutException.class, e -> {
+                logger.warn("⚠️ Ingest buffer stayed full for {}, cancelling stream after {} alerts",
+                           streamOfferTimeout, accepted.get());
+                rejectedCount.incrementAndGet();
+                return Mono.just(new IngestResult(accepted.get(), invalid.get(), 1));
+            });
+    }
+
+    /**
+     * Offer one alert, retrying until the buffer has room or the offer timeout expires
+     * @return true if accepted, false if invalid
+     */
+    private Mono<Boolean> offerWhenSpace(Alert alert) {
+        Alert normalized = normalize(alert, Alert.SOURCE_INGEST);
+        if (normalized == null) {
+            rejectedCount.incrementAndGet();
+            return Mono.just(false);
+        }
+        return Mono.fromSupplier(() -> buffer.offer(normalized))
+            .filter(Boolean::booleanValue)
+            .repeatWhenEmpty(attempts -> attempts.delayElements(STREAM_RETRY_DELAY))
+            .timeout(streamOfferTimeout)
+            .doOnNext(ok -> {
+                acceptedCount.incrementAndGet();
+                LockSupport.unpark(drainThread);
+            });
+    }
+
+    /**
+     * Get ingest metrics
+     * @return Buffer usage and counters
+     */
+    public Map<String, Object> getIngestStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("bufferCapacity", buffer.capacity());
+        stats.put("bufferSize", buffer.size());
+        stats.put("acceptedCount", acceptedCount.get());
+        stats.put("rejectedCount", rejectedCount.get());
+        stats.put("appliedCount", appliedCount.get());
+        stats.put("batchCount", batchCount.get());
+        return stats;
+    }
+
+    /**
+     * Validate an incoming alert and fill in defaults. The source is set by the receiving side
+     * and aggregations are dropped, so clients cannot pose as mock data or forge counts.
+     */
+    private Alert normalize(Alert alert, String source) {
+        if (alert == null || isBlank(alert.application()) || alert.severity() == null
+                || !SEVERITIES.contains(alert.severity())) {
+            return null;
+        }
+        // A timestamp that was given but could not be parsed leaves the epoch time at 0
+        boolean hasTime = !isBlank(alert.timestamp()) || alert.timestampMillis() != 0;
+        if (hasTime && alert.timestampMillis() == 0) {
+            return null;
+        }
+        String alertId = !isBlank(alert.alertId())
+            ? alert.alertId()
+            : "ALERT-" + System.currentTimeMillis() + "-INGEST-" + idSequence.incrementAndGet();
+        return new Alert(
+            alertId,
+            alert.application(),
+            alert.severity(),
+            alert.alertType(),
+            alert.title(),
+            alert.description(),
+            hasTime ? Alert.formatTimestamp(alert.timestampMillis()) : null,
+            hasTime ? alert.timestampMillis() : System.currentTimeMillis(),
+            !isBlank(alert.status()) ? alert.status() : "ACTIVE",
+            alert.metrics(),
+            alert.recommendations(),
+            source,
+            null);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Drain loop: move buffered alerts into the store in batches, parking when idle
+     */
+    private void drainLoop() {
+        List<Alert> batch = new ArrayList<>(maxBatch);
+        while (running || buffer.size() > 0) {
+            int drained = buffer.drain(batch::add, maxBatch);
+            if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                alertMonitorService.applyIngestedAlerts(batch);
+                appliedCount.addAndGet(drained);
+                batchCount.incrementAndGet();
+            } catch (Exception e) {
+                logger.error("❌ Failed to apply {} ingested alerts: {}", drained, e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
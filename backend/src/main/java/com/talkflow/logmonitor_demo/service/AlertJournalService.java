@@ -0,0 +1,144 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.journal.AlertJournal;
+import com.talkflow.logmonitor_demo.model.Alert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service for persisting ingested alerts in the on-disk alert journal.
+ * Appends run on the ingest drain thread, one synced write per drained batch;
+ * the journal is replayed once at startup to restore the alert store.
+ */
+@Service
+public class AlertJournalService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertJournalService.class);
+
+    @Value("${logmonitor.journal.enabled:true}")
+    private boolean enabled;
+    @Value("${logmonitor.journal.directory:data/alert-journal}")
+    private Path directory;
+    @Value("${logmonitor.journal.segment-size:64MB}")
+    private DataSize segmentSize;
+    @Value("${logmonitor.journal.index-entries:1048576}")
+    private int indexEntries;
+    @Value("${logmonitor.journal.compaction-ratio:4}")
+    private int compactionRatio;
+
+    private volatile AlertJournal journal;
+
+    // Journal metrics
+    private final AtomicLong appendedCount = new AtomicLong();
+    private final AtomicLong syncCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile long recoveredCount;
+    private volatile long recoveryMillis;
+
+    /**
+     * Open the journal and replay it. Compacts the log when it holds many superseded records.
+     * @return Latest state of every journaled alert, empty if the journal is disabled or unreadable
+     */
+    public synchronized List<Alert> recover() {
+        if (!enabled) {
+            logger.info("📴 Alert journal disabled");
+            return List.of();
+        }
+        long startTime = System.nanoTime();
+        AlertJournal opened = new AlertJournal(directory, segmentSize.toBytes(), indexEntries);
+        try {
+            List<Alert> alerts = opened.recover();
+            long records = opened.recordCount();
+            if (opened.segmentCount() > 1 && records > (long) compactionRatio * alerts.size()) {
+                logger.info("🗜️ Compacting alert journal: {} records for {} alerts", records, alerts.size());
+                opened.compact(alerts);
+            }
+            journal = opened;
+            recoveredCount = alerts.size();
+            recoveryMillis = (System.nanoTime() - startTime) / 1_000_000;
+            logger.info("💾 Recovered {} alerts from {} journal records in {}ms ({})",
+                       alerts.size(), records, recoveryMillis, directory.toAbsolutePath());
+            return alerts;
+        } catch (IOException | RuntimeException e) {
+            logger.error("❌ Failed to recover alert journal at {}, journaling disabled: {}",
+                        directory.toAbsolutePath(), e.getMessage(), e);
+            closeQuietly(opened);
+            return List.of();
+        }
+    }
+
+    /**
+     * Append alerts to the journal and sync them to disk. Failures are logged, not thrown,
+     * since the alerts are already in the in-memory store.
+     * @param alerts Latest state of the alerts to persist
+     */
+    public void append(Collection<Alert> alerts) {
+        AlertJournal current = journal;
+        if (current == null || alerts.isEmpty()) {
+            return;
+        }
+        try {
+            current.append(alerts);
+            appendedCount.addAndGet(alerts.size());
+            syncCount.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failedCount.addAndGet(alerts.size());
+            logger.error("❌ Failed to journal {} alerts: {}", alerts.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Get journal metrics
+     * @return Journal size and counters
+     */
+    public Map<String, Object> getJournalStats() {
+        Map<String, Object> stats = new HashMap<>();
+        AlertJournal current = journal;
+        stats.put("enabled", current != null);
+        stats.put("directory", directory.toAbsolutePath().toString());
+        stats.put("recoveredCount", recoveredCount);
+        stats.put("recoveryMillis", recoveryMillis);
+        stats.put("appendedCount", appendedCount.get());
+        stats.put("syncCount", syncCount.get());
+        stats.put("failedCount", failedCount.get());
+        if (current != null) {
+            stats.put("recordCount", current.recordCount());
+            stats.put("segmentCount", current.segmentCount());
+            stats.put("sizeBytes", current.sizeBytes());
+        }
+        return stats;
+    }
+
+    /**
+     * Close the journal; runs after the ingest drain thread has flushed
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (journal != null) {
+            closeQuietly(journal);
+            journal = null;
+            logger.info("🛑 Alert journal closed");
+        }
+    }
+
+    private static void closeQuietly(AlertJournal journal) {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to close alert journal: {}", e.getMessage());
+        }
+    }
+}
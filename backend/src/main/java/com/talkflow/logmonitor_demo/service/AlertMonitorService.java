@@ -15,17 +15,54 @@
  */
 package com.talkflow.logmonitor_demo.service;
 
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+import com.talkflow.logmonitor_demo.store.AlertAggregator;
+import com.talkflow.logmonitor_demo.store.AlertChangeEvent;
+import com.talkflow.logmonitor_demo.store.AlertCursor;
+import com.talkflow.logmonitor_demo.store.AlertDelta;
+import com.talkflow.logmonitor_demo.store.AlertPage;
+import com.talkflow.logmonitor_demo.store.AlertShards;
+import com.talkflow.logmonitor_demo.store.AlertSnapshot;
+import com.talkflow.logmonitor_demo.store.AlertStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.lang.StringBuilder;
 
 @Service
@@ -37,44 +74,126 @@ public class AlertMonitorService {
     
     // Alert type configuration
     private static final String[] ALL_ALERT_TYPES = {"CPU过载", "服务不可用"};
-    private String currentAlertType = "CPU过载"; // Default selection
+    private static final String REFRESH_THREAD_NAME = "alert-refresh";
+    // Applications the mock alert data is generated for
+    private static final List<String> MOCK_APPLICATIONS = List.of("wmpooc", "order-service");
+    
+    // Paging configuration
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_CACHED_REPORTS = 256;
+    private static final int SHARD_LOCK_STRIPES = 64;
+    private volatile String currentAlertType = "CPU过载"; // Default selection
+    
+    @Autowired
+    private AlertJournalService alertJournalService;
+    
+    // Alerts partitioned by application; each shard is replaced atomically under its own lock stripe
+    private final AlertShards shards = new AlertShards(SHARD_LOCK_STRIPES);
+    // Refresh currently in progress, shared by all concurrent callers
+    private final AtomicReference<CompletableFuture<LocalDateTime>> inFlightRefresh = new AtomicReference<>();
+    // Recent deltas keyed by snapshot version, for change subscribers
+    private final ConcurrentSkipListMap<Long, AlertDelta> deltaHistory = new ConcurrentSkipListMap<>();
+    // Emits the new version after every publish; subscribers read the deltas from the history
+    private final Sinks.Many<Long> versionTicks = Sinks.many().multicast().directBestEffort();
+    @Value("${logmonitor.alerts.delta-history-size:1024}")
+    private int deltaHistorySize;
+    // Rendered report bodies of the current version of each known application ("" for all), keyed by severity and page
+    private final Map<String, AtomicReference<ReportCache>> reportCaches = new ConcurrentHashMap<>();
     
-    // In-memory storage for alert data
-    private Map<String, Object> cachedAlertData = new HashMap<>();
-    private LocalDateTime lastRefreshTime = null;
+    // Background refresh configuration
+    @Value("${logmonitor.alerts.refresh-interval:60s}")
+    private Duration refreshInterval;
+    @Value("${logmonitor.alerts.max-staleness:5m}")
+    private Duration maxStaleness;
+    // Fold duplicate alerts into one aggregate per fingerprint
+    @Value("${logmonitor.alerts.deduplicate:true}")
+    private boolean deduplicate;
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, REFRESH_THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Refresh metrics
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong refreshFailureCount = new AtomicLong();
+    private final AtomicLong lastRefreshDurationMillis = new AtomicLong();
+    private final AtomicLong maxRefreshDurationMillis = new AtomicLong();
+    private final AtomicLong totalRefreshDurationMillis = new AtomicLong();
+    private final AtomicLong staleReadCount = new AtomicLong();
+    private final AtomicLong blockingReadCount = new AtomicLong();
+    private volatile String lastRefreshError = null;
+
+    /**
+     * Restore journaled alerts, then start the background refresh scheduler, generating the first snapshot immediately
+     */
+    @PostConstruct
+    public void startBackgroundRefresh() {
+        List<Alert> recovered = alertJournalService.recover();
+        if (!recovered.isEmpty()) {
+            byApplication(recovered).forEach((application, alerts) -> publish(application,
+                store -> store.withUpserts(alerts), store -> alerts.stream().map(Alert::alertId).toList()));
+            logger.info("💾 Restored {} journaled alerts (version {})", recovered.size(), shards.version());
+        }
+        logger.info("⏱️ Scheduling background alert refresh every {} (max staleness {})", refreshInterval, maxStaleness);
+        refreshExecutor.scheduleWithFixedDelay(this::refreshInBackground,
+            0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the background refresh scheduler
+     */
+    @PreDestroy
+    public void stopBackgroundRefresh() {
+        logger.info("🛑 Stopping background alert refresh");
+        refreshExecutor.shutdownNow();
+    }
 
     /**
      * Get detailed alert information as JSON structure
+     * @param application Application to query, null or blank for all applications
      * @param severity Alert severity level (CRITICAL, HIGH, MEDIUM, LOW)
+     * @param limit Maximum number of alerts to return, null for the default page size
+     * @param cursor Cursor of the previous page, null for the first page
+     * @param since Only alerts at or after this time, see {@link #parseTimeBound(String, long)}; null for no bound
+     * @param until Only alerts before this time, null for no bound
      * @return Detailed alert information as Map structure
      */
-    public Map<String, Object> getDetailedAlertInfoAsJson(String severity) {
-        String application = "wmpooc"; // Fixed application name
+    public Map<String, Object> getDetailedAlertInfoAsJson(String application, String severity, Integer limit,
+                                                          String cursor, String since, String until) {
         logger.info("🔍 Getting detailed alert info as JSON - severity: {}, application: {}", 
-                   severity, application);
+                   severity, isBlank(application) ? "ALL" : application);
         
         try {
-            // Check if we have cached data, if not generate it
-            if (cachedAlertData.isEmpty()) {
-                logger.info("⚠️ Cache is empty, triggering data refresh...");
-                refreshAlertData();
-            }
+            // Take one snapshot of the application's shard for the whole request, generating it on a cold cache
+            AlertSnapshot current = currentSnapshot(application);
             
-            // Get alert data from cache and filter by severity if specified
-            logger.info("🔍 Filtering alert data by severity: {}", severity);
-            Map<String, Object> alertData = filterAlertDataBySeverity(cachedAlertData, severity);
+            // Get alert data from the store, using the severity index and a time range search if specified
+            logger.info("🔍 Filtering alert data by severity: {}, since: {}, until: {}", severity, since, until);
+            long now = System.currentTimeMillis();
+            Long sinceMillis = parseTimeBound(since, now);
+            Long untilMillis = parseTimeBound(until, now);
+            List<Alert> alerts = AlertStore.between(selectBySeverity(current.store(), severity), sinceMillis, untilMillis);
+            AlertPage page = AlertStore.page(alerts, AlertCursor.decode(cursor), pageSize(limit));
             
-            int filteredCount = alertData.containsKey("alerts") ? ((java.util.List<?>) alertData.get("alerts")).size() : 0;
-            logger.info("📊 Filtered result: {} alerts match severity '{}'", filteredCount, severity);
+            int filteredCount = alerts.size();
+            logger.info("📊 Filtered result: {} alerts match severity '{}', returning {}", 
+                       filteredCount, severity, page.alerts().size());
             
             // Add metadata to the response
             Map<String, Object> result = new HashMap<>();
-            result.put("alerts", alertData.get("alerts"));
+            result.put("alerts", page.alerts());
             result.put("totalCount", filteredCount);
+            result.put("returnedCount", page.alerts().size());
+            result.put("nextCursor", page.nextCursor());
             result.put("severity", severity);
-            result.put("application", application);
+            result.put("since", sinceMillis != null ? Alert.formatTimestamp(sinceMillis) : null);
+            result.put("until", untilMillis != null ? Alert.formatTimestamp(untilMillis) : null);
+            result.put("application", isBlank(application) ? null : application);
             result.put("queryTime", LocalDateTime.now().format(formatter));
-            result.put("cacheTime", lastRefreshTime != null ? lastRefreshTime.format(formatter) : null);
+            result.put("cacheTime", current.refreshTime() != null ? current.refreshTime().format(formatter) : null);
+            result.put("cacheVersion", current.version());
             
             logger.info("✅ Successfully retrieved alert info as JSON for {} alerts", filteredCount);
             
@@ -89,92 +208,72 @@ public class AlertMonitorService {
         }
     }
 
+    /**
+     * Get the alerts matching a severity from the current snapshot, without copying
+     * @param application Application to query, null or blank for all applications
+     * @param severity Alert severity level, null or blank for all alerts
+     * @return Immutable alert list in store order
+     */
+    public List<Alert> selectAlerts(String application, String severity) {
+        return selectBySeverity(currentSnapshot(application).store(), severity);
+    }
+
     /**
      * Get detailed alert information
      * @param severity Alert severity level (CRITICAL, HIGH, MEDIUM, LOW)
+     * @param application Application to query, null or blank for all applications
+     * @param limit Maximum number of alerts to return, null for the default page size
+     * @param cursor Cursor of the previous page, null for the first page
+     * @param since Only alerts at or after this time, null for no bound
+     * @param until Only alerts before this time, null for no bound
      * @return Detailed alert information
      */
-    @Tool(description = "Get detailed alert information filtered by severity level")
-    public String getDetailedAlertInfo(@ToolParam(description = "Alert severity level to filter by (CRITICAL, HIGH, MEDIUM, LOW)", required = true) String severity) {
-        String application = "wmpooc"; // Fixed application name
+    @Tool(description = "Get detailed alert information filtered by severity level and optionally application and time range, newest first. Large results are paged: pass the returned cursor to get the next page")
+    public String getDetailedAlertInfo(
+            @ToolParam(description = "Alert severity level to filter by (CRITICAL, HIGH, MEDIUM, LOW)", required = true) String severity,
+            @ToolParam(description = "Application name to filter by, e.g. wmpooc or order-service; omit for all applications", required = false) String application,
+            @ToolParam(description = "Maximum number of alerts to return (default 50, max 500)", required = false) Integer limit,
+            @ToolParam(description = "Cursor returned by the previous page; omit for the first page", required = false) String cursor,
+            @ToolParam(description = "Only alerts at or after this time: relative like 15m, 2h or 1d ago, 'yyyy-MM-dd HH:mm:ss', or epoch milliseconds; omit for no lower bound", required = false) String since,
+            @ToolParam(description = "Only alerts before this time, same formats as since; omit for no upper bound", required = false) String until) {
         logger.info("🔍 Getting detailed alert info - severity: {}, application: {}", 
-                   severity, application);
-        logger.info("📊 Cache status: {} alerts available", 
-                   cachedAlertData.containsKey("alerts") ? ((java.util.List<?>) cachedAlertData.get("alerts")).size() : 0);
+                   severity, isBlank(application) ? "ALL" : application);
         
         try {
-            // Check if we have cached data, if not generate it
-            if (cachedAlertData.isEmpty()) {
-                logger.info("⚠️ Cache is empty, triggering data refresh...");
-                refreshAlertData();
-            } else {
-                logger.info("✅ Using cached data for response");
-            }
-            
-            // Get alert data from cache and filter by severity if specified
-            logger.info("🔍 Filtering alert data by severity: {}", severity);
-            Map<String, Object> alertData = filterAlertDataBySeverity(cachedAlertData, severity);
-            
-            int filteredCount = alertData.containsKey("alerts") ? ((java.util.List<?>) alertData.get("alerts")).size() : 0;
+            // Take one snapshot of the application's shard for the whole request, generating it on a cold cache
+            AlertSnapshot current = currentSnapshot(application);
+            logger.info("📊 Cache status: {} alerts available (version {})", current.store().size(), current.version());
+            
+            // Get alert data from the store, using the severity index and a time range search if specified
+            logger.info("🔍 Filtering alert data by severity: {}, since: {}, until: {}", severity, since, until);
+            long now = System.currentTimeMillis();
+            Long sinceMillis = parseTimeBound(since, now);
+            Long untilMillis = parseTimeBound(until, now);
+            List<Alert> alerts = AlertStore.between(selectBySeverity(current.store(), severity), sinceMillis, untilMillis);
+            int pageSize = pageSize(limit);
+            AlertCursor after = AlertCursor.decode(cursor);
+            
+            int filteredCount = alerts.size();
             logger.info("📊 Filtered result: {} alerts match severity '{}'", filteredCount, severity);
             
-            // 构建详细的告警信息
-            StringBuilder result = new StringBuilder();
-            result.append("🚨 详细告警信息\n");
-            result.append("=".repeat(50)).append("\n\n");
-            
-            if (alertData.containsKey("alerts")) {
-                @SuppressWarnings("unchecked")
-                var alerts = (java.util.List<Map<String, Object>>) alertData.get("alerts");
-                
-                for (int i = 0; i < alerts.size(); i++) {
-                    var alert = alerts.get(i);
-                    result.append(String.format("📊 告警 #%d\n", i + 1));
-                    result.append(String.format("   告警ID: %s\n", alert.get("alertId")));
-                    result.append(String.format("   应用名称: %s\n", alert.get("application")));
-                    result.append(String.format("   告警级别: %s\n", alert.get("severity")));
-                    result.append(String.format("   告警类型: %s\n", alert.get("alertType")));
-                    result.append(String.format("   告警标题: %s\n", alert.get("title")));
-                    result.append(String.format("   告警描述: %s\n", alert.get("description")));
-                    result.append(String.format("   发生时间: %s\n", alert.get("timestamp")));
-                    result.append(String.format("   状态: %s\n", alert.get("status")));
-                    
-                    if (alert.containsKey("metrics")) {
-                        @SuppressWarnings("unchecked")
-                        var metrics = (Map<String, Object>) alert.get("metrics");
-                        result.append("   📈 相关指标:\n");
-                        result.append(String.format("      CPU使用率: %s%%\n", metrics.get("cpuUsage")));
-                        result.append(String.format("      内存使用率: %s%%\n", metrics.get("memoryUsage")));
-                        result.append(String.format("      磁盘使用率: %s%%\n", metrics.get("diskUsage")));
-                        result.append(String.format("      网络延迟: %sms\n", metrics.get("networkLatency")));
-                    }
-                    
-                    if (alert.containsKey("recommendations")) {
-                        @SuppressWarnings("unchecked")
-                        var recommendations = (java.util.List<String>) alert.get("recommendations");
-                        result.append("   💡 处理建议:\n");
-                        for (String rec : recommendations) {
-                            result.append(String.format("      • %s\n", rec));
-                        }
-                    }
-                    
-                    result.append("\n");
-                }
-                
-                result.append(String.format("📋 总计: %d 条告警\n", alerts.size()));
-            } else {
-                result.append("✅ 未找到匹配的告警信息\n");
+            // 构建详细的告警信息，报告主体按 (快照版本, 告警级别, 分页) 缓存；时间范围查询随时间变化，不缓存
+            StringBuilder result = new StringBuilder(sinceMillis == null && untilMillis == null
+                ? cachedReport(current, application, severity, pageSize, cursor, () -> AlertStore.page(alerts, after, pageSize))
+                : AlertReportRenderer.renderAlerts(AlertStore.page(alerts, after, pageSize)));
+            if (sinceMillis != null || untilMillis != null) {
+                result.append("🕒 时间范围: ")
+                    .append(sinceMillis != null ? Alert.formatTimestamp(sinceMillis) : "*").append(" ~ ")
+                    .append(untilMillis != null ? Alert.formatTimestamp(untilMillis) : "*").append('\n');
             }
             
-            result.append(String.format("\n⏰ 查询时间: %s\n", LocalDateTime.now().format(formatter)));
+            result.append("\n⏰ 查询时间: ").append(LocalDateTime.now().format(formatter)).append('\n');
             
             // Add cache information
-            if (lastRefreshTime != null) {
-                result.append(String.format("💾 数据缓存时间: %s\n", lastRefreshTime.format(formatter)));
+            if (current.refreshTime() != null) {
+                result.append("💾 数据缓存时间: ").append(current.refreshTime().format(formatter)).append('\n');
             }
             
-            logger.info("✅ Successfully retrieved alert info for {} alerts", 
-                       alertData.containsKey("alerts") ? ((java.util.List<?>) alertData.get("alerts")).size() : 0);
+            logger.info("✅ Successfully retrieved alert info for {} alerts", filteredCount);
             
             return result.toString();
             
@@ -221,30 +320,192 @@ public class AlertMonitorService {
     }
 
     /**
-     * Refresh alert data by generating new mock data and storing it in memory
+     * Refresh alert data by generating new mock data and storing it in memory.
+     * Concurrent callers are coalesced into a single regeneration and all of them
+     * wait for its result.
      */
     public void refreshAlertData() {
+        awaitRefresh(startRefresh());
+    }
+
+    /**
+     * Get last refresh time
+     * @return Last refresh time
+     */
+    public LocalDateTime getLastRefreshTime() {
+        return shards.refreshTime();
+    }
+
+    /**
+     * Get the current alert snapshot of one application, or of all applications. Data older than
+     * the refresh interval is still served while a background refresh runs; callers only wait on
+     * a cold cache or when the data is older than the max staleness bound.
+     * @param application Application name, null or blank for all applications
+     * @return Current alert snapshot
+     */
+    public AlertSnapshot currentSnapshot(String application) {
+        LocalDateTime refreshTime = shards.refreshTime();
+        if (refreshTime == null) {
+            logger.info("⚠️ Cache is empty, waiting for data refresh...");
+            blockingReadCount.incrementAndGet();
+            awaitRefresh(startRefresh());
+        } else {
+            Duration age = Duration.between(refreshTime, LocalDateTime.now());
+            if (age.compareTo(maxStaleness) > 0) {
+                logger.warn("⚠️ Cached data is {}s old, exceeding max staleness {}, waiting for data refresh...",
+                           age.toSeconds(), maxStaleness);
+                blockingReadCount.incrementAndGet();
+                awaitRefresh(startRefresh());
+            } else if (age.compareTo(refreshInterval) > 0) {
+                logger.info("♻️ Cached data is {}s old, serving it while refreshing in background", age.toSeconds());
+                staleReadCount.incrementAndGet();
+                startRefresh();
+            } else {
+                logger.info("✅ Using cached data for response");
+            }
+        }
+        return isBlank(application) ? shards.snapshot() : shards.snapshot(application.trim());
+    }
+
+    /**
+     * Whether the monitor knows the application: it has alerts, or mock alerts are generated for it
+     * @param application Application name
+     */
+    public boolean isKnownApplication(String application) {
+        return application != null && (MOCK_APPLICATIONS.contains(application) || shards.contains(application));
+    }
+
+    /**
+     * Get background refresh metrics
+     * @return Refresh counters, durations and current snapshot age
+     */
+    public Map<String, Object> getRefreshStats() {
+        LocalDateTime refreshTime = shards.refreshTime();
+        long refreshes = refreshCount.get();
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("snapshotVersion", shards.version());
+        stats.put("snapshotAgeMillis", refreshTime != null
+            ? Duration.between(refreshTime, LocalDateTime.now()).toMillis() : null);
+        stats.put("applicationCount", shards.applications().size());
+        stats.put("alertCount", shards.size());
+        stats.put("refreshIntervalMillis", refreshInterval.toMillis());
+        stats.put("maxStalenessMillis", maxStaleness.toMillis());
+        stats.put("refreshCount", refreshes);
+        stats.put("refreshFailureCount", refreshFailureCount.get());
+        stats.put("lastRefreshDurationMillis", lastRefreshDurationMillis.get());
+        stats.put("maxRefreshDurationMillis", maxRefreshDurationMillis.get());
+        stats.put("avgRefreshDurationMillis", refreshes > 0 ? totalRefreshDurationMillis.get() / refreshes : 0);
+        stats.put("staleReadCount", staleReadCount.get());
+        stats.put("blockingReadCount", blockingReadCount.get());
+        stats.put("refreshInProgress", inFlightRefresh.get() != null);
+        stats.put("lastRefreshError", lastRefreshError);
+        return stats;
+    }
+
+    /**
+     * Scheduled refresh task; failures are logged and the last good snapshot is kept.
+     * Never waits: a refresh started by a reader is queued on this same thread, behind this task,
+     * so joining it here would deadlock. A new refresh runs inline and is done on return.
+     */
+    private void refreshInBackground() {
+        startRefresh().whenComplete((refreshTime, failure) -> {
+            if (failure != null) {
+                logger.warn("⚠️ Background alert refresh failed, keeping last good snapshot: {}", failure.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Start a refresh on the refresh executor, or join the one already in flight
+     */
+    private CompletableFuture<LocalDateTime> startRefresh() {
+        CompletableFuture<LocalDateTime> refresh = new CompletableFuture<>();
+        CompletableFuture<LocalDateTime> existing = inFlightRefresh.compareAndExchange(null, refresh);
+        if (existing != null) {
+            logger.info("⏳ Alert data refresh already in progress, joining it...");
+            return existing;
+        }
+        
+        Runnable task = () -> {
+            long start = System.nanoTime();
+            try {
+                LocalDateTime refreshTime = regenerateSnapshot();
+                recordRefresh(start, null);
+                refresh.complete(refreshTime);
+            } catch (RuntimeException e) {
+                recordRefresh(start, e);
+                refresh.completeExceptionally(e);
+            } finally {
+                inFlightRefresh.compareAndSet(refresh, null);
+            }
+        };
+        // The scheduled task already runs on the refresh thread, so run inline there
+        if (Thread.currentThread().getName().equals(REFRESH_THREAD_NAME)) {
+            task.run();
+        } else {
+            refreshExecutor.execute(task);
+        }
+        return refresh;
+    }
+
+    private void recordRefresh(long startNanos, Exception failure) {
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        refreshCount.incrementAndGet();
+        lastRefreshDurationMillis.set(durationMillis);
+        maxRefreshDurationMillis.accumulateAndGet(durationMillis, Math::max);
+        totalRefreshDurationMillis.addAndGet(durationMillis);
+        if (failure != null) {
+            refreshFailureCount.incrementAndGet();
+            lastRefreshError = failure.getMessage();
+        } else {
+            lastRefreshError = null;
+        }
+        logger.info("⏱️ Alert refresh took {}ms", durationMillis);
+    }
+
+    /**
+     * Generate new mock alerts and publish them, replacing each affected application's shard atomically
+     * @return New refresh time
+     */
+    private LocalDateTime regenerateSnapshot() {
+        LocalDateTime previousRefreshTime = shards.refreshTime();
+        String alertType = currentAlertType;
         logger.info("🔄 Starting alert data refresh process...");
-        logger.info("📊 Current alert type: {}", currentAlertType);
-        logger.info("⏰ Last refresh time: {}", lastRefreshTime != null ? lastRefreshTime.format(formatter) : "Never");
+        logger.info("📊 Current alert type: {}", alertType);
+        logger.info("⏰ Last refresh time: {}", previousRefreshTime != null ? previousRefreshTime.format(formatter) : "Never");
         
         try {
             logger.info("🔧 Generating new mock alert data for all severities...");
             // Generate new mock alert data for all severities
-            Map<String, Object> newAlertData = generateMockAlertDataForAllSeverities();
+            List<Alert> generatedAlerts = generateMockAlertDataForAllSeverities(alertType);
             
-            int alertCount = newAlertData.containsKey("alerts") ? ((java.util.List<?>) newAlertData.get("alerts")).size() : 0;
-            logger.info("📈 Generated {} new alerts", alertCount);
+            logger.info("📈 Generated {} new alerts", generatedAlerts.size());
             logger.info("🎯 Target: 20-28 alerts (5-7 per severity level)");
+            if (deduplicate) {
+                int generatedCount = generatedAlerts.size();
+                generatedAlerts = AlertAggregator.fold(AlertStore.empty(), generatedAlerts);
+                logger.info("🧬 Folded {} generated alerts into {} aggregates", generatedCount, generatedAlerts.size());
+            }
             
-            // Update cached data
-            logger.info("💾 Updating cached alert data...");
-            cachedAlertData = newAlertData;
-            lastRefreshTime = LocalDateTime.now();
+            // Publish per application, keeping alerts from other sources; applications that no
+            // longer have generated alerts get their old mock alerts removed
+            logger.info("💾 Publishing new alert snapshot...");
+            Map<String, List<Alert>> replacements = byApplication(generatedAlerts);
+            for (String application : shards.applicationsWithSource(Alert.SOURCE_MOCK)) {
+                replacements.putIfAbsent(application, List.of());
+            }
+            replacements.forEach((application, replacement) -> publish(application,
+                store -> store.withSourceReplaced(Alert.SOURCE_MOCK, replacement),
+                store -> mockAlertIds(store, replacement)));
+            LocalDateTime refreshTime = LocalDateTime.now();
+            shards.markRefreshed(refreshTime);
             
             logger.info("✅ Alert data refresh completed successfully");
-            logger.info("📊 Total alerts in cache: {}", alertCount);
-            logger.info("⏰ New refresh time: {}", lastRefreshTime.format(formatter));
+            logger.info("📊 Total alerts in cache: {} in {} applications (version {})",
+                       shards.size(), shards.applications().size(), shards.version());
+            logger.info("⏰ New refresh time: {}", refreshTime.format(formatter));
+            return refreshTime;
             
         } catch (Exception e) {
             logger.error("❌ Error refreshing alert data: {}", e.getMessage(), e);
@@ -253,25 +514,149 @@ public class AlertMonitorService {
     }
 
     /**
-     * Get last refresh time
-     * @return Last refresh time
+     * Add ingested alerts to their application shards and the journal. Duplicates are folded into
+     * the aggregate with the same fingerprint; with deduplication off, alerts with the same id are replaced.
+     * @param alerts Alerts drained from the ingest buffer
      */
-    public LocalDateTime getLastRefreshTime() {
-        return lastRefreshTime;
+    public void applyIngestedAlerts(List<Alert> alerts) {
+        List<Alert> applied = new ArrayList<>(alerts.size());
+        byApplication(alerts).forEach((application, batch) -> {
+            // The update runs once under the shard's lock stripe, so folding sees the store it replaces
+            AtomicReference<List<Alert>> upserts = new AtomicReference<>(batch);
+            publish(application, store -> {
+                    if (deduplicate) {
+                        upserts.set(AlertAggregator.fold(store, batch));
+                    }
+                    return store.withUpserts(upserts.get());
+                },
+                store -> upserts.get().stream().map(Alert::alertId).distinct().toList());
+            applied.addAll(upserts.get());
+        });
+        // Called on the ingest drain thread, so the synced journal write stays off request threads
+        alertJournalService.append(applied);
+        logger.debug("📥 Applied {} ingested alerts (version {}, {} alerts in cache)",
+                    alerts.size(), shards.version(), shards.size());
+    }
+
+    /**
+     * Stream alert changes after the given version. Clients that are too far behind, or
+     * pass no version, first get a resync event with the full alert list.
+     * @param sinceVersion Last snapshot version the client has applied, 0 for none
+     * @param severity Alert severity level to filter by, null or blank for all
+     * @return Endless stream of change events
+     */
+    public Flux<AlertChangeEvent> streamChanges(long sinceVersion, String severity) {
+        return Flux.defer(() -> {
+            long[] lastSent = {sinceVersion};
+            // Merge subscribes in order: ticks first, then the initial read of the history, so a
+            // version published in between still arrives as a tick
+            return Flux.merge(versionTicks.asFlux().onBackpressureLatest(), Flux.just(0L))
+                .concatMap(tick -> Flux.fromIterable(changesAfter(lastSent, severity)));
+        });
+    }
+
+    /**
+     * Collect the events a subscriber has not seen yet, reading contiguous versions only
+     */
+    private List<AlertChangeEvent> changesAfter(long[] lastSent, String severity) {
+        long version = shards.version();
+        if (lastSent[0] > 0 && lastSent[0] == version) {
+            return List.of();
+        }
+        
+        Long oldest = deltaHistory.isEmpty() ? null : deltaHistory.firstKey();
+        if (lastSent[0] <= 0 || lastSent[0] > version || oldest == null || lastSent[0] + 1 < oldest) {
+            // A consistent cut of all shards; deltas after its version follow as usual
+            AlertSnapshot current = shards.snapshot();
+            logger.info("🔁 Change subscriber at version {} needs resync to version {}", lastSent[0], current.version());
+            lastSent[0] = current.version();
+            return List.of(AlertChangeEvent.resync(current.version(), selectBySeverity(current.store(), severity)));
+        }
+        
+        List<AlertChangeEvent> events = new ArrayList<>();
+        AlertDelta delta;
+        while ((delta = deltaHistory.get(lastSent[0] + 1)) != null) {
+            AlertDelta filtered = delta.forSeverity(severity);
+            if (!filtered.isEmpty()) {
+                events.add(AlertChangeEvent.delta(filtered));
+            }
+            lastSent[0] = delta.version();
+        }
+        return events;
+    }
+
+    /**
+     * Atomically replace one application's shard with a store derived from it and record the delta.
+     * Deltas of different shards may be recorded out of version order; subscribers read them in order.
+     */
+    private AlertShards.ShardUpdate publish(String application, UnaryOperator<AlertStore> update,
+                                            Function<AlertStore, Collection<String>> touchedIds) {
+        AlertShards.ShardUpdate result = shards.update(application, update);
+        if (result.changed()) {
+            recordDelta(AlertDelta.between(result.version(), result.previous(), result.next(),
+                touchedIds.apply(result.previous())));
+        }
+        return result;
+    }
+
+    /**
+     * Group alerts by application, keeping their order
+     */
+    private static Map<String, List<Alert>> byApplication(List<Alert> alerts) {
+        Map<String, List<Alert>> groups = new LinkedHashMap<>();
+        for (Alert alert : alerts) {
+            groups.computeIfAbsent(alert.application(), k -> new ArrayList<>()).add(alert);
+        }
+        return groups;
+    }
+
+    private void recordDelta(AlertDelta delta) {
+        deltaHistory.put(delta.version(), delta);
+        while (deltaHistory.size() > deltaHistorySize) {
+            deltaHistory.pollFirstEntry();
+        }
+        versionTicks.emitNext(delta.version(), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+    }
+
+    /**
+     * Ids touched by a mock refresh: previously generated alerts and the new ones
+     */
+    private static Collection<String> mockAlertIds(AlertStore previous, List<Alert> generatedAlerts) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (Alert alert : previous.bySource(Alert.SOURCE_MOCK)) {
+            ids.add(alert.alertId());
+        }
+        for (Alert alert : generatedAlerts) {
+            ids.add(alert.alertId());
+        }
+        return ids;
+    }
+
+    /**
+     * Wait for a refresh started by another caller, rethrowing its failure
+     */
+    private static LocalDateTime awaitRefresh(CompletableFuture<LocalDateTime> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     /**
      * Generate mock alert data for all severities
      */
-    private Map<String, Object> generateMockAlertDataForAllSeverities() {
+    private List<Alert> generateMockAlertDataForAllSeverities(String alertType) {
         logger.info("🔧 Starting mock alert data generation...");
-        logger.info("🎯 Target alert type: {}", currentAlertType);
+        logger.info("🎯 Target alert type: {}", alertType);
         
-        Map<String, Object> result = new HashMap<>();
-        java.util.List<Map<String, Object>> allAlerts = new java.util.ArrayList<>();
+        List<Alert> allAlerts = new ArrayList<>();
         
         String[] severities = {"CRITICAL", "HIGH", "MEDIUM", "LOW"};
-        String[] applications = {"wmpooc", "order-service"}; // Only keep wmpooc and order-service
+        String[] applications = MOCK_APPLICATIONS.toArray(new String[0]);
         String[] statuses = {"ACTIVE", "ACKNOWLEDGED", "RESOLVED"};
         
         logger.info("📋 Available severities: {}", String.join(", ", severities));
@@ -286,168 +671,189 @@ public class AlertMonitorService {
             logger.info("🔍 Generating {} alerts for severity level: {}", alertCount, severityLevel);
             
             for (int i = 0; i < alertCount; i++) {
-                Map<String, Object> alert = new HashMap<>();
-                
                 // Generate alert ID
                 String generatedAlertId = "ALERT-" + System.currentTimeMillis() + "-" + severityLevel + "-" + i;
-                alert.put("alertId", generatedAlertId);
                 
                 // Generate application name
                 String generatedApp = applications[random.nextInt(applications.length)];
-                alert.put("application", generatedApp);
-                
-                // Set severity
-                alert.put("severity", severityLevel);
-                
-                // Use current selected alert type
-                alert.put("alertType", currentAlertType);
-                
-                // Generate alert title and description
-                alert.put("title", "系统性能异常告警");
-                alert.put("description", "检测到系统性能指标异常，需要及时处理");
                 
                 // Generate timestamp
                 LocalDateTime alertTime = LocalDateTime.now().minusMinutes(random.nextInt(60));
-                alert.put("timestamp", alertTime.format(formatter));
                 
                 // Generate status
-                alert.put("status", statuses[random.nextInt(statuses.length)]);
+                String generatedStatus = statuses[random.nextInt(statuses.length)];
                 
                 // Generate metrics data based on current alert type
-                Map<String, Object> metrics = new HashMap<>();
-                
-                if ("CPU过载".equals(currentAlertType)) {
-                    // For CPU overload: CPU usage must be between 80-100%
-                    metrics.put("cpuUsage", random.nextInt(21) + 80); // 80-100%
-                    metrics.put("memoryUsage", random.nextInt(30) + 70); // 70-100%
-                    metrics.put("diskUsage", random.nextInt(20) + 80); // 80-100%
-                    metrics.put("networkLatency", random.nextInt(100) + 50); // 50-150ms
-                } else if ("服务不可用".equals(currentAlertType)) {
-                    // For service unavailable: network latency must be 300ms or above
-                    metrics.put("cpuUsage", random.nextInt(40) + 60); // 60-100%
-                    metrics.put("memoryUsage", random.nextInt(30) + 70); // 70-100%
-                    metrics.put("diskUsage", random.nextInt(20) + 80); // 80-100%
-                    metrics.put("networkLatency", random.nextInt(700) + 300); // 300-1000ms
-                }
+                AlertMetrics metrics = generateMockMetrics(alertType);
                 
-                alert.put("metrics", metrics);
+                // Use current selected alert type
+                Alert alert = new Alert(
+                    generatedAlertId,
+                    generatedApp,
+                    severityLevel,
+                    alertType,
+                    "系统性能异常告警",
+                    "检测到系统性能指标异常，需要及时处理",
+                    alertTime.format(formatter),
+                    alertTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                    generatedStatus,
+                    metrics,
+                    null,
+                    Alert.SOURCE_MOCK,
+                    null);
                 allAlerts.add(alert);
                 totalAlerts++;
                 
                 logger.debug("📝 Generated alert: ID={}, Severity={}, Type={}, App={}", 
-                           generatedAlertId, severityLevel, currentAlertType, generatedApp);
+                           generatedAlertId, severityLevel, alertType, generatedApp);
             }
         }
         
-                    logger.info("📊 Data generation completed. Total alerts generated: {}", totalAlerts);
-            logger.info("📈 Expected range: 20-28 alerts (5-7 per severity level)");
-            logger.info("💾 Storing generated data in result map...");
-            
-            result.put("alerts", allAlerts);
-            return result;
+        logger.info("📊 Data generation completed. Total alerts generated: {}", totalAlerts);
+        logger.info("📈 Expected range: 20-28 alerts (5-7 per severity level)");
+        
+        return allAlerts;
     }
 
     /**
-     * Filter alert data by severity
+     * Generate mock metrics for the given alert type
      */
-    private Map<String, Object> filterAlertDataBySeverity(Map<String, Object> alertData, String severity) {
-        logger.info("🔍 Starting severity filtering process...");
-        logger.info("🎯 Filter criteria: severity = '{}'", severity);
-        
-        if (severity == null || severity.trim().isEmpty()) {
-            logger.info("ℹ️ No severity filter applied, returning all data");
-            return alertData; // Return all data if no severity filter
+    private AlertMetrics generateMockMetrics(String alertType) {
+        if ("CPU过载".equals(alertType)) {
+            // For CPU overload: CPU usage must be between 80-100%
+            return new AlertMetrics(
+                random.nextInt(21) + 80, // 80-100%
+                random.nextInt(30) + 70, // 70-100%
+                random.nextInt(20) + 80, // 80-100%
+                random.nextInt(100) + 50); // 50-150ms
+        } else if ("服务不可用".equals(alertType)) {
+            // For service unavailable: network latency must be 300ms or above
+            return new AlertMetrics(
+                random.nextInt(40) + 60, // 60-100%
+                random.nextInt(30) + 70, // 70-100%
+                random.nextInt(20) + 80, // 80-100%
+                random.nextInt(700) + 300); // 300-1000ms
         }
-        
-        Map<String, Object> filteredData = new HashMap<>();
-        filteredData.putAll(alertData);
-        
-        if (alertData.containsKey("alerts")) {
-            @SuppressWarnings("unchecked")
-            var allAlerts = (java.util.List<Map<String, Object>>) alertData.get("alerts");
-            
-            logger.info("📊 Total alerts before filtering: {}", allAlerts.size());
-            
-            java.util.List<Map<String, Object>> filteredAlerts = allAlerts.stream()
-                .filter(alert -> severity.equals(alert.get("severity")))
-                .collect(java.util.stream.Collectors.toList());
-            
-            logger.info("✅ Filtering completed. {} alerts match severity '{}'", filteredAlerts.size(), severity);
-            
-            filteredData.put("alerts", filteredAlerts);
-        } else {
-            logger.warn("⚠️ No alerts found in alert data");
+        return null;
+    }
+
+    /**
+     * Parse a time bound: a relative duration before now (30s, 15m, 2h, 1d), epoch milliseconds,
+     * or a timestamp (yyyy-MM-dd HH:mm:ss)
+     * @param value Time bound, null or blank for none
+     * @param now Current time in epoch milliseconds
+     * @return Epoch milliseconds, or null for no bound
+     * @throws IllegalArgumentException If the value is not in one of these formats
+     */
+    static Long parseTimeBound(String value, long now) {
+        if (value == null || value.isBlank()) {
+            return null;
         }
-        
-        return filteredData;
+        String trimmed = value.trim();
+        int last = trimmed.length() - 1;
+        char unit = Character.toLowerCase(trimmed.charAt(last));
+        if (last > 0 && "smhd".indexOf(unit) >= 0 && isDigits(trimmed, 0, last)) {
+            long amount = Long.parseLong(trimmed.substring(0, last));
+            TimeUnit timeUnit = switch (unit) {
+                case 's' -> TimeUnit.SECONDS;
+                case 'm' -> TimeUnit.MINUTES;
+                case 'h' -> TimeUnit.HOURS;
+                default -> TimeUnit.DAYS;
+            };
+            return now - timeUnit.toMillis(amount);
+        }
+        if (isDigits(trimmed, 0, trimmed.length())) {
+            return Long.parseLong(trimmed);
+        }
+        long millis = Alert.parseTimestamp(trimmed.replace('T', ' '));
+        if (millis == 0) {
+            throw new IllegalArgumentException("Invalid time '" + value + "', expected e.g. 15m, 2h, 1d, yyyy-MM-dd HH:mm:ss or epoch milliseconds");
+        }
+        return millis;
+    }
+
+    private static boolean isDigits(String value, int from, int to) {
+        if (from >= to || to - from > 18) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Generate mock alert data
+     * Get the rendered report body for a snapshot, severity and page, rendering it once per snapshot version
      */
-    private Map<String, Object> generateMockAlertData(String alertId, String severity, String application) {
-        Map<String, Object> result = new HashMap<>();
-        java.util.List<Map<String, Object>> alerts = new java.util.ArrayList<>();
-        
-        // 模拟告警数据
-        String[] severities = {"CRITICAL", "HIGH", "MEDIUM", "LOW"};
-        String[] applications = {"user-service", "order-service", "payment-service", "inventory-service", "notification-service", "wmpooc"};
-        String[] statuses = {"ACTIVE", "ACKNOWLEDGED", "RESOLVED"};
-        
-        int alertCount = random.nextInt(5) + 1; // 1-5条告警
-        
-        for (int i = 0; i < alertCount; i++) {
-            Map<String, Object> alert = new HashMap<>();
-            
-            // 生成告警ID
-            String generatedAlertId = alertId != null ? alertId : "ALERT-" + System.currentTimeMillis() + "-" + i;
-            alert.put("alertId", generatedAlertId);
-            
-            // 生成应用名称
-            String generatedApp = application != null ? application : applications[random.nextInt(applications.length)];
-            alert.put("application", generatedApp);
-            
-            // 生成告警级别
-            String generatedSeverity = severity != null ? severity : severities[random.nextInt(severities.length)];
-            alert.put("severity", generatedSeverity);
-            
-            // Use current selected alert type
-            alert.put("alertType", currentAlertType);
-            
-            // Generate alert title
-            alert.put("title", "系统性能异常告警");
-            
-            // Generate alert description
-            alert.put("description", "检测到系统性能指标异常，需要及时处理");
-            
-            // Generate timestamp
-            LocalDateTime alertTime = LocalDateTime.now().minusMinutes(random.nextInt(60));
-            alert.put("timestamp", alertTime.format(formatter));
-            
-            // Generate status
-            alert.put("status", statuses[random.nextInt(statuses.length)]);
-            
-            // Generate metrics data based on current alert type
-            Map<String, Object> metrics = new HashMap<>();
-            
-            if ("CPU过载".equals(currentAlertType)) {
-                // For CPU overload: CPU usage must be between 80-100%
-                metrics.put("cpuUsage", random.nextInt(21) + 80); // 80-100%
-                metrics.put("memoryUsage", random.nextInt(30) + 70); // 70-100%
-                metrics.put("diskUsage", random.nextInt(20) + 80); // 80-100%
-                metrics.put("networkLatency", random.nextInt(100) + 50); // 50-150ms
-            } else if ("服务不可用".equals(currentAlertType)) {
-                // For service unavailable: network latency must be 300ms or above
-                metrics.put("cpuUsage", random.nextInt(40) + 60); // 60-100%
-                metrics.put("memoryUsage", random.nextInt(30) + 70); // 70-100%
-                metrics.put("diskUsage", random.nextInt(20) + 80); // 80-100%
-                metrics.put("networkLatency", random.nextInt(700) + 300); // 300-1000ms
+    private String cachedReport(AlertSnapshot current, String application, String severity, int pageSize, String cursor,
+                                Supplier<AlertPage> page) {
+        if (!isBlank(application) && !isKnownApplication(application.trim())) {
+            // Caches are only kept for known applications, so made-up names cannot grow the map
+            return AlertReportRenderer.renderAlerts(page.get());
+        }
+        AtomicReference<ReportCache> reportCache = reportCaches.computeIfAbsent(isBlank(application) ? "" : application.trim(),
+            k -> new AtomicReference<>(new ReportCache(-1L)));
+        ReportCache cache = reportCache.get();
+        if (cache.version() < current.version()) {
+            reportCache.compareAndSet(cache, new ReportCache(current.version()));
+            cache = reportCache.get();
+        }
+        if (cache.version() != current.version()) {
+            // A newer snapshot was published meanwhile; render without caching
+            return AlertReportRenderer.renderAlerts(page.get());
+        }
+        String key = (severity == null || severity.trim().isEmpty() ? "" : severity)
+            + '\u0000' + pageSize + '\u0000' + (cursor == null ? "" : cursor.trim());
+        String report = cache.reports().get(key);
+        if (report == null) {
+            if (cache.reports().size() >= MAX_CACHED_REPORTS) {
+                return AlertReportRenderer.renderAlerts(page.get());
             }
-            
-            alerts.add(alert);
+            report = cache.reports().computeIfAbsent(key, k -> AlertReportRenderer.renderAlerts(page.get()));
+        } else {
+            logger.info("⚡ Using cached report for severity '{}' (version {})", severity, current.version());
+        }
+        return report;
+    }
+
+    /**
+     * Rendered reports of one snapshot version
+     */
+    private record ReportCache(long version, Map<String, String> reports) {
+
+        ReportCache(long version) {
+            this(version, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Clamp a requested page size
+     */
+    private static int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Select alerts by severity using the store's severity index
+     */
+    private List<Alert> selectBySeverity(AlertStore store, String severity) {
+        if (severity == null || severity.trim().isEmpty()) {
+            logger.info("ℹ️ No severity filter applied, returning all data");
+            return store.all(); // Return all data if no severity filter
         }
         
-        result.put("alerts", alerts);
-        return result;
+        List<Alert> matched = store.bySeverity(severity);
+        logger.info("✅ Severity index lookup completed. {} of {} alerts match severity '{}'", 
+                   matched.size(), store.size(), severity);
+        return matched;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
     }
-}
\ No newline at end of file
+}
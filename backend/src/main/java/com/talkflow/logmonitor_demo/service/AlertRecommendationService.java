@@ -1,35 +1,103 @@
 package com.talkflow.logmonitor_demo.service;
 
+import com.talkflow.logmonitor_demo.metrics.MetricSeries;
+import com.talkflow.logmonitor_demo.metrics.Resolution;
+import com.talkflow.logmonitor_demo.metrics.RollupBucket;
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.rules.HistorySource;
+import com.talkflow.logmonitor_demo.rules.RecommendationRule;
+import com.talkflow.logmonitor_demo.rules.RuleCatalog;
+import com.talkflow.logmonitor_demo.rules.RuleSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * Service for providing alert recommendations based on alert types
+ * Service for providing alert recommendations from declarative rules.
+ * Rules are conditions over alert fields, metrics and daily metric history, compiled into an
+ * indexed {@link RuleSet}; alerts are evaluated in bulk and annotated with the matching rules.
+ * The catalog is read from disk and reloaded when it changes, so advice can be edited without a restart.
  */
 @Service
 public class AlertRecommendationService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(AlertRecommendationService.class);
-    
-    // Historical recommendations for different alert types
-    private static final Map<String, List<String>> ALERT_RECOMMENDATIONS = new HashMap<>();
-    
-    static {
-        // CPU过载 recommendations
-        ALERT_RECOMMENDATIONS.put("CPU过载", List.of(
-            "查询最近5天cpu的使用情况，如果5天内都超过70%，那就要增加机器，否则就是偶发cpu过载，建议继续观察"
-        ));
-        
-        // 服务不可用 recommendations
-        ALERT_RECOMMENDATIONS.put("服务不可用", List.of(
-            "检查服务是否可用，如果不可用，则建议重启应用，如果可用，那可能是简单的网络闪断，建议继续观察"
-        ));
+    private static final String DEFAULT_CATALOG = "rules/recommendation-rules.json";
+    private static final long DAY_MILLIS = Resolution.DAY.widthMillis();
+    private static final int MAX_LISTED_ALERTS = 50;
+
+    @Autowired
+    private AlertMonitorService alertMonitorService;
+
+    @Autowired
+    private ApplicationCpuHistoryService applicationCpuHistoryService;
+
+    @Value("${logmonitor.rules.catalog:}")
+    private String catalogLocation;
+    @Value("${logmonitor.rules.watch:true}")
+    private boolean watch;
+    @Value("${logmonitor.rules.reload-delay:500ms}")
+    private Duration reloadDelay;
+
+    // Catalog on disk, null when the bundled catalog is used
+    private RuleCatalog catalog;
+    private RuleSet bundledRules = RuleSet.empty();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (catalogLocation == null || catalogLocation.isBlank()) {
+            bundledRules = RuleSet.compile(readBundledRules());
+            logger.info("📐 Loaded {} recommendation rules ({} distinct conditions) from classpath:{}",
+                       bundledRules.size(), bundledRules.conditionCount(), DEFAULT_CATALOG);
+            return;
+        }
+        Path location = Path.of(catalogLocation);
+        if (!Files.exists(location)) {
+            // Start operators off with an editable copy of the bundled catalog
+            Files.createDirectories(location);
+            try (InputStream in = new ClassPathResource(DEFAULT_CATALOG).getInputStream()) {
+                Files.copy(in, location.resolve(Path.of(DEFAULT_CATALOG).getFileName()));
+            }
+            logger.info("📐 Created recommendation rule catalog {} from the bundled rules", location);
+        }
+        catalog = new RuleCatalog(location, reloadDelay.toMillis());
+        RuleSet rules = catalog.current().rules();
+        logger.info("📐 Loaded {} recommendation rules ({} distinct conditions) from {}",
+                   rules.size(), rules.conditionCount(), location);
+        if (watch) {
+            catalog.watch();
+            logger.info("👀 Watching {} for rule changes", location);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (catalog != null) {
+            catalog.close();
+        }
     }
 
     /**
@@ -37,49 +105,224 @@ public class AlertRecommendationService {
      * @param alertType The type of alert (CPU过载 or 服务不可用)
      * @return Historical recommendations for the alert type
      */
-    @Tool(description = "Get historical recommendations for specific alert types")
+    @Tool(description = "Get historical recommendations for specific alert types, with the conditions under which each applies")
     public String getAlertRecommendations(String alertType) {
         logger.info("🔍 Getting recommendations for alert type: {}", alertType);
-        
+
         try {
             if (alertType == null || alertType.trim().isEmpty()) {
                 return "❌ Alert type cannot be empty";
             }
-            
-            List<String> recommendations = ALERT_RECOMMENDATIONS.get(alertType.trim());
-            
-            if (recommendations == null) {
-                return String.format("❌ No recommendations found for alert type: %s\nAvailable types: %s", 
-                    alertType, String.join(", ", ALERT_RECOMMENDATIONS.keySet()));
+
+            List<RecommendationRule> recommendations = ruleSet().rules().stream()
+                .filter(rule -> alertType.trim().equals(rule.alertType()))
+                .toList();
+
+            if (recommendations.isEmpty()) {
+                return String.format("❌ No recommendations found for alert type: %s\nAvailable types: %s",
+                    alertType, String.join(", ", getAvailableAlertTypes()));
             }
-            
+
             // Build formatted response
             StringBuilder result = new StringBuilder();
             result.append(String.format("💡 告警类型: %s 的处理建议\n", alertType));
             result.append("=".repeat(50)).append("\n\n");
-            
+
             for (int i = 0; i < recommendations.size(); i++) {
-                result.append(String.format("%d. %s\n", i + 1, recommendations.get(i)));
+                RecommendationRule rule = recommendations.get(i);
+                result.append(String.format("%d. %s\n", i + 1, rule.recommendation()));
+                result.append(String.format("   规则: %s，条件: %s\n", rule.id(), describeConditions(rule)));
             }
-            
+
             result.append(String.format("\n📋 总计: %d 条建议\n", recommendations.size()));
-            
-            logger.info("✅ Successfully retrieved {} recommendations for alert type: {}", 
+
+            logger.info("✅ Successfully retrieved {} recommendations for alert type: {}",
                        recommendations.size(), alertType);
-            
+
             return result.toString();
-            
+
         } catch (Exception e) {
             logger.error("❌ Error getting recommendations for alert type {}: {}", alertType, e.getMessage(), e);
             return String.format("❌ 获取告警建议失败: %s", e.getMessage());
         }
     }
 
+    /**
+     * Evaluate the recommendation rules against the current alerts
+     * @param application Application to evaluate, null or blank for all applications
+     * @param severity Alert severity level, null or blank for all alerts
+     * @return Matching rules and recommendations per alert
+     */
+    @Tool(description = "Evaluate recommendation rules against current alerts, using their metrics and the applications' daily metric history, and list the matching rules and recommendations per alert")
+    public String evaluateAlertRecommendations(
+            @ToolParam(description = "Application name to filter by; omit for all applications", required = false) String application,
+            @ToolParam(description = "Alert severity level to filter by (CRITICAL, HIGH, MEDIUM, LOW); omit for all", required = false) String severity) {
+        logger.info("🔍 Evaluating recommendation rules for application: {}, severity: {}", application, severity);
+
+        try {
+            RuleSet rules = ruleSet();
+            List<Alert> alerts = annotate(rules, alertMonitorService.selectAlerts(application, severity));
+
+            StringBuilder result = new StringBuilder();
+            result.append("💡 告警处理建议匹配结果\n");
+            result.append("=".repeat(50)).append("\n\n");
+
+            Map<String, Integer> ruleCounts = new LinkedHashMap<>();
+            int matchedAlerts = 0;
+            for (Alert alert : alerts) {
+                List<String> recommendations = alert.recommendations();
+                if (recommendations == null || recommendations.isEmpty()) {
+                    continue;
+                }
+                matchedAlerts++;
+                for (String recommendation : recommendations) {
+                    ruleCounts.merge(ruleId(recommendation), 1, Integer::sum);
+                }
+                if (matchedAlerts > MAX_LISTED_ALERTS) {
+                    continue;
+                }
+                result.append(String.format("🚨 [%s] %s - %s (%s)\n", alert.severity(), alert.application(), alert.title(), alert.alertId()));
+                for (String recommendation : recommendations) {
+                    result.append("   • ").append(recommendation).append('\n');
+                }
+                result.append('\n');
+            }
+            if (matchedAlerts > MAX_LISTED_ALERTS) {
+                result.append(String.format("… 另有 %d 条告警命中规则未列出\n\n", matchedAlerts - MAX_LISTED_ALERTS));
+            }
+
+            result.append(String.format("📋 总计: %d 条告警，%d 条命中规则\n", alerts.size(), matchedAlerts));
+            ruleCounts.forEach((id, count) -> result.append(String.format("   %s: %d 条\n", id, count)));
+
+            logger.info("✅ Evaluated {} rules against {} alerts, {} matched", rules.size(), alerts.size(), matchedAlerts);
+
+            return result.toString();
+
+        } catch (Exception e) {
+            logger.error("❌ Error evaluating recommendation rules: {}", e.getMessage(), e);
+            return String.format("❌ 匹配告警建议失败: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Evaluate the rules against alerts in bulk and attach the recommendations of the matching
+     * rules, as "[rule id] recommendation", after any recommendations the alert already had
+     * @return Annotated copies of the alerts, in the same order
+     */
+    public List<Alert> annotate(List<Alert> alerts) {
+        return annotate(ruleSet(), alerts);
+    }
+
+    private List<Alert> annotate(RuleSet rules, List<Alert> alerts) {
+        List<List<RecommendationRule>> matches = rules.evaluate(alerts, historySource());
+        List<Alert> annotated = new ArrayList<>(alerts.size());
+        for (int i = 0; i < alerts.size(); i++) {
+            Alert alert = alerts.get(i);
+            List<RecommendationRule> matched = matches.get(i);
+            if (matched.isEmpty()) {
+                annotated.add(alert);
+                continue;
+            }
+            Set<String> recommendations = new LinkedHashSet<>();
+            if (alert.recommendations() != null) {
+                recommendations.addAll(alert.recommendations());
+            }
+            for (RecommendationRule rule : matched) {
+                recommendations.add("[" + rule.id() + "] " + rule.recommendation());
+            }
+            annotated.add(new Alert(alert.alertId(), alert.application(), alert.severity(), alert.alertType(),
+                alert.title(), alert.description(), alert.timestamp(), alert.timestampMillis(), alert.status(),
+                alert.metrics(), List.copyOf(recommendations), alert.source(), alert.aggregation()));
+        }
+        return annotated;
+    }
+
     /**
      * Get all available alert types that have recommendations
      * @return List of alert types with recommendations
      */
     public List<String> getAvailableAlertTypes() {
-        return List.copyOf(ALERT_RECOMMENDATIONS.keySet());
+        Set<String> types = new LinkedHashSet<>();
+        for (RecommendationRule rule : ruleSet().rules()) {
+            if (rule.alertType() != null) {
+                types.add(rule.alertType());
+            }
+        }
+        return List.copyOf(types);
+    }
+
+    /**
+     * Get rule catalog metrics
+     * @return Catalog location, current version and reload outcomes
+     */
+    public Map<String, Object> getRuleStats() {
+        Map<String, Object> stats = new HashMap<>();
+        RuleSet rules = ruleSet();
+        stats.put("rules", rules.size());
+        stats.put("conditions", rules.conditionCount());
+        if (catalog == null) {
+            stats.put("catalog", "classpath:" + DEFAULT_CATALOG);
+            return stats;
+        }
+        RuleCatalog.Snapshot snapshot = catalog.current();
+        stats.put("catalog", catalog.location().toString());
+        stats.put("files", snapshot.files().stream().map(Path::toString).toList());
+        stats.put("version", snapshot.version());
+        stats.put("loadedAtMillis", snapshot.loadedAtMillis());
+        stats.put("watching", catalog.watching());
+        stats.put("reloadCount", catalog.reloadCount());
+        stats.put("rejectedCount", catalog.rejectedCount());
+        stats.put("lastError", catalog.lastError());
+        return stats;
+    }
+
+    /**
+     * Current rules; one read of the published snapshot, so a caller evaluates a single version
+     */
+    private RuleSet ruleSet() {
+        return catalog != null ? catalog.current().rules() : bundledRules;
+    }
+
+    /**
+     * Daily averages from the metric history rollups, one day bucket per day
+     */
+    private HistorySource historySource() {
+        long now = System.currentTimeMillis();
+        return (application, metric, days) -> {
+            double[] averages = new double[days];
+            Arrays.fill(averages, Double.NaN);
+            MetricSeries series = applicationCpuHistoryService.history(application);
+            if (series == null) {
+                return averages;
+            }
+            RollupBucket bucket = new RollupBucket();
+            for (int day = 0; day < days; day++) {
+                if (series.rollup(Resolution.DAY, now - day * DAY_MILLIS, bucket)) {
+                    averages[day] = bucket.avg(metric);
+                }
+            }
+            return averages;
+        };
+    }
+
+    private static String describeConditions(RecommendationRule rule) {
+        List<String> parts = new ArrayList<>(rule.when());
+        for (String exclusion : rule.unless()) {
+            parts.add("非(" + exclusion + ")");
+        }
+        return parts.isEmpty() ? "无" : String.join(" 且 ", parts);
+    }
+
+    private static String ruleId(String recommendation) {
+        int end = recommendation.indexOf(']');
+        return recommendation.startsWith("[") && end > 0 ? recommendation.substring(1, end) : recommendation;
+    }
+
+    private static List<RecommendationRule> readBundledRules() {
+        try (InputStream in = new ClassPathResource(DEFAULT_CATALOG).getInputStream()) {
+            return RuleCatalog.readRules(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read rule catalog " + DEFAULT_CATALOG, e);
+        }
     }
 }
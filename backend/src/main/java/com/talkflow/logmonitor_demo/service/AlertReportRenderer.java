@@ -0,0 +1,105 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertAggregation;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+import com.talkflow.logmonitor_demo.store.AlertPage;
+
+import java.util.List;
+
+/**
+ * Renders the text report of getDetailedAlertInfo with plain StringBuilder appends.
+ * Avoids String.format, which parses its format string with a regex on every call.
+ */
+final class AlertReportRenderer {
+
+    private static final String HEADER = "🚨 详细告警信息\n" + "=".repeat(50) + "\n\n";
+    private static final int ESTIMATED_CHARS_PER_ALERT = 320;
+
+    private AlertReportRenderer() {
+    }
+
+    /**
+     * Render the report body for one page of alerts, without query-time information
+     * @param page Alerts to render
+     * @return Report body
+     */
+    static String renderAlerts(AlertPage page) {
+        List<Alert> alerts = page.alerts();
+        StringBuilder result = new StringBuilder(HEADER.length() + 64 + alerts.size() * ESTIMATED_CHARS_PER_ALERT);
+        result.append(HEADER);
+        
+        if (alerts.isEmpty()) {
+            result.append("✅ 未找到匹配的告警信息\n");
+            return result.toString();
+        }
+        
+        for (int i = 0; i < alerts.size(); i++) {
+            Alert alert = alerts.get(i);
+            result.append("📊 告警 #").append(page.offset() + i + 1).append('\n');
+            result.append("   告警ID: ").append(alert.alertId()).append('\n');
+            result.append("   应用名称: ").append(alert.application()).append('\n');
+            result.append("   告警级别: ").append(alert.severity()).append('\n');
+            result.append("   告警类型: ").append(alert.alertType()).append('\n');
+            result.append("   告警标题: ").append(alert.title()).append('\n');
+            result.append("   告警描述: ").append(alert.description()).append('\n');
+            result.append("   发生时间: ").append(alert.timestamp()).append('\n');
+            result.append("   状态: ").append(alert.status()).append('\n');
+            
+            AlertAggregation aggregation = alert.aggregation();
+            boolean repeated = aggregation != null && aggregation.count() > 1;
+            if (repeated) {
+                result.append("   🔁 重复次数: ").append(aggregation.count())
+                    .append(" (首次: ").append(aggregation.firstSeen())
+                    .append(", 最近: ").append(aggregation.lastSeen()).append(")\n");
+            }
+            
+            AlertMetrics metrics = alert.metrics();
+            if (metrics != null) {
+                AlertMetrics min = repeated ? aggregation.minMetrics() : null;
+                AlertMetrics max = repeated ? aggregation.maxMetrics() : null;
+                boolean ranges = min != null && max != null;
+                result.append("   📈 相关指标:\n");
+                result.append("      CPU使用率: ").append(metrics.cpuUsage()).append('%');
+                appendRange(result, ranges, ranges ? min.cpuUsage() : 0, ranges ? max.cpuUsage() : 0, "%");
+                result.append("      内存使用率: ").append(metrics.memoryUsage()).append('%');
+                appendRange(result, ranges, ranges ? min.memoryUsage() : 0, ranges ? max.memoryUsage() : 0, "%");
+                result.append("      磁盘使用率: ").append(metrics.diskUsage()).append('%');
+                appendRange(result, ranges, ranges ? min.diskUsage() : 0, ranges ? max.diskUsage() : 0, "%");
+                result.append("      网络延迟: ").append(metrics.networkLatency()).append("ms");
+                appendRange(result, ranges, ranges ? min.networkLatency() : 0, ranges ? max.networkLatency() : 0, "ms");
+            }
+            
+            List<String> recommendations = alert.recommendations();
+            if (recommendations != null) {
+                result.append("   💡 处理建议:\n");
+                for (String rec : recommendations) {
+                    result.append("      • ").append(rec).append('\n');
+                }
+            }
+            
+            result.append('\n');
+        }
+        
+        if (page.offset() == 0 && page.nextCursor() == null) {
+            result.append("📋 总计: ").append(alerts.size()).append(" 条告警\n");
+        } else {
+            result.append("📋 第 ").append(page.offset() + 1).append('-').append(page.offset() + alerts.size())
+                .append(" 条，共 ").append(page.totalCount()).append(" 条告警\n");
+        }
+        if (page.nextCursor() != null) {
+            result.append("➡️ 下一页游标 (cursor): ").append(page.nextCursor()).append('\n');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Append the min-max range of a metric over all occurrences, then end the line
+     */
+    private static void appendRange(StringBuilder result, boolean ranges, int min, int max, String unit) {
+        if (ranges && min != max) {
+            result.append(" (范围 ").append(min).append('-').append(max).append(unit).append(')');
+        }
+        result.append('\n');
+    }
+}
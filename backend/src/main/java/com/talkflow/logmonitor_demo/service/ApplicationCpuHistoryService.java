@@ -1,17 +1,28 @@
 package com.talkflow.logmonitor_demo.service;
 
+import com.talkflow.logmonitor_demo.metrics.MetricSeries;
+import com.talkflow.logmonitor_demo.metrics.Metric;
+import com.talkflow.logmonitor_demo.metrics.QuantileSketch;
+import com.talkflow.logmonitor_demo.metrics.Resolution;
+import com.talkflow.logmonitor_demo.metrics.RollupBucket;
+import com.talkflow.logmonitor_demo.metrics.SimulatedFeed;
+import com.talkflow.logmonitor_demo.metrics.StreamingStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.annotation.ToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for querying application CPU usage history
@@ -21,7 +32,26 @@ public class ApplicationCpuHistoryService {
     
     private static final Logger logger = LoggerFactory.getLogger(ApplicationCpuHistoryService.class);
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final Random random = new Random();
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final float TREND_THRESHOLD = 2.0f;
+    private static final int MAX_BATCH_APPLICATIONS = 100;
+    // Highest average CPU usage first, applications without data last
+    private static final Comparator<AppHistory> BY_LOAD = Comparator.comparingDouble(
+        (AppHistory history) -> history.samples().found == 0 ? Double.NEGATIVE_INFINITY : history.samples().daily.mean()).reversed();
+
+    @Autowired
+    private MetricHistoryService metricHistoryService;
+
+    @Autowired
+    private HostMetricsService hostMetricsService;
+
+    @Autowired
+    private AlertMonitorService alertMonitorService;
+
+    // Applications whose history is simulated; applications with real samples never get a mock feed
+    private final Map<String, SimulatedFeed> mockFeeds = new ConcurrentHashMap<>();
 
     /**
      * Query CPU usage history for an application at the same time over the past n days
@@ -43,53 +73,61 @@ public class ApplicationCpuHistoryService {
                 return "❌ Days must be between 1 and 30";
             }
             
-            // Generate mock CPU usage history data
-            Map<String, Object> historyData = generateMockCpuHistoryData(applicationName.trim(), days);
+            long now = System.currentTimeMillis();
+            DaySamples samples = loadHistory(applicationName.trim(), days, now);
+            StreamingStats daily = samples.daily;
+            StreamingStats distribution = samples.distribution;
+            QuantileSketch distributionSketch = samples.distributionSketch;
             
             // Build formatted response
             StringBuilder result = new StringBuilder();
             result.append(String.format("📊 应用 %s 最近 %d 天同一时刻CPU使用率历史\n", applicationName, days));
             result.append("=".repeat(60)).append("\n\n");
             
-            if (historyData.containsKey("history")) {
-                @SuppressWarnings("unchecked")
-                var history = (List<Map<String, Object>>) historyData.get("history");
-                
-                for (int i = 0; i < history.size(); i++) {
-                    var record = history.get(i);
-                    result.append(String.format("📅 第 %d 天 (%s)\n", i + 1, record.get("date")));
-                    result.append(String.format("   ⏰ 时间: %s\n", record.get("time")));
-                    result.append(String.format("   💻 CPU使用率: %s%%\n", record.get("cpuUsage")));
-                    result.append(String.format("   📈 趋势: %s\n", record.get("trend")));
-                    result.append(String.format("   🏷️  状态: %s\n", record.get("status")));
-                    
-                    if (record.containsKey("details")) {
-                        @SuppressWarnings("unchecked")
-                        var details = (Map<String, Object>) record.get("details");
-                        result.append("   📋 详细信息:\n");
-                        result.append(String.format("      内存使用率: %s%%\n", details.get("memoryUsage")));
-                        result.append(String.format("      磁盘使用率: %s%%\n", details.get("diskUsage")));
-                        result.append(String.format("      网络延迟: %sms\n", details.get("networkLatency")));
+            if (samples.found == 0) {
+                result.append("✅ 未找到匹配的历史数据\n");
+            } else {
+                for (int i = 0; i < days; i++) {
+                    if (samples.resolution[i] == null) {
+                        LocalDateTime missing = LocalDateTime.ofInstant(Instant.ofEpochMilli(now - i * DAY_MILLIS), ZoneId.systemDefault());
+                        result.append(String.format("📅 第 %d 天 (%s)\n", i + 1, missing.format(DATE_FORMAT)));
+                        result.append("   ⚠️ 该时刻无采样数据\n\n");
+                        continue;
                     }
-                    
+                    float cpu = samples.cpu[i];
+                    LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(samples.timestamps[i]), ZoneId.systemDefault());
+                    result.append(String.format("📅 第 %d 天 (%s)\n", i + 1, time.format(DATE_FORMAT)));
+                    result.append(String.format("   ⏰ 时间: %s\n", time.format(TIME_FORMAT)));
+                    result.append(String.format("   💻 CPU使用率: %.1f%%\n", cpu));
+                    result.append(String.format("   🧮 聚合: %s均值，%d 个样本，区间 %.1f%% ~ %.1f%%，标准差 %.2f%%\n",
+                        samples.resolution[i].label(), samples.count[i], samples.cpuMin[i], samples.cpuMax[i], samples.cpuStddev[i]));
+                    result.append(String.format("   📈 趋势: %s\n", trend(samples, i)));
+                    result.append(String.format("   🏷️  状态: %s\n", status(cpu)));
+                    result.append("   📋 详细信息:\n");
+                    result.append(String.format("      内存使用率: %.1f%%\n", samples.memory[i]));
+                    result.append(String.format("      磁盘使用率: %.1f%%\n", samples.disk[i]));
+                    result.append(String.format("      网络延迟: %.0fms\n", samples.latency[i]));
                     result.append("\n");
                 }
                 
-                result.append(String.format("📋 总计: %d 天的数据\n", history.size()));
+                result.append(String.format("📋 总计: %d 天的数据\n", samples.found));
                 
                 // Add summary statistics
-                if (historyData.containsKey("summary")) {
-                    @SuppressWarnings("unchecked")
-                    var summary = (Map<String, Object>) historyData.get("summary");
-                    result.append("\n📊 统计摘要\n");
+                result.append("\n📊 统计摘要\n");
+                result.append("-".repeat(30)).append("\n");
+                result.append(String.format("   平均CPU使用率: %.1f%%\n", daily.mean()));
+                result.append(String.format("   最高CPU使用率: %.1f%%\n", daily.max()));
+                result.append(String.format("   最低CPU使用率: %.1f%%\n", daily.min()));
+                result.append(String.format("   波动范围: %.1f%%\n", daily.max() - daily.min()));
+                result.append(String.format("   标准差: %.2f%%\n", daily.stddev()));
+                
+                if (distribution.count() > 0) {
+                    result.append(String.format("\n📈 近 %d 天CPU使用率分布（%d 个样本）\n", days, distribution.count()));
                     result.append("-".repeat(30)).append("\n");
-                    result.append(String.format("   平均CPU使用率: %.1f%%\n", summary.get("avgCpuUsage")));
-                    result.append(String.format("   最高CPU使用率: %s%%\n", summary.get("maxCpuUsage")));
-                    result.append(String.format("   最低CPU使用率: %s%%\n", summary.get("minCpuUsage")));
-                    result.append(String.format("   波动范围: %.1f%%\n", summary.get("variance")));
+                    result.append(String.format("   均值: %.1f%%  标准差: %.2f%%\n", distribution.mean(), distribution.stddev()));
+                    result.append(String.format("   P50: %.1f%%  P95: %.1f%%  P99: %.1f%%\n",
+                        distributionSketch.quantile(0.50), distributionSketch.quantile(0.95), distributionSketch.quantile(0.99)));
                 }
-            } else {
-                result.append("✅ 未找到匹配的历史数据\n");
             }
             
             result.append(String.format("\n⏰ 查询时间: %s\n", LocalDateTime.now().format(formatter)));
@@ -105,93 +143,216 @@ public class ApplicationCpuHistoryService {
     }
 
     /**
-     * Generate mock CPU usage history data
+     * Query CPU usage history for several applications at once, in parallel
+     * @param applicationNames Application names to query
+     * @param days Number of days to look back
+     * @return One compact summary line per application, highest average CPU usage first
      */
-    private Map<String, Object> generateMockCpuHistoryData(String applicationName, int days) {
-        Map<String, Object> result = new HashMap<>();
-        List<Map<String, Object>> history = new ArrayList<>();
+    @Tool(description = "Query CPU usage history for several applications at once at the same time over the past n days. Returns one compact summary per application ranked by CPU load; use instead of calling queryCpuUsageHistory once per application")
+    public String queryCpuUsageHistoryBatch(
+            @ToolParam(description = "Application names to query, e.g. [\"wmpooc\", \"order-service\"]", required = true) List<String> applicationNames,
+            @ToolParam(description = "Number of days to look back (1-30)", required = true) int days) {
+        logger.info("🔍 Querying CPU usage history for {} applications over {} days",
+                   applicationNames != null ? applicationNames.size() : 0, days);
         
-        // Get current time for reference
-        LocalDateTime now = LocalDateTime.now();
-        int currentHour = now.getHour();
-        int currentMinute = now.getMinute();
-        
-        // Generate history for each day
-        for (int i = 0; i < days; i++) {
-            Map<String, Object> record = new HashMap<>();
-            
-            // Calculate date for this record
-            LocalDateTime recordDateTime = now.minusDays(i);
-            String date = recordDateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            String time = String.format("%02d:%02d", currentHour, currentMinute);
-            
-            record.put("date", date);
-            record.put("time", time);
+        try {
+            if (applicationNames == null) {
+                return "❌ Application names cannot be empty";
+            }
+            List<String> applications = applicationNames.stream()
+                .filter(name -> name != null && !name.trim().isEmpty())
+                .map(String::trim)
+                .distinct()
+                .toList();
+            if (applications.isEmpty()) {
+                return "❌ Application names cannot be empty";
+            }
+            if (applications.size() > MAX_BATCH_APPLICATIONS) {
+                return String.format("❌ At most %d applications per query", MAX_BATCH_APPLICATIONS);
+            }
+            if (days <= 0 || days > 30) {
+                return "❌ Days must be between 1 and 30";
+            }
             
-            // Generate realistic CPU usage based on application type
-            int cpuUsage;
-            String trend;
-            String status;
+            // Each application reads its own series, so they load independently across cores
+            long now = System.currentTimeMillis();
+            List<AppHistory> histories = applications.parallelStream()
+                .map(application -> new AppHistory(application, loadHistory(application, days, now)))
+                .sorted(BY_LOAD)
+                .toList();
             
-            if ("wmpooc".equals(applicationName)) {
-                // wmpooc application has very high CPU usage (always > 90%)
-                cpuUsage = random.nextInt(10) + 90; // 90-100%
-                trend = random.nextBoolean() ? "↗️ 上升" : "↘️ 下降";
-                status = "🚨 严重警告"; // Always critical for wmpooc
-            } else if (applicationName.contains("service")) {
-                // Service applications have moderate CPU usage
-                cpuUsage = random.nextInt(40) + 30; // 30-70%
-                trend = random.nextBoolean() ? "→ 稳定" : "↗️ 上升";
-                status = cpuUsage > 60 ? "⚠️ 警告" : "✅ 正常";
-            } else {
-                // Other applications have lower CPU usage
-                cpuUsage = random.nextInt(30) + 20; // 20-50%
-                trend = "→ 稳定";
-                status = "✅ 正常";
+            StringBuilder result = new StringBuilder();
+            result.append(String.format("📊 %d 个应用最近 %d 天同一时刻CPU使用率（按平均负载排序）\n", histories.size(), days));
+            result.append("=".repeat(60)).append("\n");
+            List<String> missing = new ArrayList<>();
+            int rank = 0;
+            for (AppHistory history : histories) {
+                DaySamples samples = history.samples();
+                if (samples.found == 0) {
+                    missing.add(history.application());
+                    continue;
+                }
+                StreamingStats daily = samples.daily;
+                boolean hasCurrent = samples.resolution[0] != null;
+                float current = hasCurrent ? samples.cpu[0] : (float) daily.mean();
+                result.append(String.format("%2d. %s  %s  平均 %.1f%%  最高 %.1f%%  最低 %.1f%%  标准差 %.2f%%",
+                    ++rank, history.application(), status(current), daily.mean(), daily.max(), daily.min(), daily.stddev()));
+                if (samples.distributionSketch.count() > 0) {
+                    result.append(String.format("  P95 %.1f%%", samples.distributionSketch.quantile(0.95)));
+                }
+                if (hasCurrent) {
+                    result.append(String.format("  当前 %.1f%% %s", current, trend(samples, 0)));
+                }
+                result.append(String.format("  (%d/%d 天)\n", samples.found, days));
+            }
+            if (!missing.isEmpty()) {
+                result.append(String.format("⚠️ 无历史数据: %s\n", String.join(", ", missing)));
             }
+            result.append(String.format("\n⏰ 查询时间: %s\n", LocalDateTime.now().format(formatter)));
             
-            record.put("cpuUsage", cpuUsage);
-            record.put("trend", trend);
-            record.put("status", status);
+            logger.info("✅ Successfully retrieved CPU usage history for {} applications", histories.size());
             
-            // Add detailed metrics
-            Map<String, Object> details = new HashMap<>();
-            details.put("memoryUsage", random.nextInt(30) + 50); // 50-80%
-            details.put("diskUsage", random.nextInt(20) + 60); // 60-80%
-            details.put("networkLatency", random.nextInt(50) + 20); // 20-70ms
-            record.put("details", details);
+            return result.toString();
             
-            history.add(record);
+        } catch (Exception e) {
+            logger.error("❌ Error querying CPU usage history: {}", e.getMessage(), e);
+            return String.format("❌ 查询CPU使用率历史失败: %s", e.getMessage());
         }
-        
-        result.put("history", history);
-        
-        // Calculate summary statistics
-        Map<String, Object> summary = new HashMap<>();
-        double avgCpuUsage = history.stream()
-            .mapToInt(record -> (Integer) record.get("cpuUsage"))
-            .average()
-            .orElse(0.0);
-        
-        int maxCpuUsage = history.stream()
-            .mapToInt(record -> (Integer) record.get("cpuUsage"))
-            .max()
-            .orElse(0);
-            
-        int minCpuUsage = history.stream()
-            .mapToInt(record -> (Integer) record.get("cpuUsage"))
-            .min()
-            .orElse(0);
-        
-        double variance = maxCpuUsage - minCpuUsage;
-        
-        summary.put("avgCpuUsage", Math.round(avgCpuUsage * 10.0) / 10.0);
-        summary.put("maxCpuUsage", maxCpuUsage);
-        summary.put("minCpuUsage", minCpuUsage);
-        summary.put("variance", Math.round(variance * 10.0) / 10.0);
-        
-        result.put("summary", summary);
-        
-        return result;
+    }
+
+    /**
+     * Get the metric history of an application, simulating it first for applications without real metrics
+     * @return The series, or null for an application the monitor does not know
+     */
+    public MetricSeries history(String application) {
+        return feedMockHistory(application, System.currentTimeMillis());
+    }
+
+    /**
+     * Load one pre-aggregated bucket per day (the finest rollup still covering the current time of day)
+     * and the day buckets' mergeable statistics for the distribution summary
+     */
+    private DaySamples loadHistory(String application, int days, long now) {
+        MetricSeries series = feedMockHistory(application, now);
+        DaySamples samples = new DaySamples(days);
+        if (series == null) {
+            return samples;
+        }
+        RollupBucket bucket = new RollupBucket();
+        for (int i = 0; i < days; i++) {
+            if (series.finestRollup(now - i * DAY_MILLIS, bucket)) {
+                samples.put(i, bucket);
+            }
+            if (series.rollup(Resolution.DAY, now - i * DAY_MILLIS, bucket)) {
+                samples.distribution.merge(bucket.cpuStats());
+                samples.distributionSketch.merge(bucket.cpuSketch());
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Trend of a day compared to the day before it
+     */
+    private String trend(DaySamples samples, int day) {
+        int previous = day + 1;
+        if (previous >= samples.timestamps.length || samples.resolution[previous] == null) {
+            return "→ 稳定";
+        }
+        float delta = samples.cpu[day] - samples.cpu[previous];
+        if (delta > TREND_THRESHOLD) {
+            return "↗️ 上升";
+        }
+        return delta < -TREND_THRESHOLD ? "↘️ 下降" : "→ 稳定";
+    }
+
+    private String status(float cpuUsage) {
+        if (cpuUsage >= 90) {
+            return "🚨 严重警告";
+        }
+        return cpuUsage > 60 ? "⚠️ 警告" : "✅ 正常";
+    }
+
+    /**
+     * Simulate per-minute samples for applications without real metrics, up to the given time.
+     * The locally sampled application is never simulated.
+     * The first query backfills the whole retention window; later queries, also after a restart
+     * recovered the persisted history, only fill the gap since the newest sample, so repeated
+     * queries see the same history.
+     * Only applications with a history or known to the alert monitor get a series, so arbitrary
+     * names from tool arguments neither create series files nor run a backfill.
+     * @return The series, or null for an unknown application
+     */
+    private MetricSeries feedMockHistory(String application, long now) {
+        if (hostMetricsService.isSampling(application)) {
+            return metricHistoryService.series(application);
+        }
+        MetricSeries series = metricHistoryService.find(application);
+        if (series == null) {
+            if (!alertMonitorService.isKnownApplication(application)) {
+                return null;
+            }
+            series = metricHistoryService.series(application);
+        }
+        SimulatedFeed feed = mockFeeds.computeIfAbsent(application, SimulatedFeed::new);
+        int count = feed.fill(series, now, metricHistoryService.getRetention().toMillis(),
+            (timestamp, cpu, memory, disk, latency) -> metricHistoryService.recordSimulated(application, timestamp, cpu, memory, disk, latency));
+        if (count > 1) {
+            logger.debug("📈 Simulated {} CPU history samples for {}", count, application);
+        }
+        return series;
+    }
+
+    /**
+     * Rollup bucket picked for each queried day, copied into primitive columns
+     */
+    private static final class DaySamples {
+
+        final long[] timestamps;
+        final Resolution[] resolution;
+        final int[] count;
+        final float[] cpu;
+        final float[] cpuMin;
+        final float[] cpuMax;
+        final float[] cpuStddev;
+        final float[] memory;
+        final float[] disk;
+        final float[] latency;
+        // Statistics of the per-day values, and of all samples in the covered day buckets
+        final StreamingStats daily = new StreamingStats();
+        final StreamingStats distribution = new StreamingStats();
+        final QuantileSketch distributionSketch = new QuantileSketch();
+        int found;
+
+        DaySamples(int days) {
+            timestamps = new long[days];
+            resolution = new Resolution[days];
+            count = new int[days];
+            cpu = new float[days];
+            cpuMin = new float[days];
+            cpuMax = new float[days];
+            cpuStddev = new float[days];
+            memory = new float[days];
+            disk = new float[days];
+            latency = new float[days];
+        }
+
+        void put(int day, RollupBucket bucket) {
+            timestamps[day] = bucket.start();
+            resolution[day] = bucket.resolution();
+            count[day] = bucket.count();
+            cpu[day] = bucket.avg(Metric.CPU);
+            cpuMin[day] = bucket.min(Metric.CPU);
+            cpuMax[day] = bucket.max(Metric.CPU);
+            cpuStddev[day] = (float) bucket.cpuStats().stddev();
+            memory[day] = bucket.avg(Metric.MEMORY);
+            disk[day] = bucket.avg(Metric.DISK);
+            latency[day] = bucket.avg(Metric.LATENCY);
+            daily.add(cpu[day]);
+            found++;
+        }
+    }
+
+    private record AppHistory(String application, DaySamples samples) {
     }
 }
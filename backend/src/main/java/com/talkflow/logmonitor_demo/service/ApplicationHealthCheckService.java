@@ -1,27 +1,118 @@
 package com.talkflow.logmonitor_demo.service;
 
+import com.talkflow.logmonitor_demo.config.HealthCheckProperties;
+import com.talkflow.logmonitor_demo.health.HealthCache;
+import com.talkflow.logmonitor_demo.health.HealthProber;
+import com.talkflow.logmonitor_demo.health.ProbeResult;
+import com.talkflow.logmonitor_demo.health.ProbeScheduler;
+import com.talkflow.logmonitor_demo.health.ProbeTarget;
+import com.talkflow.logmonitor_demo.health.ProbeType;
+import com.talkflow.logmonitor_demo.health.ScheduleSettings;
+import com.talkflow.logmonitor_demo.health.TargetStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /**
- * Service for checking application health status
+ * Service for checking application health status.
+ * Every configured check is probed on all instance hosts at once (HTTP requests, TCP connects
+ * and filesystem writes), each with its own deadline, so a check takes as long as its slowest probe.
+ * Rounds are cached per application for a short TTL and shared by concurrent callers, so many
+ * agents asking during an incident do not multiply the probe load on the application.
+ * Configured applications are also probed continuously in the background with adaptive
+ * intervals, circuit breaking and flap detection.
  */
 @Service
 public class ApplicationHealthCheckService {
     
     private static final Logger logger = LoggerFactory.getLogger(ApplicationHealthCheckService.class);
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final Random random = new Random();
+
+    @Autowired
+    private HealthCheckProperties properties;
+
+    @Autowired
+    private AlertMonitorService alertMonitorService;
+
+    private HealthProber prober;
+    private HealthCache healthCache;
+    private ProbeScheduler scheduler;
+
+    @PostConstruct
+    public void init() {
+        prober = new HealthProber(properties.getThreads());
+        healthCache = new HealthCache(properties.getCacheTtl().toMillis());
+        HealthCheckProperties.Background background = properties.getBackground();
+        scheduler = new ProbeScheduler(prober, new ScheduleSettings(
+            background.getMinInterval().toMillis(),
+            background.getBaseInterval().toMillis(),
+            background.getMaxInterval().toMillis(),
+            background.getBackoffFactor(),
+            background.getOpenAfterTimeouts(),
+            background.getOpenDuration().toMillis(),
+            background.getMaxOpenDuration().toMillis(),
+            background.getHistorySize(),
+            background.getFlapTransitions()));
+        int targets = 0;
+        if (background.isEnabled()) {
+            for (String application : properties.getApplications().keySet()) {
+                List<ProbeTarget> appTargets = targets(application);
+                scheduler.register(application, appTargets);
+                targets += appTargets.size();
+            }
+        }
+        logger.info("🏥 Health probes ready: {} configured applications, default timeout {}, result cache TTL {}, {} targets probed in background",
+                   properties.getApplications().size(), properties.getTimeout(), properties.getCacheTtl(), targets);
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.close();
+        prober.close();
+    }
+
+    /**
+     * Expand the configured checks of an application into one probe target per host. Applications
+     * without their own checks get the default checks only if the alert monitor knows them, so
+     * unknown or misspelled names are not reported healthy from the monitor's own checks.
+     * @return Targets in configuration order, empty if the application has no checks
+     */
+    public List<ProbeTarget> targets(String applicationName) {
+        List<HealthCheckProperties.Check> checks = properties.getApplications().get(applicationName);
+        if (checks == null) {
+            checks = alertMonitorService.isKnownApplication(applicationName) ? properties.getDefaultChecks() : List.of();
+        }
+        List<ProbeTarget> targets = new ArrayList<>();
+        for (HealthCheckProperties.Check check : checks) {
+            String name = check.getName() != null ? check.getName() : check.getType().label();
+            Duration timeout = check.getTimeout() != null ? check.getTimeout() : properties.getTimeout();
+            long minFree = check.getMinFreeSpace().toBytes();
+            if (check.getType() == ProbeType.FILESYSTEM) {
+                targets.add(new ProbeTarget(name, check.getType(), null, 0, check.getPath(), null, null, minFree, timeout));
+                continue;
+            }
+            for (String host : check.getHosts()) {
+                targets.add(new ProbeTarget(name, check.getType(), host.trim(), check.getPort(), check.getPath(),
+                    check.getSend(), check.getExpect(), minFree, timeout));
+            }
+        }
+        return targets;
+    }
 
     /**
      * Check application health status
@@ -38,8 +129,14 @@ public class ApplicationHealthCheckService {
                 return "❌ Application name cannot be empty";
             }
             
-            // Generate health check data
-            Map<String, Object> healthData = generateHealthCheckData(applicationName.trim());
+            List<ProbeTarget> targets = targets(applicationName.trim());
+            if (targets.isEmpty()) {
+                return String.format("⚠️ 应用 %s 未配置健康检查目标", applicationName);
+            }
+
+            // Probe every target at once, or share a round in flight or still fresh
+            HealthCache.Lookup lookup = healthCache.get(applicationName.trim(), () -> scheduler.probeAll(targets));
+            Map<String, Object> healthData = generateHealthCheckData(lookup);
             
             // Build formatted response
             StringBuilder result = new StringBuilder();
@@ -50,6 +147,8 @@ public class ApplicationHealthCheckService {
             String overallStatus = (String) healthData.get("overallStatus");
             result.append(String.format("📊 整体状态: %s\n", overallStatus));
             result.append(String.format("⏰ 检查时间: %s\n", healthData.get("checkTime")));
+            result.append(String.format("⏱️ 检查耗时: %s ms（%d 个探测并发执行）\n", healthData.get("elapsedMillis"), targets.size()));
+            result.append(String.format("🕒 数据时效: %s，%s ms 前完成探测\n", healthData.get("dataSource"), healthData.get("ageMillis")));
             result.append("\n");
             
             // Health check details
@@ -64,6 +163,7 @@ public class ApplicationHealthCheckService {
                     result.append(String.format("   状态: %s\n", check.get("status")));
                     result.append(String.format("   响应时间: %s\n", check.get("responseTime")));
                     result.append(String.format("   IP地址: %s\n", check.get("ipAddress")));
+                    result.append(String.format("   详情: %s\n", check.get("detail")));
                     result.append("\n");
                 }
             }
@@ -81,7 +181,20 @@ public class ApplicationHealthCheckService {
                     result.append("\n");
                 }
             }
-            
+
+            // Background probing state
+            List<TargetStatus> statuses = scheduler.status(applicationName.trim());
+            if (!statuses.isEmpty()) {
+                result.append("📡 后台持续探测:\n");
+                for (TargetStatus status : statuses) {
+                    result.append(String.format("   • %s %s: 熔断%s，间隔 %d 秒，最近 %d 次失败 %d 次%s\n",
+                        status.target().name(), status.target().address(), circuitLabel(status.circuit()),
+                        status.intervalMillis() / 1000, status.recentProbes(), status.recentFailures(),
+                        status.flapping() ? "，🔀 状态抖动" : ""));
+                }
+                result.append("\n");
+            }
+
             logger.info("✅ Successfully completed health check for application: {}", applicationName);
             
             return result.toString();
@@ -93,54 +206,62 @@ public class ApplicationHealthCheckService {
     }
 
     /**
-     * Generate health check data
+     * Get health check cache metrics
+     * @return Cache size, TTL and how lookups were served
      */
-    private Map<String, Object> generateHealthCheckData(String applicationName) {
+    public Map<String, Object> getHealthStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("cachedApplications", healthCache.size());
+        stats.put("cacheTtlMillis", healthCache.ttlMillis());
+        stats.put("probedCount", healthCache.probedCount());
+        stats.put("joinedCount", healthCache.joinedCount());
+        stats.put("cachedCount", healthCache.cachedCount());
+        stats.put("background", scheduler.stats());
+        return stats;
+    }
+
+    private static String circuitLabel(String circuit) {
+        return switch (circuit) {
+            case "OPEN" -> "打开";
+            case "HALF_OPEN" -> "半开";
+            default -> "关闭";
+        };
+    }
+
+    /**
+     * Wait for the probe round and collect the results
+     */
+    private Map<String, Object> generateHealthCheckData(HealthCache.Lookup lookup) {
         Map<String, Object> result = new HashMap<>();
+        HealthCache.Round round = lookup.round().join();
         
-        // Set check time
-        result.put("checkTime", LocalDateTime.now().format(formatter));
+        // Check time is when the probes ran, which is earlier for a cached round
+        result.put("checkTime", LocalDateTime.ofInstant(Instant.ofEpochMilli(round.completedAtMillis()), ZoneId.systemDefault()).format(formatter));
+        result.put("elapsedMillis", round.elapsedMillis());
+        result.put("ageMillis", healthCache.ageMillis(round));
+        result.put("dataSource", switch (lookup.source()) {
+            case PROBED -> "实时探测";
+            case JOINED -> "合并进行中的探测";
+            case CACHED -> "缓存结果";
+        });
+        List<ProbeResult> probes = round.results();
         
-        // Generate health checks based on application
         List<Map<String, Object>> healthChecks = new ArrayList<>();
         List<String> failedChecks = new ArrayList<>();
-        
-        if ("wmpooc".equals(applicationName)) {
-            // wmpooc always fails health checks
-            result.put("overallStatus", "🔴 不健康");
-            
-            // Generate failed health checks
-            String[] checkNames = {"HTTP端点检查", "数据库连接检查", "缓存服务检查", "消息队列检查", "文件系统检查"};
-            String[] ipAddresses = {"192.168.1.100", "192.168.1.101", "192.168.1.102", "10.0.0.50", "10.0.0.51"};
-            
-            for (int i = 0; i < 3; i++) { // 3 failed checks
-                Map<String, Object> check = new HashMap<>();
-                check.put("checkName", checkNames[i]);
-                check.put("status", "❌ 失败");
-                check.put("responseTime", "超时");
-                check.put("ipAddress", ipAddresses[i]);
-                healthChecks.add(check);
-                failedChecks.add(checkNames[i]);
-            }
-            
-        } else {
-            // Other applications are healthy
-            result.put("overallStatus", "🟢 健康");
-            
-            // Generate healthy health checks
-            String[] checkNames = {"HTTP端点检查", "数据库连接检查", "缓存服务检查"};
-            String[] ipAddresses = {"192.168.1.200", "192.168.1.201", "192.168.1.202"};
-            
-            for (int i = 0; i < 3; i++) {
-                Map<String, Object> check = new HashMap<>();
-                check.put("checkName", checkNames[i]);
-                check.put("status", "✅ 通过");
-                check.put("responseTime", random.nextInt(100) + 20 + "ms"); // 20-120ms
-                check.put("ipAddress", ipAddresses[i]);
-                healthChecks.add(check);
+        for (ProbeResult probe : probes) {
+            Map<String, Object> check = new HashMap<>();
+            check.put("checkName", probe.target().name());
+            check.put("status", probe.healthy() ? "✅ 通过" : "❌ 失败");
+            check.put("responseTime", probe.timedOut() ? "超时" : probe.latencyMillis() + "ms");
+            check.put("ipAddress", probe.target().address());
+            check.put("detail", probe.detail());
+            healthChecks.add(check);
+            if (!probe.healthy()) {
+                failedChecks.add(probe.target().name() + " (" + probe.target().address() + ")");
             }
         }
         
+        result.put("overallStatus", failedChecks.isEmpty() ? "🟢 健康" : "🔴 不健康");
         result.put("healthChecks", healthChecks);
         result.put("failedChecks", failedChecks);
         
@@ -0,0 +1,157 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.metrics.AnomalySettings;
+import com.talkflow.logmonitor_demo.metrics.CpuAnomalyDetector;
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service that runs a CPU anomaly detector on every recorded metric sample and raises
+ * CPU过载 alerts through the ingest buffer. Detection is incremental per series;
+ * history is never re-scanned. Backfilled samples older than the live window only
+ * update detector state.
+ */
+@Service
+public class CpuAnomalyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CpuAnomalyService.class);
+    private static final String ALERT_TYPE = "CPU过载";
+
+    @Autowired
+    private MetricHistoryService metricHistoryService;
+
+    @Autowired
+    private AlertIngestService alertIngestService;
+
+    @Value("${logmonitor.metrics.anomaly.enabled:true}")
+    private boolean enabled;
+    @Value("${logmonitor.metrics.anomaly.live-window:2m}")
+    private Duration liveWindow;
+    @Value("${logmonitor.metrics.anomaly.ewma-alpha:0.05}")
+    private double alpha;
+    @Value("${logmonitor.metrics.anomaly.z-threshold:4.0}")
+    private double zThreshold;
+    @Value("${logmonitor.metrics.anomaly.warmup-samples:60}")
+    private int warmupSamples;
+    @Value("${logmonitor.metrics.anomaly.spike-min-cpu:50}")
+    private float spikeMinCpu;
+    @Value("${logmonitor.metrics.anomaly.spike-cooldown:10m}")
+    private Duration spikeCooldown;
+    @Value("${logmonitor.metrics.anomaly.sustained-threshold:90}")
+    private float sustainedThreshold;
+    @Value("${logmonitor.metrics.anomaly.sustained-duration:5m}")
+    private Duration sustainedDuration;
+    @Value("${logmonitor.metrics.anomaly.hysteresis:5}")
+    private float hysteresis;
+    @Value("${logmonitor.metrics.anomaly.daily-threshold:70}")
+    private float dailyThreshold;
+    @Value("${logmonitor.metrics.anomaly.daily-days:5}")
+    private int dailyDays;
+
+    private AnomalySettings settings;
+    private final Map<String, CpuAnomalyDetector> detectors = new ConcurrentHashMap<>();
+
+    // Detector metrics
+    private final AtomicLong spikeCount = new AtomicLong();
+    private final AtomicLong sustainedCount = new AtomicLong();
+    private final AtomicLong dailyCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            logger.info("📴 CPU anomaly detection disabled");
+            return;
+        }
+        settings = new AnomalySettings(alpha, zThreshold, warmupSamples, spikeMinCpu, spikeCooldown.toMillis(),
+            sustainedThreshold, sustainedDuration.toMillis(), hysteresis, dailyThreshold, dailyDays);
+        metricHistoryService.addListener(this::onSample);
+        logger.info("🧭 CPU anomaly detection on: z >= {}, {}% for {}, daily average {}% for {} days",
+                   zThreshold, sustainedThreshold, sustainedDuration, dailyThreshold, dailyDays);
+    }
+
+    /**
+     * Get detector metrics
+     */
+    public Map<String, Object> getAnomalyStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", settings != null);
+        stats.put("series", detectors.size());
+        stats.put("spikeAlerts", spikeCount.get());
+        stats.put("sustainedAlerts", sustainedCount.get());
+        stats.put("dailyAlerts", dailyCount.get());
+        stats.put("droppedAlerts", droppedCount.get());
+        return stats;
+    }
+
+    private void onSample(String application, long timestampMillis, float cpuUsage, float memoryUsage,
+                          float diskUsage, short networkLatency) {
+        CpuAnomalyDetector detector = detectors.computeIfAbsent(application, app -> new CpuAnomalyDetector(settings));
+        boolean live = timestampMillis >= System.currentTimeMillis() - liveWindow.toMillis();
+        List<Alert> alerts = null;
+        synchronized (detector) {
+            int events = detector.update(timestampMillis, cpuUsage, live);
+            if (events == CpuAnomalyDetector.NONE) {
+                return;
+            }
+            alerts = new ArrayList<>(1);
+            AlertMetrics metrics = new AlertMetrics(Math.round(cpuUsage), Math.round(memoryUsage),
+                Math.round(diskUsage), networkLatency);
+            if ((events & CpuAnomalyDetector.SUSTAINED) != 0) {
+                sustainedCount.incrementAndGet();
+                alerts.add(alert(application, "SUSTAINED", timestampMillis, "CRITICAL", "CPU使用率持续过高",
+                    String.format("CPU使用率自 %s 起持续高于 %.0f%%，当前 %.1f%%",
+                        Alert.formatTimestamp(detector.aboveSinceMillis()), sustainedThreshold, cpuUsage), metrics));
+            }
+            if ((events & CpuAnomalyDetector.SPIKE) != 0) {
+                spikeCount.incrementAndGet();
+                alerts.add(alert(application, "SPIKE", timestampMillis, "HIGH", "CPU使用率突增",
+                    String.format("CPU使用率 %.1f%% 偏离近期均值 %.1f%% 达 %.1f 个标准差",
+                        cpuUsage, detector.mean(), detector.lastZScore()), metrics));
+            }
+            if ((events & CpuAnomalyDetector.DAILY) != 0) {
+                dailyCount.incrementAndGet();
+                alerts.add(alert(application, "DAILY", timestampMillis, "HIGH", "CPU使用率连续多日偏高",
+                    String.format("连续 %d 天日均CPU使用率高于 %.0f%%", detector.highDays(), dailyThreshold), metrics));
+            }
+        }
+        AlertIngestService.IngestResult result = alertIngestService.ingest(alerts, Alert.SOURCE_METRIC);
+        if (result.bufferFull()) {
+            droppedCount.addAndGet(result.dropped());
+            logger.warn("⚠️ Ingest buffer full, dropped {} CPU anomaly alerts for {}", result.dropped(), application);
+        }
+    }
+
+    private Alert alert(String application, String kind, long timestampMillis, String severity, String title,
+                        String description, AlertMetrics metrics) {
+        return new Alert(
+            "METRIC-" + kind + "-" + application + "-" + timestampMillis,
+            application,
+            severity,
+            ALERT_TYPE,
+            title,
+            description,
+            null,
+            timestampMillis,
+            "ACTIVE",
+            metrics,
+            null,
+            Alert.SOURCE_METRIC,
+            null);
+    }
+}
@@ -0,0 +1,135 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.metrics.HostMetricsSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service that samples the monitor's own host and JVM and records the samples in the metric
+ * history under the configured application name, so CPU history for it is real data.
+ */
+@Service
+public class HostMetricsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostMetricsService.class);
+
+    @Autowired
+    private MetricHistoryService metricHistoryService;
+
+    @Value("${logmonitor.metrics.sampler.enabled:true}")
+    private boolean enabled;
+    @Value("${logmonitor.metrics.sampler.interval:1s}")
+    private Duration interval;
+    @Value("${logmonitor.metrics.sampler.application:logmonitor-demo}")
+    private String application;
+    @Value("${logmonitor.metrics.sampler.proc-root:/proc}")
+    private Path procRoot;
+    @Value("${logmonitor.metrics.sampler.disk-path:.}")
+    private Path diskPath;
+
+    private HostMetricsSampler sampler;
+    private ScheduledExecutorService samplerExecutor;
+
+    // Sampler metrics
+    private final AtomicLong sampleCount = new AtomicLong();
+    private final AtomicLong sampleFailureCount = new AtomicLong();
+    private final AtomicLong samplingNanos = new AtomicLong();
+
+    /**
+     * Start sampling at the configured interval
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("📴 Host metrics sampler disabled");
+            return;
+        }
+        sampler = new HostMetricsSampler(procRoot, diskPath);
+        samplerExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metric-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        samplerExecutor.scheduleAtFixedRate(this::sampleOnce, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("📈 Sampling host metrics every {} as application '{}'", interval, application);
+    }
+
+    /**
+     * Stop sampling
+     */
+    @PreDestroy
+    public void stop() {
+        if (samplerExecutor == null) {
+            return;
+        }
+        samplerExecutor.shutdown();
+        try {
+            samplerExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sampler.close();
+        logger.info("🛑 Host metrics sampler stopped");
+    }
+
+    /**
+     * Get sampler metrics and the latest readings
+     */
+    public Map<String, Object> getSamplerStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", samplerExecutor != null);
+        stats.put("application", application);
+        stats.put("sampleCount", sampleCount.get());
+        stats.put("sampleFailureCount", sampleFailureCount.get());
+        long samples = sampleCount.get();
+        stats.put("avgSampleMicros", samples > 0 ? samplingNanos.get() / samples / 1000.0 : 0);
+        if (sampler != null) {
+            stats.put("source", sampler.procAvailable() ? "procfs" : "OperatingSystemMXBean");
+            stats.put("cpuUsage", sampler.cpuUsage());
+            stats.put("memoryUsage", sampler.memoryUsage());
+            stats.put("diskUsage", sampler.diskUsage());
+            stats.put("processCpuUsage", sampler.processCpuUsage());
+            stats.put("processRssBytes", sampler.processRssBytes());
+        }
+        return stats;
+    }
+
+    /**
+     * Whether the sampler records real metrics under the given application name
+     */
+    public boolean isSampling(String applicationName) {
+        return samplerExecutor != null && application.equals(applicationName);
+    }
+
+    private void sampleOnce() {
+        try {
+            long startTime = System.nanoTime();
+            if (sampler.sample(startTime)) {
+                // No network probe for the local host, so latency is recorded as 0
+                metricHistoryService.record(application, System.currentTimeMillis(),
+                    sampler.cpuUsage(), sampler.memoryUsage(), sampler.diskUsage(), 0);
+                sampleCount.incrementAndGet();
+                samplingNanos.addAndGet(System.nanoTime() - startTime);
+            }
+        } catch (RuntimeException e) {
+            sampleFailureCount.incrementAndGet();
+            logger.warn("⚠️ Failed to sample host metrics: {}", e.getMessage());
+        }
+    }
+}
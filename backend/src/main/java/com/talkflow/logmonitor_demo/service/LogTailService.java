@@ -0,0 +1,255 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.config.LogTailProperties;
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.tail.LogFileTailer;
+import com.talkflow.logmonitor_demo.tail.LogLineRule;
+import com.talkflow.logmonitor_demo.tail.TailOffsetStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+
+/**
+ * Service that follows log files and turns matching lines into alerts.
+ * All files are polled by one thread; matches go through the ingest buffer.
+ */
+@Service
+public class LogTailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogTailService.class);
+    private static final Set<String> SEVERITIES = Set.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+    private static final int MAX_DESCRIPTION_LENGTH = 512;
+
+    @Autowired
+    private LogTailProperties properties;
+
+    @Autowired
+    private AlertIngestService alertIngestService;
+
+    private final List<LogFileTailer> tailers = new ArrayList<>();
+    private final List<LogLineRule> rules = new ArrayList<>();
+    // Alerts not yet accepted by a full ingest buffer, per file; the file is not read further until they are
+    private final Map<Path, List<Alert>> pendingAlerts = new HashMap<>();
+    private TailOffsetStore offsetStore;
+    private ScheduledExecutorService tailExecutor;
+
+    // Tail metrics
+    private final AtomicLong matchedLineCount = new AtomicLong();
+    private final AtomicLong pollFailureCount = new AtomicLong();
+
+    /**
+     * Compile rules, restore offsets and start polling
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!properties.isEnabled() || properties.getFiles().isEmpty()) {
+            logger.info("📄 Log tailing disabled");
+            return;
+        }
+        
+        for (LogTailProperties.Rule rule : properties.getRules()) {
+            if (rule.getPattern() == null || !SEVERITIES.contains(rule.getSeverity())) {
+                throw new IllegalStateException("Invalid log tail rule '" + rule.getName()
+                    + "': pattern and severity (CRITICAL, HIGH, MEDIUM, LOW) are required");
+            }
+            rules.add(new LogLineRule(rule.getName(), rule.getContains(), rule.getPattern(),
+                rule.getSeverity(), rule.getAlertType(), rule.getTitle()));
+        }
+        
+        offsetStore = new TailOffsetStore(Path.of(properties.getOffsetFile()));
+        offsetStore.load();
+        for (String file : properties.getFiles()) {
+            Path path = Path.of(file);
+            LogFileTailer tailer = new LogFileTailer(path, properties.getReadBufferSize());
+            TailOffsetStore.Offset offset = offsetStore.get(path);
+            if (offset != null) {
+                tailer.resume(offset.fileKey(), offset.position());
+            } else if (properties.isStartAtEnd()) {
+                tailer.seekToEnd();
+            }
+            tailers.add(tailer);
+            logger.info("📄 Tailing {} from position {} with {} rules", path, tailer.committedPosition(), rules.size());
+        }
+        
+        tailExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-tail");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getPollInterval().toMillis();
+        tailExecutor.scheduleWithFixedDelay(this::pollAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop polling and persist the final offsets
+     */
+    @PreDestroy
+    public void stop() {
+        if (tailExecutor == null) {
+            return;
+        }
+        tailExecutor.shutdown();
+        try {
+            tailExecutor.awaitTermination(5, TimeUnit.SECONDS);
+            saveOffsets();
+            for (LogFileTailer tailer : tailers) {
+                tailer.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to close log tailers: {}", e.getMessage());
+        }
+        logger.info("🛑 Log tailing stopped");
+    }
+
+    /**
+     * Get tail metrics
+     * @return Per-file positions and counters
+     */
+    public Map<String, Object> getTailStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", tailExecutor != null);
+        stats.put("matchedLineCount", matchedLineCount.get());
+        stats.put("pollFailureCount", pollFailureCount.get());
+        
+        List<Map<String, Object>> files = new ArrayList<>();
+        for (LogFileTailer tailer : tailers) {
+            Map<String, Object> file = new LinkedHashMap<>();
+            file.put("path", tailer.path().toString());
+            file.put("position", tailer.committedPosition());
+            file.put("linesRead", tailer.linesRead());
+            file.put("bytesRead", tailer.bytesRead());
+            file.put("rotations", tailer.rotations());
+            file.put("truncations", tailer.truncations());
+            files.add(file);
+        }
+        stats.put("files", files);
+        return stats;
+    }
+
+    /**
+     * Poll every file once, delivering matched lines as alerts
+     */
+    private void pollAll() {
+        boolean offsetsChanged = false;
+        for (LogFileTailer tailer : tailers) {
+            try {
+                List<Alert> pending = pendingAlerts.get(tailer.path());
+                if (pending != null && !deliver(tailer.path(), pending)) {
+                    continue; // Buffer still full, do not read further
+                }
+                
+                List<Alert> matched = new ArrayList<>();
+                tailer.poll((bytes, offset, length, position) -> matchLine(tailer, bytes, offset, length, position, matched),
+                    properties.getMaxBytesPerPoll());
+                
+                if (!matched.isEmpty() && !deliver(tailer.path(), matched)) {
+                    continue; // Keep the stored offset until the pending alerts are accepted
+                }
+                offsetsChanged |= offsetStore.put(tailer.path(), tailer.fileKey(), tailer.committedPosition());
+            } catch (Exception e) {
+                pollFailureCount.incrementAndGet();
+                logger.warn("⚠️ Failed to tail {}: {}", tailer.path(), e.getMessage());
+            }
+        }
+        if (offsetsChanged) {
+            saveOffsets();
+        }
+    }
+
+    /**
+     * Hand alerts to the ingest buffer in batches it can hold, keeping whatever it could not accept
+     * @return true if all alerts were accepted
+     */
+    private boolean deliver(Path path, List<Alert> alerts) {
+        int batchSize = alertIngestService.getBufferCapacity();
+        for (int from = 0; from < alerts.size(); from += batchSize) {
+            List<Alert> batch = alerts.subList(from, Math.min(alerts.size(), from + batchSize));
+            if (alertIngestService.ingest(batch, Alert.SOURCE_LOG).bufferFull()) {
+                pendingAlerts.put(path, new ArrayList<>(alerts.subList(from, alerts.size())));
+                return false;
+            }
+        }
+        pendingAlerts.remove(path);
+        return true;
+    }
+
+    private void matchLine(LogFileTailer tailer, byte[] bytes, int offset, int length, long position, List<Alert> matched) {
+        String line = null;
+        for (LogLineRule rule : rules) {
+            if (!rule.mayMatch(bytes, offset, length)) {
+                continue;
+            }
+            if (line == null) {
+                line = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            }
+            Matcher match = rule.match(line);
+            if (match != null) {
+                matched.add(toAlert(tailer, rule, match, line, position));
+                matchedLineCount.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private Alert toAlert(LogFileTailer tailer, LogLineRule rule, Matcher match, String line, long position) {
+        String timestamp = rule.group(match, "timestamp");
+        String application = rule.group(match, "application");
+        String message = rule.group(match, "message");
+        String description = message != null ? message : line;
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            description = description.substring(0, MAX_DESCRIPTION_LENGTH);
+        }
+        // Derived from file and position, so re-reading a line after a crash updates the same alert
+        String alertId = "LOG-" + rule.name() + "-"
+            + Integer.toHexString(Objects.hash(tailer.path().toString(), String.valueOf(tailer.fileKey()))) + "-" + position;
+        long timestampMillis = timestamp != null && timestamp.length() >= 19
+            ? Alert.parseTimestamp(timestamp.substring(0, 19).replace('T', ' ')) : 0;
+        if (timestampMillis == 0) {
+            timestampMillis = System.currentTimeMillis();
+        }
+        return new Alert(
+            alertId,
+            application != null ? application : properties.getDefaultApplication(),
+            rule.severity(),
+            rule.alertType(),
+            rule.title(),
+            description,
+            null,
+            timestampMillis,
+            "ACTIVE",
+            null,
+            null,
+            Alert.SOURCE_LOG,
+            null);
+    }
+
+    private void saveOffsets() {
+        try {
+            offsetStore.save();
+        } catch (IOException e) {
+            logger.warn("⚠️ Failed to save log tail offsets: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.metrics.MetricSeries;
+import com.talkflow.logmonitor_demo.metrics.MetricStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Service holding the per-application host metric history (CPU, memory, disk, network latency).
+ * Samples live in compressed columnar series with a fixed block layout, so the heap used
+ * per application is bounded by the configured block size and block count. Minute, hour and
+ * day rollups are maintained on every sample and outlive the raw samples. When persistence is
+ * enabled, sealed blocks, rollups and the hot block live in memory-mapped files per application,
+ * so startup only maps the files and the heap does not grow with the history length.
+ */
+@Service
+public class MetricHistoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricHistoryService.class);
+
+    @Value("${logmonitor.metrics.block-size:1024}")
+    private int blockSize;
+    @Value("${logmonitor.metrics.max-blocks:64}")
+    private int maxBlocks;
+    @Value("${logmonitor.metrics.retention:30d}")
+    private Duration retention;
+    @Value("${logmonitor.metrics.rollup.minute-buckets:1440}")
+    private int minuteBuckets;
+    @Value("${logmonitor.metrics.rollup.hour-buckets:744}")
+    private int hourBuckets;
+    @Value("${logmonitor.metrics.rollup.day-buckets:366}")
+    private int dayBuckets;
+    @Value("${logmonitor.metrics.persistence.enabled:true}")
+    private boolean persistenceEnabled;
+    @Value("${logmonitor.metrics.persistence.directory:data/metrics}")
+    private Path directory;
+
+    private MetricStore store;
+    private volatile long recoveryMillis;
+    private final List<SampleListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Receives every real sample accepted by the history, on the recording thread; simulated samples are not delivered
+     */
+    @FunctionalInterface
+    public interface SampleListener {
+        void onSample(String application, long timestampMillis, float cpuUsage, float memoryUsage,
+                      float diskUsage, short networkLatency);
+    }
+
+    @PostConstruct
+    public void init() {
+        long start = System.nanoTime();
+        store = new MetricStore(persistenceEnabled ? directory : null, blockSize, maxBlocks, retention.toMillis(),
+            minuteBuckets, hourBuckets, dayBuckets);
+        if (persistenceEnabled) {
+            try {
+                int recovered = store.recover(System.currentTimeMillis());
+                recoveryMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                logger.info("💾 Recovered {} metric series ({} samples) from {} in {} ms",
+                           recovered, store.totalSamples(), directory.toAbsolutePath(), recoveryMillis);
+            } catch (RuntimeException e) {
+                logger.error("❌ Failed to recover metric history from {}: {}", directory.toAbsolutePath(), e.getMessage(), e);
+            }
+        }
+        logger.info("📈 Metric history ready: {} samples per block, up to {} blocks per application, retention {}, rollups {}m/{}h/{}d",
+                   blockSize, maxBlocks, retention, minuteBuckets, hourBuckets, dayBuckets);
+    }
+
+    /**
+     * Force the persisted history to disk
+     */
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+
+    /**
+     * Record one sample for an application
+     * @return false if the sample is older than the newest recorded one and was dropped
+     */
+    public boolean record(String application, long timestampMillis, float cpuUsage, float memoryUsage,
+                          float diskUsage, int networkLatencyMs) {
+        short latency = latency(networkLatencyMs);
+        if (!store.series(application).append(timestampMillis, cpuUsage, memoryUsage, diskUsage, latency)) {
+            return false;
+        }
+        for (SampleListener listener : listeners) {
+            listener.onSample(application, timestampMillis, cpuUsage, memoryUsage, diskUsage, latency);
+        }
+        return true;
+    }
+
+    /**
+     * Record one simulated sample for an application without notifying the listeners,
+     * so mock history never reaches anomaly detection
+     * @return false if the sample is older than the newest recorded one and was dropped
+     */
+    public boolean recordSimulated(String application, long timestampMillis, float cpuUsage, float memoryUsage,
+                                   float diskUsage, int networkLatencyMs) {
+        return store.series(application).append(timestampMillis, cpuUsage, memoryUsage, diskUsage, latency(networkLatencyMs));
+    }
+
+    /**
+     * Register a listener for newly recorded samples
+     */
+    public void addListener(SampleListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Get the series of an application, creating an empty one if needed
+     */
+    public MetricSeries series(String application) {
+        return store.series(application);
+    }
+
+    /**
+     * Get the series of an application without creating it
+     * @return The series, or null if nothing was recorded for the application
+     */
+    public MetricSeries find(String application) {
+        return store.find(application);
+    }
+
+    private static short latency(int networkLatencyMs) {
+        return (short) Math.min(Math.max(networkLatencyMs, 0), Short.MAX_VALUE);
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    /**
+     * Get metric history statistics
+     */
+    public Map<String, Object> getMetricStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("applications", store.seriesCount());
+        stats.put("samples", store.totalSamples());
+        stats.put("memoryBytes", store.memoryBytes());
+        stats.put("persistent", store.persistent());
+        stats.put("storedBytes", store.storedBytes());
+        stats.put("recoveryMillis", recoveryMillis);
+        stats.put("blockSize", blockSize);
+        stats.put("maxBlocks", maxBlocks);
+        stats.put("retention", retention.toString());
+        stats.put("rollupBuckets", Map.of("minute", minuteBuckets, "hour", hourBuckets, "day", dayBuckets));
+        return stats;
+    }
+}
@@ -0,0 +1,143 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertAggregation;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Folds duplicate alerts into one aggregate per fingerprint.
+ * Each incoming alert costs one hash lookup and a constant-size merge: the aggregate keeps the
+ * occurrence count, first/last seen and per-metric min/max, and shows the latest occurrence.
+ * The ids of the latest occurrences are kept too, so an occurrence delivered twice, such as a log
+ * line re-read after a crash or a retried ingest batch, is counted once.
+ */
+public final class AlertAggregator {
+
+    // Occurrence ids remembered per aggregate; older re-deliveries are counted again
+    static final int MAX_RECENT_IDS = 64;
+
+    private AlertAggregator() {
+    }
+
+    /**
+     * Get the fingerprint identifying duplicates of an alert
+     * @param alert Alert
+     * @return Fingerprint of source, application, alert type, title and severity
+     */
+    public static String fingerprint(Alert alert) {
+        return alert.source() + '|' + alert.application() + '|' + alert.alertType() + '|'
+            + alert.title() + '|' + alert.severity();
+    }
+
+    /**
+     * Fold incoming alerts into the aggregates of a store
+     * @param base Store holding the current aggregates, the store itself is unchanged
+     * @param incoming Alerts to fold
+     * @return New or updated aggregates, in order of first touch
+     */
+    public static List<Alert> fold(AlertStore base, Collection<Alert> incoming) {
+        Map<String, Alert> touched = new LinkedHashMap<>(incoming.size() * 2);
+        for (Alert alert : incoming) {
+            String fingerprint = fingerprint(alert);
+            Alert aggregate = touched.get(fingerprint);
+            if (aggregate == null) {
+                aggregate = base.byFingerprint(fingerprint);
+            }
+            touched.put(fingerprint, aggregate == null ? first(fingerprint, alert) : merge(aggregate, alert));
+        }
+        return List.copyOf(touched.values());
+    }
+
+    /**
+     * Start an aggregate from its first alert, keeping any aggregation it already carries
+     */
+    static Alert first(String fingerprint, Alert alert) {
+        AlertAggregation summary = summary(alert);
+        return alert.withAggregation(new AlertAggregation(fingerprint, summary.count(), summary.firstSeen(),
+            summary.lastSeen(), summary.minMetrics(), summary.maxMetrics(), summary.recentIds()));
+    }
+
+    /**
+     * Merge an alert into an existing aggregate. The aggregate keeps its id; its other fields follow the
+     * latest occurrence. An alert with the aggregate's own id, or the id of a recent occurrence,
+     * is an update, not a new occurrence.
+     */
+    static Alert merge(Alert aggregate, Alert alert) {
+        AlertAggregation current = aggregate.aggregation();
+        AlertAggregation added = summary(alert);
+        boolean own = Objects.equals(aggregate.alertId(), alert.alertId());
+        boolean repeat = own || current.recentIds().contains(alert.alertId());
+        AlertAggregation merged = new AlertAggregation(
+            current.fingerprint(),
+            repeat ? current.count() : current.count() + added.count(),
+            earlier(current.firstSeen(), added.firstSeen()),
+            later(current.lastSeen(), added.lastSeen()),
+            combine(current.minMetrics(), added.minMetrics(), false),
+            combine(current.maxMetrics(), added.maxMetrics(), true),
+            repeat ? current.recentIds() : recentIds(current.recentIds(), added.recentIds()));
+        boolean latest = own || alert.timestampMillis() >= aggregate.timestampMillis();
+        Alert shown = latest ? alert : aggregate;
+        return new Alert(aggregate.alertId(), shown.application(), shown.severity(), shown.alertType(), shown.title(),
+            shown.description(), shown.timestamp(), shown.timestampMillis(), shown.status(), shown.metrics(),
+            shown.recommendations(), shown.source(), merged);
+    }
+
+    private static AlertAggregation summary(Alert alert) {
+        AlertAggregation aggregation = alert.aggregation();
+        if (aggregation != null) {
+            return aggregation;
+        }
+        return new AlertAggregation(null, 1, alert.timestamp(), alert.timestamp(), alert.metrics(), alert.metrics(),
+            alert.alertId() != null ? List.of(alert.alertId()) : List.of());
+    }
+
+    /**
+     * Append ids to the recent ones, keeping the newest {@link #MAX_RECENT_IDS}
+     */
+    private static List<String> recentIds(List<String> current, List<String> added) {
+        List<String> ids = new ArrayList<>(current.size() + added.size());
+        ids.addAll(current);
+        for (String id : added) {
+            if (!ids.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids.size() > MAX_RECENT_IDS ? ids.subList(ids.size() - MAX_RECENT_IDS, ids.size()) : ids;
+    }
+
+    private static AlertMetrics combine(AlertMetrics a, AlertMetrics b, boolean max) {
+        if (a == null || b == null) {
+            return a != null ? a : b;
+        }
+        return max
+            ? new AlertMetrics(Math.max(a.cpuUsage(), b.cpuUsage()), Math.max(a.memoryUsage(), b.memoryUsage()),
+                Math.max(a.diskUsage(), b.diskUsage()), Math.max(a.networkLatency(), b.networkLatency()))
+            : new AlertMetrics(Math.min(a.cpuUsage(), b.cpuUsage()), Math.min(a.memoryUsage(), b.memoryUsage()),
+                Math.min(a.diskUsage(), b.diskUsage()), Math.min(a.networkLatency(), b.networkLatency()));
+    }
+
+    private static String earlier(String a, String b) {
+        return compare(a, b) <= 0 ? a : b;
+    }
+
+    private static String later(String a, String b) {
+        return compare(a, b) >= 0 ? a : b;
+    }
+
+    /**
+     * Compare timestamps, a missing timestamp is older than any other
+     */
+    private static int compare(String a, String b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+}
@@ -0,0 +1,28 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.talkflow.logmonitor_demo.model.Alert;
+
+import java.util.List;
+
+/**
+ * Event pushed to change subscribers
+ * @param type "delta" for incremental changes, "resync" for a full replacement of the client state
+ * @param version Snapshot version the client is at after applying this event
+ * @param alerts Full alert list, only for resync events
+ * @param delta Incremental changes, only for delta events
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AlertChangeEvent(String type, long version, List<Alert> alerts, AlertDelta delta) {
+
+    public static final String TYPE_DELTA = "delta";
+    public static final String TYPE_RESYNC = "resync";
+
+    public static AlertChangeEvent delta(AlertDelta delta) {
+        return new AlertChangeEvent(TYPE_DELTA, delta.version(), null, delta);
+    }
+
+    public static AlertChangeEvent resync(long version, List<Alert> alerts) {
+        return new AlertChangeEvent(TYPE_RESYNC, version, alerts, null);
+    }
+}
@@ -0,0 +1,56 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque page cursor: the sort key of the last alert of a page
+ * @param timestampMillis Epoch milliseconds of the last returned alert
+ * @param alertId Id of the last returned alert
+ */
+public record AlertCursor(long timestampMillis, String alertId) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Cursor pointing after the given alert
+     * @param alert Last alert of a page
+     * @return Cursor for the next page
+     */
+    public static AlertCursor after(Alert alert) {
+        return new AlertCursor(alert.timestampMillis(), alert.alertId());
+    }
+
+    /**
+     * Decode a cursor string produced by {@link #encode()}
+     * @param cursor Encoded cursor, null or blank for the first page
+     * @return Decoded cursor, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static AlertCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new AlertCursor(Long.parseLong(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Encode this cursor as a URL-safe string
+     * @return Encoded cursor
+     */
+    public String encode() {
+        String raw = Long.toString(timestampMillis) + SEPARATOR + alertId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
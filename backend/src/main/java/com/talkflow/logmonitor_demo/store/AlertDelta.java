@@ -0,0 +1,72 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Changes between two consecutive snapshot versions
+ * @param version Snapshot version that introduced the changes
+ * @param added Alerts that did not exist before
+ * @param updated Alerts that changed without being resolved
+ * @param resolved Alerts whose status changed to RESOLVED
+ * @param removed Ids of alerts that are no longer in the store
+ */
+public record AlertDelta(long version, List<Alert> added, List<Alert> updated, List<Alert> resolved, List<String> removed) {
+
+    private static final String RESOLVED = "RESOLVED";
+
+    /**
+     * Compute the delta between two stores, only looking at the given alert ids
+     * @param version Version of the next store
+     * @param previous Store before the change
+     * @param next Store after the change
+     * @param touchedIds Ids that may have changed
+     * @return Delta of the touched alerts
+     */
+    public static AlertDelta between(long version, AlertStore previous, AlertStore next, Collection<String> touchedIds) {
+        List<Alert> added = new ArrayList<>();
+        List<Alert> updated = new ArrayList<>();
+        List<Alert> resolved = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (String alertId : touchedIds) {
+            Alert before = previous.byId(alertId);
+            Alert after = next.byId(alertId);
+            if (before == null && after != null) {
+                added.add(after);
+            } else if (before != null && after == null) {
+                removed.add(alertId);
+            } else if (before != null && !before.equals(after)) {
+                if (RESOLVED.equals(after.status()) && !RESOLVED.equals(before.status())) {
+                    resolved.add(after);
+                } else {
+                    updated.add(after);
+                }
+            }
+        }
+        return new AlertDelta(version, List.copyOf(added), List.copyOf(updated), List.copyOf(resolved), List.copyOf(removed));
+    }
+
+    /**
+     * Keep only alerts with the given severity; removed ids are always kept
+     * @param severity Alert severity level, null or blank for no filter
+     * @return Filtered delta
+     */
+    public AlertDelta forSeverity(String severity) {
+        if (severity == null || severity.isBlank()) {
+            return this;
+        }
+        return new AlertDelta(version, filter(added, severity), filter(updated, severity), filter(resolved, severity), removed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && resolved.isEmpty() && removed.isEmpty();
+    }
+
+    private static List<Alert> filter(List<Alert> alerts, String severity) {
+        return alerts.stream().filter(alert -> Objects.equals(severity, alert.severity())).toList();
+    }
+}
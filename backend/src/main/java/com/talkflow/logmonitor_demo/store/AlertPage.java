@@ -0,0 +1,15 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+
+import java.util.List;
+
+/**
+ * One page of alerts in store order
+ * @param alerts Alerts of this page
+ * @param offset Position of the first alert of this page among all matching alerts
+ * @param totalCount Number of all matching alerts
+ * @param nextCursor Cursor for the next page, null on the last page
+ */
+public record AlertPage(List<Alert> alerts, int offset, int totalCount, String nextCursor) {
+}
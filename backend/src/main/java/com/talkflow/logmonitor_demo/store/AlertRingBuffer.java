@@ -0,0 +1,176 @@
+package com.talkflow.logmonitor_demo.store;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer ring buffer (Vyukov style sequence slots).
+ * All slots are allocated up front, so offering and draining never allocate,
+ * and a full buffer is reported to the producer instead of growing.
+ * @param <E> Element type
+ */
+public final class AlertRingBuffer<E> {
+
+    private final Object[] elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Create a ring buffer
+     * @param capacity Requested capacity, rounded up to a power of two
+     */
+    public AlertRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Try to add an element
+     * @param element Element to add, not null
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            long difference = sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements[index] = element;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Add all elements or none: the slots are claimed in one step, so a batch is never split
+     * between the buffer and the caller
+     * @param batch Elements to add, none null
+     * @return false if the buffer does not have room for the whole batch
+     */
+    public boolean offerAll(List<? extends E> batch) {
+        int n = batch.size();
+        if (n == 0) {
+            return true;
+        }
+        if (n > elements.length) {
+            return false;
+        }
+        for (E element : batch) {
+            if (element == null) {
+                throw new NullPointerException("element");
+            }
+        }
+        long position = tail.get();
+        while (true) {
+            if (!free(position, n)) {
+                if (tail.get() == position) {
+                    return false;
+                }
+            } else if (tail.compareAndSet(position, position + n)) {
+                for (int i = 0; i < n; i++) {
+                    int index = (int) (position + i) & mask;
+                    elements[index] = batch.get(i);
+                    sequences.set(index, position + i + 1);
+                }
+                return true;
+            }
+            position = tail.get();
+        }
+    }
+
+    /**
+     * Whether the slots for n elements starting at the position are all free for this lap
+     */
+    private boolean free(long position, int n) {
+        for (int i = 0; i < n; i++) {
+            if (sequences.get((int) (position + i) & mask) != position + i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove the oldest element
+     * @return Oldest element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            long difference = sequence - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = (E) elements[index];
+                    elements[index] = null;
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Remove up to maxElements elements and pass them to the consumer
+     * @param consumer Receiver of drained elements
+     * @param maxElements Maximum number of elements to drain
+     * @return Number of elements drained
+     */
+    public int drain(Consumer<? super E> consumer, int maxElements) {
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of buffered elements
+     * @return Element count at the time of the call
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, elements.length));
+    }
+
+    public int capacity() {
+        return elements.length;
+    }
+
+    public int remainingCapacity() {
+        return capacity() - size();
+    }
+}
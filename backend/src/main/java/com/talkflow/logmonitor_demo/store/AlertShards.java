@@ -0,0 +1,180 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Alert store partitioned by application. Each application has its own immutable {@link AlertStore}
+ * shard. A writer holds only the lock stripe of its application while it rebuilds that shard, so
+ * applications do not contend with each other; readers never lock.
+ * Every shard change gets the next global version and is applied to the store across all
+ * applications as a delta, so that store costs the changed alerts rather than all alerts.
+ */
+public final class AlertShards {
+
+    private static final ShardState EMPTY_SHARD = new ShardState(0L, AlertStore.empty());
+
+    /**
+     * Result of updating one shard
+     * @param application Application of the shard
+     * @param version Global version of the change, or the shard's unchanged version
+     * @param previous Shard store before the update
+     * @param next Shard store after the update
+     */
+    public record ShardUpdate(String application, long version, AlertStore previous, AlertStore next) {
+
+        public boolean changed() {
+            return previous != next;
+        }
+    }
+
+    private record ShardState(long version, AlertStore store) {
+    }
+
+    private final Map<String, AtomicReference<ShardState>> shards = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    // Hands out versions and publishes shard states, so a reader can take a consistent cut of all shards
+    private final Object sequenceLock = new Object();
+    private long version;
+    private volatile long publishedVersion;
+    private volatile LocalDateTime refreshTime;
+    // Store across all applications at the published version, written only under the sequence lock
+    private volatile AlertSnapshot combined = AlertSnapshot.empty();
+
+    /**
+     * Create an empty sharded store
+     * @param stripeCount Number of writer lock stripes, rounded up to a power of two
+     */
+    public AlertShards(int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new ReentrantLock[Math.max(1, count)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Replace the shard of an application with an updated store. The update runs exactly once,
+     * under the lock stripe of the application.
+     * @param application Application of the shard
+     * @param update Derives the new shard store from the current one; returning it unchanged is a no-op
+     * @return Previous and new shard store with the version of the change
+     */
+    public ShardUpdate update(String application, UnaryOperator<AlertStore> update) {
+        AtomicReference<ShardState> shard = shards.computeIfAbsent(application, k -> new AtomicReference<>(EMPTY_SHARD));
+        ReentrantLock lock = stripes[spread(application.hashCode()) & (stripes.length - 1)];
+        lock.lock();
+        try {
+            ShardState previous = shard.get();
+            AlertStore next = update.apply(previous.store());
+            if (next == previous.store()) {
+                return new ShardUpdate(application, previous.version(), next, next);
+            }
+            // Shards share ids across applications, so the combined store swaps exact instances
+            List<Alert> removed = new ArrayList<>();
+            List<Alert> added = new ArrayList<>();
+            AlertStore.diff(previous.store(), next, removed, added);
+            long nextVersion;
+            synchronized (sequenceLock) {
+                nextVersion = ++version;
+                shard.set(new ShardState(nextVersion, next));
+                combined = new AlertSnapshot(nextVersion, combined.store().withReplaced(removed, added), null);
+                publishedVersion = nextVersion;
+            }
+            return new ShardUpdate(application, nextVersion, previous.store(), next);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get the current snapshot of one application's shard, without touching other shards
+     * @param application Application name
+     * @return Shard snapshot, empty if the application has no alerts
+     */
+    public AlertSnapshot snapshot(String application) {
+        AtomicReference<ShardState> shard = shards.get(application);
+        ShardState state = shard != null ? shard.get() : EMPTY_SHARD;
+        return new AlertSnapshot(state.version(), state.store(), refreshTime);
+    }
+
+    /**
+     * Get the current snapshot across all applications
+     * @return Snapshot of all alerts; its version is the latest change it contains
+     */
+    public AlertSnapshot snapshot() {
+        AlertSnapshot current = combined;
+        return new AlertSnapshot(current.version(), current.store(), refreshTime);
+    }
+
+    /**
+     * Get the applications whose shard holds alerts from the given source
+     * @param source Alert source
+     * @return Application names
+     */
+    public List<String> applicationsWithSource(String source) {
+        List<String> applications = new ArrayList<>();
+        shards.forEach((application, shard) -> {
+            if (!shard.get().store().bySource(source).isEmpty()) {
+                applications.add(application);
+            }
+        });
+        return applications;
+    }
+
+    /**
+     * Get the applications that have a shard
+     * @return Application names, sorted
+     */
+    public List<String> applications() {
+        return shards.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * Whether the application has a shard
+     */
+    public boolean contains(String application) {
+        return shards.containsKey(application);
+    }
+
+    /**
+     * Get the total number of alerts over all shards
+     */
+    public int size() {
+        int total = 0;
+        for (AtomicReference<ShardState> shard : shards.values()) {
+            total += shard.get().store().size();
+        }
+        return total;
+    }
+
+    /**
+     * Get the version of the latest shard change
+     */
+    public long version() {
+        return publishedVersion;
+    }
+
+    public LocalDateTime refreshTime() {
+        return refreshTime;
+    }
+
+    /**
+     * Record the time of the last completed refresh, reported with every snapshot
+     */
+    public void markRefreshed(LocalDateTime time) {
+        refreshTime = time;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,32 @@
+package com.talkflow.logmonitor_demo.store;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable, versioned view of one application's alert shard, or of all applications.
+ * Readers take one snapshot and use it for the whole request, so the alerts and
+ * refresh time they report always belong together.
+ * @param version Version of the latest change contained in the view, 0 for the initial empty snapshot
+ * @param store Indexed alerts of this snapshot
+ * @param refreshTime Time of the last refresh, null until the first refresh
+ */
+public record AlertSnapshot(long version, AlertStore store, LocalDateTime refreshTime) {
+
+    private static final AlertSnapshot EMPTY = new AlertSnapshot(0L, AlertStore.empty(), null);
+
+    /**
+     * Get the initial empty snapshot
+     * @return Empty snapshot with version 0
+     */
+    public static AlertSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Whether no refresh has completed yet; ingested alerts alone do not count
+     * @return true until the first refresh has been published
+     */
+    public boolean isInitial() {
+        return refreshTime == null;
+    }
+}
@@ -0,0 +1,386 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Immutable alert store with secondary indexes by severity, application, status, source and fingerprint.
+ * Lookups by an indexed field are a single hash lookup instead of a scan over all alerts.
+ * All lists are kept in {@link #ORDER}, newest first, so pages and time ranges can be located by binary search.
+ * Lists are chunked and maps are striped, so a new version built from a batch shares everything the batch
+ * does not touch with the previous one instead of copying and re-sorting the whole store.
+ */
+public final class AlertStore {
+
+    /**
+     * Stable store order: newest timestamp first, then alert id
+     */
+    public static final Comparator<Alert> ORDER = Comparator
+        .comparingLong(Alert::timestampMillis).reversed()
+        .thenComparing(Alert::alertId, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+    private static final SortedChunks<Alert> NO_ALERTS = SortedChunks.empty(ORDER);
+    private static final AlertStore EMPTY = new AlertStore(NO_ALERTS, StripedMap.empty(), Map.of(), Map.of(),
+        Map.of(), Map.of(), StripedMap.empty());
+
+    private final SortedChunks<Alert> alerts;
+    private final StripedMap<Alert> byId;
+    private final Map<String, SortedChunks<Alert>> bySeverity;
+    private final Map<String, SortedChunks<Alert>> byApplication;
+    private final Map<String, SortedChunks<Alert>> byStatus;
+    private final Map<String, SortedChunks<Alert>> bySource;
+    private final StripedMap<Alert> byFingerprint;
+
+    private AlertStore(SortedChunks<Alert> alerts, StripedMap<Alert> byId,
+                       Map<String, SortedChunks<Alert>> bySeverity, Map<String, SortedChunks<Alert>> byApplication,
+                       Map<String, SortedChunks<Alert>> byStatus, Map<String, SortedChunks<Alert>> bySource,
+                       StripedMap<Alert> byFingerprint) {
+        this.alerts = alerts;
+        this.byId = byId;
+        this.bySeverity = bySeverity;
+        this.byApplication = byApplication;
+        this.byStatus = byStatus;
+        this.bySource = bySource;
+        this.byFingerprint = byFingerprint;
+    }
+
+    /**
+     * Get an empty store
+     * @return Empty alert store
+     */
+    public static AlertStore empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Build a store from the given alerts
+     * @param alerts Alerts to index
+     * @return New alert store
+     */
+    public static AlertStore of(Collection<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return EMPTY;
+        }
+        List<Alert> sorted = new ArrayList<>(alerts);
+        sorted.sort(ORDER);
+        Map<String, Alert> ids = new HashMap<>(sorted.size() * 2);
+        Map<String, Alert> fingerprints = new HashMap<>();
+        for (Alert alert : sorted) {
+            ids.put(alert.alertId(), alert);
+            if (alert.aggregation() != null) {
+                fingerprints.put(alert.aggregation().fingerprint(), alert);
+            }
+        }
+        return new AlertStore(SortedChunks.ofSorted(ORDER, sorted),
+            StripedMap.<Alert>empty().with(List.of(), ids),
+            index(sorted, Alert::severity), index(sorted, Alert::application),
+            index(sorted, Alert::status), index(sorted, Alert::source),
+            StripedMap.<Alert>empty().with(List.of(), fingerprints));
+    }
+
+    /**
+     * Get one page of an ordered alert list
+     * @param alerts Alert list in store order, e.g. from {@link #bySeverity(String)}
+     * @param after Cursor of the previous page, null for the first page
+     * @param limit Maximum number of alerts on the page
+     * @return Requested page
+     */
+    public static AlertPage page(List<Alert> alerts, AlertCursor after, int limit) {
+        int from = after == null ? 0 : firstAfter(alerts, after);
+        int to = Math.min(alerts.size(), from + Math.max(0, limit));
+        List<Alert> page = alerts.subList(from, to);
+        String nextCursor = to < alerts.size() && to > from ? AlertCursor.after(alerts.get(to - 1)).encode() : null;
+        return new AlertPage(page, from, alerts.size(), nextCursor);
+    }
+
+    /**
+     * Get the alerts of an ordered list that occurred in a time range, by binary search on the timestamps
+     * @param alerts Alert list in store order, e.g. from {@link #bySeverity(String)}
+     * @param sinceMillis Inclusive lower bound in epoch milliseconds, null for no lower bound
+     * @param untilMillis Exclusive upper bound in epoch milliseconds, null for no upper bound
+     * @return View of the alerts in the range, still newest first
+     */
+    public static List<Alert> between(List<Alert> alerts, Long sinceMillis, Long untilMillis) {
+        int from = untilMillis == null ? 0 : firstOlderThan(alerts, untilMillis);
+        int to = sinceMillis == null ? alerts.size() : firstOlderThan(alerts, sinceMillis);
+        return from == 0 && to == alerts.size() ? alerts : alerts.subList(from, Math.max(from, to));
+    }
+
+    /**
+     * Build a new store with the given alerts inserted, replacing alerts with the same id in place
+     * @param upserts Alerts to insert or replace
+     * @return New alert store, this store is unchanged
+     */
+    public AlertStore withUpserts(Collection<Alert> upserts) {
+        if (upserts.isEmpty()) {
+            return this;
+        }
+        return apply(List.of(), upserts);
+    }
+
+    /**
+     * Build a new store where all alerts from the given source are replaced
+     * @param source Alert source to replace
+     * @param replacement New alerts for that source
+     * @return New alert store, this store is unchanged
+     */
+    public AlertStore withSourceReplaced(String source, Collection<Alert> replacement) {
+        if (replacement.isEmpty() && bySource(source).isEmpty()) {
+            return this;
+        }
+        return apply(bySource(source), replacement);
+    }
+
+    /**
+     * Get all alerts
+     * @return All alerts in store order
+     */
+    public List<Alert> all() {
+        return alerts;
+    }
+
+    /**
+     * Get an alert by id
+     * @param alertId Alert id
+     * @return Alert, or null if not present
+     */
+    public Alert byId(String alertId) {
+        return byId.get(alertId);
+    }
+
+    /**
+     * Get the aggregate alert for a fingerprint
+     * @param fingerprint Fingerprint from {@link AlertAggregator#fingerprint(Alert)}
+     * @return Aggregate alert, or null if not present
+     */
+    public Alert byFingerprint(String fingerprint) {
+        return byFingerprint.get(fingerprint);
+    }
+
+    /**
+     * Get alerts with the given severity
+     * @param severity Alert severity level
+     * @return Matching alerts, empty if none
+     */
+    public List<Alert> bySeverity(String severity) {
+        return lookup(bySeverity, severity);
+    }
+
+    /**
+     * Get alerts raised by the given application
+     * @param application Application name
+     * @return Matching alerts, empty if none
+     */
+    public List<Alert> byApplication(String application) {
+        return lookup(byApplication, application);
+    }
+
+    /**
+     * Get alerts with the given status
+     * @param status Alert status
+     * @return Matching alerts, empty if none
+     */
+    public List<Alert> byStatus(String status) {
+        return lookup(byStatus, status);
+    }
+
+    /**
+     * Get alerts from the given source
+     * @param source Alert source (MOCK, INGEST, LOG)
+     * @return Matching alerts, empty if none
+     */
+    public List<Alert> bySource(String source) {
+        return lookup(bySource, source);
+    }
+
+    public int size() {
+        return alerts.size();
+    }
+
+    public boolean isEmpty() {
+        return alerts.isEmpty();
+    }
+
+    /**
+     * Binary search for the first alert ordered after the cursor
+     */
+    private static int firstAfter(List<Alert> alerts, AlertCursor cursor) {
+        Alert key = new Alert(cursor.alertId(), null, null, null, null, null, null, cursor.timestampMillis(),
+            null, null, null, null, null);
+        int low = 0;
+        int high = alerts.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ORDER.compare(alerts.get(mid), key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary search for the first alert older than the given time; timestamps descend through the list
+     */
+    private static int firstOlderThan(List<Alert> alerts, long epochMillis) {
+        int low = 0;
+        int high = alerts.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (alerts.get(mid).timestampMillis() >= epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Remove and insert alerts, rebuilding only the chunks, index lists and map stripes they touch
+     * @param removals Alerts currently in this store to remove
+     * @param upserts Alerts to insert, replacing alerts with the same id
+     */
+    private AlertStore apply(Collection<Alert> removals, Collection<Alert> upserts) {
+        Map<String, Alert> added = new LinkedHashMap<>(upserts.size() * 2);
+        for (Alert alert : upserts) {
+            added.put(alert.alertId(), alert);
+        }
+        List<Alert> removed = new ArrayList<>(removals);
+        Set<String> removedIds = new HashSet<>(removals.size() * 2);
+        for (Alert alert : removals) {
+            removedIds.add(alert.alertId());
+        }
+        for (String alertId : added.keySet()) {
+            Alert replaced = byId.get(alertId);
+            if (replaced != null && removedIds.add(alertId)) {
+                removed.add(replaced);
+            }
+        }
+        return replace(removed, added.values(), byId.with(removedIds, added));
+    }
+
+    /**
+     * Build a new store with exactly the given alerts removed and added, without replacing alerts
+     * by id. Used for the store across applications, whose alerts may share ids between applications;
+     * such an id looks up at most one of them.
+     * @param removed Alerts currently in this store
+     * @param added Alerts to insert
+     * @return New alert store, this store is unchanged
+     */
+    AlertStore withReplaced(Collection<Alert> removed, Collection<Alert> added) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+        List<String> staleIds = new ArrayList<>();
+        for (Alert alert : removed) {
+            if (byId.get(alert.alertId()) == alert) {
+                staleIds.add(alert.alertId());
+            }
+        }
+        Map<String, Alert> ids = new HashMap<>(added.size() * 2);
+        for (Alert alert : added) {
+            ids.put(alert.alertId(), alert);
+        }
+        return replace(removed, added, byId.with(staleIds, ids));
+    }
+
+    /**
+     * Collect the alerts only one of two store versions holds, skipping everything they share
+     * @param before Older store
+     * @param after Store derived from it
+     * @param removed Receives alerts of the older store missing from the newer one
+     * @param added Receives alerts of the newer store missing from the older one
+     */
+    static void diff(AlertStore before, AlertStore after, List<Alert> removed, List<Alert> added) {
+        SortedChunks.diff(before.alerts, after.alerts, removed, added);
+    }
+
+    private AlertStore replace(Collection<Alert> removed, Collection<Alert> inserted, StripedMap<Alert> ids) {
+        List<String> staleFingerprints = new ArrayList<>();
+        for (Alert alert : removed) {
+            if (alert.aggregation() != null && byFingerprint.get(alert.aggregation().fingerprint()) == alert) {
+                staleFingerprints.add(alert.aggregation().fingerprint());
+            }
+        }
+        Map<String, Alert> fingerprints = new HashMap<>();
+        for (Alert alert : inserted) {
+            if (alert.aggregation() != null) {
+                fingerprints.put(alert.aggregation().fingerprint(), alert);
+            }
+        }
+        return new AlertStore(alerts.with(removed, inserted),
+            ids,
+            reindex(bySeverity, Alert::severity, removed, inserted),
+            reindex(byApplication, Alert::application, removed, inserted),
+            reindex(byStatus, Alert::status, removed, inserted),
+            reindex(bySource, Alert::source, removed, inserted),
+            byFingerprint.with(staleFingerprints, fingerprints));
+    }
+
+    private static List<Alert> lookup(Map<String, SortedChunks<Alert>> index, String value) {
+        SortedChunks<Alert> list = value != null ? index.get(value) : null;
+        return list != null ? list : List.of();
+    }
+
+    private static Map<String, SortedChunks<Alert>> index(List<Alert> sorted, Function<Alert, String> key) {
+        Map<String, List<Alert>> buckets = new HashMap<>();
+        for (Alert alert : sorted) {
+            String value = key.apply(alert);
+            if (value != null) {
+                buckets.computeIfAbsent(value, k -> new ArrayList<>()).add(alert);
+            }
+        }
+        Map<String, SortedChunks<Alert>> index = new HashMap<>(buckets.size() * 2);
+        buckets.forEach((value, list) -> index.put(value, SortedChunks.ofSorted(ORDER, list)));
+        return Map.copyOf(index);
+    }
+
+    /**
+     * Update only the index lists whose key appears among the removed or inserted alerts
+     */
+    private static Map<String, SortedChunks<Alert>> reindex(Map<String, SortedChunks<Alert>> index,
+                                                            Function<Alert, String> key,
+                                                            Collection<Alert> removed, Collection<Alert> inserted) {
+        Map<String, List<Alert>> removedByKey = group(removed, key);
+        Map<String, List<Alert>> insertedByKey = group(inserted, key);
+        if (removedByKey.isEmpty() && insertedByKey.isEmpty()) {
+            return index;
+        }
+        Set<String> touched = new HashSet<>(removedByKey.keySet());
+        touched.addAll(insertedByKey.keySet());
+        Map<String, SortedChunks<Alert>> next = new HashMap<>(index);
+        for (String value : touched) {
+            SortedChunks<Alert> list = next.getOrDefault(value, NO_ALERTS)
+                .with(removedByKey.getOrDefault(value, List.of()), insertedByKey.getOrDefault(value, List.of()));
+            if (list.isEmpty()) {
+                next.remove(value);
+            } else {
+                next.put(value, list);
+            }
+        }
+        return Map.copyOf(next);
+    }
+
+    private static Map<String, List<Alert>> group(Collection<Alert> alerts, Function<Alert, String> key) {
+        Map<String, List<Alert>> groups = new HashMap<>();
+        for (Alert alert : alerts) {
+            String value = key.apply(alert);
+            if (value != null) {
+                groups.computeIfAbsent(value, k -> new ArrayList<>()).add(alert);
+            }
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,315 @@
+package com.talkflow.logmonitor_demo.store;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Immutable sorted list stored as a spine of small sorted chunks. A change copies only the chunks
+ * it touches and the spine, and shares all other chunks with the previous version, so applying a
+ * batch costs the touched chunks plus one spine copy instead of copying and sorting the whole list.
+ * Indexed access is a binary search over the chunk ends.
+ * @param <E> Element type; the order must be total, so each element has one position
+ */
+final class SortedChunks<E> extends AbstractList<E> implements RandomAccess {
+
+    // Chunks are split once they grow past twice this size
+    static final int CHUNK_SIZE = 128;
+
+    private final Comparator<? super E> order;
+    private final Object[][] chunks;
+    // Cumulative element count up to and including each chunk
+    private final int[] ends;
+
+    private SortedChunks(Comparator<? super E> order, Object[][] chunks) {
+        this.order = order;
+        this.chunks = chunks;
+        this.ends = new int[chunks.length];
+        int total = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            total += chunks[i].length;
+            ends[i] = total;
+        }
+    }
+
+    static <E> SortedChunks<E> empty(Comparator<? super E> order) {
+        return new SortedChunks<>(order, new Object[0][]);
+    }
+
+    /**
+     * Build from elements that are already in order
+     */
+    static <E> SortedChunks<E> ofSorted(Comparator<? super E> order, List<E> sorted) {
+        List<Object[]> chunks = new ArrayList<>(sorted.size() / CHUNK_SIZE + 1);
+        split(sorted.toArray(), chunks);
+        return new SortedChunks<>(order, chunks.toArray(new Object[0][]));
+    }
+
+    /**
+     * Build a new version with elements removed and added
+     * @param removed Elements to remove; elements that are not present are ignored
+     * @param added Elements to add
+     * @return New list, this list is unchanged
+     */
+    SortedChunks<E> with(Collection<? extends E> removed, Collection<? extends E> added) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+        // Route every change to the chunk whose range covers it
+        Map<Integer, List<E>> removals = new HashMap<>();
+        for (E element : removed) {
+            if (chunks.length > 0) {
+                removals.computeIfAbsent(chunkHolding(element), k -> new ArrayList<>()).add(element);
+            }
+        }
+        Map<Integer, List<E>> additions = new HashMap<>();
+        for (E element : added) {
+            additions.computeIfAbsent(chunks.length == 0 ? 0 : chunkFor(element), k -> new ArrayList<>()).add(element);
+        }
+
+        List<Object[]> next = new ArrayList<>(chunks.length + additions.size());
+        for (int i = 0; i < Math.max(1, chunks.length); i++) {
+            List<E> remove = removals.get(i);
+            List<E> add = additions.get(i);
+            Object[] chunk = i < chunks.length ? chunks[i] : new Object[0];
+            if (remove == null && add == null) {
+                next.add(chunk);
+                continue;
+            }
+            Object[] rebuilt = rebuild(chunk, remove, add);
+            // Fold a chunk that shrank into its predecessor, so removals do not leave many tiny chunks
+            if (rebuilt.length < CHUNK_SIZE / 2 && !next.isEmpty()
+                    && next.get(next.size() - 1).length + rebuilt.length <= 2 * CHUNK_SIZE) {
+                Object[] previous = next.remove(next.size() - 1);
+                Object[] joined = Arrays.copyOf(previous, previous.length + rebuilt.length);
+                System.arraycopy(rebuilt, 0, joined, previous.length, rebuilt.length);
+                rebuilt = joined;
+            }
+            split(rebuilt, next);
+        }
+        return new SortedChunks<>(order, next.toArray(new Object[0][]));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int chunk = chunkOf(index);
+        int start = chunk == 0 ? 0 : ends[chunk - 1];
+        return (E) chunks[chunk][index - start];
+    }
+
+    @Override
+    public int size() {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int chunk;
+            private int offset;
+
+            @Override
+            public boolean hasNext() {
+                while (chunk < chunks.length && offset >= chunks[chunk].length) {
+                    chunk++;
+                    offset = 0;
+                }
+                return chunk < chunks.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return (E) chunks[chunk][offset++];
+            }
+        };
+    }
+
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    /**
+     * Chunk holding the element at a list index
+     */
+    private int chunkOf(int index) {
+        int low = 0;
+        int high = ends.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First chunk whose last element is not before the element, or the last chunk
+     */
+    @SuppressWarnings("unchecked")
+    private int chunkFor(E element) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Object[] chunk = chunks[mid];
+            if (order.compare((E) chunk[chunk.length - 1], element) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Chunk holding the element; elements that compare equal may continue into the following chunks
+     */
+    @SuppressWarnings("unchecked")
+    private int chunkHolding(E element) {
+        int chunk = chunkFor(element);
+        while (chunk + 1 < chunks.length && indexOf(chunks[chunk], element) < 0
+                && order.compare((E) chunks[chunk][chunks[chunk].length - 1], element) == 0) {
+            chunk++;
+        }
+        return chunk;
+    }
+
+    /**
+     * Position of the element in a sorted chunk, preferring the same instance among elements that
+     * compare equal, or -1 if the chunk has no equal element
+     */
+    @SuppressWarnings("unchecked")
+    private int indexOf(Object[] chunk, E element) {
+        int found = Arrays.binarySearch(chunk, element, (a, b) -> order.compare((E) a, (E) b));
+        if (found < 0) {
+            return -1;
+        }
+        int first = found;
+        while (first > 0 && order.compare((E) chunk[first - 1], element) == 0) {
+            first--;
+        }
+        int match = -1;
+        for (int i = first; i < chunk.length && order.compare((E) chunk[i], element) == 0; i++) {
+            if (chunk[i] == element) {
+                return i;
+            }
+            if (match < 0 && element.equals(chunk[i])) {
+                match = i;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Collect the elements only one of two versions holds. Chunks shared by both versions are
+     * skipped by identity, so the cost is the spines plus the chunks that differ.
+     * @param before Older version
+     * @param after Newer version derived from it
+     * @param removed Receives elements of the older version missing from the newer one
+     * @param added Receives elements of the newer version missing from the older one
+     */
+    static <E> void diff(SortedChunks<E> before, SortedChunks<E> after, List<E> removed, List<E> added) {
+        Set<Object[]> beforeChunks = Collections.newSetFromMap(new IdentityHashMap<>());
+        beforeChunks.addAll(Arrays.asList(before.chunks));
+        Set<Object[]> afterChunks = Collections.newSetFromMap(new IdentityHashMap<>());
+        afterChunks.addAll(Arrays.asList(after.chunks));
+        Set<Object> beforeElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object[] chunk : before.chunks) {
+            if (!afterChunks.contains(chunk)) {
+                beforeElements.addAll(Arrays.asList(chunk));
+            }
+        }
+        Set<Object> afterElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object[] chunk : after.chunks) {
+            if (!beforeChunks.contains(chunk)) {
+                afterElements.addAll(Arrays.asList(chunk));
+            }
+        }
+        collectMissing(beforeElements, afterElements, removed);
+        collectMissing(afterElements, beforeElements, added);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> void collectMissing(Set<Object> elements, Set<Object> other, List<E> missing) {
+        for (Object element : elements) {
+            if (!other.contains(element)) {
+                missing.add((E) element);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] rebuild(Object[] chunk, List<E> remove, List<E> add) {
+        Comparator<Object> comparator = (a, b) -> order.compare((E) a, (E) b);
+        boolean[] dropped = new boolean[chunk.length];
+        int removedCount = 0;
+        if (remove != null) {
+            for (E element : remove) {
+                int index = indexOf(chunk, element);
+                if (index >= 0 && !dropped[index]) {
+                    dropped[index] = true;
+                    removedCount++;
+                }
+            }
+        }
+        Object[] added = add != null ? add.toArray() : new Object[0];
+        Arrays.sort(added, comparator);
+        // Merge the kept elements and the sorted additions
+        Object[] merged = new Object[chunk.length - removedCount + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (true) {
+            while (i < chunk.length && dropped[i]) {
+                i++;
+            }
+            if (i == chunk.length && j == added.length) {
+                break;
+            }
+            if (j == added.length || i < chunk.length && comparator.compare(chunk[i], added[j]) <= 0) {
+                merged[k++] = chunk[i++];
+            } else {
+                merged[k++] = added[j++];
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Append a sorted run as chunks, splitting it if it outgrew the chunk size; empty runs are dropped
+     */
+    private static void split(Object[] run, List<Object[]> chunks) {
+        if (run.length == 0) {
+            return;
+        }
+        if (run.length <= 2 * CHUNK_SIZE) {
+            chunks.add(run);
+            return;
+        }
+        for (int from = 0; from < run.length; from += CHUNK_SIZE) {
+            chunks.add(Arrays.copyOfRange(run, from, Math.min(run.length, from + CHUNK_SIZE)));
+        }
+    }
+}
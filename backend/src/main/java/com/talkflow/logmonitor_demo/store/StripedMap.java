@@ -0,0 +1,69 @@
+package com.talkflow.logmonitor_demo.store;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable hash map split into fixed stripes by key hash. A change copies only the stripes of the
+ * keys it touches and shares the others with the previous version.
+ * @param <V> Value type
+ */
+final class StripedMap<V> {
+
+    private static final int STRIPES = 256;
+
+    private final Map<String, V>[] stripes;
+
+    private StripedMap(Map<String, V>[] stripes) {
+        this.stripes = stripes;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> StripedMap<V> empty() {
+        Map<String, V>[] stripes = (Map<String, V>[]) new Map<?, ?>[STRIPES];
+        Arrays.fill(stripes, Collections.emptyMap());
+        return new StripedMap<>(stripes);
+    }
+
+    V get(String key) {
+        return stripes[stripe(key)].get(key);
+    }
+
+    /**
+     * Build a new version with keys removed, then entries put
+     * @param removed Keys to remove
+     * @param put Entries to put, overriding removals of the same key
+     * @return New map, this map is unchanged
+     */
+    StripedMap<V> with(Collection<String> removed, Map<String, V> put) {
+        if (removed.isEmpty() && put.isEmpty()) {
+            return this;
+        }
+        Map<String, V>[] next = stripes.clone();
+        boolean[] copied = new boolean[STRIPES];
+        for (String key : removed) {
+            writable(next, copied, stripe(key)).remove(key);
+        }
+        put.forEach((key, value) -> writable(next, copied, stripe(key)).put(key, value));
+        return new StripedMap<>(next);
+    }
+
+    private Map<String, V> writable(Map<String, V>[] next, boolean[] copied, int stripe) {
+        if (!copied[stripe]) {
+            next[stripe] = new HashMap<>(next[stripe]);
+            copied[stripe] = true;
+        }
+        return next[stripe];
+    }
+
+    private static int stripe(String key) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
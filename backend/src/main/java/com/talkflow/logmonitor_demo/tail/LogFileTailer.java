@@ -0,0 +1,249 @@
+package com.talkflow.logmonitor_demo.tail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Follows one log file with positional NIO reads into a reused buffer and reports complete lines.
+ * Rotation is detected by a change of the file key (inode), truncation by the file shrinking
+ * below the read position. A rotated file is read to its end before the new file is opened. Not thread safe; owned by the tail thread.
+ */
+public final class LogFileTailer implements Closeable {
+
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    /**
+     * Receiver of complete lines. The byte array is only valid during the call.
+     */
+    @FunctionalInterface
+    public interface LineSink {
+        void onLine(byte[] bytes, int offset, int length, long filePosition);
+    }
+
+    private final Path path;
+    private final ByteBuffer readBuffer;
+    private FileChannel channel;
+    private Object fileKey;
+    private long position;
+
+    // Bytes of a line that spans two reads
+    private byte[] partial = new byte[1024];
+    private int partialLength;
+    private long partialPosition;
+
+    private long linesRead;
+    private long bytesRead;
+    private long rotations;
+    private long truncations;
+
+    /**
+     * Create a tailer
+     * @param path File to follow
+     * @param readBufferSize Size of the reused read buffer
+     */
+    public LogFileTailer(Path path, int readBufferSize) {
+        this.path = path;
+        this.readBuffer = ByteBuffer.allocate(readBufferSize);
+    }
+
+    /**
+     * Resume from a stored position. If the file was rotated while we were not running,
+     * the new file is read from the start.
+     * @param storedFileKey File key the position was stored for
+     * @param storedPosition Byte position in that file
+     */
+    public void resume(String storedFileKey, long storedPosition) throws IOException {
+        openIfPresent();
+        if (channel != null && String.valueOf(fileKey).equals(storedFileKey) && storedPosition <= channel.size()) {
+            position = storedPosition;
+        }
+    }
+
+    /**
+     * Skip existing content and only follow lines appended from now on
+     */
+    public void seekToEnd() throws IOException {
+        openIfPresent();
+        if (channel != null) {
+            position = channel.size();
+        }
+    }
+
+    /**
+     * Read lines appended since the last poll
+     * @param sink Receiver of complete lines
+     * @param maxBytes Maximum number of bytes to read in this poll
+     * @return Number of bytes read
+     */
+    public long poll(LineSink sink, long maxBytes) throws IOException {
+        if (channel == null) {
+            openIfPresent();
+            if (channel == null) {
+                return 0;
+            }
+        }
+
+        long read = 0;
+        Object currentKey = currentFileKey();
+        if (currentKey != null && !Objects.equals(currentKey, fileKey)) {
+            // Rotated: drain the old file through the open channel, over as many polls as the
+            // budget needs, then continue with the new one from the start
+            read += readAvailable(sink, maxBytes);
+            if (position < channel.size()) {
+                return read;
+            }
+            flushPartial(sink);
+            reopen();
+            rotations++;
+        } else if (channel.size() < position) {
+            // Truncated in place: start over
+            position = 0;
+            partialLength = 0;
+            truncations++;
+        }
+        read += readAvailable(sink, maxBytes - read);
+        return read;
+    }
+
+    /**
+     * Position after the last complete line; a restart resumes from here
+     */
+    public long committedPosition() {
+        return partialLength > 0 ? partialPosition : position;
+    }
+
+    public Object fileKey() {
+        return fileKey;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long linesRead() {
+        return linesRead;
+    }
+
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    public long rotations() {
+        return rotations;
+    }
+
+    public long truncations() {
+        return truncations;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private long readAvailable(LineSink sink, long maxBytes) throws IOException {
+        long total = 0;
+        while (total < maxBytes) {
+            readBuffer.clear();
+            if (maxBytes - total < readBuffer.capacity()) {
+                readBuffer.limit((int) (maxBytes - total));
+            }
+            int n = channel.read(readBuffer, position);
+            if (n <= 0) {
+                break;
+            }
+            scanLines(readBuffer.array(), n, sink);
+            position += n;
+            total += n;
+        }
+        bytesRead += total;
+        return total;
+    }
+
+    private void scanLines(byte[] buffer, int length, LineSink sink) {
+        int lineStart = 0;
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] != '\n') {
+                continue;
+            }
+            if (partialLength > 0) {
+                appendPartial(buffer, lineStart, i - lineStart);
+                emit(sink, partial, 0, partialLength, partialPosition);
+                partialLength = 0;
+            } else {
+                emit(sink, buffer, lineStart, i - lineStart, position + lineStart);
+            }
+            lineStart = i + 1;
+        }
+        if (lineStart < length) {
+            if (partialLength == 0) {
+                partialPosition = position + lineStart;
+            }
+            appendPartial(buffer, lineStart, length - lineStart);
+        }
+    }
+
+    /**
+     * Report an unterminated last line of a file that is no longer written
+     */
+    private void flushPartial(LineSink sink) {
+        if (partialLength > 0) {
+            emit(sink, partial, 0, partialLength, partialPosition);
+            partialLength = 0;
+        }
+    }
+
+    private void emit(LineSink sink, byte[] bytes, int offset, int length, long filePosition) {
+        if (length > 0 && bytes[offset + length - 1] == '\r') {
+            length--;
+        }
+        linesRead++;
+        sink.onLine(bytes, offset, Math.min(length, MAX_LINE_LENGTH), filePosition);
+    }
+
+    private void appendPartial(byte[] bytes, int offset, int length) {
+        int room = MAX_LINE_LENGTH - partialLength;
+        int copy = Math.min(room, length);
+        if (partialLength + copy > partial.length) {
+            partial = Arrays.copyOf(partial, Math.min(MAX_LINE_LENGTH, Math.max(partial.length * 2, partialLength + copy)));
+        }
+        System.arraycopy(bytes, offset, partial, partialLength, copy);
+        partialLength += copy;
+    }
+
+    private void openIfPresent() throws IOException {
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            fileKey = currentFileKey();
+            position = 0;
+            partialLength = 0;
+        } catch (NoSuchFileException e) {
+            channel = null;
+        }
+    }
+
+    private void reopen() throws IOException {
+        close();
+        openIfPresent();
+    }
+
+    private Object currentFileKey() throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
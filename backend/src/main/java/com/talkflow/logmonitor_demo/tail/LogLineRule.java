@@ -0,0 +1,96 @@
+package com.talkflow.logmonitor_demo.tail;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled line rule. A cheap byte-level literal check runs before the line is decoded
+ * and matched against the regular expression, so most lines are rejected without allocation.
+ * Holds a reusable matcher and is therefore confined to the tail thread.
+ */
+public final class LogLineRule {
+
+    private final String name;
+    private final byte[] literal;
+    private final Matcher matcher;
+    private final boolean hasTimestamp;
+    private final boolean hasApplication;
+    private final boolean hasMessage;
+    private final String severity;
+    private final String alertType;
+    private final String title;
+
+    public LogLineRule(String name, String contains, String pattern, String severity, String alertType, String title) {
+        this.name = name;
+        this.literal = contains != null && !contains.isEmpty() ? contains.getBytes(StandardCharsets.UTF_8) : null;
+        Pattern compiled = Pattern.compile(pattern);
+        this.matcher = compiled.matcher("");
+        this.hasTimestamp = pattern.contains("(?<timestamp>");
+        this.hasApplication = pattern.contains("(?<application>");
+        this.hasMessage = pattern.contains("(?<message>");
+        this.severity = severity;
+        this.alertType = alertType;
+        this.title = title;
+    }
+
+    /**
+     * Whether the raw line can match at all, checked before decoding
+     */
+    public boolean mayMatch(byte[] bytes, int offset, int length) {
+        return literal == null || indexOf(bytes, offset, length, literal) >= 0;
+    }
+
+    /**
+     * Match a decoded line
+     * @return Matcher positioned on the match, or null if the line does not match
+     */
+    public Matcher match(CharSequence line) {
+        matcher.reset(line);
+        return matcher.find() ? matcher : null;
+    }
+
+    public String group(Matcher match, String group) {
+        boolean present = switch (group) {
+            case "timestamp" -> hasTimestamp;
+            case "application" -> hasApplication;
+            case "message" -> hasMessage;
+            default -> false;
+        };
+        return present ? match.group(group) : null;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String severity() {
+        return severity;
+    }
+
+    public String alertType() {
+        return alertType;
+    }
+
+    public String title() {
+        return title;
+    }
+
+    private static int indexOf(byte[] bytes, int offset, int length, byte[] literal) {
+        int last = offset + length - literal.length;
+        byte first = literal[0];
+        for (int i = offset; i <= last; i++) {
+            if (bytes[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < literal.length && bytes[i + j] == literal[j]) {
+                j++;
+            }
+            if (j == literal.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
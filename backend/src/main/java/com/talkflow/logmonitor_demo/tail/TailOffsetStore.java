@@ -0,0 +1,95 @@
+package com.talkflow.logmonitor_demo.tail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Persists tail positions as "fileKey|position" per file path, written via an atomic rename
+ */
+public final class TailOffsetStore {
+
+    /**
+     * A stored position
+     * @param fileKey File key string of the file the position belongs to
+     * @param position Byte position after the last processed line
+     */
+    public record Offset(String fileKey, long position) {
+    }
+
+    private final Path file;
+    private final Properties offsets = new Properties();
+
+    public TailOffsetStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Load stored offsets, starting empty if the file does not exist
+     */
+    public void load() throws IOException {
+        offsets.clear();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                offsets.load(reader);
+            }
+        }
+    }
+
+    /**
+     * Get the stored offset for a file
+     * @param path Tailed file
+     * @return Stored offset, or null if none
+     */
+    public Offset get(Path path) {
+        String value = offsets.getProperty(key(path));
+        if (value == null) {
+            return null;
+        }
+        int separator = value.lastIndexOf('|');
+        if (separator < 0) {
+            return null;
+        }
+        try {
+            return new Offset(value.substring(0, separator), Long.parseLong(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Update the offset for a file in memory
+     * @param path Tailed file
+     * @param fileKey File key of the tailed file
+     * @param position Byte position after the last processed line
+     * @return true if the stored value changed
+     */
+    public boolean put(Path path, Object fileKey, long position) {
+        String value = String.valueOf(fileKey) + "|" + position;
+        return !value.equals(offsets.setProperty(key(path), value));
+    }
+
+    /**
+     * Write all offsets to disk
+     */
+    public void save() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            offsets.store(writer, "log tail offsets");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String key(Path path) {
+        return path.toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,125 @@
+package com.talkflow.logmonitor_demo.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.service.AlertJournalService;
+import com.talkflow.logmonitor_demo.service.AlertMonitorService;
+import com.talkflow.logmonitor_demo.store.AlertChangeEvent;
+import com.talkflow.logmonitor_demo.store.AlertShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertControllerTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private final AlertMonitorService alertMonitorService = new AlertMonitorService();
+	private final AlertController controller = new AlertController();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(alertMonitorService, "alertJournalService", Mockito.mock(AlertJournalService.class));
+		ReflectionTestUtils.setField(alertMonitorService, "deltaHistorySize", 16);
+		ReflectionTestUtils.setField(alertMonitorService, "deduplicate", false);
+		ReflectionTestUtils.setField(alertMonitorService, "refreshInterval", Duration.ofMinutes(1));
+		ReflectionTestUtils.setField(alertMonitorService, "maxStaleness", Duration.ofMinutes(5));
+		ReflectionTestUtils.setField(controller, "alertMonitorService", alertMonitorService);
+		for (int i = 1; i <= 3; i++) {
+			alertMonitorService.applyIngestedAlerts(List.of(alert("A-" + i, i % 2 == 0 ? "LOW" : "HIGH")));
+		}
+		// Mark the data fresh, so reads do not add generated mock alerts
+		AlertShards shards = (AlertShards) ReflectionTestUtils.getField(alertMonitorService, "shards");
+		shards.markRefreshed(LocalDateTime.now());
+	}
+
+	@Test
+	void streamsOneAlertPerNdjsonLine() throws Exception {
+		String body = stream(MediaType.APPLICATION_NDJSON, "HIGH");
+
+		assertTrue(body.endsWith("\n"));
+		List<String> lines = List.of(body.split("\n"));
+		assertEquals(List.of("A-1", "A-3"), alertIds(lines));
+		assertEquals("", stream(MediaType.APPLICATION_NDJSON, "CRITICAL"));
+	}
+
+	@Test
+	void streamsOneServerSentEventPerAlert() throws Exception {
+		String body = stream(MediaType.TEXT_EVENT_STREAM, null);
+
+		List<String> events = List.of(body.split("\n\n"));
+		assertEquals(3, events.size());
+		assertTrue(events.stream().allMatch(event -> event.startsWith("data:") && !event.contains("\n")));
+		assertEquals(List.of("A-1", "A-2", "A-3"), alertIds(events.stream().map(event -> event.substring("data:".length())).toList()));
+	}
+
+	@Test
+	void resumesChangesFromLastEventId() {
+		// The reconnect header wins over the version the page was first opened with
+		List<ServerSentEvent<AlertChangeEvent>> events = controller.streamAlertChanges(0, 1L, null)
+				.take(2).collectList().block(TIMEOUT);
+
+		assertEquals(List.of("2", "3"), events.stream().map(ServerSentEvent::id).toList());
+		assertEquals(List.of(AlertChangeEvent.TYPE_DELTA, AlertChangeEvent.TYPE_DELTA),
+				events.stream().map(ServerSentEvent::event).toList());
+		assertEquals("A-2", events.get(0).data().delta().added().get(0).alertId());
+	}
+
+	@Test
+	void startsWithResyncWithoutAVersion() {
+		ServerSentEvent<AlertChangeEvent> first = controller.streamAlertChanges(0, null, null).blockFirst(TIMEOUT);
+
+		assertEquals("3", first.id());
+		assertEquals(AlertChangeEvent.TYPE_RESYNC, first.event());
+		assertEquals(3, first.data().alerts().size());
+	}
+
+	/**
+	 * Write the stream endpoint's result with the writer WebFlux picks for the accepted media type
+	 */
+	@SuppressWarnings("unchecked")
+	private String stream(MediaType mediaType, String severity) {
+		ResolvableType elementType = ResolvableType.forClass(Alert.class);
+		HttpMessageWriter<Alert> writer = (HttpMessageWriter<Alert>) ServerCodecConfigurer.create().getWriters().stream()
+				.filter(candidate -> candidate.canWrite(elementType, mediaType))
+				.findFirst()
+				.orElseThrow();
+		MockServerHttpRequest request = MockServerHttpRequest.get("/api/alerts/detailed/stream").accept(mediaType).build();
+		MockServerHttpResponse response = new MockServerHttpResponse();
+		writer.write(controller.streamDetailedAlertInfo(severity, null), elementType, elementType, mediaType,
+				request, response, Map.of()).block(TIMEOUT);
+		assertTrue(mediaType.isCompatibleWith(response.getHeaders().getContentType()));
+		return response.getBodyAsString().block(TIMEOUT);
+	}
+
+	private static List<String> alertIds(List<String> json) throws Exception {
+		List<String> ids = new ArrayList<>();
+		for (String element : json) {
+			ids.add(MAPPER.readTree(element).get("alertId").asText());
+		}
+		return ids;
+	}
+
+	private static Alert alert(String id, String severity) {
+		return new Alert(id, "wmpooc", severity, "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				"2025-01-01 00:00:00", 0, "ACTIVE", null, null, Alert.SOURCE_INGEST, null);
+	}
+}
@@ -0,0 +1,61 @@
+package com.talkflow.logmonitor_demo.health;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HealthCacheTest {
+
+	private static final ProbeResult HEALTHY = new ProbeResult(
+		new ProbeTarget("HTTP端点检查", ProbeType.HTTP, "127.0.0.1", 8080, "/", null, null, 0, Duration.ofSeconds(1)),
+		true, false, 3, "HTTP 200");
+
+	private final AtomicLong clock = new AtomicLong();
+	private final AtomicInteger rounds = new AtomicInteger();
+	private CompletableFuture<List<ProbeResult>> pending;
+
+	@Test
+	void concurrentCallersShareOneRoundUntilTheTtlExpires() {
+		HealthCache cache = new HealthCache(10_000, clock::get);
+
+		HealthCache.Lookup first = cache.get("wmpooc", this::probe);
+		HealthCache.Lookup second = cache.get("wmpooc", this::probe);
+		assertEquals(HealthCache.Source.PROBED, first.source());
+		assertEquals(HealthCache.Source.JOINED, second.source());
+		assertSame(first.round(), second.round());
+		assertEquals(1, rounds.get());
+
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(40));
+		pending.complete(List.of(HEALTHY));
+		assertEquals(40, first.round().join().elapsedMillis());
+
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(9));
+		HealthCache.Lookup cached = cache.get("wmpooc", this::probe);
+		assertEquals(HealthCache.Source.CACHED, cached.source());
+		assertEquals(9_000, cache.ageMillis(cached.round().join()));
+		assertEquals(1, rounds.get());
+
+		// Other applications and expired rounds probe again
+		assertEquals(HealthCache.Source.PROBED, cache.get("order-service", this::probe).source());
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+		assertEquals(HealthCache.Source.PROBED, cache.get("wmpooc", this::probe).source());
+		assertEquals(3, rounds.get());
+		assertEquals(3, cache.probedCount());
+		assertEquals(1, cache.joinedCount());
+		assertEquals(1, cache.cachedCount());
+	}
+
+	private CompletableFuture<List<ProbeResult>> probe() {
+		rounds.incrementAndGet();
+		pending = new CompletableFuture<>();
+		return pending;
+	}
+}
@@ -0,0 +1,138 @@
+package com.talkflow.logmonitor_demo.health;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HealthProberTest {
+
+	private static final String LOOPBACK = "127.0.0.1";
+	private static final Duration TIMEOUT = Duration.ofMillis(400);
+
+	private final HealthProber prober = new HealthProber(2);
+	private final List<ServerSocket> servers = new ArrayList<>();
+	private HttpServer http;
+
+	@TempDir
+	Path directory;
+
+	@BeforeEach
+	void startHttp() throws IOException {
+		http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		http.createContext("/ok", exchange -> {
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		http.createContext("/down", exchange -> {
+			exchange.sendResponseHeaders(503, -1);
+			exchange.close();
+		});
+		http.start();
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		http.stop(0);
+		for (ServerSocket server : servers) {
+			server.close();
+		}
+		prober.close();
+	}
+
+	@Test
+	void reportsEachProbeTypeAgainstLoopbackStubs() throws IOException {
+		int httpPort = http.getAddress().getPort();
+		int cachePort = stub("+PONG\r\n");
+		int refusedPort;
+		try (ServerSocket closed = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			refusedPort = closed.getLocalPort();
+		}
+
+		List<ProbeResult> results = prober.probeAll(List.of(
+			target(ProbeType.HTTP, httpPort, "/ok", null, null),
+			target(ProbeType.HTTP, httpPort, "/down", null, null),
+			target(ProbeType.CACHE, cachePort, null, "PING\r\n", "+PONG"),
+			target(ProbeType.DATABASE, cachePort, null, null, null),
+			target(ProbeType.MESSAGE_QUEUE, refusedPort, null, null, null),
+			new ProbeTarget("fs", ProbeType.FILESYSTEM, null, 0, directory.toString(), null, null, 0, TIMEOUT),
+			new ProbeTarget("fs", ProbeType.FILESYSTEM, null, 0, directory.resolve("missing").toString(), null, null, 0, TIMEOUT)
+		)).join();
+
+		assertEquals(List.of(true, false, true, true, false, true, false),
+			results.stream().map(ProbeResult::healthy).toList());
+		assertEquals("HTTP 200", results.get(0).detail());
+		assertEquals("HTTP 503", results.get(1).detail());
+		assertEquals("连接被拒绝", results.get(4).detail());
+		assertFalse(results.get(4).timedOut());
+	}
+
+	@Test
+	void probesRunConcurrentlyWithTheirOwnDeadlines() throws IOException {
+		// Accepts connections but never answers, so every probe waits for its deadline
+		int silentPort = stub(null);
+		List<ProbeTarget> targets = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			targets.add(target(ProbeType.CACHE, silentPort, null, "PING\r\n", "+PONG"));
+		}
+		targets.add(target(ProbeType.HTTP, http.getAddress().getPort(), "/ok", null, null));
+
+		long start = System.nanoTime();
+		List<ProbeResult> results = prober.probeAll(targets).join();
+		long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(results.get(i).timedOut(), results.get(i).detail());
+		}
+		assertTrue(results.get(5).healthy());
+		assertTrue(elapsedMillis < 2 * TIMEOUT.toMillis(), "took " + elapsedMillis + " ms");
+	}
+
+	private static ProbeTarget target(ProbeType type, int port, String path, String send, String expect) {
+		return new ProbeTarget(type.label(), type, LOOPBACK, port, path, send, expect, 0, TIMEOUT);
+	}
+
+	/**
+	 * Start a TCP stub that answers every request with the reply, or stays silent when it is null
+	 */
+	private int stub(String reply) throws IOException {
+		ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		servers.add(server);
+		Thread thread = new Thread(() -> {
+			List<Socket> open = new ArrayList<>();
+			try {
+				while (true) {
+					Socket socket = server.accept();
+					open.add(socket);
+					if (reply != null) {
+						InputStream in = socket.getInputStream();
+						in.read(new byte[64]);
+						socket.getOutputStream().write(reply.getBytes(StandardCharsets.UTF_8));
+					}
+				}
+			} catch (IOException e) {
+				// Server closed
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		return server.getLocalPort();
+	}
+}
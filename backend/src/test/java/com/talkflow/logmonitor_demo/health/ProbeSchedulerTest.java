@@ -0,0 +1,96 @@
+package com.talkflow.logmonitor_demo.health;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProbeSchedulerTest {
+
+	private static final ScheduleSettings SETTINGS = new ScheduleSettings(50, 100, 800, 2.0, 3, 1_000, 4_000, 8, 4);
+	private static final ProbeTarget TARGET = new ProbeTarget("缓存服务检查", ProbeType.CACHE, "127.0.0.1", 6379, null,
+		"PING\r\n", "+PONG", 0, Duration.ofMillis(100));
+
+	@Test
+	void intervalsAdaptAndTimeoutsOpenTheCircuit() {
+		TargetState state = new TargetState("wmpooc", TARGET, SETTINGS);
+		assertEquals(200, state.record(healthy(), 0));
+		assertEquals(400, state.record(healthy(), 0));
+		assertEquals(800, state.record(healthy(), 0));
+		assertEquals(800, state.record(healthy(), 0));
+
+		// Quick failures tighten the interval but keep the circuit closed
+		assertEquals(50, state.record(refused(), 0));
+		assertEquals(50, state.record(timedOut(), 0));
+		assertEquals(50, state.record(timedOut(), 0));
+		assertEquals(1_000, state.record(timedOut(), 10_000));
+		assertEquals("OPEN", state.status().circuit());
+		assertFalse(state.allowProbe(10_999));
+
+		// One trial probe after the pause; a timeout doubles the pause
+		assertTrue(state.allowProbe(11_000));
+		assertFalse(state.allowProbe(11_000));
+		assertEquals(2_000, state.record(timedOut(), 11_100));
+		assertTrue(state.allowProbe(13_100));
+		state.record(healthy(), 13_150);
+		assertEquals("CLOSED", state.status().circuit());
+		assertTrue(state.allowProbe(13_200));
+	}
+
+	@Test
+	void detectsFlappingInTheRecentHistory() {
+		TargetState state = new TargetState("order-service", TARGET, SETTINGS);
+		for (int i = 0; i < 4; i++) {
+			state.record(healthy(), 0);
+		}
+		assertFalse(state.isFlapping());
+		for (int i = 0; i < 4; i++) {
+			state.record(i % 2 == 0 ? refused() : healthy(), 0);
+		}
+		assertTrue(state.isFlapping());
+		// Flapping targets do not back off
+		assertEquals(100, state.record(healthy(), 0));
+		assertEquals(8, state.status().recentProbes());
+	}
+
+	@Test
+	void backgroundTimeoutsSkipOnDemandProbes() throws Exception {
+		try (ServerSocket silent = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+			 HealthProber prober = new HealthProber(2);
+			 ProbeScheduler scheduler = new ProbeScheduler(prober, SETTINGS)) {
+			ProbeTarget target = new ProbeTarget("缓存服务检查", ProbeType.CACHE, "127.0.0.1", silent.getLocalPort(), null,
+				"PING\r\n", "+PONG", 0, Duration.ofMillis(100));
+			scheduler.register("wmpooc", List.of(target));
+
+			long deadline = System.currentTimeMillis() + 5_000;
+			while (!"OPEN".equals(scheduler.status("wmpooc").get(0).circuit()) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			assertEquals("OPEN", scheduler.status("wmpooc").get(0).circuit());
+
+			ProbeResult skipped = scheduler.probeAll(List.of(target)).get(50, TimeUnit.MILLISECONDS).get(0);
+			assertFalse(skipped.healthy());
+			assertTrue(skipped.detail().startsWith("熔断中"), skipped.detail());
+		}
+	}
+
+	private static ProbeResult healthy() {
+		return new ProbeResult(TARGET, true, false, 1, "响应正常");
+	}
+
+	private static ProbeResult refused() {
+		return new ProbeResult(TARGET, false, false, 1, "连接被拒绝");
+	}
+
+	private static ProbeResult timedOut() {
+		return new ProbeResult(TARGET, false, true, 100, "超时 (>100ms)");
+	}
+}
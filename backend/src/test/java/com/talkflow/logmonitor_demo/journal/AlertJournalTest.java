@@ -0,0 +1,113 @@
+package com.talkflow.logmonitor_demo.journal;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertAggregation;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertJournalTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recoversLatestStateOfEachAlert() throws Exception {
+		Alert aggregated = alert("A-1", "ACTIVE").withAggregation(new AlertAggregation("fp", 3,
+				"2025-01-01 00:00:00", "2025-01-01 00:05:00", new AlertMetrics(1, 2, 3, 4), null, List.of("A-1", "A-7", "A-9")));
+		try (AlertJournal journal = new AlertJournal(directory, 1024 * 1024, 1024)) {
+			assertTrue(journal.recover().isEmpty());
+			journal.append(List.of(alert("A-1", "ACTIVE"), alert("A-2", "ACTIVE")));
+			journal.append(List.of(aggregated));
+		}
+
+		try (AlertJournal journal = new AlertJournal(directory, 1024 * 1024, 1024)) {
+			List<Alert> recovered = journal.recover();
+			assertEquals(List.of(aggregated, alert("A-2", "ACTIVE")), recovered);
+			assertEquals(3, journal.recordCount());
+			assertEquals(alert("A-2", "ACTIVE"), journal.read(1));
+			assertNull(journal.read(3));
+		}
+	}
+
+	@Test
+	void truncatesTornRecordAtEndOfSegment() throws Exception {
+		try (AlertJournal journal = new AlertJournal(directory, 1024 * 1024, 1024)) {
+			journal.recover();
+			journal.append(List.of(alert("A-1", "ACTIVE"), alert("A-2", "ACTIVE")));
+		}
+		Path segment = directory.resolve(JournalSegment.fileName(0, ".log"));
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() - 5);
+		}
+
+		try (AlertJournal journal = new AlertJournal(directory, 1024 * 1024, 1024)) {
+			assertEquals(List.of(alert("A-1", "ACTIVE")), journal.recover());
+			journal.append(List.of(alert("A-3", "ACTIVE")));
+			assertEquals(2, journal.nextSequence());
+		}
+		try (AlertJournal journal = new AlertJournal(directory, 1024 * 1024, 1024)) {
+			assertEquals(List.of(alert("A-1", "ACTIVE"), alert("A-3", "ACTIVE")), journal.recover());
+		}
+	}
+
+	@Test
+	void rollsSegmentsAndCompactsToLiveAlerts() throws Exception {
+		List<Alert> updates = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			updates.add(alert("A-" + (i % 5), i < 45 ? "ACTIVE" : "RESOLVED"));
+		}
+		try (AlertJournal journal = new AlertJournal(directory, 1024 * 1024, 8)) {
+			journal.recover();
+			journal.append(updates);
+			assertEquals(7, journal.segmentCount());
+		}
+
+		try (AlertJournal journal = new AlertJournal(directory, 1024 * 1024, 8)) {
+			List<Alert> live = journal.recover();
+			assertEquals(5, live.size());
+			assertEquals("RESOLVED", live.get(0).status());
+			assertEquals(alert("A-3", "ACTIVE"), journal.read(43));
+			journal.compact(live);
+			assertEquals(1, journal.segmentCount());
+			assertEquals(5, journal.recordCount());
+		}
+		try (AlertJournal journal = new AlertJournal(directory, 1024 * 1024, 8)) {
+			assertEquals(5, journal.recover().size());
+			assertEquals(5, journal.recordCount());
+		}
+	}
+
+	@Test
+	void keepsEpochTimestampAndRejectsOtherRecordFormats() {
+		AlertCodec codec = new AlertCodec();
+		Alert original = alert("A-1", "ACTIVE");
+		ByteBuffer buffer = codec.encode(original, ByteBuffer.allocate(16));
+		buffer.flip();
+		Alert decoded = codec.decode(buffer);
+		assertEquals(original, decoded);
+		assertEquals(Alert.parseTimestamp("2025-01-01 00:00:00"), decoded.timestampMillis());
+
+		buffer.rewind();
+		buffer.put(0, (byte) (AlertCodec.FORMAT_VERSION + 1));
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(buffer));
+	}
+
+	private static Alert alert(String id, String status) {
+		return new Alert(id, "wmpooc", "HIGH", "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				"2025-01-01 00:00:00", 0, status, new AlertMetrics(90, 80, 85, 100), List.of("检查CPU"),
+				Alert.SOURCE_INGEST, null);
+	}
+}
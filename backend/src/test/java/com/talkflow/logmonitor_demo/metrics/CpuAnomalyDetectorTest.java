@@ -0,0 +1,62 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CpuAnomalyDetectorTest {
+
+	private static final long MINUTE = 60_000L;
+	private static final long DAY = Resolution.DAY.widthMillis();
+	private static final AnomalySettings SETTINGS = new AnomalySettings(0.1, 4.0, 20, 50, 10 * MINUTE, 90, 5 * MINUTE, 5, 70, 3);
+
+	@Test
+	void reportsSpikeOnceWithinCooldown() {
+		CpuAnomalyDetector detector = new CpuAnomalyDetector(SETTINGS);
+		long t = 0;
+		for (int i = 0; i < 100; i++, t += MINUTE) {
+			assertEquals(CpuAnomalyDetector.NONE, detector.update(t, 40 + (i % 3), true));
+		}
+		assertEquals(CpuAnomalyDetector.SPIKE, detector.update(t, 85, true));
+		assertTrue(detector.lastZScore() >= 4.0);
+		assertEquals(CpuAnomalyDetector.NONE, detector.update(t + MINUTE, 88, true));
+	}
+
+	@Test
+	void reportsSustainedEpisodeOnceAndRearmsBelowHysteresis() {
+		CpuAnomalyDetector detector = new CpuAnomalyDetector(SETTINGS);
+		int sustained = 0;
+		long t = 0;
+		// 95% for 10 minutes, a dip to 87% (inside the hysteresis band), then 95% again
+		for (int i = 0; i < 20; i++, t += MINUTE) {
+			float cpu = i == 10 ? 87 : 95;
+			if ((detector.update(t, cpu, true) & CpuAnomalyDetector.SUSTAINED) != 0) {
+				sustained++;
+				assertEquals(5 * MINUTE, t);
+			}
+		}
+		assertEquals(1, sustained);
+		// Recovery below 85% re-arms the detector
+		detector.update(t, 50, true);
+		t += MINUTE;
+		for (int i = 0; i <= 5; i++, t += MINUTE) {
+			sustained += (detector.update(t, 95, true) & CpuAnomalyDetector.SUSTAINED) != 0 ? 1 : 0;
+		}
+		assertEquals(2, sustained);
+	}
+
+	@Test
+	void defersOngoingEpisodesFromBackfillToFirstLiveSample() {
+		CpuAnomalyDetector detector = new CpuAnomalyDetector(SETTINGS);
+		long t = 0;
+		// Four days at 92%, fed as history without reporting
+		for (; t < 4 * DAY; t += MINUTE) {
+			assertEquals(CpuAnomalyDetector.NONE, detector.update(t, 92, false));
+		}
+		assertEquals(3, detector.highDays());
+		int events = detector.update(t, 92, true);
+		assertEquals(CpuAnomalyDetector.SUSTAINED | CpuAnomalyDetector.DAILY, events);
+		assertEquals(CpuAnomalyDetector.NONE, detector.update(t + MINUTE, 92, true));
+	}
+}
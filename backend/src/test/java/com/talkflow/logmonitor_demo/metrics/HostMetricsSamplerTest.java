@@ -0,0 +1,47 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HostMetricsSamplerTest {
+
+	@TempDir
+	Path proc;
+
+	@Test
+	void computesUsageFromProcCounterDeltas() throws IOException {
+		Files.createDirectories(proc.resolve("self"));
+		Files.writeString(proc.resolve("meminfo"), "MemTotal:        8000000 kB\nMemFree:         1000000 kB\nMemAvailable:    2000000 kB\n");
+		writeCounters(1000, 3000, 100, 200);
+
+		try (HostMetricsSampler sampler = new HostMetricsSampler(proc, proc)) {
+			assertFalse(sampler.sample(0));
+			assertTrue(sampler.procAvailable());
+			assertEquals(75f, sampler.memoryUsage());
+			assertEquals(8 * 4096, sampler.processRssBytes());
+
+			// 400 busy and 600 idle ticks since the first sample; the process used 50 ticks in one second
+			writeCounters(1400, 3600, 130, 220);
+			assertTrue(sampler.sample(1_000_000_000L));
+			assertEquals(40f, sampler.cpuUsage(), 0.001f);
+			float expectedProcess = 50f / Runtime.getRuntime().availableProcessors();
+			assertEquals(Math.min(100f, expectedProcess), sampler.processCpuUsage(), 0.001f);
+		}
+	}
+
+	private void writeCounters(long busy, long idle, long utime, long stime) throws IOException {
+		// The rest of /proc/stat is never parsed; idle ticks are split over idle and iowait
+		Files.writeString(proc.resolve("stat"), "cpu  " + (busy - 100) + " 0 100 " + (idle - 10) + " 10 0 0 0 0 0\n"
+				+ "cpu0 1 2 3 4 5 6 7 8 9 10\nintr 1 2 3\n");
+		Files.writeString(proc.resolve("self").resolve("stat"), "42 (java (main)) S 1 42 42 0 -1 4194560 100 0 0 0 "
+				+ utime + " " + stime + " 0 0 20 0 30 0 1234 5000000 8 18446744073709551615 0\n");
+	}
+}
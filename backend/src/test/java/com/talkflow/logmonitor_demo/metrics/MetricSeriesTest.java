@@ -0,0 +1,115 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricSeriesTest {
+
+	private static final long MINUTE = 60_000L;
+
+	@Test
+	void compressedBlocksReadBackExactly() {
+		MetricSeries series = new MetricSeries("wmpooc", 64, 16, Long.MAX_VALUE, 60, 24, 7);
+		Random random = new Random(7);
+		List<Long> writtenTimes = new ArrayList<>();
+		List<float[]> written = new ArrayList<>();
+		long start = 1_700_000_000_000L;
+		for (int i = 0; i < 200; i++) {
+			// Mostly regular timestamps with some jitter, arbitrary float values
+			long timestamp = start + i * MINUTE + (i % 10 == 0 ? random.nextInt(5000) : 0);
+			float[] values = { random.nextFloat() * 100, Math.round(random.nextFloat() * 1000) / 10f, 70.5f, random.nextInt(4000) };
+			writtenTimes.add(timestamp);
+			written.add(values);
+			assertTrue(series.append(timestamp, values[0], values[1], values[2], (short) values[3]));
+		}
+		assertEquals(200, series.size());
+		assertTrue(series.compressedBytes() > 0);
+
+		List<Long> readTimes = new ArrayList<>();
+		List<float[]> read = new ArrayList<>();
+		series.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, cpu, memory, disk, latency) -> {
+			readTimes.add(timestamp);
+			read.add(new float[] { cpu, memory, disk, latency });
+		});
+		assertEquals(writtenTimes, readTimes);
+		for (int i = 0; i < 200; i++) {
+			for (int column = 0; column < 4; column++) {
+				assertEquals(written.get(i)[column], read.get(i)[column], "sample " + i + " column " + column);
+			}
+		}
+	}
+
+	@Test
+	void scansRangeAndFindsNearestSample() {
+		MetricSeries series = new MetricSeries("order-service", 16, 8, Long.MAX_VALUE, 60, 24, 7);
+		for (int i = 0; i < 100; i++) {
+			series.append(i * MINUTE, i, 50, 60, (short) 20);
+		}
+		assertFalse(series.append(10 * MINUTE, 1, 1, 1, (short) 1));
+
+		List<Long> times = new ArrayList<>();
+		series.scan(30 * MINUTE, 34 * MINUTE, (timestamp, cpu, memory, disk, latency) -> times.add(timestamp));
+		assertEquals(List.of(30 * MINUTE, 31 * MINUTE, 32 * MINUTE, 33 * MINUTE, 34 * MINUTE), times);
+
+		float[] found = new float[1];
+		assertTrue(series.nearest(47 * MINUTE + 20_000, 5 * MINUTE, (timestamp, cpu, memory, disk, latency) -> found[0] = cpu));
+		assertEquals(47f, found[0]);
+		assertTrue(series.nearest(99 * MINUTE + 40_000, MINUTE, (timestamp, cpu, memory, disk, latency) -> found[0] = cpu));
+		assertEquals(99f, found[0]);
+		assertFalse(series.nearest(200 * MINUTE, 5 * MINUTE, (timestamp, cpu, memory, disk, latency) -> { }));
+	}
+
+	@Test
+	void dropsOldestBlocksBeyondCapacityAndRetention() {
+		MetricSeries bounded = new MetricSeries("a", 10, 3, Long.MAX_VALUE, 60, 24, 7);
+		for (int i = 0; i < 100; i++) {
+			bounded.append(i * MINUTE, 1, 1, 1, (short) 1);
+		}
+		// Three compressed blocks plus an empty hot block
+		assertEquals(30, bounded.size());
+		assertEquals(70 * MINUTE, bounded.firstTimestamp());
+
+		MetricSeries retained = new MetricSeries("b", 10, 100, 25 * MINUTE, 60, 24, 7);
+		for (int i = 0; i < 105; i++) {
+			retained.append(i * MINUTE, 1, 1, 1, (short) 1);
+		}
+		assertEquals(70 * MINUTE, retained.firstTimestamp());
+		assertEquals(104 * MINUTE, retained.lastTimestamp());
+	}
+
+	@Test
+	void rollsUpIntoTiersAndFallsBackToCoarserBuckets() {
+		MetricSeries series = new MetricSeries("wmpooc", 32, 4, Long.MAX_VALUE, 60, 24, 7);
+		long hour = Resolution.HOUR.widthMillis();
+		// One sample every 20 seconds for three hours, cpu equal to the minute index
+		for (long t = 0; t < 3 * hour; t += 20_000) {
+			series.append(t, t / MINUTE, 50, 60, (short) 30);
+		}
+
+		RollupBucket bucket = new RollupBucket();
+		assertTrue(series.rollup(Resolution.MINUTE, 170 * MINUTE + 5_000, bucket));
+		assertEquals(170 * MINUTE, bucket.start());
+		assertEquals(3, bucket.count());
+		assertEquals(170f, bucket.avg(Metric.CPU));
+
+		// The minute tier only holds the last hour; older times resolve to hour buckets
+		assertFalse(series.rollup(Resolution.MINUTE, 30 * MINUTE, bucket));
+		assertTrue(series.finestRollup(30 * MINUTE, bucket));
+		assertEquals(Resolution.HOUR, bucket.resolution());
+		assertEquals(180, bucket.count());
+		assertEquals(0f, bucket.min(Metric.CPU));
+		assertEquals(59f, bucket.max(Metric.CPU));
+		assertEquals(29.5f, bucket.avg(Metric.CPU), 0.001f);
+		assertEquals(30f, bucket.avg(Metric.LATENCY));
+
+		assertTrue(series.rollup(Resolution.DAY, 0, bucket));
+		assertEquals(540, bucket.count());
+	}
+}
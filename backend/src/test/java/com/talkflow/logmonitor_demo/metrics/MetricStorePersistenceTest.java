@@ -0,0 +1,147 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricStorePersistenceTest {
+
+	private static final long MINUTE = 60_000L;
+	private static final long DAY = 86_400_000L;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void reopensBlocksHotSamplesAndRollups() {
+		long start = 20_000 * DAY;
+		MetricStore store = new MetricStore(directory, 64, 1024, 30 * DAY, 60, 48, 30);
+		MetricSeries series = store.series("order/service");
+		// Three days per minute: sealed blocks across several segment files plus a partial hot block
+		int samples = 3 * 1440 + 10;
+		for (int i = 0; i < samples; i++) {
+			series.append(start + i * MINUTE, i % 100, 50.5f, 60, (short) (i % 300));
+		}
+		RollupBucket before = new RollupBucket();
+		assertTrue(series.rollup(Resolution.DAY, start + DAY, before));
+		store.close();
+
+		MetricStore reopened = new MetricStore(directory, 64, 1024, 30 * DAY, 60, 48, 30);
+		assertEquals(1, reopened.recover(start + 3 * DAY));
+		MetricSeries restored = reopened.find("order/service");
+		assertEquals(samples, restored.size());
+		assertEquals(start + (samples - 1) * MINUTE, restored.lastTimestamp());
+
+		List<Long> times = new ArrayList<>();
+		List<Float> cpu = new ArrayList<>();
+		restored.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, c, memory, disk, latency) -> {
+			times.add(timestamp);
+			cpu.add(c);
+		});
+		assertEquals(samples, times.size());
+		for (int i = 0; i < samples; i++) {
+			assertEquals(start + i * MINUTE, times.get(i));
+			assertEquals((float) (i % 100), cpu.get(i));
+		}
+
+		RollupBucket after = new RollupBucket();
+		assertTrue(restored.rollup(Resolution.DAY, start + DAY, after));
+		assertEquals(before.count(), after.count());
+		assertEquals(before.avg(Metric.CPU), after.avg(Metric.CPU));
+		assertEquals(before.cpuSketch().quantile(0.95), after.cpuSketch().quantile(0.95));
+
+		// New samples continue after the restored ones
+		assertTrue(restored.append(start + samples * MINUTE, 1, 1, 1, (short) 1));
+		assertFalse(restored.append(start, 1, 1, 1, (short) 1));
+		reopened.close();
+	}
+
+	@Test
+	void dropsExpiredBlocksAndSeries() throws Exception {
+		long start = 20_000 * DAY;
+		MetricStore store = new MetricStore(directory, 64, 1024, 2 * DAY, 60, 48, 30);
+		MetricSeries series = store.series("wmpooc");
+		for (int i = 0; i < 5 * 1440; i++) {
+			series.append(start + i * MINUTE, 95, 60, 70, (short) 30);
+		}
+		store.series("retired").append(start, 10, 10, 10, (short) 10);
+		store.close();
+
+		// Segments of days that left the retention window were deleted as their blocks were dropped
+		Path seriesDir = directory.resolve(MetricStore.directoryName("wmpooc"));
+		assertFalse(Files.exists(seriesDir.resolve("seg-20000.dat")));
+		assertTrue(Files.exists(seriesDir.resolve("seg-20004.dat")));
+
+		MetricStore reopened = new MetricStore(directory, 64, 1024, 2 * DAY, 60, 48, 30);
+		assertEquals(1, reopened.recover(start + 5 * DAY));
+		assertNull(reopened.find("retired"));
+		assertFalse(Files.exists(directory.resolve(MetricStore.directoryName("retired"))));
+		assertTrue(reopened.find("wmpooc").firstTimestamp() >= start + 2 * DAY);
+		reopened.close();
+	}
+
+	@Test
+	void keepsEveryApplicationNameInsideTheDirectory() throws Exception {
+		long start = 20_000 * DAY;
+		Path metrics = Files.createDirectory(directory.resolve("metrics"));
+		MetricStore store = new MetricStore(metrics, 64, 1024, 2 * DAY, 60, 48, 30);
+		List<String> names = List.of("..", ".", "../escape", "a/b", "C:\\x", "Order-Service", "order-service", "订单服务");
+		for (String name : names) {
+			assertTrue(store.series(name).append(start, 50, 50, 50, (short) 5));
+		}
+		store.series("x".repeat(200)).append(start, 50, 50, 50, (short) 5);
+		store.close();
+
+		try (var entries = Files.list(directory)) {
+			assertEquals(List.of(metrics), entries.toList());
+		}
+		try (var entries = Files.list(metrics)) {
+			// The overlong name was kept on the heap
+			assertEquals(names.size(), entries.count());
+		}
+		Files.createDirectory(metrics.resolve("not-a-series"));
+		MetricStore reopened = new MetricStore(metrics, 64, 1024, 2 * DAY, 60, 48, 30);
+		assertEquals(names.size(), reopened.recover(start));
+		for (String name : names) {
+			assertEquals(start, reopened.find(name).lastTimestamp());
+		}
+		assertTrue(Files.exists(metrics.resolve("not-a-series")));
+		reopened.close();
+	}
+
+	@Test
+	void simulatedFeedFillsGapSinceLastPersistedSample() {
+		long start = 20_000 * DAY;
+		MetricStore store = new MetricStore(directory, 64, 1024, 2 * DAY, 60, 48, 30);
+		MetricSeries series = store.series("order-service");
+		assertEquals(1441, new SimulatedFeed("order-service").fill(series, start, DAY, series::append));
+		store.close();
+
+		// Three hours later the restarted service has a recovered series and a new feed
+		long restart = start + 3 * 60 * MINUTE;
+		MetricStore reopened = new MetricStore(directory, 64, 1024, 2 * DAY, 60, 48, 30);
+		assertEquals(1, reopened.recover(restart));
+		MetricSeries restored = reopened.find("order-service");
+		assertEquals(180, new SimulatedFeed("order-service").fill(restored, restart, DAY, restored::append));
+		assertEquals(restart, restored.lastTimestamp());
+
+		List<Long> times = new ArrayList<>();
+		restored.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, cpu, memory, disk, latency) -> times.add(timestamp));
+		assertEquals(1441 + 180, times.size());
+		for (int i = 0; i < times.size(); i++) {
+			assertEquals(start - DAY + i * MINUTE, times.get(i));
+		}
+		// Nothing new to fill within the same minute
+		assertEquals(0, new SimulatedFeed("order-service").fill(restored, restart + 1000, DAY, restored::append));
+		reopened.close();
+	}
+}
@@ -0,0 +1,77 @@
+package com.talkflow.logmonitor_demo.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingStatsTest {
+
+	@Test
+	void mergedStatsMatchSinglePass() {
+		Random random = new Random(3);
+		StreamingStats all = new StreamingStats();
+		StreamingStats merged = new StreamingStats();
+		for (int part = 0; part < 5; part++) {
+			StreamingStats shard = new StreamingStats();
+			for (int i = 0; i < 1000 + part * 100; i++) {
+				double value = 40 + random.nextGaussian() * (part + 1);
+				all.add(value);
+				shard.add(value);
+			}
+			merged.merge(shard);
+		}
+		assertEquals(all.count(), merged.count());
+		assertEquals(all.mean(), merged.mean(), 1e-9);
+		assertEquals(all.stddev(), merged.stddev(), 1e-9);
+		assertEquals(all.min(), merged.min());
+		assertEquals(all.max(), merged.max());
+	}
+
+	@Test
+	void sketchQuantilesStayWithinHalfABin() {
+		Random random = new Random(5);
+		float[] values = new float[20_000];
+		QuantileSketch first = new QuantileSketch();
+		QuantileSketch second = new QuantileSketch();
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.min(100, Math.max(0, (float) (60 + random.nextGaussian() * 15)));
+			(i % 2 == 0 ? first : second).add(values[i]);
+		}
+		first.merge(second);
+		Arrays.sort(values);
+		assertEquals(values.length, first.count());
+		for (double q : new double[] { 0.5, 0.95, 0.99 }) {
+			float exact = values[(int) Math.ceil(q * values.length) - 1];
+			assertTrue(Math.abs(first.quantile(q) - exact) <= QuantileSketch.BIN_WIDTH, "q=" + q);
+		}
+	}
+
+	@Test
+	void rollupBucketsCarryMergeableCpuStatistics() {
+		MetricSeries series = new MetricSeries("wmpooc", 32, 4, Long.MAX_VALUE, 60, 24, 7);
+		StreamingStats expected = new StreamingStats();
+		long day = Resolution.DAY.widthMillis();
+		for (long t = 0; t < 2 * day; t += 600_000) {
+			float cpu = 90 + (t / 600_000) % 10;
+			series.append(t, cpu, 50, 60, (short) 20);
+			expected.add(cpu);
+		}
+
+		RollupBucket bucket = new RollupBucket();
+		StreamingStats merged = new StreamingStats();
+		QuantileSketch sketch = new QuantileSketch();
+		for (long t = 0; t < 2 * day; t += day) {
+			assertTrue(series.rollup(Resolution.DAY, t, bucket));
+			merged.merge(bucket.cpuStats());
+			sketch.merge(bucket.cpuSketch());
+		}
+		assertEquals(expected.count(), merged.count());
+		assertEquals(expected.mean(), merged.mean(), 1e-6);
+		assertEquals(expected.stddev(), merged.stddev(), 1e-6);
+		assertEquals(99, sketch.quantile(0.99), QuantileSketch.BIN_WIDTH);
+	}
+}
@@ -0,0 +1,97 @@
+package com.talkflow.logmonitor_demo.rules;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleCatalogTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void keepsLastGoodVersionWhenReloadIsRejected() throws Exception {
+		write("cpu.json", rule("cpu-high", "cpuUsage > 90"));
+		write("net.json", rule("net-slow", "networkLatency >= 300"));
+		try (RuleCatalog catalog = new RuleCatalog(directory, 50)) {
+			RuleCatalog.Snapshot first = catalog.current();
+			assertEquals(1, first.version());
+			assertEquals(2, first.rules().size());
+
+			write("cpu.json", "[{\"id\": \"cpu-high\", \"when\": [\"cpuUsage >> 90\"], \"recommendation\": \"x\"}]");
+			assertFalse(catalog.reload());
+			assertTrue(catalog.lastError().contains("cpu-high"));
+			assertEquals(first, catalog.current());
+
+			write("net.json", rule("cpu-high", "networkLatency >= 300"));
+			write("cpu.json", rule("cpu-high", "cpuUsage > 80"));
+			assertFalse(catalog.reload());
+			assertEquals(first, catalog.current());
+
+			write("net.json", "[]");
+			assertTrue(catalog.reload());
+			assertNull(catalog.lastError());
+			assertEquals(2, catalog.current().version());
+			assertEquals("cpuUsage > 80", catalog.current().rules().find("cpu-high").when().get(0));
+			assertEquals(2, catalog.rejectedCount());
+		}
+	}
+
+	@Test
+	void reloadsWatchedDirectoryAfterChanges() throws Exception {
+		write("cpu.json", rule("cpu-high", "cpuUsage > 90"));
+		try (RuleCatalog catalog = new RuleCatalog(directory, 50)) {
+			catalog.watch();
+			assertTrue(catalog.watching());
+
+			// Save through a temporary file and a rename, like most editors
+			Path temporary = write(".cpu.json.swp", rule("cpu-high", "cpuUsage > 75"));
+			Files.move(temporary, directory.resolve("cpu.json"), StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+			awaitVersion(catalog, 2);
+			assertEquals("cpuUsage > 75", catalog.current().rules().find("cpu-high").when().get(0));
+
+			write("broken.json", "[{\"id\": ");
+			long deadline = System.currentTimeMillis() + 10_000;
+			while (catalog.rejectedCount() == 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+			}
+			assertNotNull(catalog.lastError());
+			assertEquals(2, catalog.current().version());
+		}
+	}
+
+	@Test
+	void rejectsBadCatalogAtStartup() throws Exception {
+		write("empty.json", "[]");
+		assertThrows(IllegalArgumentException.class, () -> new RuleCatalog(directory, 50));
+		assertThrows(IllegalArgumentException.class, () -> new RuleCatalog(directory.resolve("missing.json"), 50));
+	}
+
+	private Path write(String name, String content) throws Exception {
+		return Files.writeString(directory.resolve(name), content);
+	}
+
+	private static String rule(String id, String condition) {
+		return "[{\"id\": \"" + id + "\", \"alertType\": \"CPU过载\", \"when\": [\"" + condition
+			+ "\"], \"recommendation\": \"处理 " + id + "\", \"priority\": 10}]";
+	}
+
+	private static void awaitVersion(RuleCatalog catalog, long version) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (catalog.current().version() < version && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(version, catalog.current().version());
+	}
+}
@@ -0,0 +1,156 @@
+package com.talkflow.logmonitor_demo.rules;
+
+import com.talkflow.logmonitor_demo.metrics.Metric;
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RuleSetTest {
+
+	private static final String[] TYPES = { "CPU过载", "服务不可用" };
+	private static final String[] SEVERITIES = { "CRITICAL", "HIGH", "MEDIUM", "LOW" };
+	private static final String[] FIELDS = { "cpuUsage", "memoryUsage", "diskUsage", "networkLatency" };
+	private static final String[] OPERATORS = { ">", ">=", "<", "<=", "==", "!=" };
+
+	@Test
+	void matchesConditionsExclusionsAndHistory() {
+		RuleSet rules = RuleSet.compile(List.of(
+			new RecommendationRule("sustained", "CPU过载", List.of("cpuUsage > 70 for 5d"), null, "加机器", 100),
+			new RecommendationRule("occasional", "CPU过载", null, List.of("cpuUsage > 70 for 5d"), "继续观察", 50),
+			new RecommendationRule("latency", "服务不可用", List.of("networkLatency >= 300"), null, "检查网络", 80),
+			new RecommendationRule("critical", null, List.of("severity == 'CRITICAL'", "cpuUsage >= 95"), null, "立即扩容", 90)));
+		AtomicInteger historyReads = new AtomicInteger();
+		HistorySource history = (application, metric, days) -> {
+			historyReads.incrementAndGet();
+			assertEquals(Metric.CPU, metric);
+			double[] daily = new double[days];
+			Arrays.fill(daily, 80);
+			if (application.equals("order-service")) {
+				daily[3] = 65;
+			}
+			return daily;
+		};
+
+		List<List<RecommendationRule>> matches = rules.evaluate(List.of(
+			alert("wmpooc", "CPU过载", "CRITICAL", 97, 100),
+			alert("order-service", "CPU过载", "HIGH", 85, 100),
+			alert("wmpooc", "服务不可用", "HIGH", 40, 300),
+			alert("wmpooc", "服务不可用", "HIGH", 40, 299)), history);
+
+		assertEquals(List.of("sustained", "critical"), ids(matches.get(0)));
+		assertEquals(List.of("occasional"), ids(matches.get(1)));
+		assertEquals(List.of("latency"), ids(matches.get(2)));
+		assertEquals(List.of(), ids(matches.get(3)));
+		// History is read once per application and metric for the whole batch
+		assertEquals(2, historyReads.get());
+	}
+
+	@Test
+	void rejectsInvalidRules() {
+		assertThrows(IllegalArgumentException.class, () -> RuleSet.compile(List.of(
+			new RecommendationRule("a", null, List.of("cpuUsage >> 70"), null, "x", 0))));
+		assertThrows(IllegalArgumentException.class, () -> RuleSet.compile(List.of(
+			new RecommendationRule("a", null, List.of("severity > HIGH"), null, "x", 0))));
+		assertThrows(IllegalArgumentException.class, () -> RuleSet.compile(List.of(
+			new RecommendationRule("a", null, List.of("cpuUsage == 70 for 3d"), null, "x", 0))));
+		IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class, () -> RuleSet.compile(List.of(
+			new RecommendationRule("a", null, null, null, "x", 0),
+			new RecommendationRule("a", null, null, null, "y", 0))));
+		assertTrue(duplicate.getMessage().contains("a"));
+	}
+
+	@Test
+	void indexAgreesWithRuleByRuleEvaluation() {
+		Random random = new Random(11);
+		List<RecommendationRule> ruleList = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			List<String> when = new ArrayList<>();
+			for (int c = random.nextInt(3); c >= 0; c--) {
+				when.add(randomCondition(random));
+			}
+			List<String> unless = random.nextInt(4) == 0 ? List.of(randomCondition(random)) : List.of();
+			String type = random.nextBoolean() ? TYPES[random.nextInt(TYPES.length)] : null;
+			ruleList.add(new RecommendationRule("r" + i, type, when, unless, "rec " + i, random.nextInt(5)));
+		}
+		RuleSet rules = RuleSet.compile(ruleList);
+		assertTrue(rules.conditionCount() < 2000 * 3);
+
+		List<Alert> alerts = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			alerts.add(alert("app" + random.nextInt(10), TYPES[random.nextInt(TYPES.length)],
+				SEVERITIES[random.nextInt(SEVERITIES.length)], random.nextInt(101), random.nextInt(500)));
+		}
+		List<List<RecommendationRule>> matches = rules.evaluate(alerts, null);
+		for (int i = 0; i < alerts.size(); i++) {
+			List<String> expected = new ArrayList<>();
+			for (RecommendationRule rule : rules.rules()) {
+				if (matchesDirectly(rule, alerts.get(i))) {
+					expected.add(rule.id());
+				}
+			}
+			assertEquals(expected, ids(matches.get(i)), "alert " + i);
+		}
+	}
+
+	private static String randomCondition(Random random) {
+		if (random.nextInt(5) == 0) {
+			return "severity " + (random.nextBoolean() ? "==" : "!=") + " " + SEVERITIES[random.nextInt(SEVERITIES.length)];
+		}
+		String field = FIELDS[random.nextInt(FIELDS.length)];
+		int max = field.equals("networkLatency") ? 500 : 100;
+		return field + " " + OPERATORS[random.nextInt(OPERATORS.length)] + " " + random.nextInt(max / 10) * 10;
+	}
+
+	private static boolean matchesDirectly(RecommendationRule rule, Alert alert) {
+		if (rule.alertType() != null && !rule.alertType().equals(alert.alertType())) {
+			return false;
+		}
+		for (String condition : rule.when()) {
+			if (!holds(Condition.parse(condition), alert)) {
+				return false;
+			}
+		}
+		for (String condition : rule.unless()) {
+			if (holds(Condition.parse(condition), alert)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean holds(Condition condition, Alert alert) {
+		if (!condition.field().numeric()) {
+			boolean equal = condition.text().equals(condition.field().text(alert));
+			return condition.operator() == Condition.Operator.EQ ? equal : !equal;
+		}
+		double value = condition.field().number(alert);
+		double constant = condition.number();
+		return switch (condition.operator()) {
+			case GT -> value > constant;
+			case GE -> value >= constant;
+			case LT -> value < constant;
+			case LE -> value <= constant;
+			case EQ -> value == constant;
+			case NE -> value != constant;
+		};
+	}
+
+	private static Alert alert(String application, String type, String severity, int cpu, int latency) {
+		return new Alert(null, application, severity, type, "title", "description", null, 1_700_000_000_000L,
+			"ACTIVE", new AlertMetrics(cpu, 60, 70, latency), null, Alert.SOURCE_MOCK, null);
+	}
+
+	private static List<String> ids(List<RecommendationRule> rules) {
+		return rules.stream().map(RecommendationRule::id).toList();
+	}
+}
@@ -0,0 +1,66 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertAggregation;
+import com.talkflow.logmonitor_demo.store.AlertRingBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertIngestServiceTest {
+
+	private final AlertIngestService service = new AlertIngestService();
+	private final AlertRingBuffer<Alert> buffer = new AlertRingBuffer<>(4);
+
+	@BeforeEach
+	void setUp() {
+		// No drain thread, so the buffer keeps what was accepted
+		ReflectionTestUtils.setField(service, "buffer", buffer);
+	}
+
+	@Test
+	void recordsSourceAndDropsClientAggregations() {
+		Alert forged = alert("A-1", "HIGH").withAggregation(
+				new AlertAggregation("fp", 1000, null, null, null, null, null));
+		Alert mock = new Alert("A-2", "wmpooc", "LOW", "CPU过载", "t", "d", null, 0, null, null, null,
+				Alert.SOURCE_MOCK, null);
+
+		AlertIngestService.IngestResult result = service.ingest(List.of(forged, mock, alert("A-3", "UNKNOWN")));
+		assertEquals(new AlertIngestService.IngestResult(2, 1, 0), result);
+
+		Alert first = buffer.poll();
+		assertEquals(Alert.SOURCE_INGEST, first.source());
+		assertNull(first.aggregation());
+		Alert second = buffer.poll();
+		assertEquals(Alert.SOURCE_INGEST, second.source());
+		assertEquals("ACTIVE", second.status());
+
+		service.ingest(List.of(alert("L-1", "HIGH")), Alert.SOURCE_LOG);
+		assertEquals(Alert.SOURCE_LOG, buffer.poll().source());
+	}
+
+	@Test
+	void acceptsWholeBatchOrNothing() {
+		assertEquals(3, service.ingest(List.of(alert("A-1", "HIGH"), alert("A-2", "HIGH"), alert("A-3", "HIGH"))).accepted());
+
+		AlertIngestService.IngestResult full = service.ingest(List.of(alert("A-4", "HIGH"), alert("A-5", "HIGH")));
+		assertTrue(full.bufferFull());
+		assertEquals(0, full.accepted());
+		assertEquals(2, full.dropped());
+		assertEquals(3, buffer.size());
+
+		buffer.poll();
+		assertEquals(2, service.ingest(List.of(alert("A-4", "HIGH"), alert("A-5", "HIGH"))).accepted());
+	}
+
+	private static Alert alert(String id, String severity) {
+		return new Alert(id, "wmpooc", severity, "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				"2025-01-01 00:00:00", 0, "ACTIVE", null, null, null, null);
+	}
+}
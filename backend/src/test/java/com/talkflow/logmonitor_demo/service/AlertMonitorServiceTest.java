@@ -0,0 +1,355 @@
+package com.talkflow.logmonitor_demo.service;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.store.AlertChangeEvent;
+import com.talkflow.logmonitor_demo.store.AlertDelta;
+import com.talkflow.logmonitor_demo.store.AlertShards;
+import com.talkflow.logmonitor_demo.store.AlertSnapshot;
+import com.talkflow.logmonitor_demo.store.AlertStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertMonitorServiceTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final AlertMonitorService service = new AlertMonitorService();
+
+	@BeforeEach
+	void setUp() {
+		// startBackgroundRefresh is not called, so refreshes only run when a read triggers them
+		ReflectionTestUtils.setField(service, "alertJournalService", Mockito.mock(AlertJournalService.class));
+		ReflectionTestUtils.setField(service, "deltaHistorySize", 3);
+		ReflectionTestUtils.setField(service, "deduplicate", false);
+		ReflectionTestUtils.setField(service, "refreshInterval", Duration.ofMinutes(1));
+		ReflectionTestUtils.setField(service, "maxStaleness", Duration.ofMinutes(5));
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.stopBackgroundRefresh();
+	}
+
+	@Test
+	void concurrentColdReadsShareOneRefresh() throws Exception {
+		CountDownLatch release = blockRefreshExecutor();
+		List<AlertSnapshot> snapshots = new CopyOnWriteArrayList<>();
+		List<Thread> readers = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			Thread reader = new Thread(() -> snapshots.add(service.currentSnapshot(null)));
+			readers.add(reader);
+			reader.start();
+		}
+		// The refresh cannot run yet, so every reader has joined the same one when it parks
+		awaitParked(readers);
+		assertEquals(true, service.getRefreshStats().get("refreshInProgress"));
+
+		release.countDown();
+		for (Thread reader : readers) {
+			reader.join(TIMEOUT.toMillis());
+		}
+		assertEquals(8, snapshots.size());
+		assertEquals(1L, service.getRefreshStats().get("refreshCount"));
+		assertEquals(8L, service.getRefreshStats().get("blockingReadCount"));
+		assertEquals(1, snapshots.stream().map(AlertSnapshot::version).distinct().count());
+		assertFalse(snapshots.get(0).store().isEmpty());
+	}
+
+	@Test
+	void servesStaleDataWhileOneBackgroundRefreshRuns() throws Exception {
+		ingest("A-1", "HIGH");
+		shards().markRefreshed(LocalDateTime.now().minusMinutes(2));
+		CountDownLatch release = blockRefreshExecutor();
+
+		// Older than the refresh interval but within max staleness: every read returns at once
+		for (int i = 0; i < 5; i++) {
+			AlertSnapshot stale = service.currentSnapshot(null);
+			assertEquals(1L, stale.version());
+			assertEquals("A-1", stale.store().all().get(0).alertId());
+		}
+		Map<String, Object> stats = service.getRefreshStats();
+		assertEquals(5L, stats.get("staleReadCount"));
+		assertEquals(0L, stats.get("blockingReadCount"));
+		assertEquals(true, stats.get("refreshInProgress"));
+
+		CompletableFuture<?> refresh = inFlightRefresh();
+		release.countDown();
+		refresh.get(5, TimeUnit.SECONDS);
+		assertEquals(1L, service.getRefreshStats().get("refreshCount"));
+
+		// The refreshed data is fresh again, so the next read neither waits nor refreshes
+		AlertSnapshot fresh = service.currentSnapshot(null);
+		assertTrue(fresh.version() > 1L);
+		assertFalse(fresh.store().bySource(Alert.SOURCE_MOCK).isEmpty());
+		assertEquals(5L, service.getRefreshStats().get("staleReadCount"));
+		assertEquals(1L, service.getRefreshStats().get("refreshCount"));
+	}
+
+	@Test
+	void scheduledTickDoesNotWaitForARefreshQueuedBehindIt() throws Exception {
+		ingest("A-1", "HIGH");
+		shards().markRefreshed(LocalDateTime.now().minusMinutes(2));
+		// A scheduled tick is running on the refresh thread when a stale read starts a refresh
+		ScheduledExecutorService executor = (ScheduledExecutorService) ReflectionTestUtils.getField(service, "refreshExecutor");
+		CountDownLatch tickStarted = new CountDownLatch(1);
+		CountDownLatch releaseTick = new CountDownLatch(1);
+		executor.execute(() -> {
+			tickStarted.countDown();
+			try {
+				releaseTick.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			ReflectionTestUtils.invokeMethod(service, "refreshInBackground");
+		});
+		assertTrue(tickStarted.await(5, TimeUnit.SECONDS));
+		service.currentSnapshot(null);
+		CompletableFuture<?> refresh = inFlightRefresh();
+
+		releaseTick.countDown();
+		refresh.get(5, TimeUnit.SECONDS);
+		assertEquals(1L, service.getRefreshStats().get("refreshCount"));
+		assertTrue(service.currentSnapshot(null).version() > 1L);
+	}
+
+	@Test
+	void waitsForRefreshBeyondMaxStaleness() {
+		ingest("A-1", "HIGH");
+		LocalDateTime expired = LocalDateTime.now().minusMinutes(10);
+		shards().markRefreshed(expired);
+
+		AlertSnapshot current = service.currentSnapshot(null);
+		assertTrue(current.refreshTime().isAfter(expired));
+		assertFalse(current.store().bySource(Alert.SOURCE_MOCK).isEmpty());
+		assertEquals(1L, service.getRefreshStats().get("blockingReadCount"));
+		assertEquals(0L, service.getRefreshStats().get("staleReadCount"));
+	}
+
+	@Test
+	void cachesRenderedReportsPerVersionSeverityPageSizeAndCursor() {
+		for (int i = 1; i <= 4; i++) {
+			ingest("A-" + i, i == 4 ? "LOW" : "HIGH");
+		}
+		shards().markRefreshed(LocalDateTime.now());
+
+		String first = service.getDetailedAlertInfo("HIGH", null, 2, null, null, null);
+		assertEquals(1, cachedReports("").size());
+		assertEquals(first, service.getDetailedAlertInfo("HIGH", null, 2, null, null, null));
+		assertEquals(1, cachedReports("").size());
+		String body = cachedReports("").values().iterator().next();
+		assertTrue(first.startsWith(body));
+		assertEquals(AlertReportRenderer.renderAlerts(AlertStore.page(service.selectAlerts(null, "HIGH"), null, 2)), body);
+
+		// Severity, page size and cursor each get their own entry
+		service.getDetailedAlertInfo("LOW", null, 2, null, null, null);
+		service.getDetailedAlertInfo("HIGH", null, 3, null, null, null);
+		String cursor = (String) service.getDetailedAlertInfoAsJson(null, "HIGH", 2, null, null, null).get("nextCursor");
+		String second = service.getDetailedAlertInfo("HIGH", null, 2, cursor, null, null);
+		assertEquals(4, cachedReports("").size());
+		assertFalse(second.startsWith(body));
+		// Time range queries depend on the clock and are never cached
+		service.getDetailedAlertInfo("HIGH", null, 2, null, "1d", null);
+		assertEquals(4, cachedReports("").size());
+		// Each application has its own cache at its shard's version
+		service.getDetailedAlertInfo("HIGH", "wmpooc", 2, null, null, null);
+		assertEquals(1, cachedReports("wmpooc").size());
+		// Unknown applications are rendered without a cache entry
+		assertTrue(service.getDetailedAlertInfo("HIGH", "no-such-app", 2, null, null, null).contains("未找到匹配的告警信息"));
+		assertFalse(((Map<?, ?>) ReflectionTestUtils.getField(service, "reportCaches")).containsKey("no-such-app"));
+		assertEquals(4L, cachedVersion(""));
+
+		// A new version drops every report of the old one
+		ingest("A-5", "HIGH");
+		assertTrue(service.getDetailedAlertInfo("HIGH", null, 10, null, null, null).contains("A-5"));
+		assertEquals(5L, cachedVersion(""));
+		assertEquals(1, cachedReports("").size());
+	}
+
+	@Test
+	void boundsTheReportsCachedPerVersion() {
+		ingest("A-1", "HIGH");
+		shards().markRefreshed(LocalDateTime.now());
+
+		for (int limit = 1; limit <= 300; limit++) {
+			String report = service.getDetailedAlertInfo("HIGH", null, limit, null, null, null);
+			assertTrue(report.contains("A-1"));
+		}
+		assertEquals(256, cachedReports("").size());
+	}
+
+	@Test
+	void replaysContiguousDeltasAfterTheClientVersion() {
+		ingest("A-1", "HIGH");
+		ingest("A-2", "LOW");
+		ingest("A-3", "HIGH");
+
+		List<AlertChangeEvent> events = service.streamChanges(1, null).take(2).collectList().block(TIMEOUT);
+		assertEquals(List.of(2L, 3L), events.stream().map(AlertChangeEvent::version).toList());
+		assertTrue(events.stream().allMatch(event -> AlertChangeEvent.TYPE_DELTA.equals(event.type())));
+		assertEquals("A-2", events.get(0).delta().added().get(0).alertId());
+
+		// Deltas without a matching alert are skipped, but the version still advances past them
+		List<AlertChangeEvent> high = service.streamChanges(1, "HIGH").take(1).collectList().block(TIMEOUT);
+		assertEquals(3L, high.get(0).version());
+		assertEquals("A-3", high.get(0).delta().added().get(0).alertId());
+	}
+
+	@Test
+	void resyncsWhenTheClientHasNoVersion() {
+		ingest("A-1", "HIGH");
+		ingest("A-2", "LOW");
+
+		AlertChangeEvent event = service.streamChanges(0, "HIGH").blockFirst(TIMEOUT);
+		assertEquals(AlertChangeEvent.TYPE_RESYNC, event.type());
+		assertEquals(2L, event.version());
+		assertEquals(List.of("A-1"), event.alerts().stream().map(Alert::alertId).toList());
+		assertNull(event.delta());
+	}
+
+	@Test
+	void resyncsWhenTrimmedDeltasLeaveAGap() {
+		for (int i = 1; i <= 5; i++) {
+			ingest("A-" + i, "HIGH");
+		}
+
+		// Only versions 3 to 5 are kept, so a client at version 1 would miss version 2
+		AlertChangeEvent gap = service.streamChanges(1, null).blockFirst(TIMEOUT);
+		assertEquals(AlertChangeEvent.TYPE_RESYNC, gap.type());
+		assertEquals(5L, gap.version());
+		assertEquals(5, gap.alerts().size());
+
+		// A client at version 2 only needs the kept deltas
+		List<AlertChangeEvent> replay = service.streamChanges(2, null).take(3).collectList().block(TIMEOUT);
+		assertEquals(List.of(3L, 4L, 5L), replay.stream().map(AlertChangeEvent::version).toList());
+		assertTrue(replay.stream().allMatch(event -> AlertChangeEvent.TYPE_DELTA.equals(event.type())));
+	}
+
+	@Test
+	void resyncsAClientAheadOfTheServer() {
+		ingest("A-1", "HIGH");
+		ingest("A-2", "HIGH");
+
+		// E.g. a client reconnecting after a server restart that lost its versions
+		AlertChangeEvent event = service.streamChanges(99, null).blockFirst(TIMEOUT);
+		assertEquals(AlertChangeEvent.TYPE_RESYNC, event.type());
+		assertEquals(2L, event.version());
+		assertEquals(2, event.alerts().size());
+	}
+
+	@Test
+	void streamsChangesPublishedAfterSubscribing() throws Exception {
+		ingest("A-1", "HIGH");
+
+		CompletableFuture<List<AlertChangeEvent>> live = service.streamChanges(1, null).take(2).collectList().toFuture();
+		ingest("A-2", "HIGH");
+		ingest("A-3", "HIGH");
+
+		List<AlertChangeEvent> events = live.get(5, TimeUnit.SECONDS);
+		assertEquals(List.of(2L, 3L), events.stream().map(AlertChangeEvent::version).toList());
+		assertEquals("A-3", events.get(1).delta().added().get(0).alertId());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void deliversAChangePublishedDuringTheInitialRead() {
+		ingest("A-1", "HIGH");
+		ingest("A-2", "HIGH");
+		// Publish a new version right as the initial read finds no more deltas
+		AtomicBoolean armed = new AtomicBoolean(true);
+		ReflectionTestUtils.setField(service, "deltaHistory", new ConcurrentSkipListMap<Long, AlertDelta>(
+				(Map<Long, AlertDelta>) ReflectionTestUtils.getField(service, "deltaHistory")) {
+			@Override
+			public AlertDelta get(Object key) {
+				AlertDelta delta = super.get(key);
+				if (delta == null && armed.compareAndSet(true, false)) {
+					ingest("A-3", "HIGH");
+				}
+				return delta;
+			}
+		});
+
+		List<AlertChangeEvent> events = service.streamChanges(1, null).take(2).collectList().block(TIMEOUT);
+		assertEquals(List.of(2L, 3L), events.stream().map(AlertChangeEvent::version).toList());
+	}
+
+	/**
+	 * Occupy the single refresh thread until the returned latch is released
+	 */
+	private CountDownLatch blockRefreshExecutor() throws InterruptedException {
+		ScheduledExecutorService executor = (ScheduledExecutorService) ReflectionTestUtils.getField(service, "refreshExecutor");
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		return release;
+	}
+
+	private AlertShards shards() {
+		return (AlertShards) ReflectionTestUtils.getField(service, "shards");
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, String> cachedReports(String application) {
+		return (Map<String, String>) ReflectionTestUtils.getField(reportCache(application), "reports");
+	}
+
+	private long cachedVersion(String application) {
+		return (Long) ReflectionTestUtils.getField(reportCache(application), "version");
+	}
+
+	private Object reportCache(String application) {
+		Map<?, ?> caches = (Map<?, ?>) ReflectionTestUtils.getField(service, "reportCaches");
+		return ((AtomicReference<?>) caches.get(application)).get();
+	}
+
+	private CompletableFuture<?> inFlightRefresh() {
+		AtomicReference<?> refresh = (AtomicReference<?>) ReflectionTestUtils.getField(service, "inFlightRefresh");
+		return (CompletableFuture<?>) refresh.get();
+	}
+
+	private static void awaitParked(List<Thread> threads) throws InterruptedException {
+		long deadline = System.nanoTime() + TIMEOUT.toNanos();
+		while (!threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING)) {
+			assertTrue(System.nanoTime() < deadline, "readers did not wait for the refresh");
+			Thread.sleep(5);
+		}
+	}
+
+	private void ingest(String id, String severity) {
+		service.applyIngestedAlerts(List.of(alert(id, severity)));
+	}
+
+	private static Alert alert(String id, String severity) {
+		return new Alert(id, "wmpooc", severity, "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				"2025-01-01 00:00:00", 0, "ACTIVE", null, null, Alert.SOURCE_INGEST, null);
+	}
+}
@@ -0,0 +1,98 @@
+package com.talkflow.logmonitor_demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApplicationCpuHistoryServiceTest {
+
+	private final MetricHistoryService metricHistoryService = new MetricHistoryService();
+	private final ApplicationCpuHistoryService service = new ApplicationCpuHistoryService();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(metricHistoryService, "blockSize", 1024);
+		ReflectionTestUtils.setField(metricHistoryService, "maxBlocks", 64);
+		ReflectionTestUtils.setField(metricHistoryService, "retention", Duration.ofDays(30));
+		ReflectionTestUtils.setField(metricHistoryService, "minuteBuckets", 1440);
+		ReflectionTestUtils.setField(metricHistoryService, "hourBuckets", 744);
+		ReflectionTestUtils.setField(metricHistoryService, "dayBuckets", 366);
+		ReflectionTestUtils.setField(metricHistoryService, "persistenceEnabled", false);
+		metricHistoryService.init();
+		// The sampler is not started, so every known application gets simulated history
+		ReflectionTestUtils.setField(service, "metricHistoryService", metricHistoryService);
+		ReflectionTestUtils.setField(service, "hostMetricsService", new HostMetricsService());
+		ReflectionTestUtils.setField(service, "alertMonitorService", new AlertMonitorService());
+	}
+
+	@AfterEach
+	void tearDown() {
+		metricHistoryService.close();
+	}
+
+	@Test
+	void ranksSeveralApplicationsByLoadAndListsUnknownOnes() {
+		String report = service.queryCpuUsageHistoryBatch(
+				Arrays.asList(" order-service", "wmpooc", "order-service", "no-such-app", "", null), 7);
+
+		assertTrue(report.startsWith("📊 3 个应用最近 7 天"), report);
+		// wmpooc is simulated above 90% and order-service between 30% and 70%
+		int wmpooc = report.indexOf(" 1. wmpooc  🚨 严重警告");
+		int orders = report.indexOf(" 2. order-service");
+		assertTrue(wmpooc >= 0 && orders > wmpooc, report);
+		assertEquals(2, countOf(report, "(7/7 天)"));
+		assertTrue(report.contains("⚠️ 无历史数据: no-such-app"), report);
+		// Unknown names neither get a series nor a backfill
+		assertNull(metricHistoryService.find("no-such-app"));
+
+		// A repeated query reuses the history instead of backfilling it again
+		int samples = metricHistoryService.find("wmpooc").size();
+		service.queryCpuUsageHistoryBatch(List.of("wmpooc"), 7);
+		assertTrue(metricHistoryService.find("wmpooc").size() - samples <= 1);
+	}
+
+	@Test
+	void simulatedHistoryDoesNotReachSampleListeners() {
+		List<String> notified = new ArrayList<>();
+		metricHistoryService.addListener((application, timestamp, cpu, memory, disk, latency) -> notified.add(application));
+
+		service.queryCpuUsageHistoryBatch(List.of("wmpooc"), 7);
+		assertTrue(metricHistoryService.find("wmpooc").size() > 0);
+		assertTrue(notified.isEmpty());
+
+		// Real samples are still delivered
+		metricHistoryService.record("wmpooc", System.currentTimeMillis() + 60_000, 95f, 50f, 40f, 10);
+		assertEquals(List.of("wmpooc"), notified);
+	}
+
+	@Test
+	void rejectsInvalidBatches() {
+		assertTrue(service.queryCpuUsageHistoryBatch(null, 7).startsWith("❌"));
+		assertTrue(service.queryCpuUsageHistoryBatch(Arrays.asList(" ", null), 7).startsWith("❌"));
+		assertTrue(service.queryCpuUsageHistoryBatch(List.of("wmpooc"), 0).startsWith("❌"));
+		assertTrue(service.queryCpuUsageHistoryBatch(List.of("wmpooc"), 31).startsWith("❌"));
+		List<String> tooMany = new ArrayList<>();
+		for (int i = 0; i <= 100; i++) {
+			tooMany.add("app-" + i);
+		}
+		assertTrue(service.queryCpuUsageHistoryBatch(tooMany, 7).startsWith("❌"));
+	}
+
+	private static int countOf(String text, String part) {
+		int count = 0;
+		for (int at = text.indexOf(part); at >= 0; at = text.indexOf(part, at + 1)) {
+			count++;
+		}
+		return count;
+	}
+}
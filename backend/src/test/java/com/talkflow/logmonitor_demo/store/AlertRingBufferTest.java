@@ -0,0 +1,86 @@
+package com.talkflow.logmonitor_demo.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertRingBufferTest {
+
+	@Test
+	void rejectsOffersWhenFull() {
+		AlertRingBuffer<Integer> buffer = new AlertRingBuffer<>(3);
+		assertEquals(4, buffer.capacity());
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+
+		assertEquals(0, buffer.poll());
+		assertTrue(buffer.offer(4));
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(4, buffer.drain(drained::add, 10));
+		assertEquals(List.of(1, 2, 3, 4), drained);
+		assertNull(buffer.poll());
+	}
+
+	@Test
+	void offersBatchesWhole() {
+		AlertRingBuffer<Integer> buffer = new AlertRingBuffer<>(8);
+		assertTrue(buffer.offerAll(List.of(0, 1, 2, 3, 4)));
+		assertFalse(buffer.offerAll(List.of(5, 6, 7, 8)));
+		assertEquals(5, buffer.size());
+		assertFalse(buffer.offerAll(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8)));
+
+		List<Integer> drained = new ArrayList<>();
+		buffer.drain(drained::add, 2);
+		// Wraps around the end of the slots
+		assertTrue(buffer.offerAll(List.of(5, 6, 7, 8, 9)));
+		assertFalse(buffer.offer(10));
+		buffer.drain(drained::add, 10);
+		assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), drained);
+	}
+
+	@Test
+	void deliversEveryElementFromConcurrentProducers() throws Exception {
+		int producers = 4;
+		int perProducer = 50_000;
+		AlertRingBuffer<Integer> buffer = new AlertRingBuffer<>(1024);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			int base = p * perProducer;
+			executor.execute(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(base + i)) {
+						Thread.onSpinWait();
+					}
+				}
+				done.countDown();
+			});
+		}
+
+		Set<Integer> received = new HashSet<>();
+		while (received.size() < producers * perProducer) {
+			Integer value = buffer.poll();
+			if (value != null) {
+				assertTrue(received.add(value));
+			}
+		}
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		executor.shutdown();
+		assertNull(buffer.poll());
+	}
+
+}
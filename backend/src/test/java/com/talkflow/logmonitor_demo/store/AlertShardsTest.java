@@ -0,0 +1,151 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertShardsTest {
+
+	@Test
+	void updatesOnlyTheApplicationShard() {
+		AlertShards shards = new AlertShards(4);
+		shards.update("wmpooc", store -> store.withUpserts(List.of(alert("A-1", "wmpooc", "2025-01-01 00:00:01"))));
+		AlertStore orders = shards.snapshot("order-service").store();
+
+		AlertShards.ShardUpdate update = shards.update("order-service",
+				store -> store.withUpserts(List.of(alert("B-1", "order-service", "2025-01-01 00:00:02"))));
+		assertTrue(update.changed());
+		assertEquals(2, update.version());
+		assertSame(AlertStore.empty(), orders);
+		assertEquals(1, shards.snapshot("wmpooc").version());
+		assertEquals(2, shards.snapshot("order-service").version());
+
+		AlertShards.ShardUpdate noop = shards.update("wmpooc", store -> store);
+		assertFalse(noop.changed());
+		assertEquals(2, shards.version());
+	}
+
+	@Test
+	void combinesShardsInStoreOrder() {
+		AlertShards shards = new AlertShards(4);
+		shards.update("wmpooc", store -> store.withUpserts(List.of(
+				alert("A-1", "wmpooc", "2025-01-01 00:00:01"), alert("A-3", "wmpooc", "2025-01-01 00:00:03"))));
+		shards.update("order-service", store -> store.withUpserts(List.of(
+				alert("B-2", "order-service", "2025-01-01 00:00:02"))));
+
+		AlertSnapshot all = shards.snapshot();
+		assertEquals(2, all.version());
+		assertEquals(List.of("A-3", "B-2", "A-1"), all.store().all().stream().map(Alert::alertId).toList());
+		assertSame(all.store(), shards.snapshot().store());
+		assertEquals(List.of("order-service", "wmpooc"), shards.applications());
+	}
+
+	@Test
+	void concurrentWritersToDifferentShardsGetDistinctVersions() throws Exception {
+		AlertShards shards = new AlertShards(8);
+		int writers = 4;
+		int updates = 500;
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int w = 0; w < writers; w++) {
+			String application = "app-" + w;
+			Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (int i = 0; i < updates; i++) {
+					Alert alert = alert(application + "-" + i, application, "2025-01-01 00:00:00");
+					shards.update(application, store -> store.withUpserts(List.of(alert)));
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(writers * updates, shards.version());
+		assertEquals(writers * updates, shards.size());
+		assertEquals(writers * updates, shards.snapshot().store().size());
+	}
+
+	@Test
+	void combinedStoreFollowsShardChangesIncrementally() {
+		AlertShards shards = new AlertShards(4);
+		Random random = new Random(7);
+		List<String> applications = List.of("wmpooc", "order-service", "user-service");
+		for (int round = 0; round < 300; round++) {
+			String application = applications.get(random.nextInt(applications.size()));
+			if (round % 20 == 19) {
+				// Replace the log source, as a mock refresh does
+				List<Alert> replacement = new ArrayList<>();
+				for (int i = 0; i < random.nextInt(30); i++) {
+					replacement.add(randomAlert(random, "R-" + round + "-" + i, application, Alert.SOURCE_LOG));
+				}
+				shards.update(application, store -> store.withSourceReplaced(Alert.SOURCE_LOG, replacement));
+			} else {
+				List<Alert> batch = new ArrayList<>();
+				for (int i = 0; i < 1 + random.nextInt(20); i++) {
+					// Ids repeat across applications, so the combined store holds several alerts per id
+					batch.add(randomAlert(random, "X-" + random.nextInt(400), application,
+							random.nextInt(4) == 0 ? Alert.SOURCE_LOG : Alert.SOURCE_INGEST));
+				}
+				boolean fold = round % 2 == 0;
+				shards.update(application, store -> store.withUpserts(fold ? AlertAggregator.fold(store, batch) : batch));
+			}
+		}
+
+		List<Alert> all = new ArrayList<>();
+		for (String application : applications) {
+			all.addAll(shards.snapshot(application).store().all());
+		}
+		AlertStore rebuilt = AlertStore.of(all);
+		AlertSnapshot combined = shards.snapshot();
+		assertEquals(shards.version(), combined.version());
+		assertEquals(rebuilt.size(), combined.store().size());
+		assertEquals(new HashSet<>(rebuilt.all()), new HashSet<>(combined.store().all()));
+		assertEquals(keys(rebuilt.all()), keys(combined.store().all()));
+		for (String value : List.of("CRITICAL", "HIGH", "LOW", "ACTIVE", "RESOLVED", Alert.SOURCE_INGEST, Alert.SOURCE_LOG)) {
+			assertEquals(keys(rebuilt.bySeverity(value)), keys(combined.store().bySeverity(value)));
+			assertEquals(keys(rebuilt.byStatus(value)), keys(combined.store().byStatus(value)));
+			assertEquals(keys(rebuilt.bySource(value)), keys(combined.store().bySource(value)));
+		}
+		for (String application : applications) {
+			assertEquals(shards.snapshot(application).store().all(), combined.store().byApplication(application));
+		}
+		for (Alert alert : combined.store().all()) {
+			Alert found = combined.store().byId(alert.alertId());
+			assertTrue(found == null || found.alertId().equals(alert.alertId()));
+		}
+	}
+
+	private static Alert randomAlert(Random random, String id, String application, String source) {
+		String timestamp = String.format("2025-01-01 %02d:%02d:%02d", random.nextInt(24), random.nextInt(60), random.nextInt(60));
+		return new Alert(id, application, List.of("CRITICAL", "HIGH", "LOW").get(random.nextInt(3)), "CPU过载",
+				"告警 " + random.nextInt(10), "检测到系统性能指标异常", timestamp, 0,
+				random.nextBoolean() ? "ACTIVE" : "RESOLVED", null, null, source, null);
+	}
+
+	private static List<String> keys(List<Alert> alerts) {
+		return alerts.stream().map(alert -> alert.alertId() + "@" + alert.timestamp()).toList();
+	}
+
+	private static Alert alert(String id, String application, String timestamp) {
+		return new Alert(id, application, "HIGH", "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				timestamp, 0, "ACTIVE", null, null, Alert.SOURCE_INGEST, null);
+	}
+}
@@ -0,0 +1,217 @@
+package com.talkflow.logmonitor_demo.store;
+
+import com.talkflow.logmonitor_demo.model.Alert;
+import com.talkflow.logmonitor_demo.model.AlertMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertStoreTest {
+
+	@Test
+	void indexesAlertsBySeverityApplicationAndStatus() {
+		AlertStore store = AlertStore.of(List.of(
+				alert("A-1", "wmpooc", "CRITICAL", "ACTIVE"),
+				alert("A-2", "order-service", "CRITICAL", "RESOLVED"),
+				alert("A-3", "wmpooc", "LOW", "ACTIVE")));
+
+		assertEquals(3, store.size());
+		assertEquals(List.of("A-1", "A-2"), ids(store.bySeverity("CRITICAL")));
+		assertEquals(List.of("A-1", "A-3"), ids(store.byApplication("wmpooc")));
+		assertEquals(List.of("A-2"), ids(store.byStatus("RESOLVED")));
+		assertTrue(store.bySeverity("HIGH").isEmpty());
+	}
+
+	@Test
+	void pagesThroughAlertsNewestFirstWithCursor() {
+		AlertStore store = AlertStore.of(List.of(
+				alert("A-1", "2025-01-01 00:00:01"),
+				alert("A-2", "2025-01-01 00:00:03"),
+				alert("A-3", "2025-01-01 00:00:02"),
+				alert("A-4", "2025-01-01 00:00:02")));
+
+		AlertPage first = AlertStore.page(store.all(), null, 3);
+		assertEquals(List.of("A-2", "A-3", "A-4"), ids(first.alerts()));
+		assertEquals(4, first.totalCount());
+
+		AlertPage second = AlertStore.page(store.all(), AlertCursor.decode(first.nextCursor()), 3);
+		assertEquals(List.of("A-1"), ids(second.alerts()));
+		assertEquals(3, second.offset());
+		assertNull(second.nextCursor());
+	}
+
+	@Test
+	void selectsTimeRangeByBinarySearch() {
+		AlertStore store = AlertStore.of(List.of(
+				alert("A-1", "2025-01-01 00:00:01"),
+				alert("A-2", "2025-01-01 00:00:03"),
+				alert("A-3", "2025-01-01 00:00:02"),
+				alert("A-4", "2025-01-01 00:00:05")));
+		long since = Alert.parseTimestamp("2025-01-01 00:00:02");
+		long until = Alert.parseTimestamp("2025-01-01 00:00:05");
+
+		assertEquals(List.of("A-2", "A-3"), ids(AlertStore.between(store.all(), since, until)));
+		assertEquals(List.of("A-4", "A-2", "A-3"), ids(AlertStore.between(store.all(), since, null)));
+		assertEquals(List.of("A-3", "A-1"), ids(AlertStore.between(store.all(), null, since + 1)));
+		assertTrue(AlertStore.between(store.all(), until + 1, null).isEmpty());
+		assertEquals(store.all(), AlertStore.between(store.all(), null, null));
+	}
+
+	@Test
+	void foldsDuplicatesIntoOneAggregatePerFingerprint() {
+		Alert first = new Alert("A-1", "wmpooc", "HIGH", "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				"2025-01-01 00:00:01", 0, "ACTIVE", new AlertMetrics(70, 50, 40, 100), null, Alert.SOURCE_INGEST, null);
+		Alert second = new Alert("A-2", "wmpooc", "HIGH", "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				"2025-01-01 00:00:05", 0, "RESOLVED", new AlertMetrics(90, 40, 60, 300), null, Alert.SOURCE_INGEST, null);
+		AlertStore store = AlertStore.of(AlertAggregator.fold(AlertStore.empty(), List.of(first, alert("B-1", "order-service", "HIGH", "ACTIVE"))));
+
+		List<Alert> folded = AlertAggregator.fold(store, List.of(second));
+		assertEquals(1, folded.size());
+		Alert aggregate = folded.get(0);
+		assertEquals("A-1", aggregate.alertId());
+		assertEquals("RESOLVED", aggregate.status());
+		assertEquals(2, aggregate.aggregation().count());
+		assertEquals("2025-01-01 00:00:01", aggregate.aggregation().firstSeen());
+		assertEquals("2025-01-01 00:00:05", aggregate.aggregation().lastSeen());
+		assertEquals(new AlertMetrics(70, 40, 40, 100), aggregate.aggregation().minMetrics());
+		assertEquals(new AlertMetrics(90, 50, 60, 300), aggregate.aggregation().maxMetrics());
+
+		// Re-applying an alert with the aggregate's own id updates it without counting a new occurrence
+		Alert updated = AlertAggregator.fold(store.withUpserts(folded), List.of(first)).get(0);
+		assertEquals(2, updated.aggregation().count());
+		assertEquals("ACTIVE", updated.status());
+	}
+
+	@Test
+	void countsReDeliveredOccurrencesOnce() {
+		List<Alert> occurrences = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			occurrences.add(new Alert("LOG-error-log-" + i, "wmpooc", "HIGH", "日志异常", "应用错误日志", "line " + i,
+					"2025-01-01 00:00:0" + i, 0, "ACTIVE", null, null, Alert.SOURCE_LOG, null));
+		}
+		AlertStore store = AlertStore.of(AlertAggregator.fold(AlertStore.empty(), occurrences.subList(0, 3)));
+		assertEquals(3, store.all().get(0).aggregation().count());
+
+		// A crash before the offsets were saved re-reads lines 1 and 2; the batch retry repeats line 3
+		List<Alert> redelivered = List.of(occurrences.get(1), occurrences.get(2), occurrences.get(3), occurrences.get(3));
+		Alert aggregate = AlertAggregator.fold(store, redelivered).get(0);
+		assertEquals(4, aggregate.aggregation().count());
+		assertEquals("LOG-error-log-0", aggregate.alertId());
+		assertEquals("line 3", aggregate.description());
+		assertEquals(List.of("LOG-error-log-0", "LOG-error-log-1", "LOG-error-log-2", "LOG-error-log-3"),
+				aggregate.aggregation().recentIds());
+
+		// Only the latest ids are remembered
+		List<Alert> many = new ArrayList<>();
+		for (int i = 0; i < AlertAggregator.MAX_RECENT_IDS + 10; i++) {
+			many.add(new Alert("M-" + i, "wmpooc", "LOW", "日志异常", "t", "d", "2025-01-01 00:00:00", 0, "ACTIVE",
+					null, null, Alert.SOURCE_LOG, null));
+		}
+		Alert bounded = AlertAggregator.fold(AlertStore.empty(), many).get(0);
+		assertEquals(AlertAggregator.MAX_RECENT_IDS + 10, bounded.aggregation().count());
+		assertEquals(AlertAggregator.MAX_RECENT_IDS, bounded.aggregation().recentIds().size());
+		assertEquals("M-" + (AlertAggregator.MAX_RECENT_IDS + 9), bounded.aggregation().recentIds().get(AlertAggregator.MAX_RECENT_IDS - 1));
+	}
+
+	@Test
+	void incrementalUpdatesMatchAStoreBuiltFromScratch() {
+		Random random = new Random(42);
+		Map<String, Alert> expected = new LinkedHashMap<>();
+		List<Alert> initial = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			initial.add(randomAlert(random, "I-" + i, i % 10 == 0 ? Alert.SOURCE_LOG : Alert.SOURCE_INGEST));
+		}
+		initial.forEach(alert -> expected.put(alert.alertId(), alert));
+		AlertStore store = AlertStore.of(initial);
+
+		for (int round = 0; round < 200; round++) {
+			if (round % 25 == 24) {
+				// Replace the whole log source, as a mock refresh replaces its own source
+				List<Alert> replacement = new ArrayList<>();
+				for (int i = 0; i < random.nextInt(50); i++) {
+					replacement.add(randomAlert(random, "R-" + round + "-" + i, Alert.SOURCE_LOG));
+				}
+				expected.values().removeIf(alert -> Alert.SOURCE_LOG.equals(alert.source()));
+				replacement.forEach(alert -> expected.put(alert.alertId(), alert));
+				store = store.withSourceReplaced(Alert.SOURCE_LOG, replacement);
+			} else {
+				List<Alert> batch = new ArrayList<>();
+				for (int i = 0; i < 1 + random.nextInt(40); i++) {
+					// Half new ids, half updates of existing ids with a new time, severity or status
+					String id = random.nextBoolean() ? "U-" + round + "-" + i : "I-" + random.nextInt(2000);
+					batch.add(randomAlert(random, id, Alert.SOURCE_INGEST));
+				}
+				if (round % 2 == 0) {
+					batch = AlertAggregator.fold(store, batch);
+				}
+				batch.forEach(alert -> expected.put(alert.alertId(), alert));
+				store = store.withUpserts(batch);
+			}
+		}
+
+		AlertStore rebuilt = AlertStore.of(expected.values());
+		assertEquals(rebuilt.all(), store.all());
+		assertEquals(rebuilt.size(), store.size());
+		for (String value : List.of("CRITICAL", "HIGH", "LOW", "ACTIVE", "RESOLVED", "wmpooc", "order-service",
+				Alert.SOURCE_INGEST, Alert.SOURCE_LOG)) {
+			assertEquals(rebuilt.bySeverity(value), store.bySeverity(value));
+			assertEquals(rebuilt.byStatus(value), store.byStatus(value));
+			assertEquals(rebuilt.byApplication(value), store.byApplication(value));
+			assertEquals(rebuilt.bySource(value), store.bySource(value));
+		}
+		for (Alert alert : rebuilt.all()) {
+			assertEquals(alert, store.byId(alert.alertId()));
+			if (alert.aggregation() != null) {
+				assertEquals(alert, store.byFingerprint(alert.aggregation().fingerprint()));
+			}
+		}
+		assertNull(store.byId("I-missing"));
+		// Every page of the chunked list matches the rebuilt one
+		AlertPage page = AlertStore.page(store.all(), null, 97);
+		AlertPage rebuiltPage = AlertStore.page(rebuilt.all(), null, 97);
+		while (page.nextCursor() != null) {
+			assertEquals(rebuiltPage.alerts(), page.alerts());
+			assertEquals(rebuiltPage.nextCursor(), page.nextCursor());
+			page = AlertStore.page(store.all(), AlertCursor.decode(page.nextCursor()), 97);
+			rebuiltPage = AlertStore.page(rebuilt.all(), AlertCursor.decode(rebuiltPage.nextCursor()), 97);
+		}
+		assertEquals(rebuiltPage.alerts(), page.alerts());
+	}
+
+	@Test
+	void emptyStoreHasNoAlerts() {
+		assertTrue(AlertStore.of(List.of()).isEmpty());
+		assertTrue(AlertStore.empty().bySeverity("CRITICAL").isEmpty());
+	}
+
+	private static Alert alert(String id, String application, String severity, String status) {
+		return new Alert(id, application, severity, "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				"2025-01-01 00:00:00", 0, status, new AlertMetrics(90, 80, 85, 100), null, Alert.SOURCE_INGEST, null);
+	}
+
+	private static Alert alert(String id, String timestamp) {
+		return new Alert(id, "wmpooc", "HIGH", "CPU过载", "系统性能异常告警", "检测到系统性能指标异常",
+				timestamp, 0, "ACTIVE", null, null, Alert.SOURCE_INGEST, null);
+	}
+
+	private static Alert randomAlert(Random random, String id, String source) {
+		String timestamp = String.format("2025-01-01 %02d:%02d:%02d", random.nextInt(24), random.nextInt(60), random.nextInt(60));
+		return new Alert(id, random.nextBoolean() ? "wmpooc" : "order-service",
+				List.of("CRITICAL", "HIGH", "LOW").get(random.nextInt(3)), "CPU过载", "告警 " + random.nextInt(20),
+				"检测到系统性能指标异常", timestamp, 0, random.nextBoolean() ? "ACTIVE" : "RESOLVED",
+				new AlertMetrics(90, 80, 85, 100), null, source, null);
+	}
+
+	private static List<String> ids(List<Alert> alerts) {
+		return alerts.stream().map(Alert::alertId).toList();
+	}
+
+}
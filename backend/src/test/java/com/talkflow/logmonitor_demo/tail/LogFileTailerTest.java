@@ -0,0 +1,117 @@
+package com.talkflow.logmonitor_demo.tail;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogFileTailerTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void followsAppendedLinesAcrossSmallReads() throws Exception {
+		Path log = dir.resolve("app.log");
+		Files.writeString(log, "first\nsec");
+		List<String> lines = new ArrayList<>();
+		try (LogFileTailer tailer = new LogFileTailer(log, 4)) {
+			tailer.poll(collect(lines), Long.MAX_VALUE);
+			assertEquals(List.of("first"), lines);
+			assertEquals(6, tailer.committedPosition());
+
+			Files.writeString(log, "ond\r\nthird\n", StandardOpenOption.APPEND);
+			tailer.poll(collect(lines), Long.MAX_VALUE);
+			assertEquals(List.of("first", "second", "third"), lines);
+		}
+	}
+
+	@Test
+	void restartsAfterTruncationAndRotation() throws Exception {
+		Path log = dir.resolve("app.log");
+		Files.writeString(log, "one\ntwo\n");
+		List<String> lines = new ArrayList<>();
+		try (LogFileTailer tailer = new LogFileTailer(log, 1024)) {
+			tailer.poll(collect(lines), Long.MAX_VALUE);
+
+			Files.writeString(log, "x\n");
+			tailer.poll(collect(lines), Long.MAX_VALUE);
+			assertEquals(List.of("one", "two", "x"), lines);
+			assertEquals(1, tailer.truncations());
+
+			Files.writeString(log, "y\n", StandardOpenOption.APPEND);
+			Files.move(log, dir.resolve("app.log.1"));
+			Files.writeString(log, "new\n");
+			tailer.poll(collect(lines), Long.MAX_VALUE);
+			assertEquals(List.of("one", "two", "x", "y", "new"), lines);
+			assertEquals(1, tailer.rotations());
+		}
+	}
+
+	@Test
+	void drainsRotatedFileOverSeveralPolls() throws Exception {
+		Path log = dir.resolve("app.log");
+		Files.writeString(log, "");
+		List<String> expected = new ArrayList<>();
+		List<String> lines = new ArrayList<>();
+		try (LogFileTailer tailer = new LogFileTailer(log, 64)) {
+			tailer.poll(collect(lines), 100);
+
+			StringBuilder burst = new StringBuilder();
+			for (int i = 0; i < 50; i++) {
+				expected.add("burst line " + i);
+				burst.append("burst line ").append(i).append('\n');
+			}
+			expected.add("unterminated");
+			burst.append("unterminated");
+			Files.writeString(log, burst, StandardOpenOption.APPEND);
+			Files.move(log, dir.resolve("app.log.1"));
+			expected.add("new");
+			Files.writeString(log, "new\n");
+
+			// The burst is several times the per-poll budget
+			int polls = 0;
+			while (lines.size() < expected.size() && polls++ < 100) {
+				tailer.poll(collect(lines), 100);
+			}
+			assertEquals(expected, lines);
+			assertEquals(1, tailer.rotations());
+			assertTrue(polls > 5);
+		}
+	}
+
+	@Test
+	void resumesFromStoredOffset() throws Exception {
+		Path log = dir.resolve("app.log");
+		Files.writeString(log, "old\nnew\n");
+		TailOffsetStore offsets = new TailOffsetStore(dir.resolve("offsets.properties"));
+		try (LogFileTailer tailer = new LogFileTailer(log, 1024)) {
+			tailer.seekToEnd();
+			offsets.put(log, tailer.fileKey(), 4);
+			offsets.save();
+		}
+
+		TailOffsetStore reloaded = new TailOffsetStore(dir.resolve("offsets.properties"));
+		reloaded.load();
+		List<String> lines = new ArrayList<>();
+		try (LogFileTailer tailer = new LogFileTailer(log, 1024)) {
+			TailOffsetStore.Offset offset = reloaded.get(log);
+			tailer.resume(offset.fileKey(), offset.position());
+			tailer.poll(collect(lines), Long.MAX_VALUE);
+		}
+		assertEquals(List.of("new"), lines);
+	}
+
+	private static LogFileTailer.LineSink collect(List<String> lines) {
+		return (bytes, offset, length, position) -> lines.add(new String(bytes, offset, length, StandardCharsets.UTF_8));
+	}
+
+}
@@ -14,6 +14,7 @@ export interface AlertItem {
   title: string
   description: string
   timestamp: string
+  timestampMillis?: number
   status: string
   metrics?: {
     cpuUsage: number
@@ -21,13 +22,65 @@ export interface AlertItem {
     diskUsage: number
     networkLatency: number
   }
+  aggregation?: {
+    fingerprint: string
+    count: number
+    firstSeen: string
+    lastSeen: string
+  }
+}
+
+export interface AlertDelta {
+  version: number
+  added: AlertItem[]
+  updated: AlertItem[]
+  resolved: AlertItem[]
+  removed: string[]
+}
+
+export interface AlertChangeEvent {
+  type: 'delta' | 'resync'
+  version: number
+  alerts?: AlertItem[]
+  delta?: AlertDelta
+}
+
+// Page size of the alert list; the view never holds more than one page
+export const ALERT_PAGE_SIZE = 50
+
+const alertTime = (alert: AlertItem): number => alert.timestampMillis ?? Date.parse(alert.timestamp.replace(' ', 'T'))
+
+// Server store order: newest timestamp first, then alert id
+export const compareAlerts = (a: AlertItem, b: AlertItem): number => {
+  const byTime = alertTime(b) - alertTime(a)
+  if (byTime !== 0) {
+    return byTime
+  }
+  return a.alertId < b.alertId ? -1 : a.alertId > b.alertId ? 1 : 0
+}
+
+// Apply a change event to a local alert page, returning the new page in server order, at most limit alerts
+export const applyAlertChange = (alerts: AlertItem[], event: AlertChangeEvent, limit = ALERT_PAGE_SIZE): AlertItem[] => {
+  if (event.type === 'resync') {
+    return [...(event.alerts || [])].sort(compareAlerts).slice(0, limit)
+  }
+  const delta = event.delta
+  if (!delta) {
+    return alerts
+  }
+  // Changed alerts are re-inserted, since an update can move an alert within the order
+  const changed = [...delta.added, ...delta.updated, ...delta.resolved]
+  const replaced = new Set([...delta.removed, ...changed.map(alert => alert.alertId)])
+  return [...alerts.filter(alert => !replaced.has(alert.alertId)), ...changed]
+    .sort(compareAlerts)
+    .slice(0, limit)
 }
 
 export const alertDataService = {
   // Get detailed alert info for a specific severity as JSON
   async getDetailedAlertInfoAsJson(severity: string): Promise<AlertData> {
     try {
-      const response = await fetch(`${API_BASE_URL}/detailed/json?severity=${encodeURIComponent(severity)}`)
+      const response = await fetch(`${API_BASE_URL}/detailed/json?severity=${encodeURIComponent(severity)}&limit=${ALERT_PAGE_SIZE}`)
       if (!response.ok) {
         throw new Error(`HTTP error! status: ${response.status}`)
       }
@@ -46,7 +99,8 @@ export const alertDataService = {
           severity: data.severity,
           application: data.application,
           queryTime: data.queryTime,
-          cacheTime: data.cacheTime
+          cacheTime: data.cacheTime,
+          cacheVersion: data.cacheVersion
         }
       }
     } catch (error) {
@@ -57,6 +111,26 @@ export const alertDataService = {
 
 
 
+  // Subscribe to pushed alert changes after the given snapshot version; returns an unsubscribe function
+  subscribeToAlertChanges(severity: string, sinceVersion: number, onChange: (event: AlertChangeEvent) => void): () => void {
+    const url = `${API_BASE_URL}/changes?severity=${encodeURIComponent(severity)}&since=${sinceVersion}`
+    const source = new EventSource(url)
+    const handler = (message: MessageEvent) => {
+      try {
+        onChange(JSON.parse(message.data) as AlertChangeEvent)
+      } catch (error) {
+        console.error('Error handling alert change event:', error)
+      }
+    }
+    source.addEventListener('delta', handler as EventListener)
+    source.addEventListener('resync', handler as EventListener)
+    source.onerror = (error) => {
+      // EventSource reconnects on its own and resumes from the Last-Event-ID
+      console.warn('Alert change stream interrupted, reconnecting...', error)
+    }
+    return () => source.close()
+  },
+
   // Refresh alert data
   async refreshAlertData(): Promise<string> {
     try {